@@ -5,6 +5,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.RowDeletingIterator;
 import org.apache.accumulo.core.iterators.user.RowEncodingIterator;
 import org.apache.hadoop.io.Text;
 import org.vertexium.accumulo.iterator.model.EdgeInfo;
@@ -66,6 +67,36 @@ public class ConnectedVertexIdsIterator extends RowEncodingIterator {
         throw new VertexiumAccumuloIteratorException("not implemented");
     }
 
+    /**
+     * Skips rows of vertices which don't exist, are soft deleted or are hidden so that callers can rely on a row being
+     * returned only for vertices which can be seen.
+     */
+    @Override
+    protected boolean filter(Text currentRow, List<Key> keys, List<Value> values) {
+        long signalTimestamp = -1;
+        long softDeleteTimestamp = -1;
+        Text columnFamily = new Text();
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Value value = values.get(i);
+            key.getColumnFamily(columnFamily); // avoid Text allocation by reusing columnFamily
+            if (VertexIterator.CF_SIGNAL.equals(columnFamily)) {
+                signalTimestamp = Math.max(signalTimestamp, key.getTimestamp());
+            } else if (ElementIterator.CF_HIDDEN.equals(columnFamily)) {
+                return false;
+            } else if (ElementIterator.CF_SOFT_DELETE.equals(columnFamily)
+                    && ElementIterator.CQ_SOFT_DELETE.equals(key.getColumnQualifier())
+                    && ElementIterator.SOFT_DELETE_VALUE.equals(value)) {
+                softDeleteTimestamp = Math.max(softDeleteTimestamp, key.getTimestamp());
+            } else if (ElementIterator.DELETE_ROW_COLUMN_FAMILY.equals(columnFamily)
+                    && ElementIterator.DELETE_ROW_COLUMN_QUALIFIER.equals(key.getColumnQualifier())
+                    && RowDeletingIterator.DELETE_ROW_VALUE.equals(value)) {
+                return false;
+            }
+        }
+        return signalTimestamp >= 0 && softDeleteTimestamp < signalTimestamp;
+    }
+
     @Override
     public Value rowEncoder(List<Key> keys, List<Value> values) throws IOException {
         Map<Text, String> inVertexIds = new HashMap<>();
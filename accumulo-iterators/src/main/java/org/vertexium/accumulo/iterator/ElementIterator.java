@@ -185,19 +185,18 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
     private void extractPropertyMetadata(Text columnQualifier, Text columnVisibility, long timestamp, Value value) {
         PropertyMetadataColumnQualifier propertyMetadataColumnQualifier = new PropertyMetadataColumnQualifier(columnQualifier);
         if (shouldIncludeMetadata(propertyMetadataColumnQualifier)) {
-            String discriminator = propertyMetadataColumnQualifier.getPropertyDiscriminator(timestamp);
-            List<Integer> propertyMetadata = elementData.propertyMetadata.computeIfAbsent(discriminator, k -> new ArrayList<>());
+            PropertyData property = elementData.getOrAddProperty(
+                    propertyMetadataColumnQualifier.getPropertyName(),
+                    propertyMetadataColumnQualifier.getPropertyKey(),
+                    propertyMetadataColumnQualifier.getPropertyVisibilityString(),
+                    timestamp
+            );
             IteratorMetadataEntry pme = new IteratorMetadataEntry(
                     propertyMetadataColumnQualifier.getMetadataKey(),
                     columnVisibility.toString(),
                     value.get()
             );
-            int pos = elementData.metadataEntries.indexOf(pme);
-            if (pos < 0) {
-                pos = elementData.metadataEntries.size();
-                elementData.metadataEntries.add(pme);
-            }
-            propertyMetadata.add(pos);
+            property.addMetadata(elementData.addMetadataEntry(pme));
         }
     }
 
@@ -217,13 +216,16 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
 
     private void extractPropertyData(Key key, Value value) {
         PropertyColumnQualifier propertyColumnQualifier = new PropertyColumnQualifier(key.getColumnQualifier());
-        String mapKey = propertyColumnQualifier.getDiscriminator(key.getColumnVisibility().toString(), key.getTimestamp());
-        long timestamp = key.getTimestamp();
         if (shouldIncludeProperty(propertyColumnQualifier.getPropertyName())) {
-            this.elementData.propertyColumnQualifiers.put(mapKey, propertyColumnQualifier);
-            this.elementData.propertyValues.put(mapKey, value.get());
-            this.elementData.propertyVisibilities.put(mapKey, key.getColumnVisibility());
-            this.elementData.propertyTimestamps.put(mapKey, timestamp);
+            Text visibility = key.getColumnVisibility();
+            PropertyData property = this.elementData.getOrAddProperty(
+                    propertyColumnQualifier.getPropertyName(),
+                    propertyColumnQualifier.getPropertyKey(),
+                    visibility.toString(),
+                    key.getTimestamp()
+            );
+            property.visibility = visibility;
+            property.value = value.get();
         }
     }
 
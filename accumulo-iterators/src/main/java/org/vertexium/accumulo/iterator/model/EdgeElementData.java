@@ -2,8 +2,8 @@ package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.accumulo.iterator.util.ElementDataOutputStream;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 public class EdgeElementData extends ElementData {
@@ -20,7 +20,7 @@ public class EdgeElementData extends ElementData {
     }
 
     @Override
-    protected void encode(DataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
+    protected void encode(ElementDataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
         super.encode(out, fetchHints);
         DataOutputStreamUtils.encodeText(out, inVertexId);
         DataOutputStreamUtils.encodeText(out, outVertexId);
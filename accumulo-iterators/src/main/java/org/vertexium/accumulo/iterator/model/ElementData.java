@@ -3,14 +3,22 @@ package org.vertexium.accumulo.iterator.model;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.accumulo.iterator.util.ElementDataOutputStream;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
 
+/**
+ * Encodes an element for the client. After the header an offset table holds the positions of the properties, the
+ * extended data table names and the element type specific data so that the client can decode each part only when it
+ * is needed.
+ */
 public abstract class ElementData {
-    public static final byte[] HEADER = new byte[]{'V', 'E', 'R', 'T', '1'};
+    public static final byte[] HEADER = new byte[]{'V', 'E', 'R', 'T', '2'};
+    public static final int OFFSET_PROPERTIES = 0;
+    public static final int OFFSET_EXTENDED_TABLE_NAMES = 1;
+    public static final int OFFSET_TYPE_DATA = 2;
+    public static final int OFFSET_TABLE_LENGTH = 3;
     public static final byte TYPE_ID_VERTEX = 1;
     public static final byte TYPE_ID_EDGE = 2;
     public static final int PROP_START = 1;
@@ -25,12 +33,14 @@ public abstract class ElementData {
     public final List<SoftDeletedProperty> softDeletedProperties = new ArrayList<>();
     public final List<HiddenProperty> hiddenProperties = new ArrayList<>();
     public final List<IteratorMetadataEntry> metadataEntries = new ArrayList<>();
-    public final Map<String, List<Integer>> propertyMetadata = new HashMap<>();
-    public final Map<String, PropertyColumnQualifier> propertyColumnQualifiers = new HashMap<>();
-    public final Map<String, byte[]> propertyValues = new HashMap<>();
-    public final Map<String, Text> propertyVisibilities = new HashMap<>();
-    public final Map<String, Long> propertyTimestamps = new HashMap<>();
+    private final Map<IteratorMetadataEntry, Integer> metadataEntryIndexes = new HashMap<>();
     public final Set<String> extendedTableNames = new HashSet<>();
+    // the first propertyCount items are in use, the rest are kept to be reused by later rows
+    private final List<PropertyData> properties = new ArrayList<>();
+    private int propertyCount;
+    private final Map<PropertyData, PropertyData> propertiesByDiscriminator = new HashMap<>();
+    private final PropertyData propertyLookup = new PropertyData();
+    private final ElementDataOutputStream encodeBuffer = new ElementDataOutputStream();
 
     public void clear() {
         id = null;
@@ -41,118 +51,140 @@ public abstract class ElementData {
         softDeletedProperties.clear();
         hiddenProperties.clear();
         metadataEntries.clear();
-        propertyMetadata.clear();
-        propertyColumnQualifiers.clear();
-        propertyValues.clear();
-        propertyVisibilities.clear();
-        propertyTimestamps.clear();
+        metadataEntryIndexes.clear();
         extendedTableNames.clear();
+        propertiesByDiscriminator.clear();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.get(i).clear();
+        }
+        propertyCount = 0;
+    }
+
+    /**
+     * Gets the property with the given name, key, visibility and timestamp, adding it if it has not been seen yet.
+     * Properties which only have metadata have a null value and are not encoded.
+     */
+    public PropertyData getOrAddProperty(String propertyName, String propertyKey, String propertyVisibility, long propertyTimestamp) {
+        propertyLookup.set(propertyName, propertyKey, propertyVisibility, propertyTimestamp);
+        PropertyData property = propertiesByDiscriminator.get(propertyLookup);
+        if (property != null) {
+            return property;
+        }
+        if (propertyCount == properties.size()) {
+            properties.add(new PropertyData());
+        }
+        property = properties.get(propertyCount++);
+        property.set(propertyName, propertyKey, propertyVisibility, propertyTimestamp);
+        propertiesByDiscriminator.put(property, property);
+        return property;
+    }
+
+    /**
+     * Adds the metadata entry to the lookup shared by all properties unless an equal entry was already added.
+     *
+     * @return the index of the entry in {@link #metadataEntries}.
+     */
+    public int addMetadataEntry(IteratorMetadataEntry metadataEntry) {
+        Integer index = metadataEntryIndexes.get(metadataEntry);
+        if (index == null) {
+            index = metadataEntries.size();
+            metadataEntries.add(metadataEntry);
+            metadataEntryIndexes.put(metadataEntry, index);
+        }
+        return index;
     }
 
     public final Value encode(IteratorFetchHints fetchHints) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        DataOutputStream dout = new DataOutputStream(out);
-        encode(dout, fetchHints);
-        return new Value(out.toByteArray());
+        encodeBuffer.reset();
+        encode(encodeBuffer, fetchHints);
+        return new Value(encodeBuffer.toByteArray());
     }
 
-    protected void encode(DataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
+    /**
+     * Subclasses append their type specific data after calling this method.
+     */
+    protected void encode(ElementDataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
         encodeHeader(out);
+        int offsetTablePosition = out.size();
+        for (int i = 0; i < OFFSET_TABLE_LENGTH; i++) {
+            out.writeIntPlaceholder();
+        }
         DataOutputStreamUtils.encodeText(out, id);
         out.writeLong(timestamp);
         DataOutputStreamUtils.encodeText(out, visibility);
         DataOutputStreamUtils.encodeTextList(out, hiddenVisibilities);
         encodePropertyMetadataLookup(out);
+        out.writeIntAt(offsetTablePosition + OFFSET_PROPERTIES * 4, out.size());
         encodeProperties(out, fetchHints);
+        out.writeIntAt(offsetTablePosition + OFFSET_EXTENDED_TABLE_NAMES * 4, out.size());
         DataOutputStreamUtils.encodeStringSet(out, extendedTableNames);
+        out.writeIntAt(offsetTablePosition + OFFSET_TYPE_DATA * 4, out.size());
     }
 
-    private void encodeHeader(DataOutputStream out) throws IOException {
+    private void encodeHeader(ElementDataOutputStream out) throws IOException {
         out.write(HEADER);
         out.write(getTypeId());
     }
 
     protected abstract byte getTypeId();
 
-    private void encodePropertyMetadataLookup(DataOutputStream out) throws IOException {
+    private void encodePropertyMetadataLookup(ElementDataOutputStream out) throws IOException {
         out.write(METADATA_START);
         DataOutputStreamUtils.encodePropertyMetadataEntry(out, metadataEntries);
         out.write(METADATA_END);
     }
 
-    private void encodeProperties(final DataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
-        iterateProperties((
-                propertyKey,
-                propertyName,
-                propertyValue,
-                propertyVisibility,
-                propertyTimestamp,
-                propertyHiddenVisibilities,
-                metadata
-        ) -> {
+    private void encodeProperties(final ElementDataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
+        iterateProperties((property, propertyHiddenVisibilities) -> {
             out.write(PROP_START);
-            DataOutputStreamUtils.encodeString(out, propertyKey);
-            DataOutputStreamUtils.encodeString(out, propertyName);
-            DataOutputStreamUtils.encodeText(out, propertyVisibility);
-            out.writeLong(propertyTimestamp);
-            out.writeInt(propertyValue.length);
-            out.write(propertyValue);
+            DataOutputStreamUtils.encodeString(out, property.getKey());
+            DataOutputStreamUtils.encodeString(out, property.getName());
+            DataOutputStreamUtils.encodeText(out, property.visibility);
+            out.writeLong(property.getTimestamp());
+            out.writeInt(property.value.length);
+            out.write(property.value);
             DataOutputStreamUtils.encodeTextList(out, propertyHiddenVisibilities);
-            DataOutputStreamUtils.encodeIntArray(out, metadata);
+            if (property.getMetadataCount() == 0) {
+                out.writeInt(-1);
+            } else {
+                DataOutputStreamUtils.encodeIntArray(out, property.getMetadata(), property.getMetadataCount());
+            }
         }, fetchHints);
         out.write(PROP_END);
     }
 
     private void iterateProperties(PropertyDataHandler propertyDataHandler, IteratorFetchHints fetchHints) throws IOException {
         boolean includeHidden = fetchHints.isIncludeHidden();
-        for (Map.Entry<String, byte[]> propertyValueEntry : propertyValues.entrySet()) {
-            String key = propertyValueEntry.getKey();
-            PropertyColumnQualifier propertyColumnQualifier = propertyColumnQualifiers.get(key);
-            String propertyKey = propertyColumnQualifier.getPropertyKey();
-            String propertyName = propertyColumnQualifier.getPropertyName();
-            byte[] propertyValue = propertyValueEntry.getValue();
-            Text propertyVisibility = propertyVisibilities.get(key);
-            String propertyVisibilityString = propertyVisibility.toString();
-            long propertyTimestamp = propertyTimestamps.get(key);
+        for (int i = 0; i < propertyCount; i++) {
+            PropertyData property = properties.get(i);
+            if (property.value == null) {
+                continue;
+            }
+            String propertyKey = property.getKey();
+            String propertyName = property.getName();
+            String propertyVisibilityString = property.getVisibilityString();
             Set<Text> propertyHiddenVisibilities = getPropertyHiddenVisibilities(propertyKey, propertyName, propertyVisibilityString);
-            if (!includeHidden && isHidden(propertyKey, propertyName, propertyVisibilityString)) {
+            if (!includeHidden && propertyHiddenVisibilities != null) {
                 continue;
             }
-            if (isPropertyDeleted(propertyKey, propertyName, propertyTimestamp, propertyVisibility)) {
+            if (isPropertyDeleted(propertyKey, propertyName, property.getTimestamp(), property.visibility)) {
                 continue;
             }
-            List<Integer> metadata = propertyMetadata.get(key);
-            propertyDataHandler.handle(
-                    propertyKey,
-                    propertyName,
-                    propertyValue,
-                    propertyVisibility,
-                    propertyTimestamp,
-                    propertyHiddenVisibilities,
-                    metadata
-            );
+            propertyDataHandler.handle(property, propertyHiddenVisibilities);
         }
     }
 
     public Iterable<Property> getProperties(IteratorFetchHints fetchHints) {
         final List<Property> results = new ArrayList<>();
         try {
-            iterateProperties((
-                    propertyKey,
-                    propertyName,
-                    propertyValue,
-                    propertyVisibility,
-                    propertyTimestamp,
-                    propertyHiddenVisibilities,
-                    metadata
-            ) -> results.add(new Property(
-                    propertyKey,
-                    propertyName,
-                    propertyValue,
-                    propertyVisibility.toString(),
-                    propertyTimestamp,
+            iterateProperties((property, propertyHiddenVisibilities) -> results.add(new Property(
+                    property.getKey(),
+                    property.getName(),
+                    property.value,
+                    property.getVisibilityString(),
+                    property.getTimestamp(),
                     propertyHiddenVisibilities,
-                    metadata
+                    property.getMetadataList()
             )), fetchHints);
         } catch (IOException ex) {
             throw new VertexiumAccumuloIteratorException("Could not get properties", ex);
@@ -161,15 +193,7 @@ public abstract class ElementData {
     }
 
     private interface PropertyDataHandler {
-        void handle(
-                String propertyKey,
-                String propertyName,
-                byte[] propertyValue,
-                Text propertyVisibility,
-                long propertyTimestamp,
-                Set<Text> propertyHiddenVisibilities,
-                List<Integer> metadata
-        ) throws IOException;
+        void handle(PropertyData property, Set<Text> propertyHiddenVisibilities) throws IOException;
     }
 
     private Set<Text> getPropertyHiddenVisibilities(String propertyKey, String propertyName, String propertyVisibility) {
@@ -185,15 +209,6 @@ public abstract class ElementData {
         return hiddenVisibilities;
     }
 
-    private boolean isHidden(String propertyKey, String propertyName, String propertyVisibility) {
-        for (HiddenProperty hiddenProperty : hiddenProperties) {
-            if (hiddenProperty.matches(propertyKey, propertyName, propertyVisibility)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private boolean isPropertyDeleted(String propertyKey, String propertyName, long propertyTimestamp, Text propertyVisibility) {
         for (SoftDeletedProperty softDeletedProperty : softDeletedProperties) {
             if (softDeletedProperty.matches(propertyKey, propertyName, propertyVisibility)) {
@@ -0,0 +1,129 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.hadoop.io.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One version of a property of the element being read by an iterator, identified by its name, key, visibility and
+ * timestamp. Instances are reused by {@link ElementData} from row to row so they must not be held on to after the
+ * element data is cleared.
+ */
+public class PropertyData {
+    private static final int[] EMPTY_METADATA = new int[0];
+    private String name;
+    private String key;
+    private String visibilityString;
+    private long timestamp;
+    private int hashCode;
+    private int[] metadata = EMPTY_METADATA;
+    private int metadataCount;
+    public Text visibility;
+    public byte[] value;
+
+    void set(String name, String key, String visibilityString, long timestamp) {
+        this.name = name;
+        this.key = key;
+        this.visibilityString = visibilityString;
+        this.timestamp = timestamp;
+        this.hashCode = computeHashCode();
+        this.metadataCount = 0;
+        this.visibility = null;
+        this.value = null;
+    }
+
+    void clear() {
+        this.visibility = null;
+        this.value = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getVisibilityString() {
+        return visibilityString;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Adds the index of a metadata entry in {@link ElementData#metadataEntries}.
+     */
+    public void addMetadata(int metadataEntryIndex) {
+        if (metadataCount == metadata.length) {
+            int[] newMetadata = new int[Math.max(4, metadata.length * 2)];
+            System.arraycopy(metadata, 0, newMetadata, 0, metadataCount);
+            metadata = newMetadata;
+        }
+        metadata[metadataCount++] = metadataEntryIndex;
+    }
+
+    public int getMetadataCount() {
+        return metadataCount;
+    }
+
+    /**
+     * The metadata indexes, only the first {@link #getMetadataCount()} items are valid.
+     */
+    public int[] getMetadata() {
+        return metadata;
+    }
+
+    public List<Integer> getMetadataList() {
+        if (metadataCount == 0) {
+            return null;
+        }
+        List<Integer> results = new ArrayList<>(metadataCount);
+        for (int i = 0; i < metadataCount; i++) {
+            results.add(metadata[i]);
+        }
+        return results;
+    }
+
+    private int computeHashCode() {
+        int result = name.hashCode();
+        result = 31 * result + key.hashCode();
+        result = 31 * result + visibilityString.hashCode();
+        result = 31 * result + Long.hashCode(timestamp);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PropertyData that = (PropertyData) o;
+        return hashCode == that.hashCode
+                && timestamp == that.timestamp
+                && name.equals(that.name)
+                && key.equals(that.key)
+                && visibilityString.equals(that.visibilityString);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyData{" +
+                "name='" + name + '\'' +
+                ", key='" + key + '\'' +
+                ", visibility='" + visibilityString + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
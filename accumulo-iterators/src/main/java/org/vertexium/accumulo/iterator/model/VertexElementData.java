@@ -2,8 +2,8 @@ package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.accumulo.iterator.util.ElementDataOutputStream;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -28,12 +28,15 @@ public class VertexElementData extends ElementData {
     }
 
     @Override
-    protected void encode(DataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
+    protected void encode(ElementDataOutputStream out, IteratorFetchHints fetchHints) throws IOException {
         super.encode(out, fetchHints);
+        // offset of the in edges so the client can decode either direction without reading the other
+        int inEdgesOffsetPosition = out.writeIntPlaceholder();
         DataOutputStreamUtils.encodeEdges(
                 out,
                 outEdges,
                 fetchHints.isIncludeEdgeLabelsAndCounts() && !(fetchHints.isIncludeAllEdgeRefs() || fetchHints.isIncludeOutEdgeRefs()));
+        out.writeIntAt(inEdgesOffsetPosition, out.size());
         DataOutputStreamUtils.encodeEdges(
                 out,
                 inEdges,
@@ -66,6 +66,13 @@ public class DataOutputStreamUtils {
         }
     }
 
+    public static void encodeIntArray(DataOutputStream out, int[] integers, int length) throws IOException {
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeInt(integers[i]);
+        }
+    }
+
     public static void encodeString(DataOutputStream out, String text) throws IOException {
         if (text == null) {
             out.writeInt(-1);
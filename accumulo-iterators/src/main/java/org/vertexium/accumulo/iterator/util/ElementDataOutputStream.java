@@ -0,0 +1,71 @@
+package org.vertexium.accumulo.iterator.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * {@link DataOutputStream} over an in memory buffer which allows ints written earlier to be overwritten, used to
+ * fill in offsets once the position of the data they point to is known. The stream can be {@link #reset()} and reused
+ * so that the buffer does not have to grow again for every row.
+ */
+public class ElementDataOutputStream extends DataOutputStream {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    public ElementDataOutputStream() {
+        super(new Buffer());
+    }
+
+    /**
+     * Writes a placeholder int to be filled in later by {@link #writeIntAt(int, int)}.
+     *
+     * @return the position of the placeholder.
+     */
+    public int writeIntPlaceholder() throws IOException {
+        int position = size();
+        writeInt(0);
+        return position;
+    }
+
+    public void writeIntAt(int position, int value) {
+        ((Buffer) out).setInt(position, value);
+    }
+
+    public byte[] toByteArray() {
+        return ((Buffer) out).toByteArray();
+    }
+
+    /**
+     * Discards everything written so far. The buffer is kept for the next use unless an unusually large element made
+     * it grow past {@link #MAX_RETAINED_BUFFER_SIZE}.
+     */
+    public void reset() {
+        ((Buffer) out).reset();
+        written = 0;
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        @Override
+        public synchronized void reset() {
+            super.reset();
+            if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+                buf = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+
+        void setInt(int position, int value) {
+            if (position < 0 || position + 4 > count) {
+                throw new IndexOutOfBoundsException("Invalid position " + position + " (size: " + count + ")");
+            }
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.vertexium.accumulo.iterator.model.IteratorFetchHints;
+import org.vertexium.accumulo.iterator.model.KeyBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time taken by the iterators to turn the columns of a vertex row into the value sent to the client
+ * with the reusable property records against {@link LegacyElementDataEncoder}. Both write the same VERT2 format, so
+ * the difference is only the cost of collecting and encoding the properties.
+ * <p>
+ * Run with <code>mvn test-compile</code> followed by running {@link #main(String[])} with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementDataEncodeBenchmark {
+    private static final long TIMESTAMP = 1500000000000L;
+
+    @Param({"10", "100", "1000"})
+    public int propertyCount;
+
+    @Param({"0", "2"})
+    public int metadataPerProperty;
+
+    private final List<Key> keys = new ArrayList<>();
+    private final List<Value> values = new ArrayList<>();
+    private VertexIterator vertexIterator;
+    private LegacyElementDataEncoder legacyElementDataEncoder;
+
+    @Setup
+    public void setup() {
+        Text row = new Text("v1");
+        Text visibility = new Text("a");
+        for (int i = 0; i < propertyCount; i++) {
+            String propertyName = "prop" + (i % 10);
+            String propertyKey = "k" + i;
+            Text propertyColumnQualifier = new Text(propertyName + KeyBase.VALUE_SEPARATOR + propertyKey);
+            keys.add(new Key(row, ElementIterator.CF_PROPERTY, propertyColumnQualifier, visibility, TIMESTAMP));
+            values.add(new Value(("value" + i).getBytes()));
+        }
+        for (int i = 0; i < propertyCount; i++) {
+            String propertyName = "prop" + (i % 10);
+            String propertyKey = "k" + i;
+            for (int m = 0; m < metadataPerProperty; m++) {
+                Text metadataColumnQualifier = new Text(propertyName + KeyBase.VALUE_SEPARATOR + propertyKey
+                        + KeyBase.VALUE_SEPARATOR + visibility + KeyBase.VALUE_SEPARATOR + "meta" + m);
+                keys.add(new Key(row, ElementIterator.CF_PROPERTY_METADATA, metadataColumnQualifier, visibility, TIMESTAMP));
+                values.add(new Value(("metaValue" + m).getBytes()));
+            }
+        }
+        keys.add(new Key(row, VertexIterator.CF_SIGNAL, new Text(), visibility, TIMESTAMP));
+        values.add(new Value(new byte[0]));
+
+        IteratorFetchHints fetchHints = new IteratorFetchHints(
+                true,
+                null,
+                true,
+                null,
+                false,
+                false,
+                false,
+                false,
+                null,
+                false,
+                false
+        );
+        vertexIterator = new VertexIterator(fetchHints);
+        legacyElementDataEncoder = new LegacyElementDataEncoder();
+    }
+
+    @Benchmark
+    public Value encode() throws IOException {
+        if (!vertexIterator.populateElementData(keys, values)) {
+            throw new IllegalStateException("row was filtered");
+        }
+        return vertexIterator.rowEncoder(keys, values);
+    }
+
+    @Benchmark
+    public Value encodeLegacy() throws IOException {
+        return legacyElementDataEncoder.encode(keys, values);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ElementDataEncodeBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
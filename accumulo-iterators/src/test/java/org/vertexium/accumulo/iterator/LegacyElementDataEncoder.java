@@ -0,0 +1,128 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.model.*;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.accumulo.iterator.util.ElementDataOutputStream;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The vertex encoder used before properties were kept in reusable records: one map per property field keyed by a
+ * concatenated discriminator string and a new output stream for every row. It writes the same VERT2 format as
+ * {@link ElementData} so that {@link ElementDataEncodeBenchmark} compares two encodings of the same bytes. Only
+ * kept to compare against in the benchmark; rows with hidden or soft deleted parts and edges are not supported.
+ */
+public class LegacyElementDataEncoder {
+    private static final EdgesWithEdgeInfo NO_EDGES = new EdgesWithEdgeInfo();
+    private Text id;
+    private long timestamp;
+    private Text visibility;
+    private final List<IteratorMetadataEntry> metadataEntries = new ArrayList<>();
+    private final Map<String, List<Integer>> propertyMetadata = new HashMap<>();
+    private final Map<String, PropertyColumnQualifier> propertyColumnQualifiers = new HashMap<>();
+    private final Map<String, byte[]> propertyValues = new HashMap<>();
+    private final Map<String, Text> propertyVisibilities = new HashMap<>();
+    private final Map<String, Long> propertyTimestamps = new HashMap<>();
+
+    public Value encode(List<Key> keys, List<Value> values) throws IOException {
+        clear();
+        Text columnFamily = new Text();
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Value value = values.get(i);
+            key.getColumnFamily(columnFamily);
+            if (id == null) {
+                id = key.getRow();
+            }
+            if (ElementIterator.CF_PROPERTY_METADATA.equals(columnFamily)) {
+                extractPropertyMetadata(key.getColumnQualifier(), key.getColumnVisibility(), key.getTimestamp(), value);
+            } else if (ElementIterator.CF_PROPERTY.equals(columnFamily)) {
+                extractPropertyData(key, value);
+            } else if (VertexIterator.CF_SIGNAL.equals(columnFamily) && key.getTimestamp() > timestamp) {
+                visibility = key.getColumnVisibility();
+                timestamp = key.getTimestamp();
+            }
+        }
+
+        ElementDataOutputStream out = new ElementDataOutputStream();
+        out.write(ElementData.HEADER);
+        out.write(ElementData.TYPE_ID_VERTEX);
+        int offsetTablePosition = out.size();
+        for (int i = 0; i < ElementData.OFFSET_TABLE_LENGTH; i++) {
+            out.writeIntPlaceholder();
+        }
+        DataOutputStreamUtils.encodeText(out, id);
+        out.writeLong(timestamp);
+        DataOutputStreamUtils.encodeText(out, visibility);
+        DataOutputStreamUtils.encodeTextList(out, Collections.emptyList());
+        out.write(ElementData.METADATA_START);
+        DataOutputStreamUtils.encodePropertyMetadataEntry(out, metadataEntries);
+        out.write(ElementData.METADATA_END);
+        out.writeIntAt(offsetTablePosition + ElementData.OFFSET_PROPERTIES * 4, out.size());
+        for (Map.Entry<String, byte[]> propertyValueEntry : propertyValues.entrySet()) {
+            String key = propertyValueEntry.getKey();
+            PropertyColumnQualifier propertyColumnQualifier = propertyColumnQualifiers.get(key);
+            byte[] propertyValue = propertyValueEntry.getValue();
+            out.write(ElementData.PROP_START);
+            DataOutputStreamUtils.encodeString(out, propertyColumnQualifier.getPropertyKey());
+            DataOutputStreamUtils.encodeString(out, propertyColumnQualifier.getPropertyName());
+            DataOutputStreamUtils.encodeText(out, propertyVisibilities.get(key));
+            out.writeLong(propertyTimestamps.get(key));
+            out.writeInt(propertyValue.length);
+            out.write(propertyValue);
+            DataOutputStreamUtils.encodeTextList(out, null);
+            DataOutputStreamUtils.encodeIntArray(out, propertyMetadata.get(key));
+        }
+        out.write(ElementData.PROP_END);
+        out.writeIntAt(offsetTablePosition + ElementData.OFFSET_EXTENDED_TABLE_NAMES * 4, out.size());
+        DataOutputStreamUtils.encodeStringSet(out, Collections.emptySet());
+        out.writeIntAt(offsetTablePosition + ElementData.OFFSET_TYPE_DATA * 4, out.size());
+        int inEdgesOffsetPosition = out.writeIntPlaceholder();
+        DataOutputStreamUtils.encodeEdges(out, NO_EDGES, false);
+        out.writeIntAt(inEdgesOffsetPosition, out.size());
+        DataOutputStreamUtils.encodeEdges(out, NO_EDGES, false);
+        return new Value(out.toByteArray());
+    }
+
+    private void clear() {
+        id = null;
+        timestamp = 0;
+        visibility = null;
+        metadataEntries.clear();
+        propertyMetadata.clear();
+        propertyColumnQualifiers.clear();
+        propertyValues.clear();
+        propertyVisibilities.clear();
+        propertyTimestamps.clear();
+    }
+
+    private void extractPropertyMetadata(Text columnQualifier, Text columnVisibility, long timestamp, Value value) {
+        PropertyMetadataColumnQualifier propertyMetadataColumnQualifier = new PropertyMetadataColumnQualifier(columnQualifier);
+        String discriminator = propertyMetadataColumnQualifier.getPropertyDiscriminator(timestamp);
+        List<Integer> metadata = propertyMetadata.computeIfAbsent(discriminator, k -> new ArrayList<>());
+        IteratorMetadataEntry pme = new IteratorMetadataEntry(
+                propertyMetadataColumnQualifier.getMetadataKey(),
+                columnVisibility.toString(),
+                value.get()
+        );
+        int pos = metadataEntries.indexOf(pme);
+        if (pos < 0) {
+            pos = metadataEntries.size();
+            metadataEntries.add(pme);
+        }
+        metadata.add(pos);
+    }
+
+    private void extractPropertyData(Key key, Value value) {
+        PropertyColumnQualifier propertyColumnQualifier = new PropertyColumnQualifier(key.getColumnQualifier());
+        String mapKey = propertyColumnQualifier.getDiscriminator(key.getColumnVisibility().toString(), key.getTimestamp());
+        propertyColumnQualifiers.put(mapKey, propertyColumnQualifier);
+        propertyValues.put(mapKey, value.get());
+        propertyVisibilities.put(mapKey, key.getColumnVisibility());
+        propertyTimestamps.put(mapKey, key.getTimestamp());
+    }
+}
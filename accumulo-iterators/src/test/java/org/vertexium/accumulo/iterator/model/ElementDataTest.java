@@ -0,0 +1,101 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.ElementIterator;
+import org.vertexium.accumulo.iterator.VertexIterator;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ElementDataTest {
+    private static final Text ROW = new Text("v1");
+
+    @Test
+    public void testPropertiesAndMetadataFromRows() {
+        List<Map.Entry<Key, Value>> rows = new ArrayList<>();
+        addProperty(rows, "prop1", "k1", "a", 10L, "value1");
+        addProperty(rows, "prop1", "k1", "b", 10L, "value1b");
+        addProperty(rows, "prop2", "k1", "a", 20L, "value2");
+        addMetadata(rows, "prop1", "k1", "a", 10L, "meta1", "metaValue");
+        addMetadata(rows, "prop1", "k1", "b", 10L, "meta1", "metaValue");
+        addMetadata(rows, "prop2", "k1", "a", 20L, "meta2", "metaValue2");
+        addMetadata(rows, "propMissing", "k1", "a", 10L, "meta1", "metaValue");
+        rows.add(new AbstractMap.SimpleEntry<>(new Key(ROW, VertexIterator.CF_SIGNAL, new Text(), new Text("a"), 5L), new Value(new byte[0])));
+
+        for (int i = 0; i < 2; i++) {
+            VertexIterator vertexIterator = new VertexIterator(createFetchHints());
+            VertexElementData elementData = vertexIterator.createElementDataFromRows(rows.iterator());
+            assertNotNull(elementData);
+            assertEquals(2, elementData.metadataEntries.size());
+
+            Map<String, Property> properties = new HashMap<>();
+            for (Property property : elementData.getProperties(vertexIterator.getFetchHints())) {
+                properties.put(property.name + ":" + property.visibility, property);
+            }
+            assertEquals(3, properties.size());
+            assertEquals("value1", new String(properties.get("prop1:a").value));
+            assertEquals(Collections.singletonList(0), properties.get("prop1:a").metadata);
+            assertEquals(Collections.singletonList(0), properties.get("prop1:b").metadata);
+            assertEquals(20L, properties.get("prop2:a").timestamp);
+            assertEquals(Collections.singletonList(1), properties.get("prop2:a").metadata);
+        }
+    }
+
+    @Test
+    public void testReuseAfterClear() {
+        VertexIterator vertexIterator = new VertexIterator(createFetchHints());
+
+        List<Map.Entry<Key, Value>> rows = new ArrayList<>();
+        addProperty(rows, "prop1", "k1", "a", 10L, "value1");
+        addProperty(rows, "prop2", "k1", "a", 10L, "value2");
+        rows.add(new AbstractMap.SimpleEntry<>(new Key(ROW, VertexIterator.CF_SIGNAL, new Text(), new Text("a"), 5L), new Value(new byte[0])));
+        VertexElementData elementData = vertexIterator.createElementDataFromRows(rows.iterator());
+        assertEquals(2, count(elementData.getProperties(vertexIterator.getFetchHints())));
+
+        rows = new ArrayList<>();
+        addProperty(rows, "prop3", "k1", "a", 10L, "value3");
+        rows.add(new AbstractMap.SimpleEntry<>(new Key(ROW, VertexIterator.CF_SIGNAL, new Text(), new Text("a"), 5L), new Value(new byte[0])));
+        elementData = vertexIterator.createElementDataFromRows(rows.iterator());
+        List<Property> properties = new ArrayList<>();
+        elementData.getProperties(vertexIterator.getFetchHints()).forEach(properties::add);
+        assertEquals(1, properties.size());
+        assertEquals("prop3", properties.get(0).name);
+        assertNull(properties.get(0).metadata);
+    }
+
+    private static int count(Iterable<Property> properties) {
+        int count = 0;
+        for (Property ignored : properties) {
+            count++;
+        }
+        return count;
+    }
+
+    private static IteratorFetchHints createFetchHints() {
+        return new IteratorFetchHints(true, null, true, null, false, false, false, false, null, false, false);
+    }
+
+    private static void addProperty(List<Map.Entry<Key, Value>> rows, String name, String key, String visibility, long timestamp, String value) {
+        Text columnQualifier = new Text(name + KeyBase.VALUE_SEPARATOR + key);
+        Key k = new Key(ROW, ElementIterator.CF_PROPERTY, columnQualifier, new Text(visibility), timestamp);
+        rows.add(new AbstractMap.SimpleEntry<>(k, new Value(value.getBytes())));
+    }
+
+    private static void addMetadata(
+            List<Map.Entry<Key, Value>> rows,
+            String name,
+            String key,
+            String visibility,
+            long timestamp,
+            String metadataKey,
+            String value
+    ) {
+        Text columnQualifier = new Text(name + KeyBase.VALUE_SEPARATOR + key + KeyBase.VALUE_SEPARATOR + visibility + KeyBase.VALUE_SEPARATOR + metadataKey);
+        Key k = new Key(ROW, ElementIterator.CF_PROPERTY_METADATA, columnQualifier, new Text(""), timestamp);
+        rows.add(new AbstractMap.SimpleEntry<>(k, new Value(value.getBytes())));
+    }
+}
@@ -1,24 +1,18 @@
 package org.vertexium.accumulo;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
 import org.vertexium.*;
 import org.vertexium.accumulo.iterator.EdgeIterator;
 import org.vertexium.accumulo.iterator.model.ElementData;
-import org.vertexium.accumulo.util.DataInputStreamUtils;
+import org.vertexium.accumulo.util.ElementDataView;
 import org.vertexium.mutation.ExistingEdgeMutation;
 import org.vertexium.mutation.PropertyDeleteMutation;
 import org.vertexium.mutation.PropertySoftDeleteMutation;
 
-import javax.annotation.Nullable;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.util.List;
 
 public class AccumuloEdge extends AccumuloElement implements Edge {
     public static final Text CF_SIGNAL = EdgeIterator.CF_SIGNAL;
@@ -73,46 +67,21 @@ public class AccumuloEdge extends AccumuloElement implements Edge {
             Authorizations authorizations
     ) {
         try {
-            String edgeId;
-            Visibility vertexVisibility;
-            Iterable<Property> properties;
-            Iterable<Visibility> hiddenVisibilities;
-            long timestamp;
-
-            ByteArrayInputStream bain = new ByteArrayInputStream(value.get());
-            final DataInputStream in = new DataInputStream(bain);
-            DataInputStreamUtils.decodeHeader(in, ElementData.TYPE_ID_EDGE);
-            edgeId = DataInputStreamUtils.decodeString(in);
-            timestamp = in.readLong();
-            vertexVisibility = new Visibility(DataInputStreamUtils.decodeString(in));
-            hiddenVisibilities = Iterables.transform(DataInputStreamUtils.decodeStringSet(in), new Function<String, Visibility>() {
-                @Nullable
-                @Override
-                public Visibility apply(String input) {
-                    return new Visibility(input);
-                }
-            });
-            List<MetadataEntry> metadataEntries = DataInputStreamUtils.decodeMetadataEntries(in);
-            properties = DataInputStreamUtils.decodeProperties(graph, in, metadataEntries, fetchHints);
-            ImmutableSet<String> extendedDataTableNames = DataInputStreamUtils.decodeStringSet(in);
-            String inVertexId = DataInputStreamUtils.decodeString(in);
-            String outVertexId = DataInputStreamUtils.decodeString(in);
-            String label = graph.getNameSubstitutionStrategy().inflate(DataInputStreamUtils.decodeString(in));
-
+            ElementDataView elementDataView = new ElementDataView(value, ElementData.TYPE_ID_EDGE);
             return new AccumuloEdge(
                     graph,
-                    edgeId,
-                    outVertexId,
-                    inVertexId,
-                    label,
+                    elementDataView.getId(),
+                    elementDataView.getOutVertexId(),
+                    elementDataView.getInVertexId(),
+                    graph.getNameSubstitutionStrategy().inflate(elementDataView.getLabel()),
                     null,
-                    vertexVisibility,
-                    properties,
+                    elementDataView.getVisibility(),
+                    elementDataView.getProperties(graph, fetchHints),
                     null,
                     null,
-                    hiddenVisibilities,
-                    extendedDataTableNames,
-                    timestamp,
+                    elementDataView.getHiddenVisibilities(),
+                    elementDataView.getExtendedTableNames(),
+                    elementDataView.getTimestamp(),
                     fetchHints,
                     authorizations
             );
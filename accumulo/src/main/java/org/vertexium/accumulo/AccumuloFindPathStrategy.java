@@ -19,7 +19,7 @@ import java.util.stream.Collectors;
 
 import static org.vertexium.util.StreamUtils.stream;
 
-public class AccumuloFindPathStrategy {
+public class AccumuloFindPathStrategy extends BidirectionalFindPathStrategy {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloFindPathStrategy.class);
     private final AccumuloGraph graph;
     private final FindPathOptions options;
@@ -34,6 +34,7 @@ public class AccumuloFindPathStrategy {
             ProgressCallback progressCallback,
             Authorizations authorizations
     ) {
+        super(options, progressCallback);
         this.graph = graph;
         this.options = options;
         this.progressCallback = progressCallback;
@@ -54,21 +55,26 @@ public class AccumuloFindPathStrategy {
         return results;
     }
 
+    @Override
     public Iterable<Path> findPaths() {
         progressCallback.progress(0, ProgressCallback.Step.FINDING_PATH);
 
-        List<Path> foundPaths = new ArrayList<>();
+        Iterable<Path> foundPaths;
         if (options.getMaxHops() < 1) {
             throw new IllegalArgumentException("maxHops cannot be less than 1");
         } else if (options.getMaxHops() == 1) {
+            List<Path> paths = new ArrayList<>();
             Set<String> sourceConnectedVertexIds = getConnectedVertexIds(options.getSourceVertexId());
             if (sourceConnectedVertexIds.contains(options.getDestVertexId())) {
-                foundPaths.add(new Path(options.getSourceVertexId(), options.getDestVertexId()));
+                paths.add(new Path(options.getSourceVertexId(), options.getDestVertexId()));
             }
+            foundPaths = paths;
         } else if (options.getMaxHops() == 2) {
-            findPathsSetIntersection(foundPaths);
+            List<Path> paths = new ArrayList<>();
+            findPathsSetIntersection(paths);
+            foundPaths = paths;
         } else {
-            findPathsBreadthFirst(foundPaths, options.getSourceVertexId(), options.getDestVertexId(), options.getMaxHops());
+            foundPaths = super.findPaths();
         }
 
         progressCallback.progress(1, ProgressCallback.Step.COMPLETE);
@@ -82,7 +88,7 @@ public class AccumuloFindPathStrategy {
         Set<String> vertexIds = new HashSet<>();
         vertexIds.add(sourceVertexId);
         vertexIds.add(destVertexId);
-        Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(vertexIds);
+        Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(vertexIds, true);
 
         progressCallback.progress(0.1, ProgressCallback.Step.SEARCHING_SOURCE_VERTEX_EDGES);
         Set<String> sourceVertexConnectedVertexIds = connectedVertexIds.get(sourceVertexId);
@@ -114,58 +120,27 @@ public class AccumuloFindPathStrategy {
         );
     }
 
-    private void findPathsBreadthFirst(List<Path> foundPaths, String sourceVertexId, String destVertexId, int hops) {
-        Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(sourceVertexId, destVertexId);
-        // start at 2 since we already got the source and dest vertex connected vertex ids
-        for (int i = 2; i < hops; i++) {
-            progressCallback.progress((double) i / (double) hops, ProgressCallback.Step.FINDING_PATH);
-            Set<String> vertexIdsToSearch = new HashSet<>();
-            for (Map.Entry<String, Set<String>> entry : connectedVertexIds.entrySet()) {
-                vertexIdsToSearch.addAll(entry.getValue());
-            }
-            vertexIdsToSearch.removeAll(connectedVertexIds.keySet());
-            Map<String, Set<String>> r = getConnectedVertexIds(vertexIdsToSearch);
-            connectedVertexIds.putAll(r);
-        }
-        progressCallback.progress(0.9, ProgressCallback.Step.ADDING_PATHS);
-        Set<String> seenVertices = new HashSet<>();
-        Path currentPath = new Path(sourceVertexId);
-        findPathsRecursive(connectedVertexIds, foundPaths, sourceVertexId, destVertexId, hops, seenVertices, currentPath, progressCallback);
+    /**
+     * Rows of vertices which don't exist or are hidden are filtered out by {@link ConnectedVertexIdsIterator}, so
+     * existence of the connected vertices is verified when they are expanded and doesn't require a separate scan.
+     */
+    @Override
+    protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+        return getConnectedVertexIds(vertexIds, false);
     }
 
-    private void findPathsRecursive(
-            Map<String, Set<String>> connectedVertexIds,
-            List<Path> foundPaths,
-            final String sourceVertexId,
-            String destVertexId,
-            int hops,
-            Set<String> seenVertices,
-            Path currentPath,
-            @SuppressWarnings("UnusedParameters") ProgressCallback progressCallback
-    ) {
-        if (options.isGetAnyPath() && foundPaths.size() == 1) {
-            return;
-        }
-        seenVertices.add(sourceVertexId);
-        if (sourceVertexId.equals(destVertexId)) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Set<String> vertexIds = connectedVertexIds.get(sourceVertexId);
-            if (vertexIds != null) {
-                for (String childId : vertexIds) {
-                    if (!seenVertices.contains(childId)) {
-                        findPathsRecursive(connectedVertexIds, foundPaths, childId, destVertexId, hops - 1, seenVertices, new Path(currentPath, childId), progressCallback);
-                    }
-                }
-            }
-        }
-        seenVertices.remove(sourceVertexId);
+    @Override
+    protected Set<String> filterExistingVertexIds(Set<String> vertexIds) {
+        Map<String, Boolean> verticesExist = graph.doVerticesExist(vertexIds, authorizations);
+        return stream(verticesExist.keySet())
+                .filter(key -> verticesExist.getOrDefault(key, false))
+                .collect(Collectors.toSet());
     }
 
     private Set<String> getConnectedVertexIds(String vertexId) {
         Set<String> vertexIds = new HashSet<>();
         vertexIds.add(vertexId);
-        Map<String, Set<String>> results = getConnectedVertexIds(vertexIds);
+        Map<String, Set<String>> results = getConnectedVertexIds(vertexIds, true);
         Set<String> vertexIdResults = results.get(vertexId);
         if (vertexIdResults == null) {
             return new HashSet<>();
@@ -173,14 +148,7 @@ public class AccumuloFindPathStrategy {
         return vertexIdResults;
     }
 
-    private Map<String, Set<String>> getConnectedVertexIds(String vertexId1, String vertexId2) {
-        Set<String> vertexIds = new HashSet<>();
-        vertexIds.add(vertexId1);
-        vertexIds.add(vertexId2);
-        return getConnectedVertexIds(vertexIds);
-    }
-
-    private Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+    private Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds, boolean filterExistingVertexIds) {
         Span trace = Trace.start("getConnectedVertexIds");
         try {
             if (LOGGER.isTraceEnabled()) {
@@ -222,17 +190,22 @@ public class AccumuloFindPathStrategy {
             final long timerStartTime = System.currentTimeMillis();
             try {
                 Map<String, Set<String>> results = new HashMap<>();
+                Set<String> allConnectedVertexIds = new HashSet<>();
                 for (Map.Entry<Key, Value> row : scanner) {
                     try {
-                        Map<String, Boolean> verticesExist = graph.doVerticesExist(ConnectedVertexIdsIterator.decodeValue(row.getValue()), authorizations);
-                        Set<String> rowVertexIds = stream(verticesExist.keySet())
-                                .filter(key -> verticesExist.getOrDefault(key, false))
-                                .collect(Collectors.toSet());
+                        Set<String> rowVertexIds = ConnectedVertexIdsIterator.decodeValue(row.getValue());
                         results.put(row.getKey().getRow().toString(), rowVertexIds);
+                        allConnectedVertexIds.addAll(rowVertexIds);
                     } catch (IOException e) {
                         throw new VertexiumException("Could not decode vertex ids for row: " + row.getKey().toString(), e);
                     }
                 }
+                if (filterExistingVertexIds && allConnectedVertexIds.size() > 0) {
+                    Set<String> existingVertexIds = filterExistingVertexIds(allConnectedVertexIds);
+                    for (Set<String> rowVertexIds : results.values()) {
+                        rowVertexIds.retainAll(existingVertexIds);
+                    }
+                }
                 return results;
             } finally {
                 scanner.close();
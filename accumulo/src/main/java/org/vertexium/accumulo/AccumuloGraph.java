@@ -98,6 +98,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private final String metadataTableName;
     private final int numberOfQueryThreads;
     private final AccumuloGraphMetadataStore graphMetadataStore;
+    private final AccumuloGraphStatistics statistics;
     private boolean distributedTraceEnabled;
 
     protected AccumuloGraph(AccumuloGraphConfiguration config, Connector connector) {
@@ -161,6 +162,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             this.historyEdgesTableName = null;
         }
 
+        if (getConfiguration().isStatisticsEnabled()) {
+            this.statistics = new AccumuloGraphStatistics(this, getStatisticsTableName(getConfiguration().getTableNamePrefix()));
+        } else {
+            this.statistics = null;
+        }
+
         BatchWriterConfig writerConfig = getConfiguration().createBatchWriterConfig();
         this.batchWriter = connector.createMultiTableBatchWriter(writerConfig);
     }
@@ -185,6 +192,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         ensureTableExists(connector, getExtendedDataTableName(config.getTableNamePrefix()), config.getExtendedDataMaxVersions(), config.getHdfsContextClasspath(), config.isCreateTables());
         ensureTableExists(connector, getDataTableName(config.getTableNamePrefix()), 1, config.getHdfsContextClasspath(), config.isCreateTables());
         ensureTableExists(connector, getMetadataTableName(config.getTableNamePrefix()), 1, config.getHdfsContextClasspath(), config.isCreateTables());
+        if (config.isStatisticsEnabled()) {
+            AccumuloGraphStatistics.ensureTableExists(connector, getStatisticsTableName(config.getTableNamePrefix()), config.getHdfsContextClasspath(), config.isCreateTables());
+        }
         ensureRowDeletingIteratorIsAttached(connector, getVerticesTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getEdgesTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getDataTableName(config.getTableNamePrefix()));
@@ -322,6 +332,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 Span trace = Trace.start("prepareVertex");
                 trace.data("vertexId", finalVertexId);
                 try {
+                    if (statistics != null) {
+                        statistics.vertexSaving(finalVertexId, getVisibility());
+                    }
+
                     // This has to occur before createVertex since it will mutate the properties
                     getElementMutationBuilder().saveVertexBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -571,6 +585,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return getWriterForTable(getDataTableName());
     }
 
+    BatchWriter getStatisticsWriter() {
+        return getWriterForTable(statistics.getTableName());
+    }
+
     public BatchWriter getWriterFromElementType(VertexiumObjectType objectType) {
         switch (objectType) {
             case VERTEX:
@@ -621,6 +639,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             deleteAllExtendedDataForElement(vertex, authorizations);
 
             addMutations(VertexiumObjectType.VERTEX, getDeleteRowMutation(vertex.getId()));
+            if (statistics != null) {
+                statistics.elementDeleted(vertex);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteVertexEvent(this, vertex));
@@ -736,6 +757,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 Span trace = Trace.start("prepareEdge");
                 trace.data("edgeId", finalEdgeId);
                 try {
+                    if (statistics != null) {
+                        statistics.edgeSaving(finalEdgeId, getLabel(), getNewEdgeLabel(), getVisibility());
+                    }
+
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -797,6 +822,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                         }
                     };
 
+                    if (statistics != null) {
+                        statistics.edgeSaving(finalEdgeId, getLabel(), getNewEdgeLabel(), getVisibility());
+                    }
+
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -1170,6 +1199,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
             // Deletes everything else related to edge.
             addMutations(VertexiumObjectType.EDGE, getDeleteRowMutation(edge.getId()));
+            if (statistics != null) {
+                statistics.elementDeleted(edge);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteEdgeEvent(this, edge));
@@ -1422,6 +1454,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     private void flushWritersAndSuper() {
+        if (statistics != null) {
+            statistics.flushing();
+        }
         flushWriter(this.batchWriter);
         super.flush();
     }
@@ -1952,6 +1987,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return tableNamePrefix.concat("_m");
     }
 
+    public static String getStatisticsTableName(String tableNamePrefix) {
+        return tableNamePrefix.concat("_s");
+    }
+
     public String getVerticesTableName() {
         return verticesTableName;
     }
@@ -1992,6 +2031,13 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return connector;
     }
 
+    /**
+     * @return the statistics kept while elements are written or null if statistics are not enabled.
+     */
+    public AccumuloGraphStatistics getStatistics() {
+        return statistics;
+    }
+
     public Iterable<Range> listVerticesTableSplits() {
         return listTableSplits(getVerticesTableName());
     }
@@ -2024,6 +2070,19 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    @Override
+    protected List<Range> getReindexPartitions(ElementType elementType) {
+        return toList(listTableSplits(getTableNameFromElementType(elementType)));
+    }
+
+    List<org.apache.accumulo.core.data.Range> getTableSplitRanges(String tableName) {
+        List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
+        for (Range range : listTableSplits(tableName)) {
+            ranges.add(vertexiumRangeToAccumuloRange(range));
+        }
+        return ranges;
+    }
+
     private Iterable<Range> splitsIterableToRangeIterable(final Iterable<Text> splits) {
         String inclusiveStart = null;
         List<Range> ranges = new ArrayList<>();
@@ -2060,6 +2119,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Mutation m = new Mutation(elementRowKey);
             if (elementMutationBuilder.alterElementVisibility(m, element, newVisibility)) {
                 addMutations(element, m);
+                if (statistics != null) {
+                    statistics.visibilityAltered(element, newVisibility);
+                }
             }
             element.setVisibility(newVisibility);
         } finally {
@@ -2069,6 +2131,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     public void alterEdgeLabel(AccumuloEdge edge, String newEdgeLabel) {
         elementMutationBuilder.alterEdgeLabel(edge, newEdgeLabel);
+        if (statistics != null && !newEdgeLabel.equals(edge.getLabel())) {
+            statistics.edgeLabelAltered(edge.getLabel(), newEdgeLabel, edge.getVisibility());
+        }
     }
 
     void alterElementPropertyVisibilities(AccumuloElement element, List<AlterPropertyVisibility> alterPropertyVisibilities) {
@@ -2152,6 +2217,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             this.connector.tableOperations().deleteRows(getVerticesTableName(), null, null);
             this.connector.tableOperations().deleteRows(getExtendedDataTableName(), null, null);
             this.connector.tableOperations().deleteRows(getMetadataTableName(), null, null);
+            if (statistics != null) {
+                statistics.truncate();
+            }
             if (isHistoryInSeparateTable()) {
                 this.connector.tableOperations().deleteRows(getHistoryEdgesTableName(), null, null);
                 this.connector.tableOperations().deleteRows(getHistoryVerticesTableName(), null, null);
@@ -2169,6 +2237,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             dropTableIfExists(getEdgesTableName());
             dropTableIfExists(getVerticesTableName());
             dropTableIfExists(getMetadataTableName());
+            if (statistics != null) {
+                dropTableIfExists(statistics.getTableName());
+            }
             if (isHistoryInSeparateTable()) {
                 dropTableIfExists(getHistoryEdgesTableName());
                 dropTableIfExists(getHistoryVerticesTableName());
@@ -2804,12 +2875,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     @Override
     public long getVertexCount(Authorizations authorizations) {
+        if (statistics != null) {
+            return statistics.getVertexCount(authorizations);
+        }
         String tableName = getTableNameFromElementType(ElementType.VERTEX);
         return getRowCountFromTable(tableName, AccumuloVertex.CF_SIGNAL, authorizations);
     }
 
     @Override
     public long getEdgeCount(Authorizations authorizations) {
+        if (statistics != null) {
+            return statistics.getEdgeCount(authorizations);
+        }
         String tableName = getTableNameFromElementType(ElementType.EDGE);
         return getRowCountFromTable(tableName, AccumuloEdge.CF_SIGNAL, authorizations);
     }
@@ -2817,7 +2894,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private long getRowCountFromTable(String tableName, Text signalColumn, Authorizations authorizations) {
         try {
             LOGGER.debug("BEGIN getRowCountFromTable(%s)", tableName);
-            Scanner scanner = createScanner(tableName, null, authorizations);
+            // the counting iterator counts the entries of each tablet the ranges are split into, the tablets are
+            // counted in parallel by the batch scanner and the counts summed here
+            ScannerBase scanner = createBatchScanner(tableName, getTableSplitRanges(tableName), authorizations);
             try {
                 scanner.fetchColumnFamily(signalColumn);
 
@@ -2912,6 +2991,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 synchronized (entries) {
                     entries.clear();
                 }
+                fireMetadataInvalidated();
             });
             try {
                 this.treeCache.start();
@@ -2965,7 +3045,27 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             } catch (MutationsRejectedException ex) {
                 throw new VertexiumException("Could not add metadata " + key, ex);
             }
+            metadataChanged(key);
+        }
+
+        @Override
+        public void removeMetadata(String key) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("removeMetadata: %s", key);
+            }
+            try {
+                Mutation m = new Mutation(key);
+                m.putDelete(AccumuloElement.METADATA_COLUMN_FAMILY, AccumuloElement.METADATA_COLUMN_QUALIFIER);
+                BatchWriter writer = getMetadataWriter();
+                writer.addMutation(m);
+                flush();
+            } catch (MutationsRejectedException ex) {
+                throw new VertexiumException("Could not remove metadata " + key, ex);
+            }
+            metadataChanged(key);
+        }
 
+        private void metadataChanged(String key) {
             synchronized (entries) {
                 entries.clear();
                 try {
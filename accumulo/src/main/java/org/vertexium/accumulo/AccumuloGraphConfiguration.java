@@ -53,6 +53,7 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final String NUMBER_OF_QUERY_THREADS = "numberOfQueryThreads";
     public static final String HDFS_CONTEXT_CLASSPATH = "hdfsContextClasspath";
     public static final String STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX = "streamingPropertyValueStorageStrategy";
+    public static final String STATISTICS_ENABLED = "statistics.enabled";
 
     public static final String DEFAULT_ACCUMULO_PASSWORD = "password";
     public static final String DEFAULT_ACCUMULO_USERNAME = "root";
@@ -72,6 +73,7 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final Integer DEFAULT_ACCUMULO_MAX_VERSIONS = null;
     public static final boolean DEFAULT_HISTORY_IN_SEPARATE_TABLE = false;
     public static final int DEFAULT_NUMBER_OF_QUERY_THREADS = 10;
+    public static final boolean DEFAULT_STATISTICS_ENABLED = false;
     public static final String DEFAULT_HDFS_CONTEXT_CLASSPATH = null;
     public static final String DEFAULT_STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY = OverflowIntoHdfsStreamingPropertyValueStorageStrategy.class.getName();
 
@@ -252,4 +254,8 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public boolean isHistoryInSeparateTable() {
         return getBoolean(HISTORY_IN_SEPARATE_TABLE, DEFAULT_HISTORY_IN_SEPARATE_TABLE);
     }
+
+    public boolean isStatisticsEnabled() {
+        return getBoolean(STATISTICS_ENABLED, DEFAULT_STATISTICS_ENABLED);
+    }
 }
@@ -0,0 +1,302 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.*;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.vertexium.*;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts of vertices, edges and edges by label kept in a statistics table while elements are written.
+ * <p>
+ * Every count is stored per visibility, each entry carries the visibility of the elements it counts so a scan with the
+ * caller's authorizations only sums the counts of elements the caller can see. Writes add a delta of one or minus one
+ * and a {@link SummingCombiner} attached to the table adds the deltas up.
+ * <p>
+ * An element is counted when its signal column is first written, which takes a lookup of the element before it is
+ * saved, and uncounted when it is deleted. Like the scan based counts soft deleted elements are still counted.
+ * Concurrent writers creating the same element may count it twice, {@link #recompute()} rebuilds the counts from the
+ * element tables.
+ */
+public class AccumuloGraphStatistics {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloGraphStatistics.class);
+    public static final String COMBINER_NAME = "statisticsSum";
+    public static final int COMBINER_PRIORITY = 10;
+    private static final Text ROW_VERTICES = new Text("vertices");
+    private static final Text ROW_EDGES = new Text("edges");
+    private static final Text ROW_EDGE_LABELS = new Text("edgeLabels");
+    private static final Text CF_COUNT = new Text("count");
+    private static final Value ONE = new Value(LongCombiner.FIXED_LEN_ENCODER.encode(1L));
+    private static final Value MINUS_ONE = new Value(LongCombiner.FIXED_LEN_ENCODER.encode(-1L));
+    private final AccumuloGraph graph;
+    private final String tableName;
+    private volatile Map<String, Boolean> unflushedElementExists = new ConcurrentHashMap<>();
+    private volatile org.apache.accumulo.core.security.Authorizations userAuthorizations;
+
+    public AccumuloGraphStatistics(AccumuloGraph graph, String tableName) {
+        this.graph = graph;
+        this.tableName = tableName;
+    }
+
+    public static void ensureTableExists(Connector connector, String tableName, String hdfsContextClasspath, boolean createTable) {
+        AccumuloGraph.ensureTableExists(connector, tableName, null, hdfsContextClasspath, createTable);
+        try {
+            if (!connector.tableOperations().listIterators(tableName).containsKey(COMBINER_NAME)) {
+                IteratorSetting setting = new IteratorSetting(COMBINER_PRIORITY, COMBINER_NAME, SummingCombiner.class);
+                Combiner.setCombineAllColumns(setting, true);
+                LongCombiner.setEncodingType(setting, LongCombiner.Type.FIXEDLEN);
+                connector.tableOperations().attachIterator(tableName, setting);
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not attach " + COMBINER_NAME + " to " + tableName, ex);
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getVertexCount(Authorizations authorizations) {
+        return sum(getCounts(ROW_VERTICES, authorizations).values());
+    }
+
+    public long getEdgeCount(Authorizations authorizations) {
+        return sum(getCounts(ROW_EDGES, authorizations).values());
+    }
+
+    /**
+     * @return the number of edges with each label visible to the authorizations.
+     */
+    public Map<String, Long> getEdgeLabelCounts(Authorizations authorizations) {
+        Map<String, Long> results = new HashMap<>();
+        for (Map.Entry<Key, Long> entry : getCounts(ROW_EDGE_LABELS, authorizations).entrySet()) {
+            results.merge(entry.getKey().getColumnFamily().toString(), entry.getValue(), Long::sum);
+        }
+        results.values().removeIf(count -> count <= 0);
+        return results;
+    }
+
+    /**
+     * @return the number of elements of the type with each visibility visible to the authorizations.
+     */
+    public Map<Visibility, Long> getVisibilityCounts(ElementType elementType, Authorizations authorizations) {
+        Map<Visibility, Long> results = new HashMap<>();
+        for (Map.Entry<Key, Long> entry : getCounts(getRow(elementType), authorizations).entrySet()) {
+            Visibility visibility = AccumuloGraph.accumuloVisibilityToVisibility(entry.getKey().getColumnVisibility());
+            results.merge(visibility, entry.getValue(), Long::sum);
+        }
+        results.values().removeIf(count -> count <= 0);
+        return results;
+    }
+
+    private Map<Key, Long> getCounts(Text row, Authorizations authorizations) {
+        Map<Key, Long> results = new HashMap<>();
+        try {
+            Scanner scanner = graph.getConnector().createScanner(tableName, graph.toAccumuloAuthorizations(authorizations));
+            try {
+                scanner.setRange(Range.exact(row));
+                for (Map.Entry<Key, Value> entry : scanner) {
+                    results.put(entry.getKey(), LongCombiner.FIXED_LEN_ENCODER.decode(entry.getValue().get()));
+                }
+            } finally {
+                scanner.close();
+            }
+        } catch (TableNotFoundException ex) {
+            throw new VertexiumException("Could not read statistics from table: " + tableName, ex);
+        }
+        return results;
+    }
+
+    private static long sum(Collection<Long> counts) {
+        long result = 0;
+        for (Long count : counts) {
+            result += count;
+        }
+        return result;
+    }
+
+    void vertexSaving(String vertexId, Visibility visibility) {
+        if (!elementExists(ElementType.VERTEX, vertexId)) {
+            write(ROW_VERTICES, CF_COUNT, visibility, ONE);
+        }
+    }
+
+    void edgeSaving(String edgeId, String label, String newLabel, Visibility visibility) {
+        if (!elementExists(ElementType.EDGE, edgeId)) {
+            write(ROW_EDGES, CF_COUNT, visibility, ONE);
+            write(ROW_EDGE_LABELS, new Text(newLabel == null ? label : newLabel), visibility, ONE);
+        } else if (newLabel != null && !newLabel.equals(label)) {
+            edgeLabelAltered(label, newLabel, visibility);
+        }
+    }
+
+    void edgeLabelAltered(String label, String newLabel, Visibility visibility) {
+        write(ROW_EDGE_LABELS, new Text(label), visibility, MINUS_ONE);
+        write(ROW_EDGE_LABELS, new Text(newLabel), visibility, ONE);
+    }
+
+    void visibilityAltered(Element element, Visibility newVisibility) {
+        Visibility visibility = element.getVisibility();
+        if (element instanceof Edge) {
+            write(ROW_EDGES, CF_COUNT, visibility, MINUS_ONE);
+            write(ROW_EDGES, CF_COUNT, newVisibility, ONE);
+            write(ROW_EDGE_LABELS, new Text(((Edge) element).getLabel()), visibility, MINUS_ONE);
+            write(ROW_EDGE_LABELS, new Text(((Edge) element).getLabel()), newVisibility, ONE);
+        } else {
+            write(ROW_VERTICES, CF_COUNT, visibility, MINUS_ONE);
+            write(ROW_VERTICES, CF_COUNT, newVisibility, ONE);
+        }
+    }
+
+    void elementDeleted(Element element) {
+        ElementType elementType = ElementType.getTypeFromElement(element);
+        unflushedElementExists.put(getUnflushedKey(elementType, element.getId()), false);
+        write(getRow(elementType), CF_COUNT, element.getVisibility(), MINUS_ONE);
+        if (element instanceof Edge) {
+            write(ROW_EDGE_LABELS, new Text(((Edge) element).getLabel()), element.getVisibility(), MINUS_ONE);
+        }
+    }
+
+    /**
+     * Called before the graph flushes its writers, elements saved before this call are found in the tables afterwards.
+     */
+    void flushing() {
+        unflushedElementExists = new ConcurrentHashMap<>();
+        userAuthorizations = null;
+    }
+
+    private boolean elementExists(ElementType elementType, String elementId) {
+        Boolean unflushedExists = unflushedElementExists.put(getUnflushedKey(elementType, elementId), true);
+        if (unflushedExists != null) {
+            return unflushedExists;
+        }
+        try {
+            Scanner scanner = graph.getConnector().createScanner(getElementTableName(elementType), getUserAuthorizations());
+            try {
+                scanner.setRange(Range.exact(elementId));
+                scanner.fetchColumnFamily(getSignalColumnFamily(elementType));
+                return scanner.iterator().hasNext();
+            } finally {
+                scanner.close();
+            }
+        } catch (TableNotFoundException ex) {
+            throw new VertexiumException("Could not find element: " + elementId, ex);
+        }
+    }
+
+    private org.apache.accumulo.core.security.Authorizations getUserAuthorizations() {
+        org.apache.accumulo.core.security.Authorizations authorizations = userAuthorizations;
+        if (authorizations == null) {
+            try {
+                Connector connector = graph.getConnector();
+                authorizations = connector.securityOperations().getUserAuthorizations(connector.whoami());
+            } catch (AccumuloException | AccumuloSecurityException ex) {
+                throw new VertexiumException("Could not get user authorizations", ex);
+            }
+            userAuthorizations = authorizations;
+        }
+        return authorizations;
+    }
+
+    private void write(Text row, Text columnFamily, Visibility visibility, Value delta) {
+        Mutation m = new Mutation(row);
+        m.put(columnFamily, ElementMutationBuilder.EMPTY_TEXT, new ColumnVisibility(visibility.getVisibilityString()), delta);
+        graph._addMutations(graph.getStatisticsWriter(), m);
+    }
+
+    /**
+     * Replaces the counts with counts of the elements currently in the vertex and edge tables. Elements written while
+     * the counts are rebuilt may be missing from or counted twice in the result.
+     */
+    public void recompute() {
+        LOGGER.info("recomputing statistics in %s", tableName);
+        graph.flush();
+        Map<Key, Long> counts = new HashMap<>();
+        for (ElementType elementType : new ElementType[]{ElementType.VERTEX, ElementType.EDGE}) {
+            String elementTableName = getElementTableName(elementType);
+            try {
+                ScannerBase scanner = graph.createBatchScanner(elementTableName, graph.getTableSplitRanges(elementTableName), getUserAuthorizations());
+                try {
+                    scanner.fetchColumnFamily(getSignalColumnFamily(elementType));
+                    IteratorSetting versioningIteratorSettings = new IteratorSetting(90, VersioningIterator.class.getSimpleName(), VersioningIterator.class);
+                    VersioningIterator.setMaxVersions(versioningIteratorSettings, 1);
+                    scanner.addScanIterator(versioningIteratorSettings);
+                    for (Map.Entry<Key, Value> entry : scanner) {
+                        Text visibility = entry.getKey().getColumnVisibility();
+                        counts.merge(new Key(getRow(elementType), CF_COUNT, ElementMutationBuilder.EMPTY_TEXT, visibility), 1L, Long::sum);
+                        if (elementType == ElementType.EDGE) {
+                            Text label = new Text(graph.getNameSubstitutionStrategy().inflate(entry.getKey().getColumnQualifier()));
+                            counts.merge(new Key(ROW_EDGE_LABELS, label, ElementMutationBuilder.EMPTY_TEXT, visibility), 1L, Long::sum);
+                        }
+                    }
+                } finally {
+                    scanner.close();
+                }
+            } catch (TableNotFoundException ex) {
+                throw new VertexiumException("Could not count elements in table: " + elementTableName, ex);
+            }
+        }
+
+        try {
+            graph.getConnector().tableOperations().deleteRows(tableName, null, null);
+            BatchWriter writer = graph.getConnector().createBatchWriter(tableName, graph.getConfiguration().createBatchWriterConfig());
+            try {
+                for (Map.Entry<Key, Long> count : counts.entrySet()) {
+                    Key key = count.getKey();
+                    Mutation m = new Mutation(key.getRow());
+                    m.put(key.getColumnFamily(), key.getColumnQualifier(), new ColumnVisibility(key.getColumnVisibility()), new Value(LongCombiner.FIXED_LEN_ENCODER.encode(count.getValue())));
+                    writer.addMutation(m);
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not write statistics to table: " + tableName, ex);
+        }
+    }
+
+    void truncate() {
+        try {
+            graph.getConnector().tableOperations().deleteRows(tableName, null, null);
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not delete rows of table: " + tableName, ex);
+        }
+    }
+
+    private String getElementTableName(ElementType elementType) {
+        return elementType == ElementType.VERTEX ? graph.getVerticesTableName() : graph.getEdgesTableName();
+    }
+
+    private static Text getSignalColumnFamily(ElementType elementType) {
+        return elementType == ElementType.VERTEX ? AccumuloVertex.CF_SIGNAL : AccumuloEdge.CF_SIGNAL;
+    }
+
+    private static Text getRow(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return ROW_VERTICES;
+            case EDGE:
+                return ROW_EDGES;
+            default:
+                throw new VertexiumException("Statistics are not kept for element type: " + elementType);
+        }
+    }
+
+    private static String getUnflushedKey(ElementType elementType, String elementId) {
+        return elementType.name() + ":" + elementId;
+    }
+}
@@ -1,8 +1,6 @@
 package org.vertexium.accumulo;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
@@ -12,7 +10,7 @@ import org.vertexium.accumulo.iterator.model.Edges;
 import org.vertexium.accumulo.iterator.model.EdgesWithCount;
 import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
 import org.vertexium.accumulo.iterator.model.ElementData;
-import org.vertexium.accumulo.util.DataInputStreamUtils;
+import org.vertexium.accumulo.util.ElementDataView;
 import org.vertexium.mutation.ExistingElementMutation;
 import org.vertexium.mutation.ExistingElementMutationImpl;
 import org.vertexium.mutation.PropertyDeleteMutation;
@@ -20,9 +18,6 @@ import org.vertexium.mutation.PropertySoftDeleteMutation;
 import org.vertexium.query.VertexQuery;
 import org.vertexium.util.*;
 
-import javax.annotation.Nullable;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -38,8 +33,9 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     public static final Text CF_IN_EDGE_SOFT_DELETE = VertexIterator.CF_IN_EDGE_SOFT_DELETE;
     public static final Text CF_OUT_EDGE_HIDDEN = VertexIterator.CF_OUT_EDGE_HIDDEN;
     public static final Text CF_IN_EDGE_HIDDEN = VertexIterator.CF_IN_EDGE_HIDDEN;
-    private final Edges inEdges;
-    private final Edges outEdges;
+    private Edges inEdges;
+    private Edges outEdges;
+    private ElementDataView elementDataView;
 
     public AccumuloVertex(
             AccumuloGraph graph,
@@ -111,53 +107,44 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
             Authorizations authorizations
     ) {
         try {
-            String vertexId;
-            Visibility vertexVisibility;
-            Iterable<Property> properties;
-            Iterable<Visibility> hiddenVisibilities;
-            Edges inEdges;
-            Edges outEdges;
-            long timestamp;
-
-            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(value.get());
-            DataInputStream in = new DataInputStream(byteArrayInputStream);
-            DataInputStreamUtils.decodeHeader(in, ElementData.TYPE_ID_VERTEX);
-            vertexId = DataInputStreamUtils.decodeString(in);
-            timestamp = in.readLong();
-            vertexVisibility = new Visibility(DataInputStreamUtils.decodeString(in));
-            hiddenVisibilities = Iterables.transform(DataInputStreamUtils.decodeStringSet(in), new Function<String, Visibility>() {
-                @Nullable
-                @Override
-                public Visibility apply(String input) {
-                    return new Visibility(input);
-                }
-            });
-            List<MetadataEntry> metadataEntries = DataInputStreamUtils.decodeMetadataEntries(in);
-            properties = DataInputStreamUtils.decodeProperties(graph, in, metadataEntries, fetchHints);
-            ImmutableSet<String> extendedDataTableNames = DataInputStreamUtils.decodeStringSet(in);
-            outEdges = DataInputStreamUtils.decodeEdges(in, graph.getNameSubstitutionStrategy());
-            inEdges = DataInputStreamUtils.decodeEdges(in, graph.getNameSubstitutionStrategy());
-
-            return new AccumuloVertex(
+            ElementDataView elementDataView = new ElementDataView(value, ElementData.TYPE_ID_VERTEX);
+            AccumuloVertex vertex = new AccumuloVertex(
                     graph,
-                    vertexId,
-                    vertexVisibility,
-                    properties,
+                    elementDataView.getId(),
+                    elementDataView.getVisibility(),
+                    elementDataView.getProperties(graph, fetchHints),
+                    null,
                     null,
+                    elementDataView.getHiddenVisibilities(),
+                    elementDataView.getExtendedTableNames(),
                     null,
-                    hiddenVisibilities,
-                    extendedDataTableNames,
-                    inEdges,
-                    outEdges,
-                    timestamp,
+                    null,
+                    elementDataView.getTimestamp(),
                     fetchHints,
                     authorizations
             );
+            // the edges are decoded the first time they are used
+            vertex.elementDataView = elementDataView;
+            return vertex;
         } catch (IOException ex) {
             throw new VertexiumException("Could not read vertex", ex);
         }
     }
 
+    private synchronized Edges getInEdges() {
+        if (inEdges == null && elementDataView != null) {
+            inEdges = elementDataView.getInEdges(getGraph().getNameSubstitutionStrategy());
+        }
+        return inEdges;
+    }
+
+    private synchronized Edges getOutEdges() {
+        if (outEdges == null && elementDataView != null) {
+            outEdges = elementDataView.getOutEdges(getGraph().getNameSubstitutionStrategy());
+        }
+        return outEdges;
+    }
+
     @Override
     public Iterable<Edge> getEdges(Direction direction, Authorizations authorizations) {
         return getEdges(direction, getGraph().getDefaultFetchHints(), authorizations);
@@ -325,8 +312,8 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         Set<String> edgeLabels = new HashSet<>();
 
         if (direction == Direction.IN || direction == Direction.BOTH) {
-            if (inEdges instanceof EdgesWithCount) {
-                edgeLabels.addAll(((EdgesWithCount) inEdges).getLabels());
+            if (getInEdges() instanceof EdgesWithCount) {
+                edgeLabels.addAll(((EdgesWithCount) getInEdges()).getLabels());
             } else {
                 edgeLabels.addAll(toList(new ConvertingIterable<Map.Entry<Text, org.vertexium.accumulo.iterator.model.EdgeInfo>, String>(getEdgeInfos(Direction.IN)) {
                     @Override
@@ -338,8 +325,8 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         }
 
         if (direction == Direction.OUT || direction == Direction.BOTH) {
-            if (outEdges instanceof EdgesWithCount) {
-                edgeLabels.addAll(((EdgesWithCount) outEdges).getLabels());
+            if (getOutEdges() instanceof EdgesWithCount) {
+                edgeLabels.addAll(((EdgesWithCount) getOutEdges()).getLabels());
             } else {
                 edgeLabels.addAll(toList(new ConvertingIterable<Map.Entry<Text, org.vertexium.accumulo.iterator.model.EdgeInfo>, String>(getEdgeInfos(Direction.OUT)) {
                     @Override
@@ -411,16 +398,16 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
                 if (!getFetchHints().isIncludeInEdgeRefs() && !getFetchHints().hasEdgeLabelsOfEdgeRefsToInclude()) {
                     return null;
                 }
-                if (this.inEdges instanceof EdgesWithEdgeInfo) {
-                    return ((EdgesWithEdgeInfo) this.inEdges).getEntries();
+                if (getInEdges() instanceof EdgesWithEdgeInfo) {
+                    return ((EdgesWithEdgeInfo) getInEdges()).getEntries();
                 }
                 throw new VertexiumException("Cannot get edge info");
             case OUT:
                 if (!getFetchHints().isIncludeOutEdgeRefs() && !getFetchHints().hasEdgeLabelsOfEdgeRefsToInclude()) {
                     return null;
                 }
-                if (this.outEdges instanceof EdgesWithEdgeInfo) {
-                    return ((EdgesWithEdgeInfo) this.outEdges).getEntries();
+                if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+                    return ((EdgesWithEdgeInfo) getOutEdges()).getEntries();
                 }
                 throw new VertexiumException("Cannot get edge info");
             case BOTH:
@@ -550,13 +537,13 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
                 Iterable<String> outVertexIds = getVertexIds(Direction.OUT, labels, authorizations);
                 return new JoinIterable<>(inVertexIds, outVertexIds);
             case IN:
-                if (this.inEdges instanceof EdgesWithEdgeInfo) {
-                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) this.inEdges).getEdgeInfos(), labels);
+                if (getInEdges() instanceof EdgesWithEdgeInfo) {
+                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) getInEdges()).getEdgeInfos(), labels);
                 }
                 throw new VertexiumException("Cannot get vertex ids");
             case OUT:
-                if (this.outEdges instanceof EdgesWithEdgeInfo) {
-                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) this.outEdges).getEdgeInfos(), labels);
+                if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) getOutEdges()).getEdgeInfos(), labels);
                 }
                 throw new VertexiumException("Cannot get vertex ids");
             default:
@@ -575,32 +562,32 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     }
 
     void addOutEdge(Edge edge) {
-        if (this.outEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.outEdges).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.IN)));
+        if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getOutEdges()).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.IN)));
         } else {
             throw new VertexiumException("Cannot add edge");
         }
     }
 
     void removeOutEdge(Edge edge) {
-        if (this.outEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.outEdges).remove(edge.getId());
+        if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getOutEdges()).remove(edge.getId());
         } else {
             throw new VertexiumException("Cannot remove out edge");
         }
     }
 
     void addInEdge(Edge edge) {
-        if (this.inEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.inEdges).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.OUT)));
+        if (getInEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getInEdges()).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.OUT)));
         } else {
             throw new VertexiumException("Cannot add edge");
         }
     }
 
     void removeInEdge(Edge edge) {
-        if (this.inEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.inEdges).remove(edge.getId());
+        if (getInEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getInEdges()).remove(edge.getId());
         } else {
             throw new VertexiumException("Cannot remove in edge");
         }
@@ -7,6 +7,7 @@ import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -21,6 +22,8 @@ public class LazyMutableProperty extends MutableProperty {
     private final FetchHints fetchHints;
     private Set<Visibility> hiddenVisibilities;
     private byte[] propertyValue;
+    private int propertyValueOffset;
+    private int propertyValueLength;
     private LazyPropertyMetadata metadata;
     private Visibility visibility;
     private transient Object cachedPropertyValue;
@@ -37,12 +40,50 @@ public class LazyMutableProperty extends MutableProperty {
             Visibility visibility,
             long timestamp,
             FetchHints fetchHints
+    ) {
+        this(
+                graph,
+                vertexiumSerializer,
+                propertyKey,
+                propertyName,
+                propertyValue,
+                0,
+                propertyValue == null ? 0 : propertyValue.length,
+                metadata,
+                hiddenVisibilities,
+                visibility,
+                timestamp,
+                fetchHints
+        );
+    }
+
+    /**
+     * @param propertyValue       bytes containing the serialized value, possibly shared with other properties. The
+     *                            value is only copied out of the bytes if it is read.
+     * @param propertyValueOffset offset of the serialized value in propertyValue
+     * @param propertyValueLength length of the serialized value
+     */
+    public LazyMutableProperty(
+            AccumuloGraph graph,
+            VertexiumSerializer vertexiumSerializer,
+            String propertyKey,
+            String propertyName,
+            byte[] propertyValue,
+            int propertyValueOffset,
+            int propertyValueLength,
+            LazyPropertyMetadata metadata,
+            Set<Visibility> hiddenVisibilities,
+            Visibility visibility,
+            long timestamp,
+            FetchHints fetchHints
     ) {
         this.graph = graph;
         this.vertexiumSerializer = vertexiumSerializer;
         this.propertyKey = propertyKey;
         this.propertyName = propertyName;
         this.propertyValue = propertyValue;
+        this.propertyValueOffset = propertyValueOffset;
+        this.propertyValueLength = propertyValueLength;
         this.metadata = metadata;
         this.visibility = visibility;
         this.hiddenVisibilities = hiddenVisibilities;
@@ -109,14 +150,20 @@ public class LazyMutableProperty extends MutableProperty {
     @Override
     public Object getValue() {
         if (cachedPropertyValue == null) {
-            if (propertyValue == null || propertyValue.length == 0) {
+            if (propertyValue == null || propertyValueLength == 0) {
                 return null;
             }
-            cachedPropertyValue = this.vertexiumSerializer.bytesToObject(propertyValue);
+            byte[] value = propertyValue;
+            if (propertyValueOffset != 0 || propertyValueLength != propertyValue.length) {
+                value = Arrays.copyOfRange(propertyValue, propertyValueOffset, propertyValueOffset + propertyValueLength);
+            }
+            cachedPropertyValue = this.vertexiumSerializer.bytesToObject(value);
             if (cachedPropertyValue instanceof StreamingPropertyValueRef) {
                 //noinspection unchecked
                 cachedPropertyValue = ((StreamingPropertyValueRef) cachedPropertyValue).toStreamingPropertyValue(this.graph, getTimestamp());
             }
+            // the bytes may be shared with the rest of the row, don't keep them alive once the value is decoded
+            propertyValue = null;
         }
         return cachedPropertyValue;
     }
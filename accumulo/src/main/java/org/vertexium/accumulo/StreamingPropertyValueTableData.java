@@ -1,6 +1,7 @@
 package org.vertexium.accumulo;
 
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.ScannerBase;
@@ -15,11 +16,9 @@ import org.apache.hadoop.io.Text;
 import org.vertexium.VertexiumException;
 import org.vertexium.accumulo.util.RangeUtils;
 import org.vertexium.property.StreamingPropertyValue;
-import org.vertexium.util.ByteRingBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -28,6 +27,7 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
     public static final Text METADATA_COLUMN_FAMILY = new Text("a"); // this should sort before the data
     public static final Text DATA_COLUMN_FAMILY = new Text("d");
     public static final Text METADATA_LENGTH_COLUMN_QUALIFIER = new Text("length");
+    public static final Text METADATA_CHUNK_SIZE_COLUMN_QUALIFIER = new Text("chunkSize");
     private final AccumuloGraph graph;
     private final String dataRowKey;
     private Long length;
@@ -57,104 +57,175 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
         return new DataTableInputStream();
     }
 
+    /**
+     * Reads the data table chunks of the value one at a time. The chunk rows are keyed by the offset of their first
+     * byte, so when the chunk size is known {@link #skip(long)} and {@link #reset()} restart the scan at the chunk
+     * containing the new position instead of reading through the chunks before it.
+     */
     private class DataTableInputStream extends InputStream {
-        private final ByteRingBuffer buffer = new ByteRingBuffer(1024 * 1024);
         private long timerStartTime;
         private Span trace;
         private ScannerBase scanner;
         private Iterator<Map.Entry<Key, Value>> scannerIterator;
-        private long previousLoadedDataLength;
-        private long loadedDataLength;
+        private boolean scannerExhausted;
         private boolean closed;
-
-        private long markRowIndex = 0;
-        private long markByteOffsetInRow = 0;
-        private long markLoadedDataLength = 0;
-        private long currentDataRowIndex = -1;
-        private long currentByteOffsetInRow;
+        private Integer chunkSize;
+        private byte[] chunk;
+        private int chunkLength;
+        private int chunkOffset;
+        private long chunkStart;
+        private long position;
+        private long markPosition;
 
         @Override
         public int read(byte[] dest, int off, int len) throws IOException {
             if (len == 0) {
                 return 0;
             }
-            len = Math.min(len, buffer.getSize());
-            while (buffer.getUsed() == 0 && loadMoreData()) {
-
-            }
-            if (buffer.getUsed() == 0) {
+            if (!ensureChunkAvailable()) {
                 return -1;
             }
-
-            int bytesRead = buffer.read(dest, off, len);
-            currentByteOffsetInRow += bytesRead;
+            int bytesRead = Math.min(len, chunkLength - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, dest, off, bytesRead);
+            chunkOffset += bytesRead;
+            position += bytesRead;
             return bytesRead;
         }
 
         @Override
         public int read() throws IOException {
-            if (buffer.getUsed() < 1) {
-                loadMoreData();
-                if (buffer.getUsed() == 0) {
-                    return -1;
-                }
+            if (!ensureChunkAvailable()) {
+                return -1;
             }
-            currentByteOffsetInRow++;
-            return buffer.read();
+            position++;
+            return chunk[chunkOffset++] & 0xff;
         }
 
         @Override
-        public void close() throws IOException {
-            if (closed) {
-                return;
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
             }
-            scannerIterator = null;
-            if (scanner != null) {
-                scanner.close();
-                scanner = null;
+            if (chunk == null && chunkSize == null) {
+                // the first chunk is read along with the metadata containing the length and chunk size
+                ensureChunkAvailable();
             }
-            if (trace != null) {
-                trace.stop();
-                trace = null;
+            long start = position;
+            long target = position + n;
+            if (length != null) {
+                target = Math.min(target, length);
             }
+            moveTo(target);
+            return position - start;
+        }
 
-            graph.getGraphLogger().logEndIterator(System.currentTimeMillis() - timerStartTime);
-            super.close();
+        @Override
+        public int available() throws IOException {
+            return chunk == null ? 0 : chunkLength - chunkOffset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeScanner();
+            chunk = null;
             closed = true;
+            super.close();
         }
 
-        private boolean loadMoreData() throws IOException {
+        @Override
+        public synchronized void mark(int readlimit) {
+            markPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            closed = false;
+            moveTo(markPosition);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        private boolean ensureChunkAvailable() throws IOException {
+            while (chunk == null || chunkOffset >= chunkLength) {
+                if (!loadNextChunk()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void moveTo(long target) throws IOException {
+            if (chunk != null && target >= chunkStart && target <= chunkStart + chunkLength) {
+                chunkOffset = (int) (target - chunkStart);
+                position = target;
+                return;
+            }
+            if (chunkSize != null && chunkSize > 0) {
+                startScanner(target - (target % chunkSize));
+            } else if (target < position) {
+                startScanner(null);
+            }
+            // read forward to the chunk containing the target
+            while (true) {
+                if (!loadNextChunk()) {
+                    position = length == null ? target : Math.min(target, length);
+                    return;
+                }
+                if (target < chunkStart + chunkLength) {
+                    chunkOffset = (int) Math.max(0, target - chunkStart);
+                    position = chunkStart + chunkOffset;
+                    return;
+                }
+            }
+        }
+
+        private boolean loadNextChunk() throws IOException {
             if (closed) {
                 return false;
             }
-            Iterator<Map.Entry<Key, Value>> it = getScannerIterator();
+            if (scannerIterator == null) {
+                if (scannerExhausted) {
+                    return false;
+                }
+                startScanner(null);
+            }
             while (true) {
-                if (!it.hasNext()) {
-                    close();
+                if (!scannerIterator.hasNext()) {
+                    closeScanner();
+                    scannerExhausted = true;
+                    chunk = null;
                     return false;
                 }
-                Map.Entry<Key, Value> column = it.next();
+                Map.Entry<Key, Value> column = scannerIterator.next();
                 if (column.getKey().getColumnFamily().equals(METADATA_COLUMN_FAMILY)) {
-                    if (column.getKey().getColumnQualifier().equals(METADATA_LENGTH_COLUMN_QUALIFIER)) {
+                    Text columnQualifier = column.getKey().getColumnQualifier();
+                    if (columnQualifier.equals(METADATA_LENGTH_COLUMN_QUALIFIER)) {
                         length = Longs.fromByteArray(column.getValue().get());
                         continue;
                     }
+                    if (columnQualifier.equals(METADATA_CHUNK_SIZE_COLUMN_QUALIFIER)) {
+                        chunkSize = Ints.fromByteArray(column.getValue().get());
+                        continue;
+                    }
 
-                    throw new VertexiumException("unexpected metadata column qualifier: " + column.getKey().getColumnQualifier() + " (row: " + column.getKey().getRow() + ")");
+                    throw new VertexiumException("unexpected metadata column qualifier: " + columnQualifier + " (row: " + column.getKey().getRow() + ")");
                 }
 
                 if (column.getKey().getColumnFamily().equals(DATA_COLUMN_FAMILY)) {
-                    currentDataRowIndex++;
-                    currentByteOffsetInRow = 0;
-
-                    byte[] data = column.getValue().get();
                     if (length == null) {
                         throw new VertexiumException("unexpected missing length (row: " + column.getKey().getRow() + ")");
                     }
-                    long len = Math.min(data.length, length - loadedDataLength);
-                    buffer.write(data, 0, (int) len);
-                    previousLoadedDataLength = loadedDataLength;
-                    loadedDataLength += len;
+                    if (chunkSize == null) {
+                        // written without a chunk size, the chunks may have different sizes
+                        chunkSize = 0;
+                    }
+                    chunkStart = Long.parseLong(column.getKey().getColumnQualifier().toString(), 16);
+                    chunk = column.getValue().get();
+                    chunkLength = (int) Math.max(0, Math.min(chunk.length, length - chunkStart));
+                    chunkOffset = 0;
                     return true;
                 }
 
@@ -162,29 +233,23 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
             }
         }
 
-        private Iterator<Map.Entry<Key, Value>> getScannerIterator() throws IOException {
-            if (closed) {
-                throw new IOException("stream already closed");
-            }
-            if (scannerIterator != null) {
-                return scannerIterator;
-            }
-            scannerIterator = getScanner().iterator();
-            return scannerIterator;
-        }
-
-        private ScannerBase getScanner() throws IOException {
-            if (closed) {
-                throw new IOException("stream already closed");
+        /**
+         * @param chunkOffset the offset of the first chunk to read or null to read from the start of the row
+         *                    including the metadata.
+         */
+        private void startScanner(Long chunkOffset) throws IOException {
+            closeScanner();
+            chunk = null;
+            scannerExhausted = false;
+            Range range = RangeUtils.createRangeFromString(dataRowKey);
+            if (chunkOffset != null) {
+                Key startKey = new Key(new Text(dataRowKey), DATA_COLUMN_FAMILY, new Text(String.format("%08x", chunkOffset)));
+                range = new Range(startKey, true, range.getEndKey(), range.isEndKeyInclusive());
             }
-            if (scanner != null) {
-                return scanner;
-            }
-            ArrayList<Range> ranges = Lists.newArrayList(RangeUtils.createRangeFromString(dataRowKey));
 
             timerStartTime = System.currentTimeMillis();
             try {
-                scanner = graph.createBatchScanner(graph.getDataTableName(), ranges, new org.apache.accumulo.core.security.Authorizations());
+                scanner = graph.createBatchScanner(graph.getDataTableName(), Lists.newArrayList(range), new org.apache.accumulo.core.security.Authorizations());
             } catch (TableNotFoundException ex) {
                 throw new VertexiumException("Could not create scanner", ex);
             }
@@ -201,57 +266,20 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
             graph.getGraphLogger().logStartIterator(scanner);
             trace = Trace.start("streamingPropertyValueTableData");
             trace.data("dataRowKeyCount", Integer.toString(1));
-            return scanner;
-        }
-
-        @Override
-        public synchronized void mark(int readlimit) {
-            markRowIndex = Math.max(0, currentDataRowIndex);
-            markByteOffsetInRow = currentByteOffsetInRow;
-            markLoadedDataLength = previousLoadedDataLength;
+            scannerIterator = scanner.iterator();
         }
 
-        @Override
-        public synchronized void reset() throws IOException {
-            buffer.clear();
-            if (scannerIterator != null) {
-                scannerIterator = null;
+        private void closeScanner() {
+            scannerIterator = null;
+            if (scanner != null) {
+                scanner.close();
+                scanner = null;
+                graph.getGraphLogger().logEndIterator(System.currentTimeMillis() - timerStartTime);
             }
-
-            closed = false;
-
-            currentDataRowIndex = -1;
-            currentByteOffsetInRow = 0;
-            loadedDataLength = markLoadedDataLength;
-
-            Iterator<Map.Entry<Key, Value>> it = getScannerIterator();
-            while (true) {
-                if (!it.hasNext()) {
-                    close();
-                    return;
-                }
-                Map.Entry<Key, Value> column = it.next();
-                if (column.getKey().getColumnFamily().equals(DATA_COLUMN_FAMILY)) {
-                    currentDataRowIndex++;
-                    currentByteOffsetInRow = 0;
-                    if (currentDataRowIndex == markRowIndex) {
-                        byte[] data = column.getValue().get();
-                        long len = Math.min(data.length, length - loadedDataLength);
-                        buffer.write(data, 0, (int) len);
-                        loadedDataLength += len;
-                        while (currentByteOffsetInRow != markByteOffsetInRow) {
-                            buffer.read();
-                            currentByteOffsetInRow++;
-                        }
-                        return;
-                    }
-                }
+            if (trace != null) {
+                trace.stop();
+                trace = null;
             }
         }
-
-        @Override
-        public boolean markSupported() {
-            return true;
-        }
     }
 }
@@ -0,0 +1,168 @@
+package org.vertexium.accumulo.util;
+
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.vertexium.Graph;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.Property;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.AccumuloGraphConfiguration;
+import org.vertexium.accumulo.ElementMutationBuilder;
+import org.vertexium.accumulo.StreamingPropertyValueHdfsRef;
+import org.vertexium.accumulo.StreamingPropertyValueTableDataRef;
+import org.vertexium.accumulo.keys.DataTableRowKey;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.property.StreamingPropertyValueRef;
+import org.vertexium.util.IOUtils;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.vertexium.accumulo.StreamingPropertyValueTableData.*;
+
+/**
+ * Stores streaming property values of up to {@link AccumuloGraphConfiguration#MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE}
+ * bytes in the data table, split into fixed size chunks under the value's data table row. Larger values are written
+ * to HDFS like {@link OverflowIntoHdfsStreamingPropertyValueStorageStrategy}.
+ * <p>
+ * The buffer used to read a chunk starts small and grows as data arrives, so saving a small value doesn't allocate a
+ * buffer the size of the limit. Values are read back a chunk at a time and, since every chunk but the last has the same
+ * size, skipping or resetting the input stream seeks straight to the chunk containing the new position.
+ */
+public class ChunkedStreamingPropertyValueStorageStrategy extends OverflowIntoHdfsStreamingPropertyValueStorageStrategy {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(ChunkedStreamingPropertyValueStorageStrategy.class);
+    public static final String CHUNK_SIZE = AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX + ".chunkSize";
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private final int chunkSize;
+    private final long maxStreamingPropertyValueTableDataSize;
+
+    public ChunkedStreamingPropertyValueStorageStrategy(Graph graph, GraphConfiguration configuration) throws Exception {
+        super(graph, configuration);
+        AccumuloGraphConfiguration config = (AccumuloGraphConfiguration) configuration;
+        this.chunkSize = config.getInt(CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+        if (this.chunkSize < 1) {
+            throw new VertexiumException(CHUNK_SIZE + " must be greater than zero");
+        }
+        this.maxStreamingPropertyValueTableDataSize = config.getMaxStreamingPropertyValueTableDataSize();
+    }
+
+    @Override
+    public StreamingPropertyValueRef saveStreamingPropertyValue(
+            ElementMutationBuilder elementMutationBuilder,
+            String rowKey,
+            Property property,
+            StreamingPropertyValue streamingPropertyValue
+    ) {
+        try (InputStream in = streamingPropertyValue.getInputStream()) {
+            Long knownLength = streamingPropertyValue.getLength();
+            if (knownLength != null && knownLength > maxStreamingPropertyValueTableDataSize) {
+                return saveStreamingPropertyValueLarge(rowKey, property, streamingPropertyValue, new ArrayList<>(), in);
+            }
+
+            // without a known length the chunks are held until the end of the value or the limit is reached
+            boolean fitsInTable = knownLength != null;
+            String dataTableRowKey = new DataTableRowKey(rowKey, property).getRowKey();
+            ChunkReader chunkReader = new ChunkReader();
+            List<byte[]> pendingChunks = new ArrayList<>();
+            long length = 0;
+            while (chunkReader.readChunk(in)) {
+                if (fitsInTable) {
+                    saveChunk(elementMutationBuilder, dataTableRowKey, property, length, chunkReader.buffer, chunkReader.length);
+                } else {
+                    pendingChunks.add(Arrays.copyOf(chunkReader.buffer, chunkReader.length));
+                }
+                length += chunkReader.length;
+                if (length > maxStreamingPropertyValueTableDataSize) {
+                    if (fitsInTable) {
+                        throw new VertexiumException("Streaming property value is longer than its length: " + knownLength);
+                    }
+                    return saveStreamingPropertyValueLarge(rowKey, property, streamingPropertyValue, pendingChunks, in);
+                }
+            }
+            long offset = 0;
+            for (byte[] pendingChunk : pendingChunks) {
+                saveChunk(elementMutationBuilder, dataTableRowKey, property, offset, pendingChunk, pendingChunk.length);
+                offset += pendingChunk.length;
+            }
+
+            Mutation dataMutation = new Mutation(dataTableRowKey);
+            dataMutation.put(METADATA_COLUMN_FAMILY, METADATA_LENGTH_COLUMN_QUALIFIER, property.getTimestamp(), new Value(Longs.toByteArray(length)));
+            dataMutation.put(METADATA_COLUMN_FAMILY, METADATA_CHUNK_SIZE_COLUMN_QUALIFIER, property.getTimestamp(), new Value(Ints.toByteArray(chunkSize)));
+            elementMutationBuilder.saveDataMutation(dataMutation);
+
+            return new StreamingPropertyValueTableDataRef(dataTableRowKey, streamingPropertyValue, length);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not store streaming property value", ex);
+        }
+    }
+
+    private void saveChunk(
+            ElementMutationBuilder elementMutationBuilder,
+            String dataTableRowKey,
+            Property property,
+            long offset,
+            byte[] data,
+            int length
+    ) {
+        Mutation dataMutation = new Mutation(dataTableRowKey);
+        Text columnQualifier = new Text(String.format("%08x", offset));
+        dataMutation.put(DATA_COLUMN_FAMILY, columnQualifier, property.getTimestamp(), new Value(data, 0, length));
+        elementMutationBuilder.saveDataMutation(dataMutation);
+    }
+
+    private StreamingPropertyValueRef saveStreamingPropertyValueLarge(
+            String rowKey,
+            Property property,
+            StreamingPropertyValue streamingPropertyValue,
+            List<byte[]> pendingChunks,
+            InputStream in
+    ) throws IOException {
+        HdfsLargeDataStore largeDataStore = createLargeDataStore(rowKey, property);
+        long length = 0;
+        try (OutputStream out = largeDataStore.createOutputStream()) {
+            for (byte[] pendingChunk : pendingChunks) {
+                out.write(pendingChunk);
+                length += pendingChunk.length;
+            }
+            length += IOUtils.copy(in, out);
+        }
+        LOGGER.debug("saved large file to \"%s\" (length: %d)", largeDataStore.getFullHdfsPath(), length);
+        return new StreamingPropertyValueHdfsRef(largeDataStore.getRelativeFileName(), streamingPropertyValue);
+    }
+
+    /**
+     * Reads a value a chunk at a time into a buffer which grows up to the chunk size as needed.
+     */
+    private class ChunkReader {
+        private byte[] buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, chunkSize)];
+        private int length;
+
+        /**
+         * @return true if a chunk was read, every chunk but the last is filled to the chunk size.
+         */
+        boolean readChunk(InputStream in) throws IOException {
+            length = 0;
+            while (length < chunkSize) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(chunkSize, buffer.length * 2));
+                }
+                int read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+            return length > 0;
+        }
+    }
+}
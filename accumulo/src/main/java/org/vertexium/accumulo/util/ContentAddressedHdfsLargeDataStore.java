@@ -0,0 +1,121 @@
+package org.vertexium.accumulo.util;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.vertexium.Property;
+import org.vertexium.VertexiumException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Stores large values once per distinct content. The value is written to a temporary file while its SHA-256 hash is
+ * computed, when the stream is closed the file is moved to a path derived from the hash or, if a file with the same
+ * content already exists, discarded in favor of the existing file.
+ * <p>
+ * Files are shared by every property with the same content so they are never deleted when a property is saved, use
+ * {@link OverflowIntoHdfsStreamingPropertyValueStorageStrategy#deleteUnreferencedContent()} to remove files which
+ * are no longer referenced.
+ */
+public class ContentAddressedHdfsLargeDataStore extends HdfsLargeDataStore {
+    public static final String CONTENT_DIR = "sha256";
+    public static final String TEMP_DIR = "tmp";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private final FileSystem fs;
+    private final String dataDir;
+    private Path hdfsPath;
+    private String relativeFileName;
+    private boolean duplicate;
+
+    public ContentAddressedHdfsLargeDataStore(FileSystem fs, String dataDir, String rowKey, Property property) {
+        super(fs, dataDir, rowKey, property);
+        this.fs = fs;
+        this.dataDir = dataDir;
+    }
+
+    @Override
+    public OutputStream createOutputStream() throws IOException {
+        Path tempPath = new Path(dataDir, TEMP_DIR + "/" + UUID.randomUUID().toString());
+        if (!this.fs.mkdirs(tempPath.getParent())) {
+            throw new IOException("Could not create directory " + tempPath.getParent());
+        }
+        MessageDigest digest = createDigest();
+        return new DigestOutputStream(this.fs.create(tempPath), digest) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                super.close();
+                moveToContentPath(tempPath, digest.digest());
+            }
+        };
+    }
+
+    private void moveToContentPath(Path tempPath, byte[] hash) throws IOException {
+        this.relativeFileName = getContentFileName(toHex(hash));
+        this.hdfsPath = new Path(dataDir, this.relativeFileName);
+        if (!this.fs.exists(this.hdfsPath)) {
+            if (!this.fs.mkdirs(this.hdfsPath.getParent())) {
+                throw new IOException("Could not create directory " + this.hdfsPath.getParent());
+            }
+            if (this.fs.rename(tempPath, this.hdfsPath)) {
+                return;
+            }
+            if (!this.fs.exists(this.hdfsPath)) {
+                throw new IOException("Could not move " + tempPath + " to " + this.hdfsPath);
+            }
+        }
+
+        // another property already stored the same content
+        this.duplicate = true;
+        this.fs.delete(tempPath, false);
+        // touch the existing file so it isn't collected before the new reference is flushed
+        this.fs.setTimes(this.hdfsPath, System.currentTimeMillis(), -1);
+    }
+
+    @Override
+    public Path getFullHdfsPath() {
+        return hdfsPath;
+    }
+
+    @Override
+    public String getRelativeFileName() {
+        return relativeFileName;
+    }
+
+    /**
+     * @return true if the content was already stored by another property and no new file was kept.
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    static String getContentFileName(String hash) {
+        return CONTENT_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new VertexiumException("Could not create " + DIGEST_ALGORITHM + " digest", ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16));
+            result.append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+}
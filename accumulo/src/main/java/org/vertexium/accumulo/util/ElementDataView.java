@@ -0,0 +1,319 @@
+package org.vertexium.accumulo.util;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.vertexium.*;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.IndexedLazyPropertyMetadata;
+import org.vertexium.accumulo.LazyMutableProperty;
+import org.vertexium.accumulo.LazyPropertyMetadata;
+import org.vertexium.accumulo.MetadataEntry;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.Edges;
+import org.vertexium.accumulo.iterator.model.EdgesWithCount;
+import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
+import org.vertexium.accumulo.iterator.model.ElementData;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.id.NameSubstitutionStrategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A view over the bytes of an element encoded by {@link ElementData}. Nothing is copied out of the bytes up front:
+ * the offset table written after the header is used to decode each part of the element only when it is accessed.
+ * <p>
+ * Properties only decode their key, name, visibility and timestamp, values are deserialized from the shared bytes
+ * the first time they are read and metadata is decoded the first time it is read.
+ */
+public class ElementDataView {
+    private final byte[] data;
+    private final int[] offsets = new int[ElementData.OFFSET_TABLE_LENGTH];
+    private final String id;
+    private final long timestamp;
+    private final Visibility visibility;
+    private final Iterable<Visibility> hiddenVisibilities;
+    private final int metadataOffset;
+    private List<MetadataEntry> metadataEntries;
+
+    public ElementDataView(Value value, byte expectedTypeId) throws IOException {
+        this.data = value.get();
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte[] header = new byte[ElementData.HEADER.length];
+        if (data.length < header.length + 1) {
+            throw new IOException("Unexpected header length. Expected " + ElementData.HEADER.length + " found " + data.length);
+        }
+        in.get(header);
+        if (!Arrays.equals(header, ElementData.HEADER)) {
+            throw new IOException("Unexpected header " + new String(header, DataOutputStreamUtils.CHARSET)
+                    + " (expected: " + new String(ElementData.HEADER, DataOutputStreamUtils.CHARSET) + ")");
+        }
+        int typeId = in.get();
+        if (typeId != expectedTypeId) {
+            throw new IOException("Unexpected type id. Expected " + expectedTypeId + " found " + typeId);
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = in.getInt();
+        }
+        this.id = decodeString(in);
+        this.timestamp = in.getLong();
+        this.visibility = new Visibility(decodeString(in));
+        this.hiddenVisibilities = decodeVisibilities(in);
+        this.metadataOffset = in.position();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    public Iterable<Visibility> getHiddenVisibilities() {
+        return hiddenVisibilities;
+    }
+
+    private static String decodeString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length == 0) {
+            return "";
+        }
+        String result = new String(in.array(), in.arrayOffset() + in.position(), length, DataOutputStreamUtils.CHARSET);
+        in.position(in.position() + length);
+        return result;
+    }
+
+    private static List<Visibility> decodeVisibilities(ByteBuffer in) {
+        int count = in.getInt();
+        if (count == -1) {
+            return new ArrayList<>();
+        }
+        List<Visibility> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new Visibility(decodeString(in)));
+        }
+        return results;
+    }
+
+    private static ImmutableSet<String> decodeStringSet(ByteBuffer in) {
+        int count = in.getInt();
+        if (count == -1) {
+            return null;
+        }
+        ImmutableSet.Builder<String> results = ImmutableSet.builder();
+        for (int i = 0; i < count; i++) {
+            results.add(decodeString(in));
+        }
+        return results.build();
+    }
+
+    public Iterable<Property> getProperties(AccumuloGraph graph, FetchHints fetchHints) {
+        NameSubstitutionStrategy nameSubstitutionStrategy = graph.getNameSubstitutionStrategy();
+        ByteBuffer in = createBuffer(offsets[ElementData.OFFSET_PROPERTIES]);
+        Map<String, Visibility> visibilities = new HashMap<>();
+        List<Property> results = new ArrayList<>();
+        while (true) {
+            int propId = in.get();
+            if (propId == ElementData.PROP_END) {
+                break;
+            } else if (propId != ElementData.PROP_START) {
+                throw new VertexiumException("Unexpected prop id: " + propId);
+            }
+            String propertyKey = nameSubstitutionStrategy.inflate(decodeString(in));
+            String propertyName = nameSubstitutionStrategy.inflate(decodeString(in));
+            Visibility propertyVisibility = visibilities.computeIfAbsent(decodeString(in), Visibility::new);
+            long propertyTimestamp = in.getLong();
+            int propertyValueLength = in.getInt();
+            int propertyValueOffset = in.position();
+            in.position(propertyValueOffset + propertyValueLength);
+            Set<Visibility> propertyHiddenVisibilities = decodeHiddenVisibilities(in);
+            LazyPropertyMetadata metadata = decodePropertyMetadata(in);
+            results.add(new LazyMutableProperty(
+                    graph,
+                    graph.getVertexiumSerializer(),
+                    propertyKey,
+                    propertyName,
+                    data,
+                    propertyValueOffset,
+                    propertyValueLength,
+                    metadata,
+                    propertyHiddenVisibilities,
+                    propertyVisibility,
+                    propertyTimestamp,
+                    fetchHints
+            ));
+        }
+        return results;
+    }
+
+    private static Set<Visibility> decodeHiddenVisibilities(ByteBuffer in) {
+        int count = in.getInt();
+        if (count == -1) {
+            return null;
+        }
+        Set<Visibility> results = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new Visibility(decodeString(in)));
+        }
+        return results;
+    }
+
+    /**
+     * Only the position of the metadata indexes is kept, the indexes and the element's metadata entries are decoded
+     * the first time the property's metadata is read.
+     */
+    private LazyPropertyMetadata decodePropertyMetadata(ByteBuffer in) {
+        int count = in.getInt();
+        if (count <= 0) {
+            return null;
+        }
+        int metadataIndexesOffset = in.position();
+        in.position(metadataIndexesOffset + count * 4);
+        return new LazyPropertyMetadata() {
+            @Override
+            public Metadata toMetadata(VertexiumSerializer vertexiumSerializer, NameSubstitutionStrategy nameSubstitutionStrategy) {
+                ByteBuffer indexesIn = createBuffer(metadataIndexesOffset);
+                int[] metadataIndexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    metadataIndexes[i] = indexesIn.getInt();
+                }
+                return new IndexedLazyPropertyMetadata(getMetadataEntries(), metadataIndexes)
+                        .toMetadata(vertexiumSerializer, nameSubstitutionStrategy);
+            }
+        };
+    }
+
+    private synchronized List<MetadataEntry> getMetadataEntries() {
+        if (metadataEntries == null) {
+            ByteBuffer in = createBuffer(metadataOffset);
+            int i = in.get();
+            if (i != ElementData.METADATA_START) {
+                throw new VertexiumException(String.format("Unexpected metadata start: 0x%02x (expected: 0x%02x)", i, ElementData.METADATA_START));
+            }
+            int length = in.getInt();
+            List<MetadataEntry> results = new ArrayList<>(length);
+            for (i = 0; i < length; i++) {
+                String metadataKey = decodeString(in);
+                String metadataVisibility = decodeString(in);
+                byte[] value = new byte[in.getInt()];
+                in.get(value);
+                results.add(new MetadataEntry(metadataKey, metadataVisibility, value));
+            }
+            i = in.get();
+            if (i != ElementData.METADATA_END) {
+                throw new VertexiumException(String.format("Unexpected metadata end: 0x%02x (expected: 0x%02x)", i, ElementData.METADATA_END));
+            }
+            metadataEntries = results;
+        }
+        return metadataEntries;
+    }
+
+    public ImmutableSet<String> getExtendedTableNames() {
+        return decodeStringSet(createBuffer(offsets[ElementData.OFFSET_EXTENDED_TABLE_NAMES]));
+    }
+
+    public String getInVertexId() {
+        ByteBuffer in = getTypeData();
+        return decodeString(in);
+    }
+
+    public String getOutVertexId() {
+        ByteBuffer in = getTypeData();
+        skipString(in);
+        return decodeString(in);
+    }
+
+    public String getLabel() {
+        ByteBuffer in = getTypeData();
+        skipString(in);
+        skipString(in);
+        return decodeString(in);
+    }
+
+    private ByteBuffer getTypeData() {
+        return createBuffer(offsets[ElementData.OFFSET_TYPE_DATA]);
+    }
+
+    public Edges getOutEdges(NameSubstitutionStrategy nameSubstitutionStrategy) {
+        ByteBuffer in = getTypeData();
+        in.getInt();
+        return decodeEdges(in, nameSubstitutionStrategy);
+    }
+
+    public Edges getInEdges(NameSubstitutionStrategy nameSubstitutionStrategy) {
+        int inEdgesOffset = getTypeData().getInt();
+        return decodeEdges(createBuffer(inEdgesOffset), nameSubstitutionStrategy);
+    }
+
+    private static Edges decodeEdges(ByteBuffer in, NameSubstitutionStrategy nameSubstitutionStrategy) {
+        int edgeLabelMarker = in.get();
+        if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_WITH_REFS_MARKER) {
+            return decodeEdgesWithRefs(in, nameSubstitutionStrategy);
+        } else if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_ONLY_MARKER) {
+            return decodeEdgesLabelsOnly(in, nameSubstitutionStrategy);
+        } else {
+            throw new VertexiumException("Unexpected edge label marker: " + edgeLabelMarker);
+        }
+    }
+
+    private static Edges decodeEdgesLabelsOnly(ByteBuffer in, NameSubstitutionStrategy nameSubstitutionStrategy) {
+        EdgesWithCount edges = new EdgesWithCount();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String label = nameSubstitutionStrategy.inflate(decodeString(in));
+            int edgeByLabelCount = in.getInt();
+            edges.add(label, edgeByLabelCount);
+        }
+        return edges;
+    }
+
+    private static Edges decodeEdgesWithRefs(ByteBuffer in, NameSubstitutionStrategy nameSubstitutionStrategy) {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String label = nameSubstitutionStrategy.inflate(decodeString(in));
+            int edgeByLabelCount = in.getInt();
+            for (int edgeByLabelIndex = 0; edgeByLabelIndex < edgeByLabelCount; edgeByLabelIndex++) {
+                Text edgeId = decodeText(in);
+                long timestamp = in.getLong();
+                String vertexId = decodeString(in);
+                edges.add(edgeId, new EdgeInfo(label, vertexId, timestamp));
+            }
+        }
+        return edges;
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+
+    private static Text decodeText(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        Text result = new Text();
+        result.set(in.array(), in.arrayOffset() + in.position(), length);
+        in.position(in.position() + length);
+        return result;
+    }
+
+    private ByteBuffer createBuffer(int offset) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        in.position(offset);
+        return in;
+    }
+}
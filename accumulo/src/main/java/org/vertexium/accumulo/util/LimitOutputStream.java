@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 public class LimitOutputStream extends OutputStream {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
     private final int maxSizeToStore;
     private final ByteArrayOutputStream smallOutputStream;
     private final LargeDataStore largeDataStore;
@@ -14,7 +15,8 @@ public class LimitOutputStream extends OutputStream {
     public LimitOutputStream(LargeDataStore largeDataStore, long maxSizeToStore) {
         this.largeDataStore = largeDataStore;
         this.maxSizeToStore = (int) maxSizeToStore;
-        this.smallOutputStream = new ByteArrayOutputStream((int) maxSizeToStore);
+        // the buffer grows as data is written so small values don't allocate a buffer the size of the limit
+        this.smallOutputStream = new ByteArrayOutputStream((int) Math.min(maxSizeToStore, INITIAL_BUFFER_SIZE));
         this.length = 0;
     }
 
@@ -1,12 +1,21 @@
 package org.vertexium.accumulo.util;
 
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.ScannerBase;
+import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.io.Text;
 import org.vertexium.Graph;
 import org.vertexium.GraphConfiguration;
 import org.vertexium.Property;
@@ -19,22 +28,33 @@ import org.vertexium.util.IOUtils;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.vertexium.accumulo.ElementMutationBuilder.EMPTY_TEXT;
 
 public class OverflowIntoHdfsStreamingPropertyValueStorageStrategy implements StreamingPropertyValueStorageStrategy {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(ElementMutationBuilder.class);
+    public static final String DEDUPLICATE = AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX + ".deduplicate";
+    public static final boolean DEFAULT_DEDUPLICATE = false;
+    public static final String UNREFERENCED_CONTENT_GRACE_PERIOD = AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX + ".unreferencedContentGracePeriod";
+    public static final long DEFAULT_UNREFERENCED_CONTENT_GRACE_PERIOD = 60 * 60 * 1000L;
     private final FileSystem fileSystem;
     private final long maxStreamingPropertyValueTableDataSize;
     private final String dataDir;
     private final AccumuloGraph graph;
+    private final boolean deduplicate;
+    private final long unreferencedContentGracePeriod;
 
     public OverflowIntoHdfsStreamingPropertyValueStorageStrategy(Graph graph, GraphConfiguration configuration) throws Exception {
         if (!(configuration instanceof AccumuloGraphConfiguration)) {
@@ -48,6 +68,8 @@ public class OverflowIntoHdfsStreamingPropertyValueStorageStrategy implements St
         this.fileSystem = config.createFileSystem();
         this.maxStreamingPropertyValueTableDataSize = config.getMaxStreamingPropertyValueTableDataSize();
         this.dataDir = config.getDataDir();
+        this.deduplicate = config.getBoolean(DEDUPLICATE, DEFAULT_DEDUPLICATE);
+        this.unreferencedContentGracePeriod = config.getConfigLong(UNREFERENCED_CONTENT_GRACE_PERIOD, DEFAULT_UNREFERENCED_CONTENT_GRACE_PERIOD);
     }
 
     @Override
@@ -58,7 +80,7 @@ public class OverflowIntoHdfsStreamingPropertyValueStorageStrategy implements St
             StreamingPropertyValue streamingPropertyValue
     ) {
         try {
-            HdfsLargeDataStore largeDataStore = new HdfsLargeDataStore(this.fileSystem, this.dataDir, rowKey, property);
+            HdfsLargeDataStore largeDataStore = createLargeDataStore(rowKey, property);
             LimitOutputStream out = new LimitOutputStream(largeDataStore, maxStreamingPropertyValueTableDataSize);
             try {
                 IOUtils.copy(streamingPropertyValue.getInputStream(), out);
@@ -77,6 +99,163 @@ public class OverflowIntoHdfsStreamingPropertyValueStorageStrategy implements St
         }
     }
 
+    /**
+     * Creates the store large values are written to, when {@link #DEDUPLICATE} is enabled values with the same content
+     * share a single file.
+     */
+    protected HdfsLargeDataStore createLargeDataStore(String rowKey, Property property) {
+        if (deduplicate) {
+            return new ContentAddressedHdfsLargeDataStore(this.fileSystem, this.dataDir, rowKey, property);
+        }
+        return new HdfsLargeDataStore(this.fileSystem, this.dataDir, rowKey, property);
+    }
+
+    /**
+     * Deletes the content files written by {@link ContentAddressedHdfsLargeDataStore} which are no longer referenced
+     * by a property or extended data value. Every table which can hold a reference is scanned to mark the referenced
+     * files, then files which aren't marked and weren't written or reused within
+     * {@link #UNREFERENCED_CONTENT_GRACE_PERIOD} are removed. The grace period covers values saved while the
+     * tables are scanned.
+     * <p>
+     * The tables are scanned with the authorizations of the graph's Accumulo user, so a reference under a visibility
+     * that user can't read would not be marked. Deleting fails if another Accumulo user holds authorizations the
+     * graph's user doesn't, and requires the graph's user to have the permission to read other users'
+     * authorizations. References under labels no user holds can't be found.
+     * <p>
+     * A value saved with the content of an existing file updates the file's modification time, which is checked again
+     * right before the file is deleted. A save which updates it between that check and the delete, a window of a
+     * single file system call, still loses the file.
+     *
+     * @return the number of files deleted.
+     */
+    public long deleteUnreferencedContent() {
+        graph.flush();
+        long deleteBefore = System.currentTimeMillis() - unreferencedContentGracePeriod;
+        try {
+            Set<String> referencedFileNames = findReferencedContentFileNames();
+            long deleteCount = 0;
+            Path contentDir = new Path(dataDir, ContentAddressedHdfsLargeDataStore.CONTENT_DIR);
+            if (fileSystem.exists(contentDir)) {
+                RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(contentDir, true);
+                while (files.hasNext()) {
+                    LocatedFileStatus file = files.next();
+                    if (file.getModificationTime() > deleteBefore) {
+                        continue;
+                    }
+                    String relativeFileName = ContentAddressedHdfsLargeDataStore.getContentFileName(file.getPath().getName());
+                    if (referencedFileNames.contains(relativeFileName)) {
+                        continue;
+                    }
+                    // the file may have been reused by a save since it was listed
+                    if (getModificationTime(file.getPath()) > deleteBefore) {
+                        continue;
+                    }
+                    LOGGER.debug("deleting unreferenced content \"%s\"", file.getPath());
+                    if (fileSystem.delete(file.getPath(), false)) {
+                        deleteCount++;
+                    }
+                }
+            }
+
+            // temporary files left behind by writes which never completed
+            Path tempDir = new Path(dataDir, ContentAddressedHdfsLargeDataStore.TEMP_DIR);
+            if (fileSystem.exists(tempDir)) {
+                for (FileStatus file : fileSystem.listStatus(tempDir)) {
+                    if (file.getModificationTime() < deleteBefore) {
+                        fileSystem.delete(file.getPath(), false);
+                    }
+                }
+            }
+            LOGGER.info("deleted %d unreferenced content files (referenced: %d)", deleteCount, referencedFileNames.size());
+            return deleteCount;
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not delete unreferenced content", ex);
+        }
+    }
+
+    private long getModificationTime(Path path) throws IOException {
+        try {
+            return fileSystem.getFileStatus(path).getModificationTime();
+        } catch (FileNotFoundException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Set<String> findReferencedContentFileNames() {
+        List<String> tableNames = new ArrayList<>();
+        tableNames.add(graph.getVerticesTableName());
+        tableNames.add(graph.getEdgesTableName());
+        if (graph.getConfiguration().isHistoryInSeparateTable()) {
+            tableNames.add(graph.getHistoryVerticesTableName());
+            tableNames.add(graph.getHistoryEdgesTableName());
+        }
+
+        org.apache.accumulo.core.security.Authorizations authorizations = getUserAuthorizations();
+        checkAuthorizationsCoverAllUsers(authorizations);
+        Set<String> results = new HashSet<>();
+        for (String tableName : tableNames) {
+            addReferencedContentFileNames(results, tableName, AccumuloElement.CF_PROPERTY, authorizations);
+        }
+        addReferencedContentFileNames(results, graph.getExtendedDataTableName(), AccumuloElement.CF_EXTENDED_DATA, authorizations);
+        return results;
+    }
+
+    private void addReferencedContentFileNames(
+            Set<String> results,
+            String tableName,
+            Text columnFamily,
+            org.apache.accumulo.core.security.Authorizations authorizations
+    ) {
+        String contentDirPrefix = ContentAddressedHdfsLargeDataStore.CONTENT_DIR + "/";
+        try {
+            ScannerBase scanner = graph.createBatchScanner(tableName, Collections.singletonList(new org.apache.accumulo.core.data.Range()), authorizations);
+            try {
+                scanner.fetchColumnFamily(columnFamily);
+                for (Map.Entry<Key, Value> column : scanner) {
+                    Object value = graph.getVertexiumSerializer().bytesToObject(column.getValue().get());
+                    if (value instanceof StreamingPropertyValueHdfsRef) {
+                        String path = ((StreamingPropertyValueHdfsRef) value).getPath();
+                        if (path.startsWith(contentDirPrefix)) {
+                            results.add(path);
+                        }
+                    }
+                }
+            } finally {
+                scanner.close();
+            }
+        } catch (TableNotFoundException ex) {
+            throw new VertexiumException("Could not find table: " + tableName, ex);
+        }
+    }
+
+    private void checkAuthorizationsCoverAllUsers(org.apache.accumulo.core.security.Authorizations authorizations) {
+        Connector connector = graph.getConnector();
+        Set<String> missingAuthorizations = new HashSet<>();
+        try {
+            for (String user : connector.securityOperations().listLocalUsers()) {
+                for (byte[] authorization : connector.securityOperations().getUserAuthorizations(user)) {
+                    if (!authorizations.contains(authorization)) {
+                        missingAuthorizations.add(new String(authorization, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch (AccumuloException | AccumuloSecurityException ex) {
+            throw new VertexiumException("Could not check that user " + connector.whoami() + " can read every reference to content", ex);
+        }
+        if (!missingAuthorizations.isEmpty()) {
+            throw new VertexiumException("User " + connector.whoami() + " is missing authorizations " + missingAuthorizations + " held by other users, references to content under them would not be found");
+        }
+    }
+
+    private org.apache.accumulo.core.security.Authorizations getUserAuthorizations() {
+        try {
+            Connector connector = graph.getConnector();
+            return connector.securityOperations().getUserAuthorizations(connector.whoami());
+        } catch (AccumuloException | AccumuloSecurityException ex) {
+            throw new VertexiumException("Could not get user authorizations", ex);
+        }
+    }
+
     @Override
     public void close() {
         try {
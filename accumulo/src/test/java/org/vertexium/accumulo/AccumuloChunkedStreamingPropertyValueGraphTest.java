@@ -0,0 +1,95 @@
+package org.vertexium.accumulo;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.vertexium.Vertex;
+import org.vertexium.accumulo.util.ChunkedStreamingPropertyValueStorageStrategy;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class AccumuloChunkedStreamingPropertyValueGraphTest extends AccumuloGraphTestBase {
+
+    @ClassRule
+    public static final AccumuloResource accumuloResource = new AccumuloResource(new HashMap<String, String>() {{
+        put(AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX, ChunkedStreamingPropertyValueStorageStrategy.class.getName());
+        put(ChunkedStreamingPropertyValueStorageStrategy.CHUNK_SIZE, "4");
+    }});
+
+    @Override
+    public AccumuloResource getAccumuloResource() {
+        return accumuloResource;
+    }
+
+    @Override
+    protected String substitutionDeflate(String str) {
+        return str;
+    }
+
+    @Test
+    public void testChunkedStreamingPropertyValueRanges() {
+        getGraph().prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", StreamingPropertyValue.create("abcdefghijklmnopq"), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        StreamingPropertyValue spv = (StreamingPropertyValue) getGraph().getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("k1", "prop1");
+        assertEquals("abcdefghijklmnopq", spv.readToString());
+        assertEquals("abc", spv.readToString(0, 3));
+        assertEquals("efgh", spv.readToString(4, 4));
+        assertEquals("ghijklm", spv.readToString(6, 7));
+        assertEquals("q", spv.readToString(16, 10));
+        assertEquals("", spv.readToString(17, 1));
+    }
+
+    @Test
+    public void testChunkedStreamingPropertyValueSkipMarkAndReset() throws IOException {
+        getGraph().prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", StreamingPropertyValue.create("abcdefghijklmnopq"), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        StreamingPropertyValue spv = (StreamingPropertyValue) getGraph().getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("k1", "prop1");
+        try (InputStream in = spv.getInputStream()) {
+            assertEquals(9, in.skip(9));
+            assertEquals('j', in.read());
+            in.mark(100);
+            assertEquals('k', in.read());
+            assertEquals(3, in.skip(3));
+            assertEquals('o', in.read());
+            in.reset();
+            assertEquals('k', in.read());
+            assertEquals(6, in.skip(100));
+            assertEquals(-1, in.read());
+            in.reset();
+            assertEquals('k', in.read());
+        }
+    }
+
+    @Test
+    public void testChunkedStreamingPropertyValueWithoutLength() {
+        byte[] small = "small value of unknown length".getBytes();
+        byte[] large = new byte[LARGE_PROPERTY_VALUE_SIZE];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) ('a' + i % 26);
+        }
+        getGraph().prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("small", "prop1", StreamingPropertyValue.create(new ByteArrayInputStream(small), String.class), VISIBILITY_A)
+                .addPropertyValue("large", "prop1", StreamingPropertyValue.create(new ByteArrayInputStream(large), String.class), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        Vertex v1 = getGraph().getVertex("v1", AUTHORIZATIONS_A);
+        StreamingPropertyValue smallSpv = (StreamingPropertyValue) v1.getPropertyValue("small", "prop1");
+        assertEquals(new String(small), smallSpv.readToString());
+        assertEquals(Long.valueOf(small.length), smallSpv.getLength());
+        StreamingPropertyValue largeSpv = (StreamingPropertyValue) v1.getPropertyValue("large", "prop1");
+        assertEquals(new String(large), largeSpv.readToString());
+        assertEquals(new String(large, LARGE_PROPERTY_VALUE_SIZE - 6, 5), largeSpv.readToString(LARGE_PROPERTY_VALUE_SIZE - 6, 5));
+    }
+}
@@ -0,0 +1,119 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.admin.SecurityOperations;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.util.ContentAddressedHdfsLargeDataStore;
+import org.vertexium.accumulo.util.OverflowIntoHdfsStreamingPropertyValueStorageStrategy;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class AccumuloDeduplicatedStreamingPropertyValueGraphTest extends AccumuloGraphTestBase {
+
+    @ClassRule
+    public static final AccumuloResource accumuloResource = new AccumuloResource(new HashMap<String, String>() {{
+        put(AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX, OverflowIntoHdfsStreamingPropertyValueStorageStrategy.class.getName());
+        put(OverflowIntoHdfsStreamingPropertyValueStorageStrategy.DEDUPLICATE, "true");
+        put(OverflowIntoHdfsStreamingPropertyValueStorageStrategy.UNREFERENCED_CONTENT_GRACE_PERIOD, "0");
+        put(AccumuloGraphConfiguration.HISTORY_IN_SEPARATE_TABLE, "false");
+    }});
+
+    @Override
+    public AccumuloResource getAccumuloResource() {
+        return accumuloResource;
+    }
+
+    @Override
+    protected String substitutionDeflate(String str) {
+        return str;
+    }
+
+    @Test
+    public void testDeduplicatedStreamingPropertyValues() throws IOException {
+        OverflowIntoHdfsStreamingPropertyValueStorageStrategy strategy = (OverflowIntoHdfsStreamingPropertyValueStorageStrategy) getGraph().getStreamingPropertyValueStorageStrategy();
+        // remove content left behind by previous runs
+        strategy.deleteUnreferencedContent();
+
+        String content1 = createLargeString('a');
+        String content2 = createLargeString('b');
+        getGraph().prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", StreamingPropertyValue.create(content1), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().prepareVertex("v2", VISIBILITY_B)
+                .addPropertyValue("k1", "prop1", StreamingPropertyValue.create(content1), VISIBILITY_B)
+                .save(AUTHORIZATIONS_B);
+        getGraph().prepareVertex("v3", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", StreamingPropertyValue.create(content2), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+        assertEquals(2, countContentFiles(strategy));
+
+        assertEquals(content1, ((StreamingPropertyValue) getGraph().getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("k1", "prop1")).readToString());
+        assertEquals(content1, ((StreamingPropertyValue) getGraph().getVertex("v2", AUTHORIZATIONS_B).getPropertyValue("k1", "prop1")).readToString());
+        assertEquals(content2, ((StreamingPropertyValue) getGraph().getVertex("v3", AUTHORIZATIONS_A).getPropertyValue("k1", "prop1")).readToString());
+        assertEquals(0, strategy.deleteUnreferencedContent());
+
+        getGraph().deleteVertex("v1", AUTHORIZATIONS_A);
+        getGraph().flush();
+        assertEquals(0, strategy.deleteUnreferencedContent());
+        assertEquals(content1, ((StreamingPropertyValue) getGraph().getVertex("v2", AUTHORIZATIONS_B).getPropertyValue("k1", "prop1")).readToString());
+
+        getGraph().deleteVertex("v2", AUTHORIZATIONS_B);
+        getGraph().flush();
+        assertEquals(1, strategy.deleteUnreferencedContent());
+        assertEquals(1, countContentFiles(strategy));
+        assertNull(getGraph().getVertex("v2", AUTHORIZATIONS_B));
+        assertEquals(content2, ((StreamingPropertyValue) getGraph().getVertex("v3", AUTHORIZATIONS_A).getPropertyValue("k1", "prop1")).readToString());
+    }
+
+    @Test
+    public void testDeleteUnreferencedContentRequiresAllAuthorizations() throws Exception {
+        OverflowIntoHdfsStreamingPropertyValueStorageStrategy strategy = (OverflowIntoHdfsStreamingPropertyValueStorageStrategy) getGraph().getStreamingPropertyValueStorageStrategy();
+        SecurityOperations securityOperations = getGraph().getConnector().securityOperations();
+        securityOperations.createLocalUser("dedupOtherUser", new PasswordToken("password"));
+        try {
+            securityOperations.changeUserAuthorizations("dedupOtherUser", new org.apache.accumulo.core.security.Authorizations("dedupUnreadable"));
+            try {
+                strategy.deleteUnreferencedContent();
+                fail("expected missing authorizations to fail");
+            } catch (VertexiumException ex) {
+                // expected
+            }
+        } finally {
+            securityOperations.dropLocalUser("dedupOtherUser");
+        }
+    }
+
+    private String createLargeString(char ch) {
+        char[] chars = new char[LARGE_PROPERTY_VALUE_SIZE];
+        Arrays.fill(chars, ch);
+        return new String(chars);
+    }
+
+    private int countContentFiles(OverflowIntoHdfsStreamingPropertyValueStorageStrategy strategy) throws IOException {
+        FileSystem fs = strategy.getFileSystem();
+        Path contentDir = new Path(strategy.getDataDir(), ContentAddressedHdfsLargeDataStore.CONTENT_DIR);
+        if (!fs.exists(contentDir)) {
+            return 0;
+        }
+        int count = 0;
+        RemoteIterator<?> files = fs.listFiles(contentDir, true);
+        while (files.hasNext()) {
+            files.next();
+            count++;
+        }
+        return count;
+    }
+}
@@ -69,6 +69,64 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
         return false;
     }
 
+    @Test
+    public void testElementDataViewRoundTrip() throws IOException {
+        Text row = new Text("v1");
+        List<Map.Entry<Key, Value>> rows = new ArrayList<>();
+        rows.add(createPropertyRow(row, "prop1", "k1", "a", 10L, "value1"));
+        rows.add(createPropertyRow(row, "prop2", "k1", "a", 20L, 42));
+        rows.add(createPropertyMetadataRow(row, "prop1", "k1", "a", 10L, "meta1", "metaValue1"));
+        rows.add(new AbstractMap.SimpleEntry<>(new Key(row, AccumuloVertex.CF_SIGNAL, EMPTY_TEXT, new Text("a"), 5L), new Value(new byte[0])));
+
+        FetchHints fetchHints = FetchHints.ALL;
+        org.vertexium.accumulo.iterator.model.IteratorFetchHints iteratorFetchHints = getGraph().toIteratorFetchHints(fetchHints);
+        org.vertexium.accumulo.iterator.VertexIterator vertexIterator = new org.vertexium.accumulo.iterator.VertexIterator(iteratorFetchHints);
+        Value value = vertexIterator.createElementDataFromRows(rows.iterator()).encode(iteratorFetchHints);
+
+        org.vertexium.accumulo.util.ElementDataView view = new org.vertexium.accumulo.util.ElementDataView(value, org.vertexium.accumulo.iterator.model.ElementData.TYPE_ID_VERTEX);
+        assertEquals("v1", view.getId());
+        assertEquals(VISIBILITY_A, view.getVisibility());
+        Map<String, Property> properties = new HashMap<>();
+        for (Property property : view.getProperties(getGraph(), fetchHints)) {
+            properties.put(property.getName(), property);
+        }
+        assertEquals(2, properties.size());
+
+        Property prop1 = properties.get("prop1");
+        assertEquals("k1", prop1.getKey());
+        assertEquals(VISIBILITY_A, prop1.getVisibility());
+        assertEquals(10L, prop1.getTimestamp());
+        assertEquals("value1", prop1.getValue());
+        assertEquals("value1", prop1.getValue());
+        assertEquals(1, prop1.getMetadata().entrySet().size());
+        assertEquals("metaValue1", prop1.getMetadata().getValue("meta1"));
+
+        Property prop2 = properties.get("prop2");
+        assertEquals(20L, prop2.getTimestamp());
+        assertEquals(42, prop2.getValue());
+        assertEquals(0, prop2.getMetadata().entrySet().size());
+    }
+
+    private Map.Entry<Key, Value> createPropertyRow(Text row, String name, String key, String visibility, long timestamp, Object value) {
+        Text columnQualifier = new Text(substitutionDeflate(name) + VALUE_SEPARATOR + substitutionDeflate(key));
+        Key k = new Key(row, AccumuloElement.CF_PROPERTY, columnQualifier, new Text(visibility), timestamp);
+        return new AbstractMap.SimpleEntry<>(k, new Value(getGraph().getVertexiumSerializer().objectToBytes(value)));
+    }
+
+    private Map.Entry<Key, Value> createPropertyMetadataRow(
+            Text row,
+            String name,
+            String key,
+            String visibility,
+            long timestamp,
+            String metadataKey,
+            Object value
+    ) {
+        Text columnQualifier = new Text(substitutionDeflate(name) + VALUE_SEPARATOR + substitutionDeflate(key) + VALUE_SEPARATOR + visibility + VALUE_SEPARATOR + substitutionDeflate(metadataKey));
+        Key k = new Key(row, AccumuloElement.CF_PROPERTY_METADATA, columnQualifier, new Text(""), timestamp);
+        return new AbstractMap.SimpleEntry<>(k, new Value(getGraph().getVertexiumSerializer().objectToBytes(value)));
+    }
+
     @Test
     public void testFetchHints() {
         Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
@@ -476,6 +534,29 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
         }
     }
 
+    @Test
+    public void testGetCountsAcrossSplits() throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
+        SortedSet<Text> keys = new TreeSet<>();
+        keys.add(new Text("v2"));
+        getGraph().getConnector().tableOperations().addSplits(getGraph().getVerticesTableName(), keys);
+        keys = new TreeSet<>();
+        keys.add(new Text("e2"));
+        getGraph().getConnector().tableOperations().addSplits(getGraph().getEdgesTableName(), keys);
+
+        Vertex v1 = getGraph().addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = getGraph().addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = getGraph().addVertex("v3", VISIBILITY_B, AUTHORIZATIONS_B);
+        getGraph().addEdge("e1", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().addEdge("e2", v2, v3, LABEL_LABEL1, VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+        getGraph().addEdge("e3", v3, v1, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        getGraph().flush();
+
+        assertEquals(2, getGraph().getVertexCount(AUTHORIZATIONS_A));
+        assertEquals(3, getGraph().getVertexCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(2, getGraph().getEdgeCount(AUTHORIZATIONS_A));
+        assertEquals(3, getGraph().getEdgeCount(AUTHORIZATIONS_A_AND_B));
+    }
+
     @Test
     public void testListSplits() throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
         SortedSet<Text> keys = new TreeSet<>();
@@ -0,0 +1,89 @@
+package org.vertexium.accumulo;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.vertexium.Edge;
+import org.vertexium.ElementType;
+import org.vertexium.Vertex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class AccumuloStatisticsGraphTest extends AccumuloGraphTestBase {
+
+    @ClassRule
+    public static final AccumuloResource accumuloResource = new AccumuloResource(new HashMap<String, String>() {{
+        put(AccumuloGraphConfiguration.STATISTICS_ENABLED, "true");
+    }});
+
+    @Override
+    public AccumuloResource getAccumuloResource() {
+        return accumuloResource;
+    }
+
+    @Override
+    protected String substitutionDeflate(String str) {
+        return str;
+    }
+
+    @Test
+    public void testStatistics() {
+        Vertex v1 = getGraph().addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = getGraph().addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = getGraph().addVertex("v3", VISIBILITY_B, AUTHORIZATIONS_B);
+        getGraph().addEdge("e1", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().addEdge("e2", v2, v3, LABEL_LABEL1, VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+        getGraph().addEdge("e3", v3, v1, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        getGraph().addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().flush();
+        getGraph().addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().flush();
+        assertStatistics();
+
+        getGraph().getStatistics().recompute();
+        assertStatistics();
+
+        Edge e1 = getGraph().getEdge("e1", AUTHORIZATIONS_A);
+        e1.prepareMutation().alterEdgeLabel(LABEL_LABEL2).save(AUTHORIZATIONS_A);
+        getGraph().getVertex("v2", AUTHORIZATIONS_A).prepareMutation().alterElementVisibility(VISIBILITY_B).save(AUTHORIZATIONS_A_AND_B);
+        getGraph().deleteVertex("v3", AUTHORIZATIONS_A_AND_B);
+        getGraph().flush();
+
+        AccumuloGraphStatistics statistics = getGraph().getStatistics();
+        assertEquals(1, statistics.getVertexCount(AUTHORIZATIONS_A));
+        assertEquals(2, statistics.getVertexCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(1, statistics.getEdgeCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(LABEL_LABEL2, 1L), statistics.getEdgeLabelCounts(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(VISIBILITY_A, 1L, VISIBILITY_B, 1L), statistics.getVisibilityCounts(ElementType.VERTEX, AUTHORIZATIONS_A_AND_B));
+
+        statistics.recompute();
+        assertEquals(2, statistics.getVertexCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(1, statistics.getEdgeCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(LABEL_LABEL2, 1L), statistics.getEdgeLabelCounts(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(VISIBILITY_A, 1L, VISIBILITY_B, 1L), statistics.getVisibilityCounts(ElementType.VERTEX, AUTHORIZATIONS_A_AND_B));
+    }
+
+    private void assertStatistics() {
+        AccumuloGraphStatistics statistics = getGraph().getStatistics();
+        assertEquals(2, statistics.getVertexCount(AUTHORIZATIONS_A));
+        assertEquals(3, statistics.getVertexCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(2, statistics.getEdgeCount(AUTHORIZATIONS_A));
+        assertEquals(3, statistics.getEdgeCount(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(LABEL_LABEL1, 1L, LABEL_LABEL2, 1L), statistics.getEdgeLabelCounts(AUTHORIZATIONS_A));
+        assertEquals(map(LABEL_LABEL1, 2L, LABEL_LABEL2, 1L), statistics.getEdgeLabelCounts(AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(VISIBILITY_A, 2L), statistics.getVisibilityCounts(ElementType.VERTEX, AUTHORIZATIONS_A));
+        assertEquals(map(VISIBILITY_A, 2L, VISIBILITY_B, 1L), statistics.getVisibilityCounts(ElementType.VERTEX, AUTHORIZATIONS_A_AND_B));
+        assertEquals(map(VISIBILITY_A, 2L, VISIBILITY_B, 1L), statistics.getVisibilityCounts(ElementType.EDGE, AUTHORIZATIONS_A_AND_B));
+    }
+
+    private static <K> Map<K, Long> map(Object... keysAndValues) {
+        Map<K, Long> results = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            //noinspection unchecked
+            results.put((K) keysAndValues[i], (Long) keysAndValues[i + 1]);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,37 @@
+package org.vertexium.benchmarks;
+
+import org.vertexium.Graph;
+import org.vertexium.inmemory.InMemoryGraph;
+
+import java.util.HashMap;
+
+/**
+ * The graph implementations the benchmarks can run against, selected with the <code>backend</code> parameter. The
+ * Accumulo backends start a MiniAccumuloCluster, and an in process Elasticsearch node if needed, the first time they
+ * are used in a benchmark JVM.
+ */
+public enum BenchmarkBackend {
+    INMEMORY {
+        @Override
+        public Graph createGraph() {
+            return InMemoryGraph.create(new HashMap<>());
+        }
+    },
+    ACCUMULO {
+        @Override
+        public Graph createGraph() {
+            return BenchmarkClusters.createAccumuloGraph(false);
+        }
+    },
+    ACCUMULO_ELASTICSEARCH5 {
+        @Override
+        public Graph createGraph() {
+            return BenchmarkClusters.createAccumuloGraph(true);
+        }
+    };
+
+    /**
+     * Creates an empty graph, dropping anything left over from a previous trial.
+     */
+    public abstract Graph createGraph();
+}
@@ -0,0 +1,53 @@
+package org.vertexium.benchmarks;
+
+import org.vertexium.Graph;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.AccumuloGraphConfiguration;
+import org.vertexium.accumulo.AccumuloResource;
+import org.vertexium.elasticsearch5.ElasticsearchResource;
+
+import java.util.Map;
+
+/**
+ * Starts the MiniAccumuloCluster and the Elasticsearch node used by the test suites once per benchmark JVM and stops
+ * them when the JVM exits.
+ */
+class BenchmarkClusters {
+    private static AccumuloResource accumuloResource;
+    private static BenchmarkElasticsearchResource elasticsearchResource;
+
+    @SuppressWarnings("unchecked")
+    static synchronized Graph createAccumuloGraph(boolean withElasticsearch) {
+        try {
+            if (accumuloResource == null) {
+                accumuloResource = new AccumuloResource();
+                accumuloResource.start();
+            }
+            accumuloResource.dropGraph();
+            Map config = accumuloResource.createConfig();
+            if (withElasticsearch) {
+                if (elasticsearchResource == null) {
+                    elasticsearchResource = new BenchmarkElasticsearchResource();
+                    elasticsearchResource.start();
+                }
+                elasticsearchResource.dropIndices();
+                config.putAll(elasticsearchResource.createConfig());
+            }
+            return AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        } catch (Throwable ex) {
+            throw new VertexiumException("Could not create accumulo graph", ex);
+        }
+    }
+
+    private static class BenchmarkElasticsearchResource extends ElasticsearchResource {
+        BenchmarkElasticsearchResource() {
+            super("vertexium-benchmarks");
+        }
+
+        void start() throws Throwable {
+            before();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::after));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.vertexium.benchmarks;
+
+import java.util.Random;
+
+/**
+ * How {@link GraphGenerator} picks the vertex on the other end of each edge.
+ */
+public enum DegreeDistribution {
+    /**
+     * Every vertex is equally likely to be picked, degrees are close to the average degree.
+     */
+    UNIFORM {
+        @Override
+        int nextVertexIndex(Random random, int vertexCount) {
+            return random.nextInt(vertexCount);
+        }
+    },
+
+    /**
+     * Vertices with a low index are picked far more often, giving a few highly connected hubs and a long tail of
+     * vertices with few edges.
+     */
+    POWER_LAW {
+        @Override
+        int nextVertexIndex(Random random, int vertexCount) {
+            return (int) (vertexCount * Math.pow(random.nextDouble(), 3));
+        }
+    };
+
+    abstract int nextVertexIndex(Random random, int vertexCount);
+}
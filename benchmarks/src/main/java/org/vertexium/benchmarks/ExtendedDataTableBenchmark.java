@@ -0,0 +1,98 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.*;
+import org.vertexium.inmemory.InMemoryAuthorizations;
+import org.vertexium.inmemory.MapInMemoryExtendedDataTable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of the in-memory extended data table with many threads writing and reading at once. Threads either write
+ * rows of their own elements, write rows of one shared element or, in the readWrite group, half of the threads read
+ * tables while the other half write to them. Run with {@code -t} to change the number of threads of the write
+ * benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class ExtendedDataTableBenchmark {
+    private static final String TABLE_NAME = "table1";
+    private static final Visibility VISIBILITY = new Visibility("a");
+    private static final Authorizations AUTHORIZATIONS = new InMemoryAuthorizations("a");
+
+    @Param({"1000"})
+    public int elementCount;
+
+    @Param({"100"})
+    public int rowsPerElement;
+
+    @Param({"" + MapInMemoryExtendedDataTable.DEFAULT_STRIPE_COUNT})
+    public int stripeCount;
+
+    private final AtomicInteger nextThreadIndex = new AtomicInteger();
+    private MapInMemoryExtendedDataTable table;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        table = new MapInMemoryExtendedDataTable(stripeCount);
+        for (int element = 0; element < elementCount; element++) {
+            for (int row = 0; row < rowsPerElement; row++) {
+                addData(getElementId(element), row);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int threadIndex;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup(ExtendedDataTableBenchmark benchmark) {
+            threadIndex = benchmark.nextThreadIndex.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    public void addDataToOwnElements(ThreadState state) {
+        int i = state.next++;
+        addData("thread" + state.threadIndex + "-" + ((i / rowsPerElement) % elementCount), i % rowsPerElement);
+    }
+
+    @Benchmark
+    public void addDataToSharedElement(ThreadState state) {
+        addData(getElementId(0), state.next++ % rowsPerElement);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(4)
+    public void readWriteAddData(ThreadState state) {
+        int i = state.next++;
+        addData(getElementId((i / rowsPerElement) % elementCount), i % rowsPerElement);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(4)
+    public Iterable<? extends ExtendedDataRow> readWriteGetTable() {
+        String elementId = getElementId(ThreadLocalRandom.current().nextInt(elementCount));
+        return table.getTable(ElementType.VERTEX, elementId, TABLE_NAME, AUTHORIZATIONS);
+    }
+
+    private void addData(String elementId, int row) {
+        ExtendedDataRowId rowId = new ExtendedDataRowId(ElementType.VERTEX, elementId, TABLE_NAME, "row" + row);
+        table.addData(rowId, "column1", null, row, System.currentTimeMillis(), VISIBILITY);
+    }
+
+    private static String getElementId(int element) {
+        return "element" + element;
+    }
+}
@@ -0,0 +1,30 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.FindPathOptions;
+import org.vertexium.Path;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to find all paths between two random vertices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FindPathsBenchmark extends GeneratedGraphBenchmarkBase {
+    @Param({"2", "3", "4", "5"})
+    public int hops;
+
+    @Benchmark
+    public void findPaths(Blackhole blackhole) {
+        FindPathOptions options = new FindPathOptions(randomVertexId(), randomVertexId(), hops);
+        for (Path path : graph.findPaths(options, authorizations)) {
+            blackhole.consume(path);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fills the graph using {@link GraphGenerator} before each trial.
+ */
+@State(Scope.Benchmark)
+public abstract class GeneratedGraphBenchmarkBase extends GraphBenchmarkBase {
+    protected static final long SEED = 42;
+
+    @Param({"1000", "10000"})
+    public int vertexCount;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degreeDistribution;
+
+    @Param({"5"})
+    public int averageDegree;
+
+    @Override
+    protected void setupData() {
+        new GraphGenerator(graph, SEED).generate(vertexCount, degreeDistribution, averageDegree, VISIBILITY, authorizations);
+    }
+
+    protected String randomVertexId() {
+        return GraphGenerator.getVertexId(ThreadLocalRandom.current().nextInt(vertexCount));
+    }
+}
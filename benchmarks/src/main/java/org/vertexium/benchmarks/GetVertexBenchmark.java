@@ -0,0 +1,39 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.FetchHints;
+import org.vertexium.Vertex;
+import org.vertexium.VertexiumException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to get a random vertex by id using one of the predefined {@link FetchHints}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GetVertexBenchmark extends GeneratedGraphBenchmarkBase {
+    @Param({"ALL", "NONE", "PROPERTIES_AND_METADATA", "EDGE_REFS", "EDGE_LABELS"})
+    public String fetchHintsName;
+
+    private FetchHints fetchHints;
+
+    @Override
+    protected void setupData() {
+        super.setupData();
+        try {
+            fetchHints = (FetchHints) FetchHints.class.getField(fetchHintsName).get(null);
+        } catch (Exception ex) {
+            throw new VertexiumException("Invalid fetch hints: " + fetchHintsName, ex);
+        }
+    }
+
+    @Benchmark
+    public Vertex getVertex() {
+        return graph.getVertex(randomVertexId(), fetchHints, authorizations);
+    }
+}
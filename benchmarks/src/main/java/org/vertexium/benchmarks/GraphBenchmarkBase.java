@@ -0,0 +1,40 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.Authorizations;
+import org.vertexium.Graph;
+import org.vertexium.Visibility;
+
+/**
+ * Creates an empty graph on the selected backend before each trial and shuts it down after.
+ */
+@State(Scope.Benchmark)
+public abstract class GraphBenchmarkBase {
+    protected static final String VISIBILITY_STRING = "a";
+    protected static final Visibility VISIBILITY = new Visibility(VISIBILITY_STRING);
+
+    @Param({"INMEMORY"})
+    public BenchmarkBackend backend;
+
+    protected Graph graph;
+    protected Authorizations authorizations;
+
+    @Setup(Level.Trial)
+    public void setupGraph() {
+        graph = backend.createGraph();
+        authorizations = graph.createAuthorizations(VISIBILITY_STRING);
+        setupData();
+        graph.flush();
+    }
+
+    /**
+     * Called after the graph is created to add the data the benchmark needs.
+     */
+    protected void setupData() {
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownGraph() {
+        graph.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+package org.vertexium.benchmarks;
+
+import org.vertexium.Authorizations;
+import org.vertexium.Graph;
+import org.vertexium.Vertex;
+import org.vertexium.Visibility;
+import org.vertexium.mutation.ElementMutation;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a graph of vertices with a few properties each, connected by edges with one of two labels. The same seed
+ * always generates the same graph so results can be compared between runs and backends.
+ */
+public class GraphGenerator {
+    public static final String NAME_PROPERTY_NAME = "name";
+    public static final String CATEGORY_PROPERTY_NAME = "category";
+    public static final String AGE_PROPERTY_NAME = "age";
+    public static final String BIRTH_DATE_PROPERTY_NAME = "birthDate";
+    public static final String[] EDGE_LABELS = new String[]{"knows", "worksWith"};
+    public static final int CATEGORY_COUNT = 10;
+    public static final int MAX_AGE = 100;
+    private static final String PROPERTY_KEY = "k1";
+    private static final int BATCH_SIZE = 1000;
+    private final Graph graph;
+    private final Random random;
+
+    public GraphGenerator(Graph graph, long seed) {
+        this.graph = graph;
+        this.random = new Random(seed);
+    }
+
+    public static String getVertexId(int index) {
+        return "v" + index;
+    }
+
+    public static String getCategory(int index) {
+        return "category" + (index % CATEGORY_COUNT);
+    }
+
+    /**
+     * @param averageDegree the number of edges created from each vertex.
+     */
+    public void generate(
+            int vertexCount,
+            DegreeDistribution degreeDistribution,
+            int averageDegree,
+            Visibility visibility,
+            Authorizations authorizations
+    ) {
+        List<ElementMutation> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < vertexCount; i++) {
+            batch.add(createVertexMutation(getVertexId(i), i, visibility));
+            if (batch.size() == BATCH_SIZE) {
+                save(batch, authorizations);
+            }
+        }
+        save(batch, authorizations);
+
+        int edgeIndex = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            for (int d = 0; d < averageDegree; d++) {
+                int inVertexIndex = degreeDistribution.nextVertexIndex(random, vertexCount);
+                if (inVertexIndex == i) {
+                    continue;
+                }
+                String label = EDGE_LABELS[random.nextInt(EDGE_LABELS.length)];
+                batch.add(graph.prepareEdge("e" + edgeIndex++, getVertexId(i), getVertexId(inVertexIndex), label, visibility));
+                if (batch.size() == BATCH_SIZE) {
+                    save(batch, authorizations);
+                }
+            }
+        }
+        save(batch, authorizations);
+        graph.flush();
+    }
+
+    public ElementMutation<Vertex> createVertexMutation(String vertexId, int index, Visibility visibility) {
+        return graph.prepareVertex(vertexId, visibility)
+                .addPropertyValue(PROPERTY_KEY, NAME_PROPERTY_NAME, "name " + index, visibility)
+                .addPropertyValue(PROPERTY_KEY, CATEGORY_PROPERTY_NAME, getCategory(index), visibility)
+                .addPropertyValue(PROPERTY_KEY, AGE_PROPERTY_NAME, random.nextInt(MAX_AGE), visibility)
+                .addPropertyValue(PROPERTY_KEY, BIRTH_DATE_PROPERTY_NAME, new Date(random.nextLong() >>> 24), visibility);
+    }
+
+    private void save(List<ElementMutation> batch, Authorizations authorizations) {
+        if (batch.size() > 0) {
+            graph.saveElementMutations(batch, authorizations);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.Vertex;
+import org.vertexium.query.Compare;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to run a <code>has</code> query and read all of the matching vertices. The in-memory backend answers queries
+ * with the DefaultSearchIndex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmark extends GeneratedGraphBenchmarkBase {
+    @Benchmark
+    public void hasEqual(Blackhole blackhole) {
+        String category = GraphGenerator.getCategory(ThreadLocalRandom.current().nextInt(GraphGenerator.CATEGORY_COUNT));
+        for (Vertex vertex : graph.query(authorizations).has(GraphGenerator.CATEGORY_PROPERTY_NAME, category).vertices()) {
+            blackhole.consume(vertex);
+        }
+    }
+
+    @Benchmark
+    public void hasRange(Blackhole blackhole) {
+        int age = ThreadLocalRandom.current().nextInt(GraphGenerator.MAX_AGE - 10);
+        Iterable<Vertex> vertices = graph.query(authorizations)
+                .has(GraphGenerator.AGE_PROPERTY_NAME, Compare.GREATER_THAN_EQUAL, age)
+                .has(GraphGenerator.AGE_PROPERTY_NAME, Compare.LESS_THAN, age + 10)
+                .vertices();
+        for (Vertex vertex : vertices) {
+            blackhole.consume(vertex);
+        }
+    }
+}
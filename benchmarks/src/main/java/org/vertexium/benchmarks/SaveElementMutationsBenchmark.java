@@ -0,0 +1,42 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.mutation.ElementMutation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to save and flush a batch of new vertices with {@link org.vertexium.Graph#saveElementMutations}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveElementMutationsBenchmark extends GraphBenchmarkBase {
+    private final AtomicLong nextId = new AtomicLong();
+    private GraphGenerator graphGenerator;
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    @Override
+    protected void setupData() {
+        graphGenerator = new GraphGenerator(graph, 42);
+    }
+
+    @Benchmark
+    public void saveElementMutations() {
+        List<ElementMutation> mutations = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            long id = nextId.incrementAndGet();
+            mutations.add(graphGenerator.createVertexMutation("newVertex" + id, (int) id, VISIBILITY));
+        }
+        graph.saveElementMutations(mutations, authorizations);
+        graph.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.JavaVertexiumSerializer;
+import org.vertexium.VertexiumException;
+import org.vertexium.VertexiumSerializer;
+import org.vertexium.serializer.kryo.KryoVertexiumSerializer;
+import org.vertexium.serializer.kryo.QuickKryoVertexiumSerializer;
+import org.vertexium.serializer.xstream.XStreamVertexiumSerializer;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serialize a property value and deserialize it again with each {@link VertexiumSerializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"java", "kryo", "quickKryo", "xstream"})
+    public String serializerName;
+
+    @Param({"string", "long", "date", "bigDecimal", "map"})
+    public String valueType;
+
+    private VertexiumSerializer serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        serializer = createSerializer(serializerName);
+        value = createValue(valueType);
+        bytes = serializer.objectToBytes(value);
+    }
+
+    private static VertexiumSerializer createSerializer(String serializerName) {
+        switch (serializerName) {
+            case "java":
+                return new JavaVertexiumSerializer();
+            case "kryo":
+                return new KryoVertexiumSerializer();
+            case "quickKryo":
+                return new QuickKryoVertexiumSerializer(false);
+            case "xstream":
+                return new XStreamVertexiumSerializer();
+            default:
+                throw new VertexiumException("Unknown serializer: " + serializerName);
+        }
+    }
+
+    private static Object createValue(String valueType) {
+        switch (valueType) {
+            case "string":
+                return "The quick brown fox jumps over the lazy dog";
+            case "long":
+                return 1234567890L;
+            case "date":
+                return new Date(1500000000000L);
+            case "bigDecimal":
+                return new BigDecimal("12345.6789");
+            case "map":
+                Map<String, Object> map = new HashMap<>();
+                map.put("name", "joe");
+                map.put("age", 42);
+                map.put("created", new Date(1500000000000L));
+                return map;
+            default:
+                throw new VertexiumException("Unknown value type: " + valueType);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.objectToBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.bytesToObject(bytes);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.bytesToObject(serializer.objectToBytes(value));
+    }
+}
@@ -0,0 +1,42 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.security.Authorizations;
+import org.vertexium.security.ColumnVisibility;
+import org.vertexium.security.VisibilityEvaluator;
+import org.vertexium.security.VisibilityParseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to parse a visibility expression and to evaluate a parsed expression against a set of authorizations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisibilityBenchmark {
+    @Param({"a", "a&b", "(a|b)&(c|d)", "(a&b&c)|(d&(e|f))|(g&h&i&j)"})
+    public String expression;
+
+    private ColumnVisibility columnVisibility;
+    private VisibilityEvaluator visibilityEvaluator;
+
+    @Setup
+    public void setup() {
+        columnVisibility = new ColumnVisibility(expression);
+        visibilityEvaluator = new VisibilityEvaluator(new Authorizations("a", "b", "d", "g", "h", "i"));
+    }
+
+    @Benchmark
+    public ColumnVisibility parse() {
+        return new ColumnVisibility(expression);
+    }
+
+    @Benchmark
+    public boolean evaluate() throws VisibilityParseException {
+        return visibilityEvaluator.evaluate(columnVisibility);
+    }
+}
@@ -0,0 +1,49 @@
+package org.vertexium.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.Edge;
+import org.vertexium.Vertex;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to create a single vertex or edge. Writes are not flushed, so for backends which buffer writes this measures
+ * the time to queue the mutation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WriteBenchmark extends GraphBenchmarkBase {
+    private static final int EXISTING_VERTEX_COUNT = 1000;
+    private final AtomicLong nextId = new AtomicLong();
+    private GraphGenerator graphGenerator;
+
+    @Override
+    protected void setupData() {
+        graphGenerator = new GraphGenerator(graph, 42);
+        graphGenerator.generate(EXISTING_VERTEX_COUNT, DegreeDistribution.UNIFORM, 0, VISIBILITY, authorizations);
+    }
+
+    @Benchmark
+    public Vertex addVertex() {
+        long id = nextId.incrementAndGet();
+        return graphGenerator.createVertexMutation("newVertex" + id, (int) id, VISIBILITY).save(authorizations);
+    }
+
+    @Benchmark
+    public Edge addEdge() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return graph.prepareEdge(
+                "newEdge" + nextId.incrementAndGet(),
+                GraphGenerator.getVertexId(random.nextInt(EXISTING_VERTEX_COUNT)),
+                GraphGenerator.getVertexId(random.nextInt(EXISTING_VERTEX_COUNT)),
+                GraphGenerator.EDGE_LABELS[0],
+                VISIBILITY
+        ).save(authorizations);
+    }
+}
@@ -0,0 +1,250 @@
+package org.vertexium;
+
+import java.util.*;
+
+/**
+ * Finds all paths between two vertices by expanding breadth first from both the source and the destination vertex
+ * until the two searches together cover the max number of hops. Only vertex ids are kept in memory, the side with the
+ * smaller frontier is always expanded next.
+ * <p>
+ * Once the searches meet, the paths are enumerated depth first over the discovered adjacency, only following
+ * vertices whose distance to the source plus distance to the destination fits in the max number of hops.
+ */
+public abstract class BidirectionalFindPathStrategy {
+    private final FindPathOptions options;
+    private final ProgressCallback progressCallback;
+    private final Map<String, Set<String>> adjacency = new HashMap<>();
+    private final Set<String> expandedVertexIds = new HashSet<>();
+    private final Set<String> missingVertexIds = new HashSet<>();
+
+    protected BidirectionalFindPathStrategy(FindPathOptions options, ProgressCallback progressCallback) {
+        this.options = options;
+        this.progressCallback = progressCallback;
+    }
+
+    /**
+     * Gets the ids of the vertices connected to each of the given vertices, honoring the labels and excluded labels
+     * of the find path options. Vertices which do not exist or can't be seen must not be included in the results.
+     */
+    protected abstract Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds);
+
+    /**
+     * Filters the given vertex ids to only the vertices which exist and can be seen.
+     */
+    protected abstract Set<String> filterExistingVertexIds(Set<String> vertexIds);
+
+    /**
+     * Searches the graph from both ends. The returned paths are enumerated lazily while iterating, only the
+     * adjacency of vertices which can be part of a path is kept once the searches have met.
+     */
+    public Iterable<Path> findPaths() {
+        String sourceVertexId = options.getSourceVertexId();
+        String destVertexId = options.getDestVertexId();
+        int maxHops = options.getMaxHops();
+        if (sourceVertexId.equals(destVertexId)) {
+            List<Path> foundPaths = new ArrayList<>();
+            foundPaths.add(new Path(sourceVertexId));
+            return foundPaths;
+        }
+
+        Frontier sourceFrontier = new Frontier(sourceVertexId);
+        Frontier destFrontier = new Frontier(destVertexId);
+        while (sourceFrontier.depth + destFrontier.depth < maxHops) {
+            progressCallback.progress(
+                    0.8 * (sourceFrontier.depth + destFrontier.depth) / maxHops,
+                    ProgressCallback.Step.FINDING_PATH
+            );
+            Frontier frontier = sourceFrontier.size() <= destFrontier.size() ? sourceFrontier : destFrontier;
+            if (frontier.size() == 0) {
+                // every vertex connected to this side has been expanded, there is nothing more to discover
+                break;
+            }
+            expand(frontier);
+        }
+
+        progressCallback.progress(0.8, ProgressCallback.Step.MERGING_EDGES);
+        Map<String, Integer> destDistances = findPathVertices(sourceFrontier, destFrontier, maxHops);
+        adjacency.keySet().retainAll(destDistances.keySet());
+        for (Set<String> connectedVertexIds : adjacency.values()) {
+            connectedVertexIds.retainAll(destDistances.keySet());
+        }
+        expandedVertexIds.clear();
+        missingVertexIds.clear();
+
+        progressCallback.progress(0.9, ProgressCallback.Step.ADDING_PATHS);
+        return () -> new PathIterator(sourceVertexId, destVertexId, maxHops, destDistances);
+    }
+
+    private void expand(Frontier frontier) {
+        Integer maxFrontierSize = options.getMaxFrontierSize();
+        if (maxFrontierSize != null && frontier.size() > maxFrontierSize) {
+            throw new VertexiumException(String.format(
+                    "Find path frontier of %d vertices exceeds the max frontier size of %d (%s)",
+                    frontier.size(),
+                    maxFrontierSize,
+                    options
+            ));
+        }
+
+        Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(frontier.vertexIds);
+        Set<String> nextVertexIds = new HashSet<>();
+        for (String vertexId : frontier.vertexIds) {
+            Set<String> vertexConnectedVertexIds = connectedVertexIds.get(vertexId);
+            if (vertexConnectedVertexIds == null) {
+                missingVertexIds.add(vertexId);
+                continue;
+            }
+            expandedVertexIds.add(vertexId);
+            for (String connectedVertexId : vertexConnectedVertexIds) {
+                adjacency.computeIfAbsent(vertexId, k -> new HashSet<>()).add(connectedVertexId);
+                adjacency.computeIfAbsent(connectedVertexId, k -> new HashSet<>()).add(vertexId);
+                if (!frontier.distances.containsKey(connectedVertexId)) {
+                    frontier.distances.put(connectedVertexId, frontier.depth + 1);
+                    nextVertexIds.add(connectedVertexId);
+                }
+            }
+        }
+        frontier.vertexIds = nextVertexIds;
+        frontier.depth++;
+    }
+
+    /**
+     * Finds the vertices which can be part of a path, that is the distance from the source plus the distance to the
+     * destination fits in the max number of hops.
+     * <p>
+     * Vertices found by the last expansion of each side were never fetched, so they are only known to exist by the
+     * edges pointing to them. The ones which could still be part of a path are checked in a single batch.
+     *
+     * @return the minimum distance to the destination of each vertex which can be part of a path.
+     */
+    private Map<String, Integer> findPathVertices(Frontier sourceFrontier, Frontier destFrontier, int maxHops) {
+        Map<String, Integer> results = new HashMap<>();
+        Set<String> unexpandedVertexIds = new HashSet<>();
+        for (String vertexId : adjacency.keySet()) {
+            if (missingVertexIds.contains(vertexId)) {
+                continue;
+            }
+            int destDistance = destFrontier.getMinDistance(vertexId);
+            if (sourceFrontier.getMinDistance(vertexId) + destDistance > maxHops) {
+                continue;
+            }
+            results.put(vertexId, destDistance);
+            if (!expandedVertexIds.contains(vertexId)) {
+                unexpandedVertexIds.add(vertexId);
+            }
+        }
+        if (unexpandedVertexIds.size() > 0) {
+            unexpandedVertexIds.removeAll(filterExistingVertexIds(unexpandedVertexIds));
+            results.keySet().removeAll(unexpandedVertexIds);
+        }
+        return results;
+    }
+
+    /**
+     * Depth first enumeration of the paths from the source to the destination vertex.
+     */
+    private class PathIterator implements Iterator<Path> {
+        private final String destVertexId;
+        private final int maxHops;
+        private final Map<String, Integer> destDistances;
+        private final Deque<Iterator<String>> stack = new ArrayDeque<>();
+        private final Set<String> currentPathVertexIds = new HashSet<>();
+        private Path currentPath;
+        private Path next;
+        private boolean done;
+
+        PathIterator(String sourceVertexId, String destVertexId, int maxHops, Map<String, Integer> destDistances) {
+            this.destVertexId = destVertexId;
+            this.maxHops = maxHops;
+            this.destDistances = destDistances;
+            this.currentPath = new Path(sourceVertexId);
+            this.currentPathVertexIds.add(sourceVertexId);
+            this.stack.push(getConnectedVertexIdsIterator(sourceVertexId));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = findNext();
+                if (next == null || options.isGetAnyPath()) {
+                    done = true;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Path result = next;
+            next = null;
+            return result;
+        }
+
+        private Path findNext() {
+            while (!stack.isEmpty()) {
+                Iterator<String> it = stack.peek();
+                if (!it.hasNext()) {
+                    stack.pop();
+                    currentPathVertexIds.remove(currentPath.get(currentPath.length() - 1));
+                    currentPath = removeLast(currentPath);
+                    continue;
+                }
+                String vertexId = it.next();
+                if (currentPathVertexIds.contains(vertexId)) {
+                    continue;
+                }
+                Integer destDistance = destDistances.get(vertexId);
+                if (destDistance == null || currentPath.length() + destDistance > maxHops) {
+                    continue;
+                }
+                Path path = new Path(currentPath, vertexId);
+                if (vertexId.equals(destVertexId)) {
+                    return path;
+                }
+                currentPath = path;
+                currentPathVertexIds.add(vertexId);
+                stack.push(getConnectedVertexIdsIterator(vertexId));
+            }
+            return null;
+        }
+
+        private Iterator<String> getConnectedVertexIdsIterator(String vertexId) {
+            Set<String> connectedVertexIds = adjacency.get(vertexId);
+            return connectedVertexIds == null ? Collections.emptyIterator() : connectedVertexIds.iterator();
+        }
+
+        private Path removeLast(Path path) {
+            String[] vertexIds = new String[path.length() - 1];
+            for (int i = 0; i < vertexIds.length; i++) {
+                vertexIds[i] = path.get(i);
+            }
+            return new Path(vertexIds);
+        }
+    }
+
+    private static class Frontier {
+        private final Map<String, Integer> distances = new HashMap<>();
+        private Set<String> vertexIds = new HashSet<>();
+        private int depth;
+
+        Frontier(String vertexId) {
+            distances.put(vertexId, 0);
+            vertexIds.add(vertexId);
+        }
+
+        int size() {
+            return vertexIds.size();
+        }
+
+        /**
+         * Every vertex within depth hops has been discovered, so an unknown vertex is at least depth + 1 hops away.
+         */
+        int getMinDistance(String vertexId) {
+            Integer distance = distances.get(vertexId);
+            return distance == null ? depth + 1 : distance;
+        }
+    }
+}
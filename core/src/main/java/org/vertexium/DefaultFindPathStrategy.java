@@ -0,0 +1,64 @@
+package org.vertexium;
+
+import org.vertexium.util.ArrayUtils;
+
+import java.util.*;
+
+/**
+ * {@link BidirectionalFindPathStrategy} using the edge infos of vertices fetched from the graph in batches.
+ */
+public class DefaultFindPathStrategy extends BidirectionalFindPathStrategy {
+    private static final int VERTEX_BATCH_SIZE = 1000;
+    private final Graph graph;
+    private final FindPathOptions options;
+    private final Authorizations authorizations;
+
+    public DefaultFindPathStrategy(Graph graph, FindPathOptions options, ProgressCallback progressCallback, Authorizations authorizations) {
+        super(options, progressCallback);
+        this.graph = graph;
+        this.options = options;
+        this.authorizations = authorizations;
+    }
+
+    @Override
+    protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+        Map<String, Set<String>> results = new HashMap<>();
+        List<String> batch = new ArrayList<>(Math.min(vertexIds.size(), VERTEX_BATCH_SIZE));
+        for (String vertexId : vertexIds) {
+            batch.add(vertexId);
+            if (batch.size() == VERTEX_BATCH_SIZE) {
+                getConnectedVertexIds(batch, results);
+                batch.clear();
+            }
+        }
+        if (batch.size() > 0) {
+            getConnectedVertexIds(batch, results);
+        }
+        return results;
+    }
+
+    private void getConnectedVertexIds(List<String> vertexIds, Map<String, Set<String>> results) {
+        for (Vertex vertex : graph.getVertices(vertexIds, FetchHints.EDGE_REFS, authorizations)) {
+            Set<String> connectedVertexIds = new HashSet<>();
+            for (EdgeInfo edgeInfo : vertex.getEdgeInfos(Direction.BOTH, options.getLabels(), authorizations)) {
+                if (options.getExcludedLabels() != null && ArrayUtils.contains(options.getExcludedLabels(), edgeInfo.getLabel())) {
+                    continue;
+                }
+                connectedVertexIds.add(edgeInfo.getVertexId());
+            }
+            results.put(vertex.getId(), connectedVertexIds);
+        }
+    }
+
+    @Override
+    protected Set<String> filterExistingVertexIds(Set<String> vertexIds) {
+        Map<String, Boolean> verticesExist = graph.doVerticesExist(vertexIds, authorizations);
+        Set<String> results = new HashSet<>();
+        for (Map.Entry<String, Boolean> entry : verticesExist.entrySet()) {
+            if (entry.getValue()) {
+                results.add(entry.getKey());
+            }
+        }
+        return results;
+    }
+}
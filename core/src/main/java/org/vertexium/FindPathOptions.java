@@ -8,6 +8,7 @@ public class FindPathOptions {
     private String[] excludedLabels;
     private ProgressCallback progressCallback;
     private boolean getAnyPath;
+    private Integer maxFrontierSize;
 
     /**
      * @param sourceVertexId The source vertex id to start the search from.
@@ -83,6 +84,20 @@ public class FindPathOptions {
         return this;
     }
 
+    public Integer getMaxFrontierSize() {
+        return maxFrontierSize;
+    }
+
+    /**
+     * The maximum number of vertices in a single level of the breadth first search from either the source or the
+     * destination vertex. If a level grows beyond this size the search fails rather than continuing to consume
+     * memory. If null the frontier size is not limited.
+     */
+    public FindPathOptions setMaxFrontierSize(Integer maxFrontierSize) {
+        this.maxFrontierSize = maxFrontierSize;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "FindPathOptions{" +
@@ -898,6 +898,13 @@ public interface Graph {
      */
     void setMetadata(String key, Object value);
 
+    /**
+     * Removes metadata from the graph.
+     *
+     * @param key The key to the metadata.
+     */
+    void removeMetadata(String key);
+
     /**
      * Gets metadata from the graph.
      *
@@ -918,6 +925,12 @@ public interface Graph {
      */
     Iterable<GraphMetadataEntry> getMetadataWithPrefix(String prefix);
 
+    /**
+     * Adds a listener that will be called when metadata is set through this graph or may have been changed by other
+     * instances of the graph.
+     */
+    void addGraphMetadataListener(GraphMetadataListener graphMetadataListener);
+
     /**
      * Determine if field boost is support. That is can you change the boost at a field level to give higher priority.
      */
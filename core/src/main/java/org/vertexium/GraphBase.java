@@ -3,6 +3,7 @@ package org.vertexium;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.vertexium.event.GraphEvent;
+import org.vertexium.event.GraphEventDispatcher;
 import org.vertexium.event.GraphEventListener;
 import org.vertexium.id.IdGenerator;
 import org.vertexium.mutation.ElementMutation;
@@ -16,6 +17,7 @@ import org.vertexium.util.*;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import static org.vertexium.util.IterableUtils.count;
@@ -26,7 +28,8 @@ public abstract class GraphBase implements Graph {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(GraphBase.class);
     protected static final VertexiumLogger QUERY_LOGGER = VertexiumLoggerFactory.getQueryLogger(Graph.class);
     public static final String METADATA_DEFINE_PROPERTY_PREFIX = "defineProperty.";
-    private final List<GraphEventListener> graphEventListeners = new ArrayList<>();
+    private final List<GraphEventListener> graphEventListeners = new CopyOnWriteArrayList<>();
+    private GraphEventDispatcher graphEventDispatcher;
     private Map<String, PropertyDefinition> propertyDefinitionCache = new HashMap<>();
     private final boolean strictTyping;
 
@@ -543,33 +546,20 @@ public abstract class GraphBase implements Graph {
 
         progressCallback.progress(0, ProgressCallback.Step.FINDING_PATH);
 
-        Set<String> seenVertices = new HashSet<>();
-        seenVertices.add(sourceVertex.getId());
-
-        Path startPath = new Path(sourceVertex.getId());
-
-        List<Path> foundPaths = new ArrayList<>();
+        Iterable<Path> foundPaths;
         if (options.getMaxHops() == 2) {
+            List<Path> paths = new ArrayList<>();
             findPathsSetIntersection(
                     options,
-                    foundPaths,
+                    paths,
                     sourceVertex,
                     destVertex,
                     progressCallback,
                     authorizations
             );
+            foundPaths = paths;
         } else {
-            findPathsRecursive(
-                    options,
-                    foundPaths,
-                    sourceVertex,
-                    destVertex,
-                    options.getMaxHops(),
-                    seenVertices,
-                    startPath,
-                    progressCallback,
-                    authorizations
-            );
+            foundPaths = new DefaultFindPathStrategy(this, options, progressCallback, authorizations).findPaths();
         }
 
         progressCallback.progress(1, ProgressCallback.Step.COMPLETE);
@@ -622,62 +612,6 @@ public abstract class GraphBase implements Graph {
                 .collect(Collectors.toSet());
     }
 
-    private Iterable<Vertex> filterFindPathEdgePairs(FindPathOptions options, Iterable<EdgeVertexPair> edgeVertexPairs) {
-        return stream(edgeVertexPairs)
-                .filter(edgePair -> {
-                    if (options.getExcludedLabels() != null) {
-                        return !ArrayUtils.contains(options.getExcludedLabels(), edgePair.getEdge().getLabel());
-                    }
-                    return true;
-                })
-                .map(EdgeVertexPair::getVertex)
-                .collect(Collectors.toList());
-    }
-
-    protected void findPathsRecursive(
-            FindPathOptions options,
-            List<Path> foundPaths,
-            Vertex sourceVertex,
-            Vertex destVertex,
-            int hops,
-            Set<String> seenVertices,
-            Path currentPath,
-            ProgressCallback progressCallback,
-            Authorizations authorizations
-    ) {
-        // if this is our first source vertex report progress back to the progress callback
-        boolean firstLevelRecursion = hops == options.getMaxHops();
-
-        if (options.isGetAnyPath() && foundPaths.size() == 1) {
-            return;
-        }
-
-        seenVertices.add(sourceVertex.getId());
-        if (sourceVertex.getId().equals(destVertex.getId())) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Iterable<Vertex> vertices = filterFindPathEdgePairs(options, sourceVertex.getEdgeVertexPairs(Direction.BOTH, options.getLabels(), authorizations));
-            int vertexCount = 0;
-            if (firstLevelRecursion) {
-                vertices = IterableUtils.toList(vertices);
-                vertexCount = ((List<Vertex>) vertices).size();
-            }
-            int i = 0;
-            for (Vertex child : vertices) {
-                if (firstLevelRecursion) {
-                    // this will never get to 100% since i starts at 0. which is good. 100% signifies done and we still have work to do.
-                    double progressPercent = (double) i / (double) vertexCount;
-                    progressCallback.progress(progressPercent, ProgressCallback.Step.SEARCHING_EDGES, i + 1, vertexCount);
-                }
-                if (!seenVertices.contains(child.getId())) {
-                    findPathsRecursive(options, foundPaths, child, destVertex, hops - 1, seenVertices, new Path(currentPath, child.getId()), progressCallback, authorizations);
-                }
-                i++;
-            }
-        }
-        seenVertices.remove(sourceVertex.getId());
-    }
-
     @Override
     @Deprecated
     public Iterable<String> findRelatedEdges(Iterable<String> vertexIds, Authorizations authorizations) {
@@ -765,7 +699,16 @@ public abstract class GraphBase implements Graph {
 
     @Override
     public final void setMetadata(String key, Object value) {
-        getGraphMetadataStore().setMetadata(key, value);
+        GraphMetadataStore graphMetadataStore = getGraphMetadataStore();
+        graphMetadataStore.setMetadata(key, value);
+        graphMetadataStore.fireMetadataChanged(key, value);
+    }
+
+    @Override
+    public final void removeMetadata(String key) {
+        GraphMetadataStore graphMetadataStore = getGraphMetadataStore();
+        graphMetadataStore.removeMetadata(key);
+        graphMetadataStore.fireMetadataChanged(key, null);
     }
 
     @Override
@@ -778,6 +721,11 @@ public abstract class GraphBase implements Graph {
         return getGraphMetadataStore().getMetadataWithPrefix(prefix);
     }
 
+    @Override
+    public void addGraphMetadataListener(GraphMetadataListener graphMetadataListener) {
+        getGraphMetadataStore().addListener(graphMetadataListener);
+    }
+
     @Override
     public abstract GraphQuery query(Authorizations authorizations);
 
@@ -805,6 +753,9 @@ public abstract class GraphBase implements Graph {
     @Override
     public void addGraphEventListener(GraphEventListener graphEventListener) {
         this.graphEventListeners.add(graphEventListener);
+        if (this.graphEventDispatcher != null) {
+            this.graphEventDispatcher.addListener(graphEventListener);
+        }
     }
 
     protected boolean hasEventListeners() {
@@ -812,11 +763,34 @@ public abstract class GraphBase implements Graph {
     }
 
     protected void fireGraphEvent(GraphEvent graphEvent) {
+        if (this.graphEventDispatcher != null) {
+            this.graphEventDispatcher.dispatch(graphEvent);
+            return;
+        }
         for (GraphEventListener graphEventListener : this.graphEventListeners) {
             graphEventListener.onGraphEvent(graphEvent);
         }
     }
 
+    /**
+     * Delivers events fired after this call through the dispatcher, null delivers events on the thread firing them.
+     */
+    protected void setGraphEventDispatcher(GraphEventDispatcher graphEventDispatcher) {
+        this.graphEventDispatcher = graphEventDispatcher;
+        if (graphEventDispatcher != null) {
+            for (GraphEventListener graphEventListener : this.graphEventListeners) {
+                graphEventDispatcher.addListener(graphEventListener);
+            }
+        }
+    }
+
+    /**
+     * @return the dispatcher delivering graph events or null if events are delivered on the thread firing them.
+     */
+    public GraphEventDispatcher getGraphEventDispatcher() {
+        return graphEventDispatcher;
+    }
+
     @Override
     public boolean isQuerySimilarToTextSupported() {
         return false;
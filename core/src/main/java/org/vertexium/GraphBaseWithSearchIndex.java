@@ -1,5 +1,6 @@
 package org.vertexium;
 
+import org.vertexium.event.GraphEventDispatcher;
 import org.vertexium.id.IdGenerator;
 import org.vertexium.mutation.ElementMutation;
 import org.vertexium.mutation.ExistingElementMutation;
@@ -8,12 +9,15 @@ import org.vertexium.query.GraphQuery;
 import org.vertexium.query.MultiVertexQuery;
 import org.vertexium.query.SimilarToGraphQuery;
 import org.vertexium.search.IndexHint;
+import org.vertexium.search.Reindexer;
 import org.vertexium.search.SearchIndex;
 import org.vertexium.search.SearchIndexWithVertexPropertyCountByValue;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public abstract class GraphBaseWithSearchIndex extends GraphBase implements Graph, GraphWithSearchIndex {
     public static final String METADATA_ID_GENERATOR_CLASSNAME = "idGenerator.classname";
@@ -29,6 +33,7 @@ public abstract class GraphBaseWithSearchIndex extends GraphBase implements Grap
         this.searchIndex = configuration.createSearchIndex(this);
         this.idGenerator = configuration.createIdGenerator(this);
         this.defaultFetchHints = FetchHints.ALL;
+        setGraphEventDispatcher(configuration.createGraphEventDispatcher());
     }
 
     protected GraphBaseWithSearchIndex(GraphConfiguration configuration, IdGenerator idGenerator, SearchIndex searchIndex) {
@@ -37,6 +42,7 @@ public abstract class GraphBaseWithSearchIndex extends GraphBase implements Grap
         this.searchIndex = searchIndex;
         this.idGenerator = idGenerator;
         this.defaultFetchHints = FetchHints.ALL;
+        setGraphEventDispatcher(configuration.createGraphEventDispatcher());
     }
 
     protected void setup() {
@@ -117,16 +123,18 @@ public abstract class GraphBaseWithSearchIndex extends GraphBase implements Grap
 
     @Override
     public void reindex(Authorizations authorizations) {
-        reindexVertices(authorizations);
-        reindexEdges(authorizations);
+        Map<ElementType, List<Range>> partitions = new LinkedHashMap<>();
+        partitions.put(ElementType.VERTEX, getReindexPartitions(ElementType.VERTEX));
+        partitions.put(ElementType.EDGE, getReindexPartitions(ElementType.EDGE));
+        new Reindexer(this, this.searchIndex, configuration.getReindexThreadCount()).reindex(partitions, authorizations);
     }
 
-    protected void reindexVertices(Authorizations authorizations) {
-        this.searchIndex.addElements(this, getVertices(authorizations), authorizations);
-    }
-
-    private void reindexEdges(Authorizations authorizations) {
-        this.searchIndex.addElements(this, getEdges(authorizations), authorizations);
+    /**
+     * @return the id ranges the elements of the type are read in when reindexing, each range is read and indexed by
+     * one worker. Backends which store elements sorted by id override this to split at their own partitions.
+     */
+    protected List<Range> getReindexPartitions(ElementType elementType) {
+        return Reindexer.splitsToRanges(configuration.getReindexIdSplits());
     }
 
     @Override
@@ -139,6 +147,11 @@ public abstract class GraphBaseWithSearchIndex extends GraphBase implements Grap
     @Override
     public void shutdown() {
         flush();
+        GraphEventDispatcher graphEventDispatcher = getGraphEventDispatcher();
+        if (graphEventDispatcher != null) {
+            graphEventDispatcher.close(configuration.getGraphEventDispatchShutdownTimeoutMs(), TimeUnit.MILLISECONDS);
+            setGraphEventDispatcher(null);
+        }
         if (getSearchIndex() != null) {
             this.searchIndex.shutdown();
             this.searchIndex = null;
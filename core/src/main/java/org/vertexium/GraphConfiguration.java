@@ -1,11 +1,15 @@
 package org.vertexium;
 
+import org.vertexium.event.GraphEventDispatcher;
 import org.vertexium.id.IdGenerator;
 import org.vertexium.id.UUIDIdGenerator;
 import org.vertexium.search.DefaultSearchIndex;
 import org.vertexium.search.SearchIndex;
 import org.vertexium.util.ConfigurationUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class GraphConfiguration {
@@ -24,6 +28,19 @@ public class GraphConfiguration {
     public static final boolean DEFAULT_STRICT_TYPING = false;
     public static final String CREATE_TABLES = "createTables";
     public static final boolean DEFAULT_CREATE_TABLES = true;
+    public static final String GRAPH_EVENT_DISPATCH_ASYNC = "graphEventDispatch.async";
+    public static final boolean DEFAULT_GRAPH_EVENT_DISPATCH_ASYNC = false;
+    public static final String GRAPH_EVENT_DISPATCH_QUEUE_SIZE = "graphEventDispatch.queueSize";
+    public static final int DEFAULT_GRAPH_EVENT_DISPATCH_QUEUE_SIZE = 10000;
+    public static final String GRAPH_EVENT_DISPATCH_MAX_BATCH_SIZE = "graphEventDispatch.maxBatchSize";
+    public static final int DEFAULT_GRAPH_EVENT_DISPATCH_MAX_BATCH_SIZE = 500;
+    public static final String GRAPH_EVENT_DISPATCH_OVERFLOW_POLICY = "graphEventDispatch.overflowPolicy";
+    public static final String DEFAULT_GRAPH_EVENT_DISPATCH_OVERFLOW_POLICY = GraphEventDispatcher.OverflowPolicy.BLOCK.name();
+    public static final String GRAPH_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MS = "graphEventDispatch.shutdownTimeoutMs";
+    public static final long DEFAULT_GRAPH_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MS = 30000;
+    public static final String REINDEX_THREADS = "reindex.threads";
+    public static final int DEFAULT_REINDEX_THREADS = 4;
+    public static final String REINDEX_ID_SPLITS = "reindex.idSplits";
 
     private final Map<String, Object> config;
 
@@ -156,4 +173,46 @@ public class GraphConfiguration {
     public boolean isCreateTables() {
         return getBoolean(CREATE_TABLES, DEFAULT_CREATE_TABLES);
     }
+
+    public int getReindexThreadCount() {
+        return getInt(REINDEX_THREADS, DEFAULT_REINDEX_THREADS);
+    }
+
+    /**
+     * @return the ids, in order, at which backends without partitions of their own split the elements into id ranges
+     * when reindexing.
+     */
+    public List<String> getReindexIdSplits() {
+        List<String> splits = new ArrayList<>();
+        for (String split : getString(REINDEX_ID_SPLITS, "").split(",")) {
+            if (split.trim().length() > 0) {
+                splits.add(split.trim());
+            }
+        }
+        Collections.sort(splits);
+        return splits;
+    }
+
+    public boolean isGraphEventDispatchAsync() {
+        return getBoolean(GRAPH_EVENT_DISPATCH_ASYNC, DEFAULT_GRAPH_EVENT_DISPATCH_ASYNC);
+    }
+
+    public long getGraphEventDispatchShutdownTimeoutMs() {
+        return getConfigLong(GRAPH_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MS, DEFAULT_GRAPH_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MS);
+    }
+
+    /**
+     * @return a dispatcher delivering graph events on dispatcher threads or null if events are delivered by the
+     * thread firing them.
+     */
+    public GraphEventDispatcher createGraphEventDispatcher() {
+        if (!isGraphEventDispatchAsync()) {
+            return null;
+        }
+        return new GraphEventDispatcher(
+                getInt(GRAPH_EVENT_DISPATCH_QUEUE_SIZE, DEFAULT_GRAPH_EVENT_DISPATCH_QUEUE_SIZE),
+                getInt(GRAPH_EVENT_DISPATCH_MAX_BATCH_SIZE, DEFAULT_GRAPH_EVENT_DISPATCH_MAX_BATCH_SIZE),
+                GraphEventDispatcher.OverflowPolicy.valueOf(getString(GRAPH_EVENT_DISPATCH_OVERFLOW_POLICY, DEFAULT_GRAPH_EVENT_DISPATCH_OVERFLOW_POLICY).toUpperCase())
+        );
+    }
 }
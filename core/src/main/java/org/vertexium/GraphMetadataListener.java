@@ -0,0 +1,13 @@
+package org.vertexium;
+
+public abstract class GraphMetadataListener {
+    /**
+     * Called after metadata was set through this graph, value is null if the metadata was removed.
+     */
+    public abstract void onMetadataChanged(String key, Object value);
+
+    /**
+     * Called when metadata may have been changed by other graph instances and any metadata read before may be stale.
+     */
+    public abstract void onMetadataInvalidated();
+}
@@ -2,11 +2,18 @@ package org.vertexium;
 
 import org.vertexium.util.FilterIterable;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public abstract class GraphMetadataStore {
+    private final List<GraphMetadataListener> listeners = new CopyOnWriteArrayList<>();
+
     public abstract Iterable<GraphMetadataEntry> getMetadata();
 
     public abstract void setMetadata(String key, Object value);
 
+    public abstract void removeMetadata(String key);
+
     public Object getMetadata(String key) {
         for (GraphMetadataEntry e : getMetadata()) {
             if (e.getKey().equals(key)) {
@@ -24,4 +31,24 @@ public abstract class GraphMetadataStore {
             }
         };
     }
+
+    public void addListener(GraphMetadataListener listener) {
+        listeners.add(listener);
+    }
+
+    protected void fireMetadataChanged(String key, Object value) {
+        for (GraphMetadataListener listener : listeners) {
+            listener.onMetadataChanged(key, value);
+        }
+    }
+
+    /**
+     * Stores which are shared by several graph instances call this when they learn about changes made by other
+     * instances.
+     */
+    protected void fireMetadataInvalidated() {
+        for (GraphMetadataListener listener : listeners) {
+            listener.onMetadataInvalidated();
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package org.vertexium.event;
+
+import org.vertexium.VertexiumException;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers graph events to listeners on dispatcher threads instead of the thread firing the event.
+ * <p>
+ * Each listener has its own bounded queue and dispatcher thread so a slow listener only delays its own events. The
+ * dispatcher thread takes all queued events, up to the maximum batch size, and delivers them with a single call to
+ * {@link GraphEventListener#onGraphEvents(List)}. Events are delivered to a listener in the order they were fired.
+ * When a listener's queue is full the {@link OverflowPolicy} decides whether the firing thread waits or the oldest
+ * queued event is dropped.
+ */
+public class GraphEventDispatcher {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(GraphEventDispatcher.class);
+    private final int queueSize;
+    private final int maxBatchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<GraphEventListener, ListenerQueue> listenerQueues = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public enum OverflowPolicy {
+        /**
+         * The firing thread waits until the listener has taken events from its queue.
+         */
+        BLOCK,
+        /**
+         * The oldest event in the listener's queue is dropped to make room for the new event.
+         */
+        DROP_OLDEST
+    }
+
+    public GraphEventDispatcher(int queueSize, int maxBatchSize, OverflowPolicy overflowPolicy) {
+        if (queueSize < 1 || maxBatchSize < 1) {
+            throw new VertexiumException("queueSize and maxBatchSize must be greater than zero");
+        }
+        this.queueSize = queueSize;
+        this.maxBatchSize = maxBatchSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void addListener(GraphEventListener graphEventListener) {
+        if (closed) {
+            throw new VertexiumException("dispatcher is closed");
+        }
+        listenerQueues.computeIfAbsent(graphEventListener, ListenerQueue::new);
+    }
+
+    public void dispatch(GraphEvent graphEvent) {
+        if (closed) {
+            throw new VertexiumException("dispatcher is closed");
+        }
+        for (ListenerQueue listenerQueue : listenerQueues.values()) {
+            listenerQueue.add(graphEvent);
+        }
+    }
+
+    /**
+     * Waits until every event dispatched before this call was delivered or dropped.
+     *
+     * @return false if the timeout elapsed first.
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ListenerQueue listenerQueue : listenerQueues.values()) {
+            if (!listenerQueue.awaitDelivery(deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delivers the events still queued and stops the dispatcher threads.
+     */
+    public void close(long timeout, TimeUnit unit) {
+        closed = true;
+        if (!awaitDelivery(timeout, unit)) {
+            LOGGER.warn("timed out waiting for graph events to be delivered, undelivered events are dropped");
+        }
+        for (ListenerQueue listenerQueue : listenerQueues.values()) {
+            listenerQueue.thread.interrupt();
+        }
+    }
+
+    public ListenerStatistics getListenerStatistics(GraphEventListener graphEventListener) {
+        ListenerQueue listenerQueue = listenerQueues.get(graphEventListener);
+        if (listenerQueue == null) {
+            throw new VertexiumException("listener was not added to the dispatcher: " + graphEventListener);
+        }
+        return listenerQueue.getStatistics();
+    }
+
+    /**
+     * How far a listener is behind the events dispatched to it.
+     */
+    public static class ListenerStatistics {
+        private final int queuedCount;
+        private final long deliveredCount;
+        private final long droppedCount;
+        private final long lagMillis;
+
+        public ListenerStatistics(int queuedCount, long deliveredCount, long droppedCount, long lagMillis) {
+            this.queuedCount = queuedCount;
+            this.deliveredCount = deliveredCount;
+            this.droppedCount = droppedCount;
+            this.lagMillis = lagMillis;
+        }
+
+        /**
+         * @return the number of events waiting to be delivered.
+         */
+        public int getQueuedCount() {
+            return queuedCount;
+        }
+
+        public long getDeliveredCount() {
+            return deliveredCount;
+        }
+
+        /**
+         * @return the number of events dropped because the queue was full.
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        /**
+         * @return the time the oldest undelivered event has been waiting, zero if no events are waiting.
+         */
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "ListenerStatistics{" +
+                    "queuedCount=" + queuedCount +
+                    ", deliveredCount=" + deliveredCount +
+                    ", droppedCount=" + droppedCount +
+                    ", lagMillis=" + lagMillis +
+                    '}';
+        }
+    }
+
+    private static class QueuedEvent {
+        private final GraphEvent graphEvent;
+        private final long queuedTime;
+
+        QueuedEvent(GraphEvent graphEvent) {
+            this.graphEvent = graphEvent;
+            this.queuedTime = System.currentTimeMillis();
+        }
+    }
+
+    private class ListenerQueue implements Runnable {
+        private final GraphEventListener listener;
+        private final ArrayBlockingQueue<QueuedEvent> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicLong deliveredCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final Object deliveryLock = new Object();
+        private final Thread thread;
+        private long addedCount;
+        private long completedCount;
+        private volatile QueuedEvent delivering;
+
+        ListenerQueue(GraphEventListener listener) {
+            this.listener = listener;
+            this.thread = new Thread(this, "vertexium-graph-event-" + listener.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void add(GraphEvent graphEvent) {
+            QueuedEvent queuedEvent = new QueuedEvent(graphEvent);
+            synchronized (deliveryLock) {
+                addedCount++;
+            }
+            try {
+                if (overflowPolicy == OverflowPolicy.BLOCK) {
+                    queue.put(queuedEvent);
+                    return;
+                }
+                while (!queue.offer(queuedEvent)) {
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                        completed(1);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                completed(1);
+                throw new VertexiumException("interrupted dispatching graph event", ex);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<QueuedEvent> batch = new ArrayList<>();
+            List<GraphEvent> graphEvents = new ArrayList<>();
+            while (true) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                for (QueuedEvent queuedEvent : batch) {
+                    graphEvents.add(queuedEvent.graphEvent);
+                }
+                delivering = batch.get(0);
+                try {
+                    listener.onGraphEvents(graphEvents);
+                    deliveredCount.addAndGet(graphEvents.size());
+                } catch (Throwable ex) {
+                    LOGGER.error("graph event listener " + listener + " failed handling " + graphEvents.size() + " events", ex);
+                } finally {
+                    delivering = null;
+                    completed(batch.size());
+                    batch.clear();
+                    graphEvents.clear();
+                }
+            }
+        }
+
+        private void completed(int count) {
+            synchronized (deliveryLock) {
+                completedCount += count;
+                deliveryLock.notifyAll();
+            }
+        }
+
+        boolean awaitDelivery(long deadline) {
+            synchronized (deliveryLock) {
+                long target = addedCount;
+                while (completedCount < target) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(deliveryLock, remaining);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        ListenerStatistics getStatistics() {
+            QueuedEvent oldest = delivering;
+            if (oldest == null) {
+                oldest = queue.peek();
+            }
+            long lagMillis = oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.queuedTime);
+            return new ListenerStatistics(queue.size(), deliveredCount.get(), droppedCount.get(), lagMillis);
+        }
+    }
+}
@@ -1,5 +1,17 @@
 package org.vertexium.event;
 
+import java.util.List;
+
 public abstract class GraphEventListener {
     public abstract void onGraphEvent(GraphEvent graphEvent);
+
+    /**
+     * Called with a batch of events when events are delivered by a {@link GraphEventDispatcher}. Listeners which can
+     * handle many events at once, e.g. by sending them together, override this.
+     */
+    public void onGraphEvents(List<GraphEvent> graphEvents) {
+        for (GraphEvent graphEvent : graphEvents) {
+            onGraphEvent(graphEvent);
+        }
+    }
 }
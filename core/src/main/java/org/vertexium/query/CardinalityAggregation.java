@@ -0,0 +1,20 @@
+package org.vertexium.query;
+
+public class CardinalityAggregation extends Aggregation {
+    private final String aggregationName;
+    private final String propertyName;
+
+    public CardinalityAggregation(String aggregationName, String propertyName) {
+        this.aggregationName = aggregationName;
+        this.propertyName = propertyName;
+    }
+
+    @Override
+    public String getAggregationName() {
+        return aggregationName;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+}
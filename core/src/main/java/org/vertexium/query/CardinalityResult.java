@@ -0,0 +1,16 @@
+package org.vertexium.query;
+
+public class CardinalityResult extends AggregationResult {
+    private final long value;
+
+    public CardinalityResult(long value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the estimated number of distinct values.
+     */
+    public long getValue() {
+        return value;
+    }
+}
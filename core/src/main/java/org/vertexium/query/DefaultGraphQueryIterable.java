@@ -4,12 +4,9 @@ import org.vertexium.*;
 import org.vertexium.util.CloseableIterator;
 import org.vertexium.util.CloseableUtils;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
 
 import static org.vertexium.util.IterableUtils.count;
-import static org.vertexium.util.IterableUtils.toList;
 import static org.vertexium.util.Preconditions.checkNotNull;
 
 public class DefaultGraphQueryIterable<T> implements
@@ -19,6 +16,7 @@ public class DefaultGraphQueryIterable<T> implements
     private final Iterable<T> iterable;
     private final boolean evaluateQueryString;
     private final boolean evaluateHasContainers;
+    private final SortContainersComparator<T> sortComparator;
 
     public DefaultGraphQueryIterable(
             QueryParameters parameters,
@@ -31,27 +29,83 @@ public class DefaultGraphQueryIterable<T> implements
         this.parameters = parameters;
         this.evaluateQueryString = evaluateQueryString;
         this.evaluateHasContainers = evaluateHasContainers;
+        this.iterable = iterable;
         if (evaluateSortContainers && this.parameters.getSortContainers().size() > 0) {
-            this.iterable = sort(iterable, parameters.getSortContainers());
+            this.sortComparator = new SortContainersComparator<>(parameters.getSortContainers());
         } else {
-            this.iterable = iterable;
+            this.sortComparator = null;
         }
     }
 
-    private Iterable<T> sort(Iterable<T> iterable, List<QueryBase.SortContainer> sortContainers) {
-        List<T> list = toList(iterable);
-        list.sort(new SortContainersComparator<>(sortContainers));
-        return list;
-    }
-
     @Override
     public Iterator<T> iterator() {
         return iterator(false);
     }
 
     protected Iterator<T> iterator(final boolean iterateAll) {
-        final Iterator<T> it = iterable.iterator();
+        if (sortComparator == null) {
+            return filter(iterable.iterator(), iterateAll);
+        }
+        return sort(filter(iterable.iterator(), true), iterateAll);
+    }
+
+    /**
+     * @return the items matching the query in the order of the source, for results where the order does not matter.
+     */
+    protected Iterator<T> iterateAllUnsorted() {
+        return filter(iterable.iterator(), true);
+    }
+
+    /**
+     * Sorts the matching items, the sort values of each item are read once. With a limit only the first skip + limit
+     * items are kept in a bounded heap instead of sorting all matching items.
+     */
+    private Iterator<T> sort(Iterator<T> matching, boolean iterateAll) {
+        Long limit = iterateAll ? null : parameters.getLimit();
+        long skip = iterateAll ? 0 : parameters.getSkip();
+        Comparator<SortItem<T>> comparator = (item1, item2) -> {
+            int result = sortComparator.compareSortValues(item1.sortValues, item2.sortValues);
+            // keep the order of the source for equal items
+            return result != 0 ? result : Long.compare(item1.index, item2.index);
+        };
+
+        List<SortItem<T>> items;
+        long index = 0;
+        if (limit == null) {
+            items = new ArrayList<>();
+            while (matching.hasNext()) {
+                T item = matching.next();
+                items.add(new SortItem<>(item, sortComparator.getSortValues(item), index++));
+            }
+        } else {
+            long size = skip + limit;
+            if (size <= 0) {
+                CloseableUtils.closeQuietly(matching);
+                return Collections.emptyIterator();
+            }
+            PriorityQueue<SortItem<T>> heap = new PriorityQueue<>((int) Math.min(size, 1024), comparator.reversed());
+            while (matching.hasNext()) {
+                T item = matching.next();
+                SortItem<T> sortItem = new SortItem<>(item, sortComparator.getSortValues(item), index++);
+                if (heap.size() < size) {
+                    heap.add(sortItem);
+                } else if (comparator.compare(sortItem, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(sortItem);
+                }
+            }
+            items = new ArrayList<>(heap);
+        }
+        items.sort(comparator);
 
+        List<T> results = new ArrayList<>(items.size());
+        for (int i = (int) Math.min(skip, items.size()); i < items.size(); i++) {
+            results.add(items.get(i).item);
+        }
+        return results.iterator();
+    }
+
+    private CloseableIterator<T> filter(final Iterator<T> it, final boolean iterateAll) {
         return new CloseableIterator<T>() {
             public T next;
             public T current;
@@ -195,7 +249,7 @@ public class DefaultGraphQueryIterable<T> implements
     @Override
     public long getTotalHits() {
         // a limit could be set on a query which could prevent all items being returned
-        return count(this.iterator(true));
+        return count(iterateAllUnsorted());
     }
 
     @Override
@@ -207,4 +261,16 @@ public class DefaultGraphQueryIterable<T> implements
     public <TResult extends AggregationResult> TResult getAggregationResult(String name, Class<? extends TResult> resultType) {
         throw new VertexiumException("Could not find aggregation with name: " + name);
     }
+
+    private static class SortItem<T> {
+        private final T item;
+        private final List<List<Object>> sortValues;
+        private final long index;
+
+        SortItem(T item, List<List<Object>> sortValues, long index) {
+            this.item = item;
+            this.sortValues = sortValues;
+            this.index = index;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package org.vertexium.query;
 import org.vertexium.VertexiumException;
 import org.vertexium.VertexiumObject;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
@@ -17,8 +18,28 @@ public class SortContainersComparator<T> implements Comparator<T> {
 
     @Override
     public int compare(T elem1, T elem2) {
+        return compareSortValues(getSortValues(elem1), getSortValues(elem2));
+    }
+
+    /**
+     * @return the values of the sort properties of the item, so they can be compared without being read again on
+     * every comparison, see {@link #compareSortValues(List, List)}.
+     */
+    public List<List<Object>> getSortValues(T vertexiumObject) {
+        if (!(vertexiumObject instanceof VertexiumObject)) {
+            throw new VertexiumException("unexpected searchable item: " + vertexiumObject.getClass().getName());
+        }
+        VertexiumObject elem = (VertexiumObject) vertexiumObject;
+        List<List<Object>> sortValues = new ArrayList<>(sortContainers.size());
         for (QueryBase.SortContainer sortContainer : sortContainers) {
-            int result = compare(sortContainer, elem1, elem2);
+            sortValues.add(toList(elem.getPropertyValues(sortContainer.propertyName)));
+        }
+        return sortValues;
+    }
+
+    public int compareSortValues(List<List<Object>> sortValues1, List<List<Object>> sortValues2) {
+        for (int i = 0; i < sortContainers.size(); i++) {
+            int result = compare(sortContainers.get(i), sortValues1.get(i), sortValues2.get(i));
             if (result != 0) {
                 return result;
             }
@@ -26,30 +47,22 @@ public class SortContainersComparator<T> implements Comparator<T> {
         return 0;
     }
 
-    private int compare(QueryBase.SortContainer sortContainer, T vertexiumObject1, T vertexiumObject2) {
-        if (vertexiumObject1 instanceof VertexiumObject && vertexiumObject2 instanceof VertexiumObject) {
-            VertexiumObject elem1 = (VertexiumObject) vertexiumObject1;
-            VertexiumObject elem2 = (VertexiumObject) vertexiumObject2;
-            List<Object> elem1PropertyValues = toList(elem1.getPropertyValues(sortContainer.propertyName));
-            List<Object> elem2PropertyValues = toList(elem2.getPropertyValues(sortContainer.propertyName));
-            if (elem1PropertyValues.size() > 0 && elem2PropertyValues.size() == 0) {
-                return -1;
-            } else if (elem2PropertyValues.size() > 0 && elem1PropertyValues.size() == 0) {
-                return 1;
-            } else {
-                for (Object elem1PropertyValue : elem1PropertyValues) {
-                    for (Object elem2PropertyValue : elem2PropertyValues) {
-                        int result = comparePropertyValues(elem1PropertyValue, elem2PropertyValue);
-                        if (result != 0) {
-                            return sortContainer.direction == SortDirection.ASCENDING ? result : -result;
-                        }
+    private int compare(QueryBase.SortContainer sortContainer, List<Object> elem1PropertyValues, List<Object> elem2PropertyValues) {
+        if (elem1PropertyValues.size() > 0 && elem2PropertyValues.size() == 0) {
+            return -1;
+        } else if (elem2PropertyValues.size() > 0 && elem1PropertyValues.size() == 0) {
+            return 1;
+        } else {
+            for (Object elem1PropertyValue : elem1PropertyValues) {
+                for (Object elem2PropertyValue : elem2PropertyValues) {
+                    int result = comparePropertyValues(elem1PropertyValue, elem2PropertyValue);
+                    if (result != 0) {
+                        return sortContainer.direction == SortDirection.ASCENDING ? result : -result;
                     }
                 }
             }
-            return 0;
-        } else {
-            throw new VertexiumException("unexpected searchable item combination: " + vertexiumObject1.getClass().getName() + ", " + vertexiumObject2.getClass().getName());
         }
+        return 0;
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,872 @@
+package org.vertexium.query;
+
+import org.vertexium.Property;
+import org.vertexium.VertexiumException;
+import org.vertexium.VertexiumObject;
+import org.vertexium.type.GeoHash;
+import org.vertexium.type.GeoPoint;
+import org.vertexium.type.GeoRect;
+import org.vertexium.util.HyperLogLog;
+import org.vertexium.util.TDigest;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Computes aggregations over query results in a single pass. Every requested aggregation is updated as each item is
+ * added. Buckets only keep a count and the accumulators of their nested aggregations, never the items themselves.
+ * Percentiles and cardinality are estimated with mergeable sketches.
+ * <p>
+ * An aggregator is not thread safe. To aggregate in parallel, create one aggregator per partition of the results,
+ * then {@link #merge(StreamingAggregator)} them once all items are added.
+ */
+public class StreamingAggregator<T extends VertexiumObject> {
+    private static final double[] DEFAULT_PERCENTS = {1.0, 5.0, 25.0, 50.0, 75.0, 95.0, 99.0};
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final String ISO_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+    private static final String[] DEFAULT_DATE_FORMATS = {ISO_DATE_FORMAT, "yyyy-MM-dd'T'HH:mm:ss'Z'", "yyyy-MM-dd"};
+    private final Map<String, Accumulator> accumulators;
+
+    public StreamingAggregator(Iterable<Aggregation> aggregations) {
+        this.accumulators = createAccumulators(aggregations);
+    }
+
+    public static boolean isSupported(Aggregation aggregation) {
+        if (!(aggregation instanceof TermsAggregation
+                || aggregation instanceof CalendarFieldAggregation
+                || aggregation instanceof HistogramAggregation
+                || aggregation instanceof RangeAggregation
+                || aggregation instanceof StatisticsAggregation
+                || aggregation instanceof PercentilesAggregation
+                || aggregation instanceof GeohashAggregation
+                || aggregation instanceof CardinalityAggregation)) {
+            return false;
+        }
+        if (aggregation instanceof SupportsNestedAggregationsAggregation) {
+            for (Aggregation nestedAggregation : ((SupportsNestedAggregationsAggregation) aggregation).getNestedAggregations()) {
+                if (!isSupported(nestedAggregation)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void add(T item) {
+        for (Accumulator accumulator : accumulators.values()) {
+            accumulator.add(item);
+        }
+    }
+
+    public StreamingAggregator<T> addAll(Iterator<? extends T> items) {
+        while (items.hasNext()) {
+            add(items.next());
+        }
+        return this;
+    }
+
+    /**
+     * Adds the state of an aggregator created with the same aggregations to this aggregator.
+     */
+    public StreamingAggregator<T> merge(StreamingAggregator<T> other) {
+        for (Map.Entry<String, Accumulator> entry : accumulators.entrySet()) {
+            Accumulator otherAccumulator = other.accumulators.get(entry.getKey());
+            if (otherAccumulator == null) {
+                throw new VertexiumException("Cannot merge aggregators with different aggregations, missing: " + entry.getKey());
+            }
+            entry.getValue().merge(otherAccumulator);
+        }
+        return this;
+    }
+
+    /**
+     * @return the result of the aggregation or null if there is no aggregation with that name.
+     */
+    public AggregationResult getResult(String aggregationName) {
+        Accumulator accumulator = accumulators.get(aggregationName);
+        return accumulator == null ? null : accumulator.getResult();
+    }
+
+    public Map<String, AggregationResult> getResults() {
+        return getResults(accumulators);
+    }
+
+    private static Map<String, AggregationResult> getResults(Map<String, Accumulator> accumulators) {
+        Map<String, AggregationResult> results = new HashMap<>();
+        for (Map.Entry<String, Accumulator> entry : accumulators.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().getResult());
+        }
+        return results;
+    }
+
+    private static Map<String, Accumulator> createAccumulators(Iterable<Aggregation> aggregations) {
+        Map<String, Accumulator> accumulators = new LinkedHashMap<>();
+        for (Aggregation aggregation : aggregations) {
+            accumulators.put(aggregation.getAggregationName(), createAccumulator(aggregation));
+        }
+        return accumulators;
+    }
+
+    private static Accumulator createAccumulator(Aggregation aggregation) {
+        if (aggregation instanceof TermsAggregation) {
+            return new TermsAccumulator((TermsAggregation) aggregation);
+        }
+        if (aggregation instanceof CalendarFieldAggregation) {
+            return new CalendarFieldAccumulator((CalendarFieldAggregation) aggregation);
+        }
+        if (aggregation instanceof HistogramAggregation) {
+            return new HistogramAccumulator((HistogramAggregation) aggregation);
+        }
+        if (aggregation instanceof RangeAggregation) {
+            return new RangeAccumulator((RangeAggregation) aggregation);
+        }
+        if (aggregation instanceof StatisticsAggregation) {
+            return new StatisticsAccumulator((StatisticsAggregation) aggregation);
+        }
+        if (aggregation instanceof PercentilesAggregation) {
+            return new PercentilesAccumulator((PercentilesAggregation) aggregation);
+        }
+        if (aggregation instanceof GeohashAggregation) {
+            return new GeohashAccumulator((GeohashAggregation) aggregation);
+        }
+        if (aggregation instanceof CardinalityAggregation) {
+            return new CardinalityAccumulator((CardinalityAggregation) aggregation);
+        }
+        throw new VertexiumException("Unhandled aggregation: " + aggregation.getClass().getName());
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Date) {
+            return (double) ((Date) value).getTime();
+        }
+        return null;
+    }
+
+    private static String formatNumber(double value) {
+        // keys of whole numbers are written without the decimal place, as the Elasticsearch search index does
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static SimpleDateFormat createDateFormat(String pattern) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+        dateFormat.setTimeZone(UTC);
+        dateFormat.setLenient(false);
+        return dateFormat;
+    }
+
+    private abstract static class Accumulator {
+        abstract void add(VertexiumObject item);
+
+        abstract void merge(Accumulator other);
+
+        abstract AggregationResult getResult();
+    }
+
+    private static class Bucket {
+        private long count;
+        private final Map<String, Accumulator> nestedAccumulators;
+
+        Bucket(Iterable<Aggregation> nestedAggregations) {
+            this.nestedAccumulators = createAccumulators(nestedAggregations);
+        }
+
+        void add(VertexiumObject item) {
+            count++;
+            for (Accumulator nestedAccumulator : nestedAccumulators.values()) {
+                nestedAccumulator.add(item);
+            }
+        }
+
+        void merge(Bucket other) {
+            count += other.count;
+            for (Map.Entry<String, Accumulator> entry : nestedAccumulators.entrySet()) {
+                entry.getValue().merge(other.nestedAccumulators.get(entry.getKey()));
+            }
+        }
+
+        Map<String, AggregationResult> getNestedResults() {
+            return getResults(nestedAccumulators);
+        }
+    }
+
+    /**
+     * Counts each item once in every bucket one of its values falls in.
+     */
+    private abstract static class BucketsAccumulator<K> extends Accumulator {
+        private final String propertyName;
+        private final Iterable<Aggregation> nestedAggregations;
+        private final Set<K> itemKeys = new HashSet<>();
+        protected final Map<K, Bucket> buckets = new HashMap<>();
+
+        BucketsAccumulator(String propertyName, Iterable<Aggregation> nestedAggregations) {
+            this.propertyName = propertyName;
+            this.nestedAggregations = nestedAggregations;
+        }
+
+        protected abstract void addKeys(Object value, Collection<K> keys);
+
+        @Override
+        void add(VertexiumObject item) {
+            itemKeys.clear();
+            for (Object value : item.getPropertyValues(propertyName)) {
+                if (value != null) {
+                    addKeys(value, itemKeys);
+                }
+            }
+            for (K key : itemKeys) {
+                getBucket(key).add(item);
+            }
+        }
+
+        protected Bucket getBucket(K key) {
+            return buckets.computeIfAbsent(key, k -> createBucket());
+        }
+
+        protected Bucket createBucket() {
+            return new Bucket(nestedAggregations);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void merge(Accumulator other) {
+            for (Map.Entry<K, Bucket> entry : ((BucketsAccumulator<K>) other).buckets.entrySet()) {
+                getBucket(entry.getKey()).merge(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Strings are grouped by their lowercase version so an item with several spellings of a term is counted once, the
+     * bucket is named after the most common spelling.
+     */
+    private static class TermsAccumulator extends BucketsAccumulator<Object> {
+        private final TermsAggregation aggregation;
+        private final Map<String, Map<String, Long>> spellingCounts = new HashMap<>();
+
+        TermsAccumulator(TermsAggregation aggregation) {
+            super(aggregation.getPropertyName(), aggregation.getNestedAggregations());
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        protected void addKeys(Object value, Collection<Object> keys) {
+            if (value instanceof String) {
+                String key = ((String) value).toLowerCase();
+                spellingCounts.computeIfAbsent(key, k -> new HashMap<>()).merge((String) value, 1L, Long::sum);
+                keys.add(key);
+            } else {
+                keys.add(value);
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            super.merge(other);
+            for (Map.Entry<String, Map<String, Long>> entry : ((TermsAccumulator) other).spellingCounts.entrySet()) {
+                Map<String, Long> counts = spellingCounts.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+                entry.getValue().forEach((spelling, count) -> counts.merge(spelling, count, Long::sum));
+            }
+        }
+
+        private String getMostCommonSpelling(String key) {
+            String bestSpelling = key;
+            long bestCount = -1;
+            for (Map.Entry<String, Long> entry : spellingCounts.getOrDefault(key, Collections.emptyMap()).entrySet()) {
+                if (entry.getValue() > bestCount
+                        || (entry.getValue() == bestCount && entry.getKey().compareTo(bestSpelling) < 0)) {
+                    bestCount = entry.getValue();
+                    bestSpelling = entry.getKey();
+                }
+            }
+            return bestSpelling;
+        }
+
+        @Override
+        AggregationResult getResult() {
+            Map<Object, Bucket> results = new HashMap<>();
+            for (Map.Entry<Object, Bucket> entry : buckets.entrySet()) {
+                Object key = entry.getKey() instanceof String ? getMostCommonSpelling((String) entry.getKey()) : entry.getKey();
+                results.put(key, entry.getValue());
+            }
+
+            List<Map.Entry<Object, Bucket>> entries = new ArrayList<>(results.entrySet());
+            if (aggregation.getSize() != null && entries.size() > aggregation.getSize()) {
+                entries.sort((e1, e2) -> Long.compare(e2.getValue().count, e1.getValue().count));
+                entries = entries.subList(0, aggregation.getSize());
+            }
+            List<TermsBucket> termsBuckets = new ArrayList<>();
+            for (Map.Entry<Object, Bucket> entry : entries) {
+                termsBuckets.add(new TermsBucket(entry.getKey(), entry.getValue().count, entry.getValue().getNestedResults()));
+            }
+            return new TermsResult(termsBuckets);
+        }
+    }
+
+    private static class CalendarFieldAccumulator extends BucketsAccumulator<Integer> {
+        private final CalendarFieldAggregation aggregation;
+        private final Calendar calendar;
+
+        CalendarFieldAccumulator(CalendarFieldAggregation aggregation) {
+            super(aggregation.getPropertyName(), aggregation.getNestedAggregations());
+            this.aggregation = aggregation;
+            this.calendar = GregorianCalendar.getInstance(aggregation.getTimeZone());
+        }
+
+        @Override
+        protected void addKeys(Object value, Collection<Integer> keys) {
+            if (value instanceof Date) {
+                calendar.setTime((Date) value);
+                //noinspection MagicConstant
+                keys.add(calendar.get(aggregation.getCalendarField()));
+            }
+        }
+
+        @Override
+        AggregationResult getResult() {
+            List<HistogramBucket> histogramBuckets = new ArrayList<>();
+            for (Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+                histogramBuckets.add(new HistogramBucket(entry.getKey(), entry.getValue().count, entry.getValue().getNestedResults()));
+            }
+            return new HistogramResult(histogramBuckets);
+        }
+    }
+
+    private static class HistogramAccumulator extends BucketsAccumulator<Double> {
+        private static final Pattern FIXED_INTERVAL_PATTERN = Pattern.compile("^([0-9]+)(ms|s|m|h|d)$");
+        private final HistogramAggregation aggregation;
+        private Boolean dates;
+        private Double numericInterval;
+        private DateInterval dateInterval;
+
+        HistogramAccumulator(HistogramAggregation aggregation) {
+            super(aggregation.getFieldName(), aggregation.getNestedAggregations());
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        protected void addKeys(Object value, Collection<Double> keys) {
+            Double number = toDouble(value);
+            if (number == null) {
+                return;
+            }
+            if (dates == null) {
+                dates = value instanceof Date;
+            }
+            keys.add(floor(number));
+        }
+
+        private double floor(double value) {
+            if (dates) {
+                return (double) getDateInterval().floor((long) value);
+            }
+            double interval = getNumericInterval();
+            return Math.floor(value / interval) * interval;
+        }
+
+        private double next(double key) {
+            if (dates) {
+                return (double) getDateInterval().next((long) key);
+            }
+            return key + getNumericInterval();
+        }
+
+        private double getNumericInterval() {
+            if (numericInterval == null) {
+                try {
+                    numericInterval = Double.parseDouble(aggregation.getInterval());
+                } catch (NumberFormatException ex) {
+                    throw new VertexiumException("Invalid histogram interval for numeric values: " + aggregation.getInterval(), ex);
+                }
+                if (numericInterval <= 0) {
+                    throw new VertexiumException("Histogram interval must be greater than zero: " + aggregation.getInterval());
+                }
+            }
+            return numericInterval;
+        }
+
+        private DateInterval getDateInterval() {
+            if (dateInterval == null) {
+                dateInterval = DateInterval.parse(aggregation.getInterval());
+            }
+            return dateInterval;
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            super.merge(other);
+            if (dates == null) {
+                dates = ((HistogramAccumulator) other).dates;
+            }
+        }
+
+        @Override
+        AggregationResult getResult() {
+            HistogramAggregation.ExtendedBounds<?> extendedBounds = aggregation.getExtendedBounds();
+            if (dates == null && extendedBounds != null) {
+                dates = Date.class.isAssignableFrom(extendedBounds.getMinMaxType());
+            }
+            long minDocumentCount = aggregation.getMinDocumentCount() == null ? 1 : aggregation.getMinDocumentCount();
+            TreeMap<Double, Bucket> sortedBuckets = new TreeMap<>(buckets);
+            if (minDocumentCount == 0 && dates != null) {
+                Double min = sortedBuckets.isEmpty() ? null : sortedBuckets.firstKey();
+                Double max = sortedBuckets.isEmpty() ? null : sortedBuckets.lastKey();
+                if (extendedBounds != null) {
+                    min = minOf(min, boundToDouble(extendedBounds.getMin()));
+                    max = maxOf(max, boundToDouble(extendedBounds.getMax()));
+                }
+                if (min != null && max != null) {
+                    for (double key = floor(min); key <= max; key = next(key)) {
+                        sortedBuckets.computeIfAbsent(key, k -> createBucket());
+                    }
+                }
+            }
+
+            List<HistogramBucket> histogramBuckets = new ArrayList<>();
+            SimpleDateFormat dateFormat = createDateFormat(ISO_DATE_FORMAT);
+            for (Map.Entry<Double, Bucket> entry : sortedBuckets.entrySet()) {
+                if (entry.getValue().count < minDocumentCount) {
+                    continue;
+                }
+                String key = dates ? dateFormat.format(new Date(entry.getKey().longValue())) : formatNumber(entry.getKey());
+                histogramBuckets.add(new HistogramBucket(key, entry.getValue().count, entry.getValue().getNestedResults()));
+            }
+            return new HistogramResult(histogramBuckets);
+        }
+
+        private Double boundToDouble(Object bound) {
+            if (bound instanceof String) {
+                return (double) parseDate((String) bound, null);
+            }
+            return toDouble(bound);
+        }
+
+        private static Double minOf(Double a, Double b) {
+            return a == null ? b : (b == null ? a : Math.min(a, b));
+        }
+
+        private static Double maxOf(Double a, Double b) {
+            return a == null ? b : (b == null ? a : Math.max(a, b));
+        }
+    }
+
+    /**
+     * A date histogram interval, either a calendar unit (year, quarter, month, week, day, hour, minute, second) or a
+     * fixed number of milliseconds. Buckets start at UTC boundaries.
+     */
+    private static class DateInterval {
+        private final int calendarField;
+        private final int calendarAmount;
+        private final long fixedMillis;
+        private final Calendar calendar = new GregorianCalendar(UTC);
+
+        private DateInterval(int calendarField, int calendarAmount, long fixedMillis) {
+            this.calendarField = calendarField;
+            this.calendarAmount = calendarAmount;
+            this.fixedMillis = fixedMillis;
+            this.calendar.setFirstDayOfWeek(Calendar.MONDAY);
+        }
+
+        static DateInterval parse(String interval) {
+            switch (interval) {
+                case "year":
+                case "1y":
+                    return new DateInterval(Calendar.YEAR, 1, 0);
+                case "quarter":
+                case "1q":
+                    return new DateInterval(Calendar.MONTH, 3, 0);
+                case "month":
+                case "1M":
+                    return new DateInterval(Calendar.MONTH, 1, 0);
+                case "week":
+                case "1w":
+                    return new DateInterval(Calendar.WEEK_OF_YEAR, 1, 0);
+                case "day":
+                    return new DateInterval(-1, 0, 24L * 60 * 60 * 1000);
+                case "hour":
+                    return new DateInterval(-1, 0, 60L * 60 * 1000);
+                case "minute":
+                    return new DateInterval(-1, 0, 60L * 1000);
+                case "second":
+                    return new DateInterval(-1, 0, 1000L);
+            }
+            if (interval.matches("^[0-9]+$")) {
+                return fixed(Long.parseLong(interval), interval);
+            }
+            Matcher m = HistogramAccumulator.FIXED_INTERVAL_PATTERN.matcher(interval);
+            if (m.matches()) {
+                long amount = Long.parseLong(m.group(1));
+                switch (m.group(2)) {
+                    case "ms":
+                        return fixed(amount, interval);
+                    case "s":
+                        return fixed(amount * 1000L, interval);
+                    case "m":
+                        return fixed(amount * 60L * 1000, interval);
+                    case "h":
+                        return fixed(amount * 60L * 60 * 1000, interval);
+                    case "d":
+                        return fixed(amount * 24L * 60 * 60 * 1000, interval);
+                }
+            }
+            throw new VertexiumException("Invalid date histogram interval: " + interval);
+        }
+
+        private static DateInterval fixed(long millis, String interval) {
+            if (millis <= 0) {
+                throw new VertexiumException("Histogram interval must be greater than zero: " + interval);
+            }
+            return new DateInterval(-1, 0, millis);
+        }
+
+        long floor(long time) {
+            if (fixedMillis > 0) {
+                return Math.floorDiv(time, fixedMillis) * fixedMillis;
+            }
+            calendar.setTimeInMillis(time);
+            calendar.set(Calendar.MILLISECOND, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            if (calendarField == Calendar.WEEK_OF_YEAR) {
+                calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
+            } else {
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                if (calendarField == Calendar.YEAR) {
+                    calendar.set(Calendar.MONTH, Calendar.JANUARY);
+                } else {
+                    int month = calendar.get(Calendar.MONTH);
+                    calendar.set(Calendar.MONTH, month - month % calendarAmount);
+                }
+            }
+            return calendar.getTimeInMillis();
+        }
+
+        long next(long start) {
+            if (fixedMillis > 0) {
+                return start + fixedMillis;
+            }
+            calendar.setTimeInMillis(start);
+            calendar.add(calendarField, calendarAmount);
+            return calendar.getTimeInMillis();
+        }
+    }
+
+    private static class RangeAccumulator extends BucketsAccumulator<Integer> {
+        private final RangeAggregation aggregation;
+        private final List<RangeBound> froms = new ArrayList<>();
+        private final List<RangeBound> tos = new ArrayList<>();
+        private boolean valueSeen;
+
+        RangeAccumulator(RangeAggregation aggregation) {
+            super(aggregation.getFieldName(), aggregation.getNestedAggregations());
+            this.aggregation = aggregation;
+            for (RangeAggregation.Range range : aggregation.getRanges()) {
+                froms.add(range.getFrom() == null ? null : new RangeBound(range.getFrom(), aggregation.getFormat()));
+                tos.add(range.getTo() == null ? null : new RangeBound(range.getTo(), aggregation.getFormat()));
+            }
+        }
+
+        @Override
+        protected void addKeys(Object value, Collection<Integer> keys) {
+            Double number = toDouble(value);
+            if (number == null) {
+                return;
+            }
+            valueSeen = true;
+            boolean date = value instanceof Date;
+            for (int i = 0; i < froms.size(); i++) {
+                RangeBound from = froms.get(i);
+                RangeBound to = tos.get(i);
+                if ((from == null || number >= from.toDouble(date)) && (to == null || number < to.toDouble(date))) {
+                    keys.add(i);
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            super.merge(other);
+            valueSeen |= ((RangeAccumulator) other).valueSeen;
+        }
+
+        @Override
+        AggregationResult getResult() {
+            List<RangeBucket> rangeBuckets = new ArrayList<>();
+            if (!valueSeen) {
+                return new RangeResult(rangeBuckets);
+            }
+            List<RangeAggregation.Range> ranges = aggregation.getRanges();
+            for (int i = 0; i < ranges.size(); i++) {
+                RangeAggregation.Range range = ranges.get(i);
+                Object key = range.getKey();
+                if (key == null) {
+                    key = formatBound(froms.get(i)) + "-" + formatBound(tos.get(i));
+                }
+                Bucket bucket = buckets.get(i);
+                if (bucket == null) {
+                    bucket = createBucket();
+                }
+                rangeBuckets.add(new RangeBucket(key, bucket.count, bucket.getNestedResults()));
+            }
+            return new RangeResult(rangeBuckets);
+        }
+
+        private String formatBound(RangeBound bound) {
+            if (bound == null) {
+                return "*";
+            }
+            if (bound.isDate()) {
+                String format = aggregation.getFormat() == null ? ISO_DATE_FORMAT : aggregation.getFormat();
+                return createDateFormat(format).format(new Date((long) bound.toDouble(true)));
+            }
+            return Double.toString(bound.toDouble(false));
+        }
+    }
+
+    private static class RangeBound {
+        private final Object value;
+        private final String format;
+        private Double dateValue;
+        private Double numberValue;
+
+        RangeBound(Object value, String format) {
+            this.value = value;
+            this.format = format;
+        }
+
+        boolean isDate() {
+            return value instanceof Date || (value instanceof String && dateValue != null);
+        }
+
+        double toDouble(boolean date) {
+            if (date) {
+                if (dateValue == null) {
+                    dateValue = value instanceof String ? (double) parseDate((String) value, format) : StreamingAggregator.toDouble(value);
+                }
+                return checkBound(dateValue);
+            }
+            if (numberValue == null) {
+                numberValue = value instanceof String ? parseNumber((String) value) : StreamingAggregator.toDouble(value);
+            }
+            return checkBound(numberValue);
+        }
+
+        private double checkBound(Double bound) {
+            if (bound == null) {
+                throw new VertexiumException("Invalid range bound: " + value);
+            }
+            return bound;
+        }
+
+        private static Double parseNumber(String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException ex) {
+                throw new VertexiumException("Invalid numeric range bound: " + value, ex);
+            }
+        }
+    }
+
+    private static long parseDate(String value, String format) {
+        String[] formats = format == null ? DEFAULT_DATE_FORMATS : new String[]{format};
+        for (String f : formats) {
+            try {
+                return createDateFormat(f).parse(value).getTime();
+            } catch (ParseException ex) {
+                // try the next format
+            }
+        }
+        throw new VertexiumException("Could not parse date: " + value);
+    }
+
+    private static class StatisticsAccumulator extends Accumulator {
+        private final String propertyName;
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private double mean;
+        private double sumOfSquaredDifferences;
+
+        StatisticsAccumulator(StatisticsAggregation aggregation) {
+            this.propertyName = aggregation.getFieldName();
+        }
+
+        @Override
+        void add(VertexiumObject item) {
+            for (Object value : item.getPropertyValues(propertyName)) {
+                Double number = toDouble(value);
+                if (number != null) {
+                    add(number);
+                }
+            }
+        }
+
+        private void add(double value) {
+            min = count == 0 ? value : Math.min(min, value);
+            max = count == 0 ? value : Math.max(max, value);
+            count++;
+            sum += value;
+            double delta = value - mean;
+            mean += delta / count;
+            sumOfSquaredDifferences += delta * (value - mean);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            StatisticsAccumulator o = (StatisticsAccumulator) other;
+            if (o.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                min = o.min;
+                max = o.max;
+            } else {
+                min = Math.min(min, o.min);
+                max = Math.max(max, o.max);
+            }
+            long totalCount = count + o.count;
+            double delta = o.mean - mean;
+            sumOfSquaredDifferences += o.sumOfSquaredDifferences + delta * delta * count * o.count / totalCount;
+            mean += delta * o.count / totalCount;
+            count = totalCount;
+            sum += o.sum;
+        }
+
+        @Override
+        AggregationResult getResult() {
+            double standardDeviation = count == 0 ? 0.0 : Math.sqrt(sumOfSquaredDifferences / count);
+            return new StatisticsResult(count, sum, min, max, standardDeviation);
+        }
+    }
+
+    private static class PercentilesAccumulator extends Accumulator {
+        private final PercentilesAggregation aggregation;
+        private final TDigest digest = new TDigest();
+
+        PercentilesAccumulator(PercentilesAggregation aggregation) {
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        void add(VertexiumObject item) {
+            for (Property property : item.getProperties(aggregation.getFieldName())) {
+                if (aggregation.getVisibility() != null && !aggregation.getVisibility().equals(property.getVisibility())) {
+                    continue;
+                }
+                Double number = toDouble(property.getValue());
+                if (number != null) {
+                    digest.add(number);
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            digest.merge(((PercentilesAccumulator) other).digest);
+        }
+
+        @Override
+        AggregationResult getResult() {
+            List<Percentile> percentiles = new ArrayList<>();
+            if (digest.size() > 0) {
+                double[] percents = aggregation.getPercents() == null || aggregation.getPercents().length == 0
+                        ? DEFAULT_PERCENTS
+                        : aggregation.getPercents();
+                for (double percent : percents) {
+                    percentiles.add(new Percentile(percent, digest.quantile(percent / 100.0)));
+                }
+            }
+            return new PercentilesResult(percentiles);
+        }
+    }
+
+    private static class GeohashAccumulator extends BucketsAccumulator<String> {
+        private final GeohashAggregation aggregation;
+        private final Map<String, double[]> pointSums = new HashMap<>();
+
+        GeohashAccumulator(GeohashAggregation aggregation) {
+            super(aggregation.getFieldName(), aggregation.getNestedAggregations());
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        protected void addKeys(Object value, Collection<String> keys) {
+            if (value instanceof GeoPoint) {
+                GeoPoint point = (GeoPoint) value;
+                String hash = new GeoHash(point.getLatitude(), point.getLongitude(), aggregation.getPrecision()).getHash();
+                addToSum(hash, point.getLatitude(), point.getLongitude(), 1);
+                keys.add(hash);
+            }
+        }
+
+        private void addToSum(String hash, double latitude, double longitude, double count) {
+            double[] sum = pointSums.computeIfAbsent(hash, k -> new double[3]);
+            sum[0] += latitude;
+            sum[1] += longitude;
+            sum[2] += count;
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            super.merge(other);
+            for (Map.Entry<String, double[]> entry : ((GeohashAccumulator) other).pointSums.entrySet()) {
+                addToSum(entry.getKey(), entry.getValue()[0], entry.getValue()[1], entry.getValue()[2]);
+            }
+        }
+
+        @Override
+        AggregationResult getResult() {
+            List<GeohashBucket> geohashBuckets = new ArrayList<>();
+            for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+                final String hash = entry.getKey();
+                double[] sum = pointSums.get(hash);
+                GeoPoint averagePoint = new GeoPoint(sum[0] / sum[2], sum[1] / sum[2]);
+                geohashBuckets.add(new GeohashBucket(hash, entry.getValue().count, averagePoint, entry.getValue().getNestedResults()) {
+                    @Override
+                    public GeoRect getGeoCell() {
+                        return new GeoHash(hash).toGeoRect();
+                    }
+                });
+            }
+            return new GeohashResult(geohashBuckets);
+        }
+    }
+
+    private static class CardinalityAccumulator extends Accumulator {
+        private final String propertyName;
+        private final HyperLogLog sketch = new HyperLogLog();
+
+        CardinalityAccumulator(CardinalityAggregation aggregation) {
+            this.propertyName = aggregation.getPropertyName();
+        }
+
+        @Override
+        void add(VertexiumObject item) {
+            for (Object value : item.getPropertyValues(propertyName)) {
+                if (value != null) {
+                    sketch.add(value.toString());
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sketch.merge(((CardinalityAccumulator) other).sketch);
+        }
+
+        @Override
+        AggregationResult getResult() {
+            return new CardinalityResult(sketch.cardinality());
+        }
+    }
+}
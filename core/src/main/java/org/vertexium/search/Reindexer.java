@@ -0,0 +1,232 @@
+package org.vertexium.search;
+
+import org.vertexium.*;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds the elements of a graph to its search index, the elements are read in partitions by id range and the
+ * partitions are indexed in parallel by a pool of worker threads.
+ * <p>
+ * The partitions already indexed are recorded in the graph metadata. If a reindex fails or the process is stopped the
+ * next reindex only indexes the remaining partitions, once all partitions are indexed the recorded partitions are
+ * removed and the next reindex starts over.
+ */
+public class Reindexer {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(Reindexer.class);
+    public static final String METADATA_PREFIX = "reindex.";
+    public static final String METADATA_RUN_KEY = METADATA_PREFIX + "run";
+    public static final String METADATA_PARTITION_PREFIX = METADATA_PREFIX + "partition.";
+    private static final String NO_RUN = "";
+    private static final char RANGE_SEPARATOR = '\u001f';
+    private final Graph graph;
+    private final SearchIndex searchIndex;
+    private final int threadCount;
+
+    public Reindexer(Graph graph, SearchIndex searchIndex, int threadCount) {
+        if (threadCount < 1) {
+            throw new VertexiumException("threadCount must be greater than zero");
+        }
+        this.graph = graph;
+        this.searchIndex = searchIndex;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @param partitions the id ranges to read the elements of each type in.
+     * @return the number of elements indexed.
+     */
+    public long reindex(Map<ElementType, List<Range>> partitions, Authorizations authorizations) {
+        String runId = getOrStartRun();
+        List<Partition> remaining = new ArrayList<>();
+        int partitionCount = 0;
+        for (Map.Entry<ElementType, List<Range>> entry : partitions.entrySet()) {
+            for (Range range : entry.getValue()) {
+                Partition partition = new Partition(entry.getKey(), range);
+                partitionCount++;
+                if (!runId.equals(graph.getMetadata(partition.getMetadataKey()))) {
+                    remaining.add(partition);
+                }
+            }
+        }
+        if (remaining.size() < partitionCount) {
+            LOGGER.info("resuming reindex %s, %d of %d partitions remaining", runId, remaining.size(), partitionCount);
+        } else {
+            LOGGER.info("starting reindex %s of %d partitions", runId, partitionCount);
+        }
+
+        Progress progress = new Progress(remaining.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "vertexium-reindex");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Partition partition : remaining) {
+                futures.add(executor.submit(() -> reindexPartition(runId, partition, progress, authorizations)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    throw new VertexiumException("Could not reindex, indexed partitions are skipped when the reindex is run again", ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted reindexing", ex);
+        } finally {
+            // partitions being indexed are finished so no worker is left writing once this returns
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        removePartitionMetadata();
+        graph.setMetadata(METADATA_RUN_KEY, NO_RUN);
+        LOGGER.info("finished reindex %s: %s", runId, progress);
+        return progress.elementCount.get();
+    }
+
+    private void removePartitionMetadata() {
+        List<String> keys = new ArrayList<>();
+        for (GraphMetadataEntry entry : graph.getMetadataWithPrefix(METADATA_PARTITION_PREFIX)) {
+            keys.add(entry.getKey());
+        }
+        for (String key : keys) {
+            graph.removeMetadata(key);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.info("waiting for reindex workers to finish");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param splits the ids, in order, at which the ranges are split.
+     * @return ranges covering all ids.
+     */
+    public static List<Range> splitsToRanges(Iterable<String> splits) {
+        List<Range> ranges = new ArrayList<>();
+        String inclusiveStart = null;
+        for (String split : splits) {
+            ranges.add(new Range(inclusiveStart, split));
+            inclusiveStart = split;
+        }
+        ranges.add(new Range(inclusiveStart, null));
+        return ranges;
+    }
+
+    private String getOrStartRun() {
+        Object runId = graph.getMetadata(METADATA_RUN_KEY);
+        if (runId instanceof String && !NO_RUN.equals(runId)) {
+            return (String) runId;
+        }
+        String newRunId = Long.toString(System.currentTimeMillis());
+        graph.setMetadata(METADATA_RUN_KEY, newRunId);
+        return newRunId;
+    }
+
+    private void reindexPartition(String runId, Partition partition, Progress progress, Authorizations authorizations) {
+        Iterable<? extends Element> elements;
+        switch (partition.elementType) {
+            case VERTEX:
+                elements = graph.getVerticesInRange(partition.range, authorizations);
+                break;
+            case EDGE:
+                elements = graph.getEdgesInRange(partition.range, authorizations);
+                break;
+            default:
+                throw new VertexiumException("Unexpected element type: " + partition.elementType);
+        }
+        searchIndex.addElements(graph, countElements(elements, progress), authorizations);
+        // the partition is only recorded as indexed once its elements were sent to the search index
+        searchIndex.flush(graph);
+        graph.setMetadata(partition.getMetadataKey(), runId);
+        progress.partitionIndexed(partition);
+    }
+
+    private static Iterable<Element> countElements(Iterable<? extends Element> elements, Progress progress) {
+        return () -> {
+            Iterator<? extends Element> it = elements.iterator();
+            return new Iterator<Element>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Element next() {
+                    Element element = it.next();
+                    progress.elementCount.incrementAndGet();
+                    return element;
+                }
+            };
+        };
+    }
+
+    private static class Partition {
+        private final ElementType elementType;
+        private final Range range;
+
+        Partition(ElementType elementType, Range range) {
+            this.elementType = elementType;
+            this.range = range;
+        }
+
+        /**
+         * Includes both ends of the range so a partition of a reindex resumed with different splits is only skipped
+         * if exactly the same range was indexed.
+         */
+        String getMetadataKey() {
+            return METADATA_PARTITION_PREFIX + elementType.name() + "."
+                    + (range.getInclusiveStart() == null ? "" : range.getInclusiveStart())
+                    + RANGE_SEPARATOR
+                    + (range.getExclusiveEnd() == null ? "" : range.getExclusiveEnd());
+        }
+
+        @Override
+        public String toString() {
+            return elementType + " " + range;
+        }
+    }
+
+    private static class Progress {
+        private final long startTime = System.currentTimeMillis();
+        private final int partitionCount;
+        private final AtomicInteger indexedPartitionCount = new AtomicInteger();
+        private final AtomicLong elementCount = new AtomicLong();
+
+        Progress(int partitionCount) {
+            this.partitionCount = partitionCount;
+        }
+
+        void partitionIndexed(Partition partition) {
+            indexedPartitionCount.incrementAndGet();
+            LOGGER.info("reindexed partition %s: %s", partition, this);
+        }
+
+        @Override
+        public String toString() {
+            long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+            return String.format(
+                    "%d of %d partitions, %d elements, %.1f elements/sec",
+                    indexedPartitionCount.get(), partitionCount, elementCount.get(), elementCount.get() * 1000.0 / elapsed
+            );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.vertexium.util;
+
+import java.util.Arrays;
+
+/**
+ * A merging t-digest, a sketch for estimating quantiles of a stream of values in bounded memory. Values are kept in
+ * centroids which are small near the tails and larger near the median. Digests built over different parts of a stream
+ * can be merged.
+ */
+public class TDigest {
+    public static final double DEFAULT_COMPRESSION = 100.0;
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private double[] bufferMeans;
+    private double[] bufferWeights;
+    private int bufferCount;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferMeans = new double[capacity * 5];
+        this.bufferWeights = new double[capacity * 5];
+    }
+
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    private void add(double mean, double weight) {
+        if (bufferCount == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferCount] = mean;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        totalWeight += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long size() {
+        return (long) totalWeight;
+    }
+
+    /**
+     * @param q the quantile, between 0 and 1.
+     * @return the estimated value at the quantile or NaN if no values were added.
+     */
+    public double quantile(double q) {
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        // centroid i is centered at the rank of its middle value, ranks run from 0 to totalWeight - 1
+        double rank = Math.max(0.0, Math.min(1.0, q)) * (totalWeight - 1);
+        double previousRank = 0.0;
+        double previousValue = min;
+        double weightBefore = 0.0;
+        for (int i = 0; i < centroidCount; i++) {
+            double centerRank = weightBefore + (weights[i] - 1) / 2.0;
+            if (rank <= centerRank) {
+                return interpolate(rank, previousRank, previousValue, centerRank, means[i]);
+            }
+            previousRank = centerRank;
+            previousValue = means[i];
+            weightBefore += weights[i];
+        }
+        return interpolate(rank, previousRank, previousValue, totalWeight - 1, max);
+    }
+
+    private static double interpolate(double rank, double rank1, double value1, double rank2, double value2) {
+        if (rank2 <= rank1) {
+            return value2;
+        }
+        return value1 + (rank - rank1) / (rank2 - rank1) * (value2 - value1);
+    }
+
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        int count = centroidCount + bufferCount;
+        double[] allMeans = Arrays.copyOf(means, count);
+        double[] allWeights = Arrays.copyOf(weights, count);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        bufferCount = 0;
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        centroidCount = 0;
+        double weightSoFar = 0.0;
+        double currentMean = allMeans[order[0]];
+        double currentWeight = allWeights[order[0]];
+        double kLeft = k(0.0);
+        for (int i = 1; i < count; i++) {
+            double mean = allMeans[order[i]];
+            double weight = allWeights[order[i]];
+            double kRight = k((weightSoFar + currentWeight + weight) / totalWeight);
+            if (kRight - kLeft <= 1.0) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                appendCentroid(currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                kLeft = k(weightSoFar / totalWeight);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        appendCentroid(currentMean, currentWeight);
+    }
+
+    private void appendCentroid(double mean, double weight) {
+        if (centroidCount == means.length) {
+            means = Arrays.copyOf(means, centroidCount * 2);
+            weights = Arrays.copyOf(weights, centroidCount * 2);
+        }
+        means[centroidCount] = mean;
+        weights[centroidCount] = weight;
+        centroidCount++;
+    }
+
+    private double k(double q) {
+        return compression / (2.0 * Math.PI) * Math.asin(2.0 * Math.min(1.0, q) - 1.0);
+    }
+}
@@ -0,0 +1,116 @@
+package org.vertexium.event;
+
+import org.junit.Test;
+import org.vertexium.ElementType;
+import org.vertexium.ExtendedDataRowId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GraphEventDispatcherTest {
+    @Test
+    public void testDispatchDeliversEventsInOrderInBatches() {
+        GraphEventDispatcher dispatcher = new GraphEventDispatcher(100, 10, GraphEventDispatcher.OverflowPolicy.BLOCK);
+        RecordingListener listener = new RecordingListener();
+        dispatcher.addListener(listener);
+        for (int i = 0; i < 50; i++) {
+            dispatcher.dispatch(createEvent(i));
+        }
+        assertTrue(dispatcher.awaitDelivery(10, TimeUnit.SECONDS));
+
+        assertEquals(50, listener.events.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(createEvent(i), listener.events.get(i));
+        }
+        for (Integer batchSize : listener.batchSizes) {
+            assertTrue("batch too large: " + batchSize, batchSize <= 10);
+        }
+        GraphEventDispatcher.ListenerStatistics statistics = dispatcher.getListenerStatistics(listener);
+        assertEquals(50, statistics.getDeliveredCount());
+        assertEquals(0, statistics.getQueuedCount());
+        assertEquals(0, statistics.getDroppedCount());
+        assertEquals(0, statistics.getLagMillis());
+        dispatcher.close(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testDropOldestWhenListenerIsSlow() throws InterruptedException {
+        GraphEventDispatcher dispatcher = new GraphEventDispatcher(2, 10, GraphEventDispatcher.OverflowPolicy.DROP_OLDEST);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onGraphEvents(List<GraphEvent> graphEvents) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                super.onGraphEvents(graphEvents);
+            }
+        };
+        dispatcher.addListener(listener);
+        dispatcher.dispatch(createEvent(0));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.dispatch(createEvent(i));
+        }
+
+        GraphEventDispatcher.ListenerStatistics statistics = dispatcher.getListenerStatistics(listener);
+        assertEquals(2, statistics.getQueuedCount());
+        assertEquals(3, statistics.getDroppedCount());
+
+        release.countDown();
+        assertTrue(dispatcher.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(3, listener.events.size());
+        assertEquals(createEvent(0), listener.events.get(0));
+        assertEquals(createEvent(4), listener.events.get(1));
+        assertEquals(createEvent(5), listener.events.get(2));
+        dispatcher.close(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopDelivery() {
+        GraphEventDispatcher dispatcher = new GraphEventDispatcher(100, 1, GraphEventDispatcher.OverflowPolicy.BLOCK);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onGraphEvent(GraphEvent graphEvent) {
+                if (graphEvent.equals(createEvent(0))) {
+                    throw new RuntimeException("failed");
+                }
+                super.onGraphEvent(graphEvent);
+            }
+        };
+        dispatcher.addListener(listener);
+        dispatcher.dispatch(createEvent(0));
+        dispatcher.dispatch(createEvent(1));
+        dispatcher.close(10, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList(createEvent(1)), listener.events);
+    }
+
+    private static GraphEvent createEvent(int i) {
+        return new DeleteExtendedDataRowEvent(null, new ExtendedDataRowId(ElementType.VERTEX, "v1", "table1", "row" + i));
+    }
+
+    private static class RecordingListener extends GraphEventListener {
+        final List<GraphEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onGraphEvent(GraphEvent graphEvent) {
+            events.add(graphEvent);
+        }
+
+        @Override
+        public void onGraphEvents(List<GraphEvent> graphEvents) {
+            batchSizes.add(graphEvents.size());
+            super.onGraphEvents(graphEvents);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.vertexium.query;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Property;
+import org.vertexium.VertexiumObject;
+import org.vertexium.Visibility;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class StreamingAggregatorTest {
+    @Test
+    public void testTermsCountsEachItemOncePerCaseInsensitiveBucket() {
+        TermsAggregation terms = new TermsAggregation("terms", "name");
+        terms.addNestedAggregation(new CardinalityAggregation("ids", "id"));
+        StreamingAggregator<TestObject> aggregator = new StreamingAggregator<>(Collections.singletonList(terms));
+        aggregator.add(new TestObject("1", "Foo", "foo"));
+        aggregator.add(new TestObject("2", "foo"));
+        aggregator.add(new TestObject("3", "foo", "bar"));
+
+        Map<Object, TermsBucket> buckets = getBuckets((TermsResult) aggregator.getResult("terms"));
+        assertEquals(new HashSet<>(Arrays.asList("foo", "bar")), buckets.keySet());
+        assertEquals(3, buckets.get("foo").getCount());
+        assertEquals(3, ((CardinalityResult) buckets.get("foo").getNestedResults().get("ids")).getValue());
+        assertEquals(1, buckets.get("bar").getCount());
+    }
+
+    @Test
+    public void testTermsBucketIsNamedAfterMostCommonSpelling() {
+        TermsAggregation terms = new TermsAggregation("terms", "name");
+        StreamingAggregator<TestObject> aggregator = new StreamingAggregator<>(Collections.singletonList(terms));
+        aggregator.add(new TestObject("1", "Foo"));
+        StreamingAggregator<TestObject> other = new StreamingAggregator<>(Collections.singletonList(terms));
+        other.add(new TestObject("2", "Foo"));
+        other.add(new TestObject("3", "foo"));
+        aggregator.merge(other);
+
+        Map<Object, TermsBucket> buckets = getBuckets((TermsResult) aggregator.getResult("terms"));
+        assertEquals(Collections.singleton("Foo"), buckets.keySet());
+        assertEquals(3, buckets.get("Foo").getCount());
+    }
+
+    private static Map<Object, TermsBucket> getBuckets(TermsResult result) {
+        Map<Object, TermsBucket> buckets = new HashMap<>();
+        for (TermsBucket bucket : result.getBuckets()) {
+            buckets.put(bucket.getKey(), bucket);
+        }
+        return buckets;
+    }
+
+    private static class TestObject implements VertexiumObject {
+        private final String id;
+        private final List<Object> names;
+
+        TestObject(String id, Object... names) {
+            this.id = id;
+            this.names = Arrays.asList(names);
+        }
+
+        @Override
+        public Object getId() {
+            return id;
+        }
+
+        @Override
+        public Iterable<Object> getPropertyValues(String name) {
+            if ("name".equals(name)) {
+                return names;
+            }
+            if ("id".equals(name)) {
+                return Collections.singletonList(id);
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<Property> getProperties() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Property getProperty(String key, String name, Visibility visibility) {
+            return null;
+        }
+
+        @Override
+        public Property getProperty(String name, Visibility visibility) {
+            return null;
+        }
+
+        @Override
+        public Iterable<Property> getProperties(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<Property> getProperties(String key, String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int compareTo(Object o) {
+            return id.compareTo(((TestObject) o).id);
+        }
+    }
+}
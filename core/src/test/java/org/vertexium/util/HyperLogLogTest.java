@@ -0,0 +1,37 @@
+package org.vertexium.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class HyperLogLogTest {
+    @Test
+    public void testSmallCardinalityIsExact() {
+        HyperLogLog hll = new HyperLogLog();
+        assertEquals(0, hll.cardinality());
+        for (int i = 0; i < 100; i++) {
+            hll.add("value" + (i % 10));
+        }
+        assertEquals(10, hll.cardinality());
+    }
+
+    @Test
+    public void testMergedSketchesMatchSingleSketch() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog part1 = new HyperLogLog();
+        HyperLogLog part2 = new HyperLogLog();
+        for (int i = 0; i < 200000; i++) {
+            String value = "value" + i;
+            all.add(value);
+            (i % 2 == 0 ? part1 : part2).add(value);
+            // overlapping values should not be counted twice
+            part2.add("value" + (i / 2));
+        }
+        part1.merge(part2);
+        assertEquals(all.cardinality(), part1.cardinality());
+        assertEquals(200000, all.cardinality(), 200000 * 0.02);
+    }
+}
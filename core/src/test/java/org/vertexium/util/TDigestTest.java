@@ -0,0 +1,52 @@
+package org.vertexium.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TDigestTest {
+    @Test
+    public void testQuantileOfFewValues() {
+        TDigest digest = new TDigest();
+        digest.add(30);
+        digest.add(10);
+        digest.add(20);
+        assertEquals(3, digest.size());
+        assertEquals(10.0, digest.quantile(0.0), 0.0001);
+        assertEquals(20.0, digest.quantile(0.5), 0.0001);
+        assertEquals(30.0, digest.quantile(1.0), 0.0001);
+        assertEquals(15.0, digest.quantile(0.25), 0.0001);
+    }
+
+    @Test
+    public void testQuantileOfEmptyDigest() {
+        assertTrue(Double.isNaN(new TDigest().quantile(0.5)));
+    }
+
+    @Test
+    public void testMergedDigestsMatchSingleDigest() {
+        Random random = new Random(1);
+        TDigest all = new TDigest();
+        TDigest[] parts = {new TDigest(), new TDigest(), new TDigest()};
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextDouble() * 1000;
+            all.add(value);
+            parts[i % parts.length].add(value);
+        }
+        TDigest merged = new TDigest();
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+        assertEquals(all.size(), merged.size());
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            assertEquals(q * 1000, all.quantile(q), 5.0);
+            assertEquals(q * 1000, merged.quantile(q), 5.0);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
-import com.google.common.util.concurrent.SettableFuture;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.cluster.node.info.NodeInfo;
 import org.elasticsearch.action.admin.cluster.node.info.NodesInfoResponse;
@@ -62,7 +61,6 @@ import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
-import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -107,7 +105,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     private Node inProcessNode;
     public static final Pattern AGGREGATION_NAME_PATTERN = Pattern.compile("(.*?)_([0-9a-f]+)");
     private final PropertyNameVisibilitiesStore propertyNameVisibilitiesStore;
-    private final FlushObjectQueue flushObjectQueue = new FlushObjectQueue();
+    private final FlushObjectQueue flushObjectQueue;
     private final String geoShapePrecision;
     private final String geoShapeErrorPct;
     private boolean serverPluginInstalled;
@@ -121,6 +119,14 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         this.propertyNameVisibilitiesStore = this.config.createPropertyNameVisibilitiesStore(graph);
         this.client = createClient(this.config);
         this.serverPluginInstalled = checkPluginInstalled(this.client);
+        this.flushObjectQueue = new FlushObjectQueue(
+                this.client,
+                this.config.getBulkMaxBatchCount(),
+                this.config.getBulkMaxBatchSize(),
+                this.config.getBulkMaxConcurrentRequests(),
+                this.config.getBulkMaxQueueSize(),
+                this.config.getBulkMaxRetries()
+        );
         this.geoShapePrecision = this.config.getGeoShapePrecision();
         this.geoShapeErrorPct = this.config.getGeoShapeErrorPct();
     }
@@ -129,6 +135,10 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         return propertyNameVisibilitiesStore;
     }
 
+    public FlushObjectQueue getFlushObjectQueue() {
+        return flushObjectQueue;
+    }
+
     protected Client createClient(ElasticsearchSearchIndexConfiguration config) {
         if (config.isInProcessNode()) {
             return createInProcessNode(config);
@@ -354,10 +364,6 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             return;
         }
 
-        if (flushObjectQueue.containsElementId(element.getId())) {
-            flushObjectQueue.flush();
-        }
-
         UpdateRequestBuilder updateRequestBuilder = prepareUpdate(graph, element, authorizations);
         addActionRequestBuilderForFlush(element.getId(), updateRequestBuilder);
 
@@ -378,10 +384,6 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             return;
         }
 
-        if (flushObjectQueue.containsElementId(element.getId())) {
-            flushObjectQueue.flush();
-        }
-
         UpdateRequestBuilder updateRequestBuilder = prepareUpdateForMutation(graph, mutation);
 
         if (updateRequestBuilder != null) {
@@ -516,15 +518,15 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     }
 
     private void addActionRequestBuilderForFlush(String elementId, String rowId, UpdateRequestBuilder updateRequestBuilder) {
-        Future future;
-        try {
-            future = updateRequestBuilder.execute();
-        } catch (Exception ex) {
-            LOGGER.debug("Could not execute update: %s", ex.getMessage());
-            future = SettableFuture.create();
-            ((SettableFuture) future).setException(ex);
-        }
-        flushObjectQueue.add(elementId, rowId, updateRequestBuilder, future);
+        flushObjectQueue.add(elementId, rowId, updateRequestBuilder);
+    }
+
+    /**
+     * Updates to the same document are written in order by the flush object queue, requests sent directly to
+     * Elasticsearch need to wait for the queued updates of the element first.
+     */
+    private void flushElement(String elementId) {
+        flushObjectQueue.flushElement(elementId);
     }
 
     @Override
@@ -543,6 +545,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     @Override
     public void deleteExtendedData(Graph graph, ExtendedDataRowId rowId, Authorizations authorizations) {
+        flushObjectQueue.flushExtendedDataRow(rowId.getElementId(), rowId.getRowId());
         String indexName = getExtendedDataIndexName(rowId);
         String docId = getIdStrategy().createExtendedDataDocId(rowId);
         getIndexRefreshTracker().pushChange(indexName);
@@ -856,6 +859,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             jsonBuilder.endObject();
 
             getIndexRefreshTracker().pushChange(indexName);
+            flushElement(element.getId());
             getClient()
                     .prepareUpdate(indexName, getIdStrategy().getType(), getIdStrategy().createElementDocId(element))
                     .setDoc(jsonBuilder)
@@ -888,6 +892,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             jsonBuilder.field(hiddenVisibilityPropertyName, true);
             jsonBuilder.endObject();
 
+            flushElement(element.getId());
             getClient()
                     .prepareUpdate(getIndexName(element), getIdStrategy().getType(), getIdStrategy().createElementDocId(element))
                     .setDoc(jsonBuilder)
@@ -1180,6 +1185,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     @Override
     public void deleteElement(Graph graph, Element element, Authorizations authorizations) {
+        flushElement(element.getId());
         deleteExtendedDataForElement(element);
 
         String indexName = getIndexName(element);
@@ -1790,6 +1796,12 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     @Override
     public void shutdown() {
+        try {
+            flushObjectQueue.flush();
+        } catch (Exception ex) {
+            LOGGER.error("could not flush queued updates", ex);
+        }
+        flushObjectQueue.shutdown();
         client.close();
 
         if (inProcessNode != null) {
@@ -55,10 +55,22 @@ public class ElasticsearchSearchIndexConfiguration {
     public static final int INDEX_MAPPING_TOTAL_FIELDS_LIMIT_DEFAULT = 100000;
     public static final String PROPERTY_NAME_VISIBILITIES_STORE = "propertyNameVisibilitiesStore";
     public static final Class<? extends PropertyNameVisibilitiesStore> PROPERTY_NAME_VISIBILITIES_STORE_DEFAULT = MetadataTablePropertyNameVisibilitiesStore.class;
+    public static final String PROPERTY_NAME_VISIBILITIES_AUTHORIZATIONS_CACHE_SIZE = "propertyNameVisibilitiesAuthorizationsCacheSize";
+    public static final int PROPERTY_NAME_VISIBILITIES_AUTHORIZATIONS_CACHE_SIZE_DEFAULT = 1000;
     public static final String GEOSHAPE_PRECISION = "geoshapePrecision";
     public static final String GEOSHAPE_PRECISION_DEFAULT = "100m";
     public static final String GEOSHAPE_ERROR_PCT = "geoshapeErrorPct";
     public static final String GEOSHAPE_ERROR_PCT_DEFAULT = "0.001";
+    public static final String BULK_MAX_BATCH_COUNT = "bulk.maxBatchCount";
+    public static final int BULK_MAX_BATCH_COUNT_DEFAULT = 1000;
+    public static final String BULK_MAX_BATCH_SIZE = "bulk.maxBatchSize";
+    public static final long BULK_MAX_BATCH_SIZE_DEFAULT = 5 * 1024 * 1024;
+    public static final String BULK_MAX_CONCURRENT_REQUESTS = "bulk.maxConcurrentRequests";
+    public static final int BULK_MAX_CONCURRENT_REQUESTS_DEFAULT = 4;
+    public static final String BULK_MAX_QUEUE_SIZE = "bulk.maxQueueSize";
+    public static final int BULK_MAX_QUEUE_SIZE_DEFAULT = 50000;
+    public static final String BULK_MAX_RETRIES = "bulk.maxRetries";
+    public static final int BULK_MAX_RETRIES_DEFAULT = 10;
 
     private GraphConfiguration graphConfiguration;
     private IndexSelectionStrategy indexSelectionStrategy;
@@ -184,6 +196,26 @@ public class ElasticsearchSearchIndexConfiguration {
         return graphConfiguration.getString(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + GEOSHAPE_ERROR_PCT, GEOSHAPE_ERROR_PCT_DEFAULT);
     }
 
+    public int getBulkMaxBatchCount() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_BATCH_COUNT, BULK_MAX_BATCH_COUNT_DEFAULT);
+    }
+
+    public long getBulkMaxBatchSize() {
+        return graphConfiguration.getConfigLong(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_BATCH_SIZE, BULK_MAX_BATCH_SIZE_DEFAULT);
+    }
+
+    public int getBulkMaxConcurrentRequests() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_CONCURRENT_REQUESTS, BULK_MAX_CONCURRENT_REQUESTS_DEFAULT);
+    }
+
+    public int getBulkMaxQueueSize() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_QUEUE_SIZE, BULK_MAX_QUEUE_SIZE_DEFAULT);
+    }
+
+    public int getBulkMaxRetries() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_RETRIES, BULK_MAX_RETRIES_DEFAULT);
+    }
+
     public boolean isForceDisableVertexiumPlugin() {
         return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + FORCE_DISABLE_VERTEXIUM_PLUGIN, FORCE_DISABLE_VERTEXIUM_PLUGIN_DEFAULT);
     }
@@ -193,6 +225,10 @@ public class ElasticsearchSearchIndexConfiguration {
         return ConfigurationUtils.createProvider(className, graph, graphConfiguration);
     }
 
+    public int getPropertyNameVisibilitiesAuthorizationsCacheSize() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + PROPERTY_NAME_VISIBILITIES_AUTHORIZATIONS_CACHE_SIZE, PROPERTY_NAME_VISIBILITIES_AUTHORIZATIONS_CACHE_SIZE_DEFAULT);
+    }
+
     public File getEsConfigFile() {
         String fileName = graphConfiguration.getString(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + ES_CONFIG_FILE, ES_CONFIG_FILE_DEFAULT);
         if (fileName == null || fileName.length() == 0) {
@@ -1,65 +1,102 @@
 package org.vertexium.elasticsearch5;
 
 import com.google.common.hash.Hashing;
-import org.vertexium.Authorizations;
-import org.vertexium.Graph;
-import org.vertexium.GraphMetadataEntry;
-import org.vertexium.Visibility;
+import org.cache2k.Cache;
+import org.cache2k.CacheBuilder;
+import org.vertexium.*;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Stores the hashes of the visibilities of each property name in the graph metadata.
+ * <p>
+ * The metadata is read into an index of property name to visibility hashes and of hash to visibility once, the index
+ * is then kept up to date through the graph metadata listener. Metadata set through the graph is added to the index,
+ * when other graph instances may have changed the metadata the index is read again on next use. The hashes readable by
+ * an authorizations are cached per authorizations until the index changes.
+ */
 public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisibilitiesStore {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(MetadataTablePropertyNameVisibilitiesStore.class);
     public static final String PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX = "propertyNameVisibility.";
     public static final String HASH_TO_VISIBILITY = "visibilityHash.";
     private static final Charset UTF8 = Charset.forName("utf8");
-    private Map<String, Visibility> visibilityCache = new HashMap<>();
+    private final Cache<String, AuthorizationsHashes> authorizationsHashesCache;
+    private final Object indexLock = new Object();
+    private volatile Index index;
+    private Graph listeningGraph;
+
+    public MetadataTablePropertyNameVisibilitiesStore() {
+        this(ElasticsearchSearchIndexConfiguration.PROPERTY_NAME_VISIBILITIES_AUTHORIZATIONS_CACHE_SIZE_DEFAULT);
+    }
+
+    public MetadataTablePropertyNameVisibilitiesStore(Graph graph, GraphConfiguration config) {
+        this(new ElasticsearchSearchIndexConfiguration(graph, config).getPropertyNameVisibilitiesAuthorizationsCacheSize());
+    }
+
+    private MetadataTablePropertyNameVisibilitiesStore(int authorizationsCacheSize) {
+        authorizationsHashesCache = CacheBuilder
+                .newCache(String.class, AuthorizationsHashes.class)
+                .name(MetadataTablePropertyNameVisibilitiesStore.class, "authorizationsHashesCache-" + System.identityHashCode(this))
+                .maxSize(authorizationsCacheSize)
+                .eternal(true)
+                .build();
+    }
 
     public Collection<String> getHashesWithAuthorization(Graph graph, String authorization, Authorizations authorizations) {
-        List<String> hashes = new ArrayList<>();
-        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(HASH_TO_VISIBILITY)) {
-            Visibility visibility = getVisibility((String) metadata.getValue());
-            if (authorizations.canRead(visibility) && visibility.hasAuthorization(authorization)) {
-                String hash = metadata.getKey().substring(HASH_TO_VISIBILITY.length());
-                hashes.add(hash);
+        Index index = getIndex(graph);
+        return getAuthorizationsHashes(index, authorizations).hashesWithAuthorization.computeIfAbsent(authorization, a -> {
+            List<String> hashes = new ArrayList<>();
+            for (Map.Entry<String, Visibility> entry : index.hashToVisibility.entrySet()) {
+                Visibility visibility = entry.getValue();
+                if (authorizations.canRead(visibility) && visibility.hasAuthorization(authorization)) {
+                    hashes.add(entry.getKey());
+                }
             }
-        }
-        return hashes;
+            return Collections.unmodifiableList(hashes);
+        });
     }
 
     public Collection<String> getHashes(Graph graph, String propertyName, Authorizations authorizations) {
-        List<String> results = new ArrayList<>();
-        String prefix = getPropertyNameVisibilityToHashPrefix(propertyName);
-        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(prefix)) {
-            String visibilityString = metadata.getKey().substring(prefix.length());
-            Visibility visibility = getVisibility(visibilityString);
-            if (authorizations.canRead(visibility)) {
-                String hash = (String) metadata.getValue();
-                results.add(hash);
+        Index index = getIndex(graph);
+        return getAuthorizationsHashes(index, authorizations).hashes.computeIfAbsent(propertyName, p -> {
+            Map<String, String> visibilityToHash = index.propertyNameToVisibilityHashes.get(propertyName);
+            if (visibilityToHash == null) {
+                return Collections.emptyList();
             }
-        }
-        return results;
-    }
-
-    private Visibility getVisibility(String visibilityString) {
-        return visibilityCache.computeIfAbsent(visibilityString, Visibility::new);
+            List<String> results = new ArrayList<>();
+            for (Map.Entry<String, String> entry : visibilityToHash.entrySet()) {
+                if (authorizations.canRead(index.getVisibility(entry.getKey()))) {
+                    results.add(entry.getValue());
+                }
+            }
+            return Collections.unmodifiableList(results);
+        });
     }
 
     public String getHash(Graph graph, String propertyName, Visibility visibility) {
+        Index index = getIndex(graph);
         String visibilityString = visibility.getVisibilityString();
-        String propertyNameVisibilityToHashKey = getMetadataKey(propertyName, visibilityString);
-        String hash = (String) graph.getMetadata(propertyNameVisibilityToHashKey);
+        String hash = index.getHash(propertyName, visibilityString);
         if (hash != null) {
-            saveHashToVisibility(graph, hash, visibilityString);
             return hash;
         }
 
-        hash = Hashing.murmur3_128().hashString(visibilityString, UTF8).toString();
-        graph.setMetadata(propertyNameVisibilityToHashKey, hash);
-        saveHashToVisibility(graph, hash, visibilityString);
+        String propertyNameVisibilityToHashKey = getMetadataKey(propertyName, visibilityString);
+        hash = (String) graph.getMetadata(propertyNameVisibilityToHashKey);
+        if (hash == null) {
+            hash = Hashing.murmur3_128().hashString(visibilityString, UTF8).toString();
+            saveHashToVisibility(graph, hash, visibilityString);
+            graph.setMetadata(propertyNameVisibilityToHashKey, hash);
+        } else {
+            saveHashToVisibility(graph, hash, visibilityString);
+        }
+        index.add(propertyName, visibilityString, hash);
         return hash;
     }
 
@@ -73,6 +110,10 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
 
     @Override
     public Visibility getVisibilityFromHash(Graph graph, String visibilityHash) {
+        Visibility visibility = getIndex(graph).hashToVisibility.get(visibilityHash);
+        if (visibility != null) {
+            return visibility;
+        }
         String visibilityString = (String) graph.getMetadata(getHashToVisibilityKey(visibilityHash));
         if (visibilityString == null) {
             LOGGER.warn("Could not find visibility matching the hash \"%s\" in the metadata table.", visibilityHash);
@@ -81,15 +122,148 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
         return new Visibility(visibilityString);
     }
 
+    private Index getIndex(Graph graph) {
+        Index index = this.index;
+        if (index != null) {
+            return index;
+        }
+        synchronized (indexLock) {
+            if (this.index == null) {
+                if (listeningGraph != graph) {
+                    graph.addGraphMetadataListener(new IndexUpdatingListener());
+                    listeningGraph = graph;
+                }
+                this.index = loadIndex(graph);
+            }
+            return this.index;
+        }
+    }
+
+    private Index loadIndex(Graph graph) {
+        Index index = new Index();
+        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(HASH_TO_VISIBILITY)) {
+            String hash = metadata.getKey().substring(HASH_TO_VISIBILITY.length());
+            index.addHashToVisibility(hash, (String) metadata.getValue());
+        }
+        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX)) {
+            if (!index.addPropertyNameVisibilityToHash(metadata.getKey(), (String) metadata.getValue())) {
+                LOGGER.warn("Could not find visibility matching the metadata \"%s\"", metadata.getKey());
+            }
+        }
+        return index;
+    }
+
+    private AuthorizationsHashes getAuthorizationsHashes(Index index, Authorizations authorizations) {
+        String key = getAuthorizationsKey(authorizations);
+        AuthorizationsHashes authorizationsHashes = authorizationsHashesCache.peek(key);
+        long generation = index.generation.get();
+        if (authorizationsHashes == null
+                || authorizationsHashes.index != index
+                || authorizationsHashes.generation != generation) {
+            authorizationsHashes = new AuthorizationsHashes(index, generation);
+            authorizationsHashesCache.put(key, authorizationsHashes);
+        }
+        return authorizationsHashes;
+    }
+
+    private static String getAuthorizationsKey(Authorizations authorizations) {
+        String[] auths = authorizations.getAuthorizations().clone();
+        Arrays.sort(auths);
+        return String.join("\u001f", auths);
+    }
+
     private String getHashToVisibilityKey(String visibilityHash) {
         return HASH_TO_VISIBILITY + visibilityHash;
     }
 
-    private String getPropertyNameVisibilityToHashPrefix(String propertyName) {
+    private static String getPropertyNameVisibilityToHashPrefix(String propertyName) {
         return PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX + propertyName + ".";
     }
 
     private String getMetadataKey(String propertyName, String visibilityString) {
         return getPropertyNameVisibilityToHashPrefix(propertyName) + visibilityString;
     }
+
+    private class IndexUpdatingListener extends GraphMetadataListener {
+        @Override
+        public void onMetadataChanged(String key, Object value) {
+            Index index = MetadataTablePropertyNameVisibilitiesStore.this.index;
+            if (index == null || !(value instanceof String)) {
+                return;
+            }
+            if (key.startsWith(HASH_TO_VISIBILITY)) {
+                index.addHashToVisibility(key.substring(HASH_TO_VISIBILITY.length()), (String) value);
+            } else if (key.startsWith(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX)) {
+                if (!index.addPropertyNameVisibilityToHash(key, (String) value)) {
+                    onMetadataInvalidated();
+                }
+            }
+        }
+
+        @Override
+        public void onMetadataInvalidated() {
+            index = null;
+        }
+    }
+
+    private static class Index {
+        private final ConcurrentMap<String, ConcurrentMap<String, String>> propertyNameToVisibilityHashes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Visibility> hashToVisibility = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Visibility> visibilities = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+
+        public String getHash(String propertyName, String visibilityString) {
+            Map<String, String> visibilityToHash = propertyNameToVisibilityHashes.get(propertyName);
+            return visibilityToHash == null ? null : visibilityToHash.get(visibilityString);
+        }
+
+        public Visibility getVisibility(String visibilityString) {
+            return visibilities.computeIfAbsent(visibilityString, Visibility::new);
+        }
+
+        public void addHashToVisibility(String hash, String visibilityString) {
+            if (hashToVisibility.putIfAbsent(hash, getVisibility(visibilityString)) == null) {
+                generation.incrementAndGet();
+            }
+        }
+
+        /**
+         * Property names and visibilities may both contain dots so the key is split using the visibility of the hash.
+         *
+         * @return false if the visibility of the hash isn't known.
+         */
+        public boolean addPropertyNameVisibilityToHash(String key, String hash) {
+            Visibility visibility = hashToVisibility.get(hash);
+            if (visibility == null) {
+                return false;
+            }
+            String visibilityString = visibility.getVisibilityString();
+            int propertyNameEnd = key.length() - visibilityString.length() - 1;
+            if (propertyNameEnd < PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX.length() || !key.endsWith("." + visibilityString)) {
+                return false;
+            }
+            add(key.substring(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX.length(), propertyNameEnd), visibilityString, hash);
+            return true;
+        }
+
+        public void add(String propertyName, String visibilityString, String hash) {
+            addHashToVisibility(hash, visibilityString);
+            Map<String, String> visibilityToHash = propertyNameToVisibilityHashes.computeIfAbsent(propertyName, p -> new ConcurrentHashMap<>());
+            if (visibilityToHash.putIfAbsent(visibilityString, hash) == null) {
+                generation.incrementAndGet();
+            }
+        }
+    }
+
+    private static class AuthorizationsHashes {
+        private final Index index;
+        private final long generation;
+        private final ConcurrentMap<String, List<String>> hashes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, List<String>> hashesWithAuthorization = new ConcurrentHashMap<>();
+
+        AuthorizationsHashes(Index index, long generation) {
+            this.index = index;
+            this.generation = generation;
+        }
+    }
 }
@@ -1,123 +1,594 @@
 package org.vertexium.elasticsearch5.utils;
 
-import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.vertexium.VertexiumException;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Queues document updates and writes them to Elasticsearch using bulk requests.
+ * <p>
+ * Updates are sent asynchronously by a single dispatch thread. Each bulk request is limited by a number of documents
+ * and an estimated size in bytes and up to a configured number of bulk requests are in flight at once. While all bulk
+ * requests are in flight new updates accumulate in the queue, so the bulk requests grow with the load.
+ * <p>
+ * Updates to the same document are written in the order they were added: only one update per document is in flight
+ * at a time. Partial document updates to a document which is still waiting in the queue are merged into a single
+ * update. When a bulk request completes only the failed items are retried, with a delay which doubles on each retry.
+ * Once the queue is full, callers adding updates block until updates have been written.
+ * <p>
+ * The pending updates are also tracked by element id and by extended data row so that checking for and waiting on
+ * the pending updates of a single element doesn't need to scan the queue.
+ */
 public class FlushObjectQueue {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(FlushObjectQueue.class);
-    private static final int MAX_RETRIES = 10;
-    private ReadWriteLock flushLock = new ReentrantReadWriteLock();
-    private Queue<FlushObject> queue = new ConcurrentLinkedQueue<>();
+    private static final long INITIAL_RETRY_DELAY = 10;
+    private static final long MAX_RETRY_DELAY = 60 * 1000;
+    private final BulkExecutor bulkExecutor;
+    private final int maxBatchCount;
+    private final long maxBatchSize;
+    private final int maxConcurrentRequests;
+    private final int maxQueueSize;
+    private final int maxRetries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Map<String, Deque<FlushObject>> queuedByDocumentKey = new HashMap<>();
+    private final Map<String, FlushObject> inFlightByDocumentKey = new HashMap<>();
+    // documents whose first queued update can be sent now, in the order they became ready
+    private final Deque<String> readyDocumentKeys = new ArrayDeque<>();
+    // failed updates waiting for their retry time, these are also the first queued update of their document
+    private final PriorityQueue<FlushObject> waitingForRetry = new PriorityQueue<>(Comparator.comparingLong(FlushObject::getNextRetryTime));
+    private final Map<String, Set<FlushObject>> pendingByElementId = new ConcurrentHashMap<>();
+    private final Map<String, Set<FlushObject>> pendingByExtendedDataRowKey = new ConcurrentHashMap<>();
+    private final Queue<VertexiumException> failures = new ConcurrentLinkedQueue<>();
+    private final ScheduledThreadPoolExecutor dispatchExecutor;
+    private final Metrics metrics = new Metrics();
+    private int size;
+    private int inFlightRequestCount;
+    private boolean dispatchScheduled;
+    private ScheduledFuture<?> retryDispatch;
+    private long retryDispatchTime = Long.MAX_VALUE;
+    private boolean shutdown;
 
+    public FlushObjectQueue(
+            Client client,
+            int maxBatchCount,
+            long maxBatchSize,
+            int maxConcurrentRequests,
+            int maxQueueSize,
+            int maxRetries
+    ) {
+        this(client::bulk, maxBatchCount, maxBatchSize, maxConcurrentRequests, maxQueueSize, maxRetries);
+    }
+
+    FlushObjectQueue(
+            BulkExecutor bulkExecutor,
+            int maxBatchCount,
+            long maxBatchSize,
+            int maxConcurrentRequests,
+            int maxQueueSize,
+            int maxRetries
+    ) {
+        this.bulkExecutor = bulkExecutor;
+        this.maxBatchCount = maxBatchCount;
+        this.maxBatchSize = maxBatchSize;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueSize = maxQueueSize;
+        this.maxRetries = maxRetries;
+        this.dispatchExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "vertexium-elasticsearch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatchExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.dispatchExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Waits for every update added before this call to be written.
+     *
+     * @throws VertexiumException if an update could not be written after retrying.
+     */
     public void flush() {
-        flushLock.writeLock().lock();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        lock.lock();
         try {
-            int sleep = 0;
-            while (!queue.isEmpty()) {
-                FlushObject flushObject = queue.remove();
-                try {
-                    flushObject.getFuture().get(30, TimeUnit.SECONDS);
-                    sleep = 0;
-                } catch (Exception ex) {
-                    sleep += 10;
-                    String message = String.format("Could not write %s", flushObject);
-                    if (flushObject.retryCount >= MAX_RETRIES) {
-                        throw new VertexiumException(message, ex);
-                    }
-                    String logMessage = String.format("%s: %s (retrying: %d/%d)", message, ex.getMessage(), flushObject.retryCount + 1, MAX_RETRIES);
-                    if (flushObject.retryCount > 0) { // don't log warn the first time
-                        LOGGER.warn("%s", logMessage);
+            for (Deque<FlushObject> flushObjects : queuedByDocumentKey.values()) {
+                for (FlushObject flushObject : flushObjects) {
+                    futures.add(flushObject.getFuture());
+                }
+            }
+            for (FlushObject flushObject : inFlightByDocumentKey.values()) {
+                futures.add(flushObject.getFuture());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        waitFor(futures);
+
+        VertexiumException failure = failures.poll();
+        if (failure != null) {
+            VertexiumException additionalFailure;
+            while ((additionalFailure = failures.poll()) != null) {
+                failure.addSuppressed(additionalFailure);
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Waits for the updates of the element and of its extended data rows added before this call to be written.
+     *
+     * @throws VertexiumException if an update of the element could not be written after retrying.
+     */
+    public void flushElement(String elementId) {
+        flush(pendingByElementId.get(elementId));
+    }
+
+    /**
+     * Waits for the updates of the extended data row added before this call to be written.
+     *
+     * @throws VertexiumException if an update of the row could not be written after retrying.
+     */
+    public void flushExtendedDataRow(String elementId, String rowId) {
+        flush(pendingByExtendedDataRowKey.get(getExtendedDataRowKey(elementId, rowId)));
+    }
+
+    private void flush(Set<FlushObject> pendingFlushObjects) {
+        if (pendingFlushObjects == null) {
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (FlushObject flushObject : pendingFlushObjects) {
+            futures.add(flushObject.getFuture());
+        }
+        waitFor(futures);
+
+        VertexiumException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            if (!future.isCompletedExceptionally()) {
+                continue;
+            }
+            try {
+                future.getNow(null);
+            } catch (CompletionException ex) {
+                // reported here instead of by the next flush
+                if (failures.remove(ex.getCause())) {
+                    if (failure == null) {
+                        failure = (VertexiumException) ex.getCause();
                     } else {
-                        LOGGER.debug("%s", logMessage);
+                        failure.addSuppressed(ex.getCause());
                     }
-
-                    requeueFlushObject(flushObject, sleep);
                 }
             }
-        } finally {
-            flushLock.writeLock().unlock();
         }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void waitFor(List<CompletableFuture<Void>> futures) {
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                // reported by the caller from the failures queue
+            } catch (InterruptedException ex) {
+                throw new VertexiumException("Interrupted while flushing", ex);
+            }
+        }
+    }
+
+    public void add(String elementId, String rowId, UpdateRequestBuilder updateRequestBuilder) {
+        add(elementId, rowId, updateRequestBuilder.request());
     }
 
-    private void requeueFlushObject(FlushObject flushObject, int additionalTimeToSleep) {
+    public void add(String elementId, String rowId, UpdateRequest updateRequest) {
+        String documentKey = getDocumentKey(updateRequest);
+        lock.lock();
         try {
-            Thread.sleep(Math.max(0, flushObject.getNextRetryTime() - System.currentTimeMillis()));
+            checkNotShutdown();
+            metrics.addedCount.incrementAndGet();
+            Deque<FlushObject> queued = queuedByDocumentKey.get(documentKey);
+            if (queued != null && !queued.isEmpty() && queued.getLast().merge(updateRequest)) {
+                metrics.mergedCount.incrementAndGet();
+                return;
+            }
+
+            while (size >= maxQueueSize) {
+                metrics.blockedCount.incrementAndGet();
+                notFull.await();
+                checkNotShutdown();
+            }
+
+            FlushObject flushObject = new FlushObject(elementId, rowId, documentKey, updateRequest);
+            Deque<FlushObject> documentQueue = queuedByDocumentKey.computeIfAbsent(documentKey, k -> new ArrayDeque<>());
+            if (documentQueue.isEmpty() && !inFlightByDocumentKey.containsKey(documentKey)) {
+                readyDocumentKeys.addLast(documentKey);
+            }
+            documentQueue.addLast(flushObject);
+            addPending(flushObject);
+            size++;
+            scheduleDispatch();
         } catch (InterruptedException ex) {
-            throw new VertexiumException("failed to sleep", ex);
-        }
-        long timeToWait = Math.min(
-                ((flushObject.getRetryCount() + 1) * 10) + additionalTimeToSleep,
-                1 * 60 * 1000
-        );
-        long nextRetryTime = System.currentTimeMillis() + timeToWait;
-        queue.add(new FlushObject(
-                flushObject.getElementId(),
-                flushObject.getExtendedDataRowId(),
-                flushObject.getActionRequestBuilder(),
-                flushObject.getActionRequestBuilder().execute(),
-                flushObject.getRetryCount() + 1,
-                nextRetryTime
-        ));
-    }
-
-    public void add(String elementId, String rowId, UpdateRequestBuilder updateRequestBuilder, Future future) {
-        flushLock.readLock().lock();
-        try {
-            queue.add(new FlushObject(elementId, rowId, updateRequestBuilder, future));
+            throw new VertexiumException("Interrupted while waiting for space in the queue", ex);
         } finally {
-            flushLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
+    /**
+     * @return true if the element or one of its extended data rows has updates which have not been written yet.
+     */
     public boolean containsElementId(String elementId) {
-        flushLock.readLock().lock();
+        return pendingByElementId.containsKey(elementId);
+    }
+
+    /**
+     * @return true if the extended data row has updates which have not been written yet.
+     */
+    public boolean containsExtendedDataRow(String elementId, String rowId) {
+        return pendingByExtendedDataRowKey.containsKey(getExtendedDataRowKey(elementId, rowId));
+    }
+
+    private void addPending(FlushObject flushObject) {
+        pendingByElementId.computeIfAbsent(flushObject.getElementId(), k -> ConcurrentHashMap.newKeySet()).add(flushObject);
+        if (flushObject.getExtendedDataRowId() != null) {
+            pendingByExtendedDataRowKey.computeIfAbsent(flushObject.getExtendedDataRowKey(), k -> ConcurrentHashMap.newKeySet()).add(flushObject);
+        }
+    }
+
+    private void removePending(FlushObject flushObject) {
+        removePending(pendingByElementId, flushObject.getElementId(), flushObject);
+        if (flushObject.getExtendedDataRowId() != null) {
+            removePending(pendingByExtendedDataRowKey, flushObject.getExtendedDataRowKey(), flushObject);
+        }
+    }
+
+    private static void removePending(Map<String, Set<FlushObject>> pending, String key, FlushObject flushObject) {
+        pending.computeIfPresent(key, (k, flushObjects) -> {
+            flushObjects.remove(flushObject);
+            return flushObjects.isEmpty() ? null : flushObjects;
+        });
+    }
+
+    /**
+     * @return the number of updates queued or in flight.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlightRequestCount() {
+        lock.lock();
         try {
-            return queue.stream().anyMatch(flushObject -> flushObject.getElementId().equals(elementId));
+            return inFlightRequestCount;
         } finally {
-            flushLock.readLock().unlock();
+            lock.unlock();
+        }
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops writing updates. Updates which are still queued or in flight are failed rather than dropped, so callers
+     * waiting on them are released, and adding updates afterwards fails. Call {@link #flush()} first to write the
+     * pending updates.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            List<FlushObject> pending = new ArrayList<>(inFlightByDocumentKey.values());
+            for (Deque<FlushObject> flushObjects : queuedByDocumentKey.values()) {
+                pending.addAll(flushObjects);
+            }
+            queuedByDocumentKey.clear();
+            inFlightByDocumentKey.clear();
+            readyDocumentKeys.clear();
+            waitingForRetry.clear();
+            size = 0;
+            for (FlushObject flushObject : pending) {
+                VertexiumException ex = new VertexiumException(String.format("Could not write %s: queue was shut down", flushObject));
+                metrics.failedCount.incrementAndGet();
+                failures.add(ex);
+                removePending(flushObject);
+                flushObject.getFuture().completeExceptionally(ex);
+            }
+            if (pending.size() > 0) {
+                LOGGER.warn("shut down with %d updates which were not written", pending.size());
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatchExecutor.shutdown();
+    }
+
+    private void checkNotShutdown() {
+        if (shutdown) {
+            throw new VertexiumException("Queue was shut down");
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (!dispatchScheduled) {
+            dispatchScheduled = true;
+            dispatchExecutor.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Schedules a dispatch for the earliest retry unless one is already scheduled at or before that time.
+     */
+    private void scheduleRetryDispatch(long now) {
+        FlushObject nextRetry = waitingForRetry.peek();
+        if (nextRetry == null || nextRetry.getNextRetryTime() >= retryDispatchTime) {
+            return;
+        }
+        if (retryDispatch != null) {
+            retryDispatch.cancel(false);
+        }
+        retryDispatchTime = nextRetry.getNextRetryTime();
+        retryDispatch = dispatchExecutor.schedule(() -> {
+            lock.lock();
+            try {
+                retryDispatch = null;
+                retryDispatchTime = Long.MAX_VALUE;
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }, retryDispatchTime - now, TimeUnit.MILLISECONDS);
+    }
+
+    private void executeOnDispatchThread(Runnable runnable) {
+        try {
+            dispatchExecutor.execute(runnable);
+        } catch (RejectedExecutionException ex) {
+            // the queue was shut down and the updates of the batch were already failed
+        }
+    }
+
+    /**
+     * Sends bulk requests until the max number of concurrent requests is reached or no queued update is ready to be
+     * sent. Only run on the dispatch thread.
+     */
+    private void dispatch() {
+        List<Batch> batches = new ArrayList<>();
+        lock.lock();
+        try {
+            dispatchScheduled = false;
+            if (shutdown) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            while (!waitingForRetry.isEmpty() && waitingForRetry.peek().getNextRetryTime() <= now) {
+                readyDocumentKeys.addLast(waitingForRetry.poll().getDocumentKey());
+            }
+            while (inFlightRequestCount < maxConcurrentRequests && !readyDocumentKeys.isEmpty()) {
+                Batch batch = new Batch();
+                while (!readyDocumentKeys.isEmpty() && batch.size() < maxBatchCount && batch.getSizeInBytes() < maxBatchSize) {
+                    String documentKey = readyDocumentKeys.removeFirst();
+                    Deque<FlushObject> documentQueue = queuedByDocumentKey.get(documentKey);
+                    FlushObject flushObject = documentQueue.removeFirst();
+                    if (documentQueue.isEmpty()) {
+                        queuedByDocumentKey.remove(documentKey);
+                    }
+                    inFlightByDocumentKey.put(documentKey, flushObject);
+                    batch.add(flushObject);
+                }
+                inFlightRequestCount++;
+                batches.add(batch);
+            }
+            scheduleRetryDispatch(now);
+        } finally {
+            lock.unlock();
+        }
+
+        for (Batch batch : batches) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        metrics.bulkRequestCount.incrementAndGet();
+        metrics.bulkRequestSizeInBytes.addAndGet(batch.getSizeInBytes());
+        long startTime = System.currentTimeMillis();
+        try {
+            bulkExecutor.bulk(batch.bulkRequest, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse bulkResponse) {
+                    executeOnDispatchThread(() -> complete(batch, startTime, bulkResponse, null));
+                }
+
+                @Override
+                public void onFailure(Exception ex) {
+                    executeOnDispatchThread(() -> complete(batch, startTime, null, ex));
+                }
+            });
+        } catch (Exception ex) {
+            complete(batch, startTime, null, ex);
+        }
+    }
+
+    private void complete(Batch batch, long startTime, BulkResponse bulkResponse, Exception bulkException) {
+        metrics.bulkRequestTime.addAndGet(System.currentTimeMillis() - startTime);
+        String[] failureMessages = new String[batch.size()];
+        if (bulkException != null) {
+            Arrays.fill(failureMessages, bulkException.getMessage());
+        } else {
+            for (BulkItemResponse item : bulkResponse.getItems()) {
+                if (item.isFailed()) {
+                    failureMessages[item.getItemId()] = item.getFailureMessage();
+                }
+            }
+        }
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                // the updates of the batch were failed by shutdown
+                return;
+            }
+            inFlightRequestCount--;
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                FlushObject flushObject = batch.flushObjects.get(i);
+                inFlightByDocumentKey.remove(flushObject.getDocumentKey());
+                String failureMessage = failureMessages[i];
+                if (failureMessage == null) {
+                    metrics.writtenCount.incrementAndGet();
+                    size--;
+                    removePending(flushObject);
+                    flushObject.getFuture().complete(null);
+                    markReadyIfQueued(flushObject.getDocumentKey());
+                    continue;
+                }
+
+                String message = String.format("Could not write %s", flushObject);
+                if (flushObject.getRetryCount() >= maxRetries) {
+                    metrics.failedCount.incrementAndGet();
+                    size--;
+                    VertexiumException ex = new VertexiumException(message + ": " + failureMessage, bulkException);
+                    failures.add(ex);
+                    removePending(flushObject);
+                    flushObject.getFuture().completeExceptionally(ex);
+                    markReadyIfQueued(flushObject.getDocumentKey());
+                    continue;
+                }
+
+                String logMessage = String.format("%s: %s (retrying: %d/%d)", message, failureMessage, flushObject.getRetryCount() + 1, maxRetries);
+                if (flushObject.getRetryCount() > 0) { // don't log warn the first time
+                    LOGGER.warn("%s", logMessage);
+                } else {
+                    LOGGER.debug("%s", logMessage);
+                }
+                metrics.retriedCount.incrementAndGet();
+                flushObject.retry(now + getRetryDelay(flushObject.getRetryCount()));
+                queuedByDocumentKey.computeIfAbsent(flushObject.getDocumentKey(), k -> new ArrayDeque<>()).addFirst(flushObject);
+                waitingForRetry.add(flushObject);
+            }
+            notFull.signalAll();
+            LOGGER.debug("bulk request of %d updates (est size %d) completed in %dms (queued/in flight: %d, in flight requests: %d)",
+                    batch.size(), batch.getSizeInBytes(), System.currentTimeMillis() - startTime, size, inFlightRequestCount);
+        } finally {
+            lock.unlock();
+        }
+        dispatch();
+    }
+
+    private void markReadyIfQueued(String documentKey) {
+        if (queuedByDocumentKey.containsKey(documentKey)) {
+            readyDocumentKeys.addLast(documentKey);
+        }
+    }
+
+    /**
+     * @param retryCount the number of times the update was already retried.
+     */
+    static long getRetryDelay(int retryCount) {
+        return Math.min(INITIAL_RETRY_DELAY << Math.min(retryCount, 30), MAX_RETRY_DELAY);
+    }
+
+    private static String getDocumentKey(UpdateRequest updateRequest) {
+        return updateRequest.index() + "/" + updateRequest.type() + "/" + updateRequest.id();
+    }
+
+    private static String getExtendedDataRowKey(String elementId, String rowId) {
+        return elementId + "/" + rowId;
+    }
+
+    interface BulkExecutor {
+        void bulk(BulkRequest bulkRequest, ActionListener<BulkResponse> listener);
+    }
+
+    private static class Batch {
+        private final BulkRequest bulkRequest = new BulkRequest();
+        private final List<FlushObject> flushObjects = new ArrayList<>();
+
+        public void add(FlushObject flushObject) {
+            bulkRequest.add(flushObject.getUpdateRequest());
+            flushObjects.add(flushObject);
+        }
+
+        public int size() {
+            return flushObjects.size();
+        }
+
+        public long getSizeInBytes() {
+            return bulkRequest.estimatedSizeInBytes();
         }
     }
 
     public static class FlushObject {
         private final String elementId;
         private final String extendedDataRowId;
-        private final ActionRequestBuilder actionRequestBuilder;
-        private final Future future;
-        private final int retryCount;
-        private final long nextRetryTime;
-
-        FlushObject(
-                String elementId,
-                String extendedDataRowId,
-                UpdateRequestBuilder updateRequestBuilder,
-                Future future
-        ) {
-            this(elementId, extendedDataRowId, updateRequestBuilder, future, 0, 0);
-        }
+        private final String documentKey;
+        private final UpdateRequest updateRequest;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int retryCount;
+        private long nextRetryTime;
 
         FlushObject(
                 String elementId,
                 String extendedDataRowId,
-                ActionRequestBuilder actionRequestBuilder,
-                Future future,
-                int retryCount,
-                long nextRetryTime
+                String documentKey,
+                UpdateRequest updateRequest
         ) {
             this.elementId = elementId;
             this.extendedDataRowId = extendedDataRowId;
-            this.actionRequestBuilder = actionRequestBuilder;
-            this.future = future;
-            this.retryCount = retryCount;
+            this.documentKey = documentKey;
+            this.updateRequest = updateRequest;
+        }
+
+        /**
+         * Merges a partial document update into this update. Only partial document updates which have not been sent
+         * yet are merged, script updates can depend on the current document and are always sent on their own.
+         *
+         * @return true if the update was merged.
+         */
+        boolean merge(UpdateRequest other) {
+            if (retryCount > 0 || !isPartialDocumentUpdate(updateRequest) || !isPartialDocumentUpdate(other)
+                    || updateRequest.docAsUpsert() != other.docAsUpsert()) {
+                return false;
+            }
+            Map<String, Object> doc = updateRequest.doc().sourceAsMap();
+            XContentHelper.update(doc, other.doc().sourceAsMap(), false);
+            updateRequest.doc(doc);
+            return true;
+        }
+
+        private static boolean isPartialDocumentUpdate(UpdateRequest updateRequest) {
+            return updateRequest.script() == null && updateRequest.doc() != null && updateRequest.upsertRequest() == null;
+        }
+
+        void retry(long nextRetryTime) {
+            this.retryCount++;
             this.nextRetryTime = nextRetryTime;
         }
 
@@ -138,11 +609,19 @@ public class FlushObjectQueue {
             return extendedDataRowId;
         }
 
-        public ActionRequestBuilder getActionRequestBuilder() {
-            return actionRequestBuilder;
+        public String getDocumentKey() {
+            return documentKey;
         }
 
-        public Future getFuture() {
+        String getExtendedDataRowKey() {
+            return FlushObjectQueue.getExtendedDataRowKey(elementId, extendedDataRowId);
+        }
+
+        public UpdateRequest getUpdateRequest() {
+            return updateRequest;
+        }
+
+        public CompletableFuture<Void> getFuture() {
             return future;
         }
 
@@ -154,4 +633,67 @@ public class FlushObjectQueue {
             return nextRetryTime;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Counters since the queue was created. Throughput can be derived by sampling the counters over time.
+     */
+    public static class Metrics {
+        private final AtomicLong addedCount = new AtomicLong();
+        private final AtomicLong mergedCount = new AtomicLong();
+        private final AtomicLong blockedCount = new AtomicLong();
+        private final AtomicLong writtenCount = new AtomicLong();
+        private final AtomicLong retriedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong bulkRequestCount = new AtomicLong();
+        private final AtomicLong bulkRequestSizeInBytes = new AtomicLong();
+        private final AtomicLong bulkRequestTime = new AtomicLong();
+
+        /**
+         * Number of updates added to the queue, including merged updates.
+         */
+        public long getAddedCount() {
+            return addedCount.get();
+        }
+
+        /**
+         * Number of updates merged into an update already in the queue.
+         */
+        public long getMergedCount() {
+            return mergedCount.get();
+        }
+
+        /**
+         * Number of times adding an update blocked because the queue was full.
+         */
+        public long getBlockedCount() {
+            return blockedCount.get();
+        }
+
+        public long getWrittenCount() {
+            return writtenCount.get();
+        }
+
+        public long getRetriedCount() {
+            return retriedCount.get();
+        }
+
+        public long getFailedCount() {
+            return failedCount.get();
+        }
+
+        public long getBulkRequestCount() {
+            return bulkRequestCount.get();
+        }
+
+        public long getBulkRequestSizeInBytes() {
+            return bulkRequestSizeInBytes.get();
+        }
+
+        /**
+         * Total time in milliseconds between sending bulk requests and receiving their responses.
+         */
+        public long getBulkRequestTime() {
+            return bulkRequestTime.get();
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.vertexium.inmemory.InMemoryGraphConfiguration;
 import org.vertexium.query.QueryResultsIterable;
 import org.vertexium.query.SortDirection;
 import org.vertexium.test.GraphTestBase;
+import org.vertexium.util.IterableUtils;
 
 import java.util.List;
 
@@ -142,6 +143,42 @@ public class Elasticsearch5SearchIndexTest extends GraphTestBase {
         assertEquals(startingNumQueries + 4, getNumQueries());
     }
 
+    @Test
+    public void testDeleteVertexWithQueuedUpdates() {
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "name", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.deleteVertex("v1", AUTHORIZATIONS_A);
+        graph.flush();
+
+        assertResultsCount(0, 0, graph.query(AUTHORIZATIONS_A).has("name", "value1").vertices());
+    }
+
+    @Test
+    public void testDeleteExtendedDataRowWithQueuedUpdates() {
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addExtendedData("table1", "row1", "name", "value1", VISIBILITY_A)
+                .addExtendedData("table1", "row2", "name", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.deleteExtendedDataRow(new ExtendedDataRowId(ElementType.VERTEX, "v1", "table1", "row1"), AUTHORIZATIONS_A);
+        graph.flush();
+
+        QueryResultsIterable<ExtendedDataRow> rows = graph.query(AUTHORIZATIONS_A).has("name", "value1").extendedDataRows();
+        assertResultsCount(1, 1, rows);
+        assertEquals("row2", IterableUtils.single(rows).getId().getRowId());
+    }
+
+    @Test
+    public void testMarkVertexHiddenWithQueuedUpdates() {
+        Vertex v1 = graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "name", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.markVertexHidden(v1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        assertResultsCount(0, 0, graph.query(AUTHORIZATIONS_A).has("name", "value1").vertices());
+    }
+
     private long getNumQueries() {
         Client client = elasticsearchResource.getRunner().client();
         NodesStatsResponse nodeStats = NodesStatsAction.INSTANCE.newRequestBuilder(client).get();
@@ -0,0 +1,74 @@
+package org.vertexium.elasticsearch5;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.vertexium.Authorizations;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.InMemoryAuthorizations;
+import org.vertexium.inmemory.InMemoryGraph;
+
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+import static org.vertexium.util.IterableUtils.count;
+
+public class MetadataTablePropertyNameVisibilitiesStoreTest {
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final Visibility VISIBILITY_B = new Visibility("b");
+    private static final Visibility VISIBILITY_A_AND_B = new Visibility("a&b");
+    private static final Authorizations AUTHORIZATIONS_A = new InMemoryAuthorizations("a");
+    private static final Authorizations AUTHORIZATIONS_A_AND_B = new InMemoryAuthorizations("b", "a");
+    private InMemoryGraph graph;
+    private MetadataTablePropertyNameVisibilitiesStore store;
+
+    @Before
+    public void before() {
+        graph = InMemoryGraph.create();
+        store = new MetadataTablePropertyNameVisibilitiesStore();
+    }
+
+    @Test
+    public void testGetHashStoresHashesInMetadata() {
+        String hashA = store.getHash(graph, "prop1", VISIBILITY_A);
+        assertEquals(hashA, store.getHash(graph, "prop1", VISIBILITY_A));
+        assertEquals(hashA, store.getHash(graph, "prop.2", VISIBILITY_A));
+        assertEquals(hashA, graph.getMetadata(MetadataTablePropertyNameVisibilitiesStore.PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX + "prop1.a"));
+        assertEquals(2, count(graph.getMetadataWithPrefix(MetadataTablePropertyNameVisibilitiesStore.PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX)));
+        assertEquals(VISIBILITY_A, store.getVisibilityFromHash(graph, hashA));
+    }
+
+    @Test
+    public void testGetHashesAfterVisibilitiesAreAdded() {
+        String hashA = store.getHash(graph, "prop1", VISIBILITY_A);
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A), hashA);
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A_AND_B), hashA);
+
+        String hashB = store.getHash(graph, "prop1", VISIBILITY_B);
+        String hashAAndB = store.getHash(graph, "prop1", VISIBILITY_A_AND_B);
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A), hashA);
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A_AND_B), hashA, hashB, hashAAndB);
+        assertHashes(store.getHashes(graph, "prop2", AUTHORIZATIONS_A_AND_B));
+
+        assertHashes(store.getHashesWithAuthorization(graph, "b", AUTHORIZATIONS_A));
+        assertHashes(store.getHashesWithAuthorization(graph, "b", AUTHORIZATIONS_A_AND_B), hashB, hashAAndB);
+    }
+
+    @Test
+    public void testGetHashesReadsMetadataStoredByOtherStores() {
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A));
+
+        String hashA = new MetadataTablePropertyNameVisibilitiesStore().getHash(graph, "prop1", VISIBILITY_A);
+        assertHashes(store.getHashes(graph, "prop1", AUTHORIZATIONS_A), hashA);
+
+        MetadataTablePropertyNameVisibilitiesStore reloadedStore = new MetadataTablePropertyNameVisibilitiesStore();
+        assertHashes(reloadedStore.getHashes(graph, "prop1", AUTHORIZATIONS_A), hashA);
+        assertEquals(VISIBILITY_A, reloadedStore.getVisibilityFromHash(graph, hashA));
+    }
+
+    private void assertHashes(Collection<String> found, String... expected) {
+        assertEquals(expected.length, found.size());
+        for (String hash : expected) {
+            assertTrue("missing hash " + hash, found.contains(hash));
+        }
+    }
+}
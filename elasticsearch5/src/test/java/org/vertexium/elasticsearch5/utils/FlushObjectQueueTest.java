@@ -0,0 +1,340 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.After;
+import org.junit.Test;
+import org.vertexium.VertexiumException;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class FlushObjectQueueTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private final BlockingQueue<PendingBulkRequest> bulkRequests = new LinkedBlockingQueue<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private FlushObjectQueue queue;
+
+    @After
+    public void after() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMergePartialUpdates() throws Exception {
+        queue = createQueue(10, 1, 100, 0);
+        queue.add("v0", null, createUpdate("v0", "a", 0));
+        PendingBulkRequest first = nextBulkRequest();
+
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        queue.add("v1", null, createUpdate("v1", "b", 2));
+        assertEquals(1, queue.getMetrics().getMergedCount());
+        assertEquals(2, queue.size());
+
+        first.respond();
+        PendingBulkRequest second = nextBulkRequest();
+        assertEquals(Collections.singletonList("v1"), second.getIds());
+        Map<String, Object> doc = second.getUpdateRequest(0).doc().sourceAsMap();
+        assertEquals(1, doc.get("a"));
+        assertEquals(2, doc.get("b"));
+        second.respond();
+
+        queue.flush();
+        assertEquals(0, queue.size());
+        assertEquals(3, queue.getMetrics().getAddedCount());
+        assertEquals(2, queue.getMetrics().getWrittenCount());
+        assertEquals(2, queue.getMetrics().getBulkRequestCount());
+        assertTrue(queue.getMetrics().getBulkRequestSizeInBytes() > 0);
+    }
+
+    @Test
+    public void testRetryOnlyFailedItems() throws Exception {
+        queue = createQueue(10, 1, 100, 3);
+        queue.add("v0", null, createUpdate("v0", "a", 0));
+        PendingBulkRequest first = nextBulkRequest();
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        queue.add("v2", null, createUpdate("v2", "a", 2));
+        first.respond();
+
+        PendingBulkRequest second = nextBulkRequest();
+        assertEquals(Arrays.asList("v1", "v2"), second.getIds());
+        second.respond("v1");
+
+        PendingBulkRequest retry = nextBulkRequest();
+        assertEquals(Collections.singletonList("v1"), retry.getIds());
+        retry.respond();
+
+        queue.flush();
+        assertNull(bulkRequests.poll());
+        assertEquals(3, queue.getMetrics().getWrittenCount());
+        assertEquals(1, queue.getMetrics().getRetriedCount());
+        assertEquals(0, queue.getMetrics().getFailedCount());
+    }
+
+    @Test
+    public void testFailAfterMaxRetries() throws Exception {
+        queue = createQueue(10, 1, 100, 1);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        nextBulkRequest().respond("v1");
+        nextBulkRequest().respond("v1");
+
+        try {
+            queue.flush();
+            fail("expected flush to fail");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("v1"));
+        }
+        assertEquals(1, queue.getMetrics().getRetriedCount());
+        assertEquals(1, queue.getMetrics().getFailedCount());
+        assertEquals(0, queue.size());
+
+        // the failure is only reported once
+        queue.flush();
+    }
+
+    @Test
+    public void testRetryDelay() {
+        assertEquals(10, FlushObjectQueue.getRetryDelay(0));
+        assertEquals(20, FlushObjectQueue.getRetryDelay(1));
+        assertEquals(80, FlushObjectQueue.getRetryDelay(3));
+        assertEquals(60 * 1000, FlushObjectQueue.getRetryDelay(20));
+        assertEquals(60 * 1000, FlushObjectQueue.getRetryDelay(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testMaxConcurrentRequests() throws Exception {
+        queue = createQueue(1, 2, 100, 0);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        queue.add("v2", null, createUpdate("v2", "a", 2));
+        queue.add("v3", null, createUpdate("v3", "a", 3));
+        PendingBulkRequest first = nextBulkRequest();
+        nextBulkRequest();
+
+        assertNull(bulkRequests.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, queue.getInFlightRequestCount());
+        assertEquals(3, queue.size());
+
+        first.respond();
+        PendingBulkRequest third = nextBulkRequest();
+        assertEquals(Collections.singletonList("v3"), third.getIds());
+    }
+
+    @Test
+    public void testAddBlocksWhenQueueIsFull() throws Exception {
+        queue = createQueue(10, 1, 1, 0);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        PendingBulkRequest first = nextBulkRequest();
+
+        Future<?> add = executor.submit(() -> queue.add("v2", null, createUpdate("v2", "a", 2)));
+        waitUntil(() -> queue.getMetrics().getBlockedCount() == 1);
+        assertFalse(add.isDone());
+
+        first.respond();
+        add.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        nextBulkRequest().respond();
+        queue.flush();
+        assertEquals(2, queue.getMetrics().getWrittenCount());
+    }
+
+    @Test
+    public void testShutdownFailsPendingUpdates() throws Exception {
+        queue = createQueue(1, 1, 100, 0);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        PendingBulkRequest first = nextBulkRequest();
+        queue.add("v2", null, createUpdate("v2", "a", 2));
+
+        Future<?> flush = executor.submit(() -> queue.flush());
+        queue.shutdown();
+        try {
+            flush.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("expected flush to fail");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof VertexiumException);
+        }
+        assertEquals(0, queue.size());
+        assertEquals(2, queue.getMetrics().getFailedCount());
+        assertFalse(queue.containsElementId("v1"));
+
+        // a response arriving after shutdown is ignored
+        first.respond();
+        assertEquals(0, queue.getMetrics().getWrittenCount());
+
+        try {
+            queue.add("v3", null, createUpdate("v3", "a", 3));
+            fail("expected add to fail");
+        } catch (VertexiumException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testContainsElementIdAndExtendedDataRow() throws Exception {
+        queue = createQueue(10, 1, 100, 0);
+        queue.add("v0", null, createUpdate("v0", "a", 0));
+        PendingBulkRequest first = nextBulkRequest();
+        assertFalse(queue.containsElementId("v1"));
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        queue.add("v1", "row1", createUpdate("v1_row1", "a", 1));
+        assertTrue(queue.containsElementId("v0"));
+        assertTrue(queue.containsElementId("v1"));
+        assertTrue(queue.containsExtendedDataRow("v1", "row1"));
+        assertFalse(queue.containsExtendedDataRow("v1", "row2"));
+        assertFalse(queue.containsExtendedDataRow("v0", "row1"));
+        assertFalse(queue.containsElementId("v2"));
+
+        first.respond();
+        assertEquals(Arrays.asList("v1", "v1_row1"), nextBulkRequest().getIds());
+        assertFalse(queue.containsElementId("v0"));
+        assertTrue(queue.containsElementId("v1"));
+    }
+
+    @Test
+    public void testFlushElement() throws Exception {
+        queue = createQueue(1, 1, 100, 0);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        PendingBulkRequest first = nextBulkRequest();
+        queue.add("v2", null, createUpdate("v2", "a", 2));
+        queue.add("v1", "row1", createUpdate("v1_row1", "a", 1));
+
+        // nothing is pending for v3
+        queue.flushElement("v3");
+
+        Future<?> flushElement = executor.submit(() -> queue.flushElement("v1"));
+        Future<?> flushV2 = executor.submit(() -> queue.flushElement("v2"));
+        first.respond();
+        PendingBulkRequest second = nextBulkRequest();
+        assertEquals(Collections.singletonList("v2"), second.getIds());
+        second.respond();
+        flushV2.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // the extended data row of v1 is still pending
+        assertFalse(flushElement.isDone());
+        assertTrue(queue.containsElementId("v1"));
+        PendingBulkRequest third = nextBulkRequest();
+        assertEquals(Collections.singletonList("v1_row1"), third.getIds());
+        third.respond();
+        flushElement.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(queue.containsElementId("v1"));
+    }
+
+    @Test
+    public void testFlushExtendedDataRow() throws Exception {
+        queue = createQueue(1, 1, 100, 0);
+        queue.add("v1", "row1", createUpdate("v1_row1", "a", 1));
+        PendingBulkRequest first = nextBulkRequest();
+        queue.add("v1", "row2", createUpdate("v1_row2", "a", 2));
+
+        Future<?> flushRow1 = executor.submit(() -> queue.flushExtendedDataRow("v1", "row1"));
+        first.respond();
+        flushRow1.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(queue.containsExtendedDataRow("v1", "row1"));
+        assertTrue(queue.containsExtendedDataRow("v1", "row2"));
+        assertTrue(queue.containsElementId("v1"));
+
+        Future<?> flushRow2 = executor.submit(() -> queue.flushExtendedDataRow("v1", "row2"));
+        nextBulkRequest().respond();
+        flushRow2.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(queue.containsElementId("v1"));
+    }
+
+    @Test
+    public void testFlushElementReportsItsFailures() throws Exception {
+        queue = createQueue(10, 1, 100, 0);
+        queue.add("v1", null, createUpdate("v1", "a", 1));
+        nextBulkRequest().respond("v1");
+        try {
+            queue.flushElement("v1");
+            fail("expected flush to fail");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("v1"));
+        }
+
+        // already reported by flushElement
+        queue.flush();
+    }
+
+    private FlushObjectQueue createQueue(int maxBatchCount, int maxConcurrentRequests, int maxQueueSize, int maxRetries) {
+        return new FlushObjectQueue(
+                (bulkRequest, listener) -> bulkRequests.add(new PendingBulkRequest(bulkRequest, listener)),
+                maxBatchCount,
+                10 * 1024 * 1024,
+                maxConcurrentRequests,
+                maxQueueSize,
+                maxRetries
+        );
+    }
+
+    private PendingBulkRequest nextBulkRequest() throws InterruptedException {
+        PendingBulkRequest bulkRequest = bulkRequests.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("expected a bulk request", bulkRequest);
+        return bulkRequest;
+    }
+
+    private static void waitUntil(Callable<Boolean> condition) throws Exception {
+        long endTime = System.currentTimeMillis() + TIMEOUT_SECONDS * 1000;
+        while (!condition.call()) {
+            assertTrue("timed out waiting for condition", System.currentTimeMillis() < endTime);
+            Thread.sleep(10);
+        }
+    }
+
+    static UpdateRequest createUpdate(String id, String field, Object value) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put(field, value);
+        return new UpdateRequest("index", "type", id).doc(doc).docAsUpsert(true);
+    }
+
+    static class PendingBulkRequest {
+        private final BulkRequest bulkRequest;
+        private final ActionListener<BulkResponse> listener;
+
+        PendingBulkRequest(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+            this.bulkRequest = bulkRequest;
+            this.listener = listener;
+        }
+
+        UpdateRequest getUpdateRequest(int index) {
+            return (UpdateRequest) bulkRequest.requests().get(index);
+        }
+
+        List<String> getIds() {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < bulkRequest.numberOfActions(); i++) {
+                ids.add(getUpdateRequest(i).id());
+            }
+            return ids;
+        }
+
+        /**
+         * Completes the bulk request, the updates of the given document ids fail and all others succeed.
+         */
+        void respond(String... failedIds) {
+            Set<String> failed = new HashSet<>(Arrays.asList(failedIds));
+            BulkItemResponse[] items = new BulkItemResponse[bulkRequest.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                UpdateRequest updateRequest = getUpdateRequest(i);
+                if (failed.contains(updateRequest.id())) {
+                    BulkItemResponse.Failure failure = new BulkItemResponse.Failure(updateRequest.index(), updateRequest.type(), updateRequest.id(), new Exception("failed"));
+                    items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.UPDATE, failure);
+                } else {
+                    ShardId shardId = new ShardId(updateRequest.index(), "_na_", 0);
+                    UpdateResponse response = new UpdateResponse(shardId, updateRequest.type(), updateRequest.id(), 1, DocWriteResponse.Result.UPDATED);
+                    items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.UPDATE, response);
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Authorizations;
+import org.vertexium.Visibility;
+
+/**
+ * Authorizations able to read every visibility, only used to replay changes which were already authorized when they
+ * were first made, e.g. when loading a graph from storage.
+ */
+public class AllAuthorizations implements Authorizations {
+    private static final long serialVersionUID = 1L;
+    public static final AllAuthorizations INSTANCE = new AllAuthorizations();
+
+    @Override
+    public boolean canRead(Visibility visibility) {
+        return true;
+    }
+
+    @Override
+    public String[] getAuthorizations() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean equals(Authorizations authorizations) {
+        return authorizations == this;
+    }
+}
@@ -0,0 +1,93 @@
+package org.vertexium.inmemory;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.vertexium.Authorizations;
+import org.vertexium.VertexiumException;
+import org.vertexium.Visibility;
+import org.vertexium.security.ColumnVisibility;
+import org.vertexium.security.VisibilityEvaluator;
+import org.vertexium.security.VisibilityParseException;
+
+/**
+ * Evaluates visibilities against a fixed set of authorizations.
+ * <p>
+ * Visibility expressions are parsed once and shared between all evaluators. The result of each evaluation is cached
+ * by visibility string so repeated checks of the same visibility are a hash lookup. Both caches are bounded, once
+ * full the least recently used entries are evicted to make room for new ones.
+ */
+public class CachingVisibilityEvaluator {
+    private static final int MAX_COLUMN_VISIBILITIES = 10000;
+    private static final int DEFAULT_MAX_RESULTS = 1000;
+    private static final LoadingCache<String, ColumnVisibility> columnVisibilities = CacheBuilder.newBuilder()
+            .maximumSize(MAX_COLUMN_VISIBILITIES)
+            .build(CacheLoader.from((String s) -> new ColumnVisibility(s)));
+    private final VisibilityEvaluator visibilityEvaluator;
+    private final LoadingCache<String, Boolean> results;
+
+    public CachingVisibilityEvaluator(String[] authorizations) {
+        this(authorizations, DEFAULT_MAX_RESULTS);
+    }
+
+    public CachingVisibilityEvaluator(String[] authorizations, int maxResults) {
+        this.visibilityEvaluator = new VisibilityEvaluator(new org.vertexium.security.Authorizations(authorizations));
+        this.results = CacheBuilder.newBuilder()
+                .maximumSize(maxResults)
+                .build(CacheLoader.from(this::evaluate));
+    }
+
+    /**
+     * Gets an evaluator for the given authorizations, reusing the evaluator held by {@link InMemoryAuthorizations}
+     * when possible.
+     */
+    public static CachingVisibilityEvaluator get(Authorizations authorizations) {
+        if (authorizations instanceof InMemoryAuthorizations) {
+            return ((InMemoryAuthorizations) authorizations).getVisibilityEvaluator();
+        }
+        return new CachingVisibilityEvaluator(authorizations.getAuthorizations());
+    }
+
+    /**
+     * Parses the visibility expression or returns the already parsed expression if it was seen before.
+     */
+    public static ColumnVisibility getColumnVisibility(String visibilityString) {
+        return get(columnVisibilities, visibilityString);
+    }
+
+    public boolean canRead(Visibility visibility) {
+        String visibilityString = visibility.getVisibilityString();
+        // this is just a shortcut so that we don't need to evaluate or cache an empty string.
+        if (visibilityString.length() == 0) {
+            return true;
+        }
+        return get(results, visibilityString);
+    }
+
+    private boolean evaluate(String visibilityString) {
+        try {
+            return visibilityEvaluator.evaluate(getColumnVisibility(visibilityString));
+        } catch (VisibilityParseException e) {
+            throw new VertexiumException("could not evaluate visibility " + visibilityString, e);
+        }
+    }
+
+    /**
+     * Number of evaluation results currently cached.
+     */
+    long getCachedResultCount() {
+        return results.size();
+    }
+
+    private static <V> V get(LoadingCache<String, V> cache, String key) {
+        try {
+            return cache.getUnchecked(key);
+        } catch (UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
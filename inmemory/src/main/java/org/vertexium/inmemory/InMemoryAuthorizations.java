@@ -1,11 +1,6 @@
 package org.vertexium.inmemory;
 
-import org.vertexium.VertexiumException;
 import org.vertexium.Visibility;
-import org.vertexium.security.Authorizations;
-import org.vertexium.security.ColumnVisibility;
-import org.vertexium.security.VisibilityEvaluator;
-import org.vertexium.security.VisibilityParseException;
 import org.vertexium.util.ArrayUtils;
 import org.vertexium.util.Preconditions;
 
@@ -15,6 +10,7 @@ import java.util.Arrays;
 public class InMemoryAuthorizations implements org.vertexium.Authorizations, Serializable {
     private static final long serialVersionUID = 1L;
     private final String[] authorizations;
+    private transient volatile CachingVisibilityEvaluator visibilityEvaluator;
 
     public InMemoryAuthorizations(String... authorizations) {
         this.authorizations = authorizations;
@@ -44,13 +40,16 @@ public class InMemoryAuthorizations implements org.vertexium.Authorizations, Ser
             return true;
         }
 
-        VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new Authorizations(this.getAuthorizations()));
-        ColumnVisibility columnVisibility = new ColumnVisibility(visibility.getVisibilityString());
-        try {
-            return visibilityEvaluator.evaluate(columnVisibility);
-        } catch (VisibilityParseException e) {
-            throw new VertexiumException("could not evaluate visibility " + visibility.getVisibilityString(), e);
+        return getVisibilityEvaluator().canRead(visibility);
+    }
+
+    public CachingVisibilityEvaluator getVisibilityEvaluator() {
+        CachingVisibilityEvaluator result = visibilityEvaluator;
+        if (result == null) {
+            result = new CachingVisibilityEvaluator(getAuthorizations());
+            visibilityEvaluator = result;
         }
+        return result;
     }
 
     @Override
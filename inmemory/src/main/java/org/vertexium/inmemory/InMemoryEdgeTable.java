@@ -1,12 +1,35 @@
 package org.vertexium.inmemory;
 
+import org.vertexium.Direction;
+import org.vertexium.inmemory.mutations.AlterEdgeLabelMutation;
+import org.vertexium.inmemory.mutations.EdgeSetupMutation;
+import org.vertexium.inmemory.mutations.Mutation;
 import org.vertexium.util.ConvertingIterable;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Besides the edge rows this table keeps an index of the edges of each vertex by direction and label, so looking up
+ * the edges of a vertex only touches the edges of that vertex instead of every edge in the table.
+ * <p>
+ * An edge stays indexed under every label it has ever had and while soft deleted, the index only narrows down the
+ * candidate edges. Callers still need to check the visibility, time span and current label of each edge.
+ */
 public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
+    private final ReadWriteLock vertexEdgeIndexLock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, Set<String>>> outEdgeIdsByVertexId = new HashMap<>();
+    private final Map<String, Map<String, Set<String>>> inEdgeIdsByVertexId = new HashMap<>();
+    private final Map<String, VertexEdgeIndexEntry> vertexEdgeIndexEntries = new HashMap<>();
+
     public InMemoryEdgeTable(Map<String, InMemoryTableElement<InMemoryEdge>> rows) {
         super(rows);
+        if (isVertexEdgeIndexEnabled()) {
+            for (InMemoryTableElement<InMemoryEdge> row : getRowValues()) {
+                indexEdge((InMemoryTableEdge) row);
+            }
+        }
     }
 
     public InMemoryEdgeTable() {
@@ -25,4 +48,206 @@ public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
             }
         };
     }
+
+    /**
+     * Subclasses which store their rows outside of memory and look up the edges of a vertex themselves can disable
+     * the vertex edge index.
+     */
+    protected boolean isVertexEdgeIndexEnabled() {
+        return true;
+    }
+
+    /**
+     * Gets the edges which are, or have been, attached to the given vertex in the given direction with one of the
+     * given labels.
+     *
+     * @param labels the labels to include or null to include all labels.
+     */
+    public Iterable<InMemoryTableEdge> getTableElementsForVertex(String vertexId, Direction direction, String[] labels) {
+        Set<String> edgeIds = new LinkedHashSet<>();
+        vertexEdgeIndexLock.readLock().lock();
+        try {
+            if (direction == Direction.OUT || direction == Direction.BOTH) {
+                addEdgeIds(edgeIds, outEdgeIdsByVertexId.get(vertexId), labels);
+            }
+            if (direction == Direction.IN || direction == Direction.BOTH) {
+                addEdgeIds(edgeIds, inEdgeIdsByVertexId.get(vertexId), labels);
+            }
+        } finally {
+            vertexEdgeIndexLock.readLock().unlock();
+        }
+
+        List<InMemoryTableEdge> results = new ArrayList<>(edgeIds.size());
+        for (String edgeId : edgeIds) {
+            InMemoryTableElement<InMemoryEdge> row = getTableElement(edgeId);
+            if (row != null) {
+                results.add((InMemoryTableEdge) row);
+            }
+        }
+        return results;
+    }
+
+    private static void addEdgeIds(Set<String> results, Map<String, Set<String>> edgeIdsByLabel, String[] labels) {
+        if (edgeIdsByLabel == null) {
+            return;
+        }
+        if (labels == null) {
+            for (Set<String> edgeIds : edgeIdsByLabel.values()) {
+                results.addAll(edgeIds);
+            }
+            return;
+        }
+        for (String label : labels) {
+            Set<String> edgeIds = edgeIdsByLabel.get(label);
+            if (edgeIds != null) {
+                results.addAll(edgeIds);
+            }
+        }
+    }
+
+    public void alterEdgeLabel(InMemoryTableEdge inMemoryTableEdge, long timestamp, String newEdgeLabel) {
+        inMemoryTableEdge.appendAlterEdgeLabelMutation(timestamp, newEdgeLabel);
+        if (isVertexEdgeIndexEnabled()) {
+            indexEdgeLabel(inMemoryTableEdge.getId(), newEdgeLabel);
+        }
+    }
+
+    @Override
+    protected void onAppend(InMemoryTableElement<InMemoryEdge> inMemoryTableElement, Mutation[] newMutations) {
+        if (!isVertexEdgeIndexEnabled()) {
+            return;
+        }
+        for (Mutation mutation : newMutations) {
+            if (mutation instanceof EdgeSetupMutation) {
+                EdgeSetupMutation edgeSetupMutation = (EdgeSetupMutation) mutation;
+                indexEdgeVertices(
+                        inMemoryTableElement.getId(),
+                        edgeSetupMutation.getOutVertexId(),
+                        edgeSetupMutation.getInVertexId()
+                );
+            }
+        }
+        for (Mutation mutation : newMutations) {
+            if (mutation instanceof AlterEdgeLabelMutation) {
+                indexEdgeLabel(inMemoryTableElement.getId(), ((AlterEdgeLabelMutation) mutation).getNewEdgeLabel());
+            }
+        }
+    }
+
+    @Override
+    protected void onRemove(String id) {
+        vertexEdgeIndexLock.writeLock().lock();
+        try {
+            VertexEdgeIndexEntry entry = vertexEdgeIndexEntries.remove(id);
+            if (entry != null) {
+                for (String label : entry.labels) {
+                    removeEdgeId(outEdgeIdsByVertexId, entry.outVertexId, label, id);
+                    removeEdgeId(inEdgeIdsByVertexId, entry.inVertexId, label, id);
+                }
+            }
+        } finally {
+            vertexEdgeIndexLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void onClear() {
+        vertexEdgeIndexLock.writeLock().lock();
+        try {
+            outEdgeIdsByVertexId.clear();
+            inEdgeIdsByVertexId.clear();
+            vertexEdgeIndexEntries.clear();
+        } finally {
+            vertexEdgeIndexLock.writeLock().unlock();
+        }
+    }
+
+    private void indexEdge(InMemoryTableEdge inMemoryTableEdge) {
+        EdgeSetupMutation edgeSetupMutation = inMemoryTableEdge.findLastMutation(EdgeSetupMutation.class);
+        if (edgeSetupMutation == null) {
+            return;
+        }
+        indexEdgeVertices(inMemoryTableEdge.getId(), edgeSetupMutation.getOutVertexId(), edgeSetupMutation.getInVertexId());
+        for (AlterEdgeLabelMutation mutation : inMemoryTableEdge.findMutations(AlterEdgeLabelMutation.class)) {
+            indexEdgeLabel(inMemoryTableEdge.getId(), mutation.getNewEdgeLabel());
+        }
+    }
+
+    private void indexEdgeVertices(String edgeId, String outVertexId, String inVertexId) {
+        vertexEdgeIndexLock.writeLock().lock();
+        try {
+            VertexEdgeIndexEntry entry = vertexEdgeIndexEntries.get(edgeId);
+            if (entry != null) {
+                if (entry.outVertexId.equals(outVertexId) && entry.inVertexId.equals(inVertexId)) {
+                    return;
+                }
+                for (String label : entry.labels) {
+                    removeEdgeId(outEdgeIdsByVertexId, entry.outVertexId, label, edgeId);
+                    removeEdgeId(inEdgeIdsByVertexId, entry.inVertexId, label, edgeId);
+                }
+            }
+            VertexEdgeIndexEntry newEntry = new VertexEdgeIndexEntry(outVertexId, inVertexId);
+            if (entry != null) {
+                for (String label : entry.labels) {
+                    addEdgeId(newEntry, edgeId, label);
+                }
+            }
+            vertexEdgeIndexEntries.put(edgeId, newEntry);
+        } finally {
+            vertexEdgeIndexLock.writeLock().unlock();
+        }
+    }
+
+    private void indexEdgeLabel(String edgeId, String label) {
+        vertexEdgeIndexLock.writeLock().lock();
+        try {
+            VertexEdgeIndexEntry entry = vertexEdgeIndexEntries.get(edgeId);
+            if (entry != null) {
+                addEdgeId(entry, edgeId, label);
+            }
+        } finally {
+            vertexEdgeIndexLock.writeLock().unlock();
+        }
+    }
+
+    private void addEdgeId(VertexEdgeIndexEntry entry, String edgeId, String label) {
+        if (!entry.labels.add(label)) {
+            return;
+        }
+        outEdgeIdsByVertexId.computeIfAbsent(entry.outVertexId, k -> new HashMap<>())
+                .computeIfAbsent(label, k -> new LinkedHashSet<>())
+                .add(edgeId);
+        inEdgeIdsByVertexId.computeIfAbsent(entry.inVertexId, k -> new HashMap<>())
+                .computeIfAbsent(label, k -> new LinkedHashSet<>())
+                .add(edgeId);
+    }
+
+    private static void removeEdgeId(Map<String, Map<String, Set<String>>> index, String vertexId, String label, String edgeId) {
+        Map<String, Set<String>> edgeIdsByLabel = index.get(vertexId);
+        if (edgeIdsByLabel == null) {
+            return;
+        }
+        Set<String> edgeIds = edgeIdsByLabel.get(label);
+        if (edgeIds == null) {
+            return;
+        }
+        edgeIds.remove(edgeId);
+        if (edgeIds.isEmpty()) {
+            edgeIdsByLabel.remove(label);
+            if (edgeIdsByLabel.isEmpty()) {
+                index.remove(vertexId);
+            }
+        }
+    }
+
+    private static class VertexEdgeIndexEntry {
+        private final String outVertexId;
+        private final String inVertexId;
+        private final Set<String> labels = new HashSet<>();
+
+        VertexEdgeIndexEntry(String outVertexId, String inVertexId) {
+            this.outVertexId = outVertexId;
+            this.inVertexId = inVertexId;
+        }
+    }
 }
@@ -1,33 +1,26 @@
 package org.vertexium.inmemory;
 
 import org.vertexium.*;
-import org.vertexium.security.ColumnVisibility;
-import org.vertexium.security.VisibilityEvaluator;
-import org.vertexium.security.VisibilityParseException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
+/**
+ * The columns of a row are replaced as a whole on every change so reads never wait on writes, writes to the same row
+ * are serialized.
+ */
 public class InMemoryExtendedDataRow extends ExtendedDataRowBase {
     private final ExtendedDataRowId id;
-    private ReadWriteLock propertiesLock = new ReentrantReadWriteLock();
-    private Set<InMemoryProperty> properties = new HashSet<>();
+    private volatile Set<InMemoryProperty> properties = Collections.emptySet();
 
     public InMemoryExtendedDataRow(ExtendedDataRowId id) {
         this.id = id;
     }
 
-    public boolean canRead(VisibilityEvaluator visibilityEvaluator) {
-        propertiesLock.readLock().lock();
-        try {
-            return properties.stream().anyMatch(e -> e.canRead(visibilityEvaluator));
-        } finally {
-            propertiesLock.readLock().unlock();
-        }
+    public boolean canRead(CachingVisibilityEvaluator visibilityEvaluator) {
+        return properties.stream().anyMatch(e -> e.canRead(visibilityEvaluator));
     }
 
     @Override
@@ -35,53 +28,41 @@ public class InMemoryExtendedDataRow extends ExtendedDataRowBase {
         return id;
     }
 
-    public InMemoryExtendedDataRow toReadable(VisibilityEvaluator visibilityEvaluator) {
-        propertiesLock.readLock().lock();
-        try {
-            InMemoryExtendedDataRow row = new InMemoryExtendedDataRow(getId());
-            for (InMemoryProperty column : properties) {
-                if (column.canRead(visibilityEvaluator)) {
-                    row.properties.add(column);
-                }
+    public InMemoryExtendedDataRow toReadable(CachingVisibilityEvaluator visibilityEvaluator) {
+        Set<InMemoryProperty> readableProperties = new HashSet<>();
+        for (InMemoryProperty column : properties) {
+            if (column.canRead(visibilityEvaluator)) {
+                readableProperties.add(column);
             }
-            return row;
-        } finally {
-            propertiesLock.readLock().unlock();
         }
+        InMemoryExtendedDataRow row = new InMemoryExtendedDataRow(getId());
+        row.properties = Collections.unmodifiableSet(readableProperties);
+        return row;
     }
 
-    public void addColumn(String propertyName, String key, Object value, long timestamp, Visibility visibility) {
-        propertiesLock.writeLock().lock();
-        try {
-            InMemoryProperty prop = new InMemoryProperty(propertyName, key, value, timestamp, visibility);
-            properties.remove(prop);
-            properties.add(prop);
-        } finally {
-            propertiesLock.writeLock().unlock();
-        }
+    public synchronized void addColumn(String propertyName, String key, Object value, long timestamp, Visibility visibility) {
+        InMemoryProperty prop = new InMemoryProperty(propertyName, key, value, timestamp, visibility);
+        Set<InMemoryProperty> newProperties = new HashSet<>(properties);
+        newProperties.remove(prop);
+        newProperties.add(prop);
+        properties = Collections.unmodifiableSet(newProperties);
     }
 
-    public void removeColumn(String columnName, String key, Visibility visibility) {
-        propertiesLock.writeLock().lock();
-        try {
-            properties.removeIf(p ->
-                    p.getName().equals(columnName)
-                            && p.getVisibility().equals(visibility)
-                            && ((key == null && p.getKey() == null) || (key != null && key.equals(p.getKey())))
-            );
-        } finally {
-            propertiesLock.writeLock().unlock();
+    public synchronized void removeColumn(String columnName, String key, Visibility visibility) {
+        Set<InMemoryProperty> newProperties = new HashSet<>(properties);
+        boolean removed = newProperties.removeIf(p ->
+                p.getName().equals(columnName)
+                        && p.getVisibility().equals(visibility)
+                        && ((key == null && p.getKey() == null) || (key != null && key.equals(p.getKey())))
+        );
+        if (removed) {
+            properties = Collections.unmodifiableSet(newProperties);
         }
     }
 
     @Override
     public Iterable<Property> getProperties() {
-        propertiesLock.readLock().lock();
-        try {
-            return this.properties.stream().map(p -> (Property) p).collect(Collectors.toList());
-        } finally {
-            propertiesLock.readLock().unlock();
-        }
+        return new ArrayList<Property>(this.properties);
     }
 
     private static class InMemoryProperty extends Property {
@@ -90,7 +71,6 @@ public class InMemoryExtendedDataRow extends ExtendedDataRowBase {
         private final long timestamp;
         private final Object value;
         private final Visibility visibility;
-        private final ColumnVisibility columnVisibility;
 
         public InMemoryProperty(String name, String key, Object value, long timestamp, Visibility visibility) {
             this.name = name;
@@ -98,15 +78,10 @@ public class InMemoryExtendedDataRow extends ExtendedDataRowBase {
             this.value = value;
             this.timestamp = timestamp;
             this.visibility = visibility;
-            this.columnVisibility = new ColumnVisibility(visibility.getVisibilityString());
         }
 
-        public boolean canRead(VisibilityEvaluator visibilityEvaluator) {
-            try {
-                return visibilityEvaluator.evaluate(columnVisibility);
-            } catch (VisibilityParseException e) {
-                throw new VertexiumException("could not evaluate visibility " + visibility.getVisibilityString(), e);
-            }
+        public boolean canRead(CachingVisibilityEvaluator visibilityEvaluator) {
+            return visibilityEvaluator.canRead(visibility);
         }
 
         @Override
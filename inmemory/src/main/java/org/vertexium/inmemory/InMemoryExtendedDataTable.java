@@ -29,4 +29,12 @@ public abstract class InMemoryExtendedDataTable {
     public abstract void remove(ExtendedDataRowId id);
 
     public abstract void removeColumn(ExtendedDataRowId extendedDataRowId, String columnName, String key, Visibility visibility);
+
+    /**
+     * Gets every row of every element, used to persist the extended data of an {@link InMemoryGraph}. Tables which
+     * are stored elsewhere do not need to support this.
+     */
+    public Iterable<InMemoryExtendedDataRow> getAllRows() {
+        throw new VertexiumException("Reading all rows is not supported by " + getClass().getName());
+    }
 }
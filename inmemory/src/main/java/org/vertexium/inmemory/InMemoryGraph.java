@@ -9,6 +9,8 @@ import org.vertexium.inmemory.mutations.AlterEdgeLabelMutation;
 import org.vertexium.inmemory.mutations.AlterVisibilityMutation;
 import org.vertexium.inmemory.mutations.EdgeSetupMutation;
 import org.vertexium.inmemory.mutations.ElementTimestampMutation;
+import org.vertexium.inmemory.persistence.InMemoryGraphPersistence;
+import org.vertexium.inmemory.search.InMemorySearchIndex;
 import org.vertexium.mutation.AlterPropertyVisibility;
 import org.vertexium.mutation.ExtendedDataDeleteMutation;
 import org.vertexium.mutation.SetPropertyMetadata;
@@ -19,10 +21,8 @@ import org.vertexium.search.SearchIndex;
 import org.vertexium.util.*;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 import static org.vertexium.util.Preconditions.checkNotNull;
-import static org.vertexium.util.StreamUtils.stream;
 
 public class InMemoryGraph extends GraphBaseWithSearchIndex {
     protected static final InMemoryGraphConfiguration DEFAULT_CONFIGURATION =
@@ -32,6 +32,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     private final InMemoryEdgeTable edges;
     private final InMemoryExtendedDataTable extendedDataTable;
     private final GraphMetadataStore graphMetadataStore;
+    private final InMemoryGraphPersistence persistence;
 
     protected InMemoryGraph(InMemoryGraphConfiguration configuration) {
         this(
@@ -62,8 +63,10 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         super(configuration);
         this.vertices = vertices;
         this.edges = edges;
-        this.extendedDataTable = extendedDataTable;
-        this.graphMetadataStore = newGraphMetadataStore(configuration);
+        GraphMetadataStore graphMetadataStore = newGraphMetadataStore(configuration);
+        this.persistence = newPersistence(configuration, vertices, edges, extendedDataTable, graphMetadataStore);
+        this.extendedDataTable = persistence == null ? extendedDataTable : persistence.getExtendedDataTable();
+        this.graphMetadataStore = persistence == null ? graphMetadataStore : persistence.getGraphMetadataStore();
     }
 
     protected InMemoryGraph(
@@ -77,14 +80,54 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         super(configuration, idGenerator, searchIndex);
         this.vertices = vertices;
         this.edges = edges;
-        this.extendedDataTable = extendedDataTable;
-        this.graphMetadataStore = newGraphMetadataStore(configuration);
+        GraphMetadataStore graphMetadataStore = newGraphMetadataStore(configuration);
+        this.persistence = newPersistence(configuration, vertices, edges, extendedDataTable, graphMetadataStore);
+        this.extendedDataTable = persistence == null ? extendedDataTable : persistence.getExtendedDataTable();
+        this.graphMetadataStore = persistence == null ? graphMetadataStore : persistence.getGraphMetadataStore();
     }
 
     protected GraphMetadataStore newGraphMetadataStore(GraphConfiguration configuration) {
         return new InMemoryGraphMetadataStore();
     }
 
+    /**
+     * @return the persistence of the graph or null if {@link InMemoryGraphConfiguration#PERSISTENCE_DIRECTORY} isn't
+     * set and the graph is only kept in memory.
+     */
+    protected InMemoryGraphPersistence newPersistence(
+            InMemoryGraphConfiguration configuration,
+            InMemoryVertexTable vertices,
+            InMemoryEdgeTable edges,
+            InMemoryExtendedDataTable extendedDataTable,
+            GraphMetadataStore graphMetadataStore
+    ) {
+        if (configuration.getPersistenceDirectory() == null) {
+            return null;
+        }
+        return new InMemoryGraphPersistence(configuration, vertices, edges, extendedDataTable, graphMetadataStore);
+    }
+
+    @Override
+    protected void setup() {
+        if (persistence != null) {
+            persistence.open();
+            if (getSearchIndex() instanceof InMemorySearchIndex) {
+                InMemorySearchIndex searchIndex = (InMemorySearchIndex) getSearchIndex();
+                searchIndex.reindexElements(this, ElementType.VERTEX, getRowIds(vertices));
+                searchIndex.reindexElements(this, ElementType.EDGE, getRowIds(edges));
+            }
+        }
+        super.setup();
+    }
+
+    private static List<String> getRowIds(InMemoryTable<?> table) {
+        List<String> ids = new ArrayList<>();
+        for (InMemoryTableElement<?> row : table.getRowValues()) {
+            ids.add(row.getId());
+        }
+        return ids;
+    }
+
     @SuppressWarnings("unused")
     public static InMemoryGraph create() {
         return create(DEFAULT_CONFIGURATION);
@@ -499,102 +542,25 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         return new InMemoryAuthorizations(auths);
     }
 
-    @Override
-    protected void findPathsRecursive(
-            FindPathOptions options,
-            List<Path> foundPaths,
-            Vertex sourceVertex,
-            Vertex destVertex,
-            int hops,
-            Set<String> seenVertices,
-            Path currentPath,
-            ProgressCallback progressCallback,
-            Authorizations authorizations
-    ) {
-        findPathsRecursive(
-                options,
-                foundPaths,
-                sourceVertex.getId(),
-                destVertex.getId(),
-                hops,
-                seenVertices,
-                currentPath,
-                progressCallback,
-                authorizations
-        );
-    }
-
-    protected void findPathsRecursive(
-            FindPathOptions options,
-            List<Path> foundPaths,
-            String sourceVertexId,
-            String destVertexId,
-            int hops,
-            Set<String> seenVertices,
-            Path currentPath,
-            ProgressCallback progressCallback,
+    protected Iterable<Edge> getEdgesFromVertex(
+            String vertexId,
+            FetchHints fetchHints,
+            Long endTime,
             Authorizations authorizations
     ) {
-        // if this is our first source vertex report progress back to the progress callback
-        boolean firstLevelRecursion = hops == options.getMaxHops();
-
-        if (options.isGetAnyPath() && foundPaths.size() == 1) {
-            return;
-        }
-
-        seenVertices.add(sourceVertexId);
-        if (sourceVertexId.equals(destVertexId)) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Stream<Edge> edges = stream(getEdgesFromVertex(sourceVertexId, getDefaultFetchHints(), null, authorizations))
-                    .filter(edge -> {
-                        if (options.getExcludedLabels() != null) {
-                            if (ArrayUtils.contains(options.getExcludedLabels(), edge.getLabel())) {
-                                return false;
-                            }
-                        }
-                        return options.getLabels() == null || ArrayUtils.contains(options.getLabels(), edge.getLabel());
-                    });
-            List<String> vertexIds = new ArrayList<>();
-            edges.forEach(edge -> {
-                if (edge.getOtherVertex(sourceVertexId, FetchHints.NONE, authorizations) != null) {
-                    vertexIds.add(edge.getOtherVertexId(sourceVertexId));
-                }
-            });
-
-            int vertexCount = 0;
-            if (firstLevelRecursion) {
-                vertexCount = vertexIds.size();
-            }
-            int i = 0;
-            for (String childId : vertexIds) {
-                if (firstLevelRecursion) {
-                    // this will never get to 100% since i starts at 0. which is good. 100% signifies done and we still
-                    // have work to do.
-                    double progress = (double) i / (double) vertexCount;
-                    progressCallback.progress(progress, ProgressCallback.Step.SEARCHING_EDGES, i + 1, vertexCount);
-                }
-                if (!seenVertices.contains(childId)) {
-                    findPathsRecursive(
-                            options,
-                            foundPaths,
-                            childId,
-                            destVertexId,
-                            hops - 1,
-                            seenVertices,
-                            new Path(currentPath, childId),
-                            progressCallback,
-                            authorizations
-                    );
-                }
-                i++;
-            }
-        }
-        seenVertices.remove(sourceVertexId);
+        return getEdgesFromVertex(vertexId, Direction.BOTH, null, fetchHints, endTime, authorizations);
     }
 
+    /**
+     * Gets the edges of a vertex using the vertex edge index of the edge table, only the edges of the vertex in the
+     * given direction with one of the given labels are read.
+     *
+     * @param labels the labels to include or null to include all labels.
+     */
     protected Iterable<Edge> getEdgesFromVertex(
             String vertexId,
+            Direction direction,
+            String[] labels,
             FetchHints fetchHints,
             Long endTime,
             Authorizations authorizations
@@ -606,14 +572,12 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
                     return false; // edge deleted or outside of time range
                 }
 
-                EdgeSetupMutation edgeSetupMutation = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class);
-                String inVertexId = edgeSetupMutation.getInVertexId();
-                checkNotNull(inVertexId, "inVertexId was null");
-                String outVertexId = edgeSetupMutation.getOutVertexId();
-                checkNotNull(outVertexId, "outVertexId was null");
+                // the index keeps edges under labels they no longer have
+                if (labels != null && !ArrayUtils.contains(labels, edge.getLabel())) {
+                    return false;
+                }
 
-                return (inVertexId.equals(vertexId) || outVertexId.equals(vertexId)) &&
-                        InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
+                return InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
             }
 
             @Override
@@ -623,7 +587,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
 
             @Override
             protected Iterator<InMemoryTableEdge> createIterator() {
-                return edges.getAllTableElements().iterator();
+                return edges.getTableElementsForVertex(vertexId, direction, labels).iterator();
             }
         };
     }
@@ -834,7 +798,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     }
 
     protected void alterEdgeLabel(InMemoryTableEdge inMemoryTableEdge, long timestamp, String newEdgeLabel) {
-        inMemoryTableEdge.appendAlterEdgeLabelMutation(timestamp, newEdgeLabel);
+        edges.alterEdgeLabel(inMemoryTableEdge, timestamp, newEdgeLabel);
     }
 
     protected void deleteProperty(
@@ -936,4 +900,20 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     public void flushGraph() {
         // no need to do anything here
     }
+
+    @Override
+    public void flush() {
+        super.flush();
+        if (persistence != null) {
+            persistence.flush();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (persistence != null) {
+            persistence.close();
+        }
+    }
 }
@@ -2,10 +2,49 @@ package org.vertexium.inmemory;
 
 import org.vertexium.GraphConfiguration;
 
+import java.io.File;
 import java.util.Map;
 
 public class InMemoryGraphConfiguration extends GraphConfiguration {
+    public static final String PERSISTENCE_DIRECTORY = "persistence.directory";
+    public static final String DEFAULT_PERSISTENCE_DIRECTORY = null;
+    public static final String PERSISTENCE_LOG_SEGMENT_SIZE = "persistence.logSegmentSize";
+    public static final int DEFAULT_PERSISTENCE_LOG_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final String PERSISTENCE_FORCE_WRITES = "persistence.forceWrites";
+    public static final boolean DEFAULT_PERSISTENCE_FORCE_WRITES = false;
+    public static final String PERSISTENCE_SNAPSHOT_INTERVAL_SECONDS = "persistence.snapshotIntervalSeconds";
+    public static final int DEFAULT_PERSISTENCE_SNAPSHOT_INTERVAL_SECONDS = 10 * 60;
+
     public InMemoryGraphConfiguration(Map<String, Object> config) {
         super(config);
     }
+
+    /**
+     * The directory the mutation log and snapshots of the graph are written to, or null to keep the graph only in
+     * memory. The valid authorizations of the graph are not persisted, they need to be added again with
+     * {@link InMemoryGraph#createAuthorizations(String...)} after the graph is recovered.
+     */
+    public File getPersistenceDirectory() {
+        String directory = getString(PERSISTENCE_DIRECTORY, DEFAULT_PERSISTENCE_DIRECTORY);
+        return directory == null ? null : new File(directory);
+    }
+
+    public int getPersistenceLogSegmentSize() {
+        return getInt(PERSISTENCE_LOG_SEGMENT_SIZE, DEFAULT_PERSISTENCE_LOG_SEGMENT_SIZE);
+    }
+
+    /**
+     * If true every mutation is forced to disk before returning, otherwise mutations survive the process exiting but
+     * not the machine crashing until {@link InMemoryGraph#flush()} is called.
+     */
+    public boolean isPersistenceForceWrites() {
+        return getBoolean(PERSISTENCE_FORCE_WRITES, DEFAULT_PERSISTENCE_FORCE_WRITES);
+    }
+
+    /**
+     * How often a snapshot is written in the background if anything changed, 0 to only write a snapshot on shutdown.
+     */
+    public int getPersistenceSnapshotIntervalSeconds() {
+        return getInt(PERSISTENCE_SNAPSHOT_INTERVAL_SECONDS, DEFAULT_PERSISTENCE_SNAPSHOT_INTERVAL_SECONDS);
+    }
 }
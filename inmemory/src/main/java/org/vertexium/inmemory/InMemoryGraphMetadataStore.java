@@ -50,4 +50,14 @@ public class InMemoryGraphMetadataStore extends GraphMetadataStore implements Se
             metadataLock.writeLock().unlock();
         }
     }
+
+    @Override
+    public void removeMetadata(String key) {
+        metadataLock.writeLock().lock();
+        try {
+            this.metadata.remove(key);
+        } finally {
+            metadataLock.writeLock().unlock();
+        }
+    }
 }
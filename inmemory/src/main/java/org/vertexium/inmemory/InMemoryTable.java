@@ -15,6 +15,7 @@ import java.util.stream.Collectors;
 public abstract class InMemoryTable<TElement extends InMemoryElement> {
     private ReadWriteLock rowsLock = new ReentrantReadWriteLock();
     private Map<String, InMemoryTableElement<TElement>> rows;
+    private InMemoryTableListener listener;
 
     protected InMemoryTable(Map<String, InMemoryTableElement<TElement>> rows) {
         this.rows = rows;
@@ -24,6 +25,23 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
         this(new ConcurrentSkipListMap<>());
     }
 
+    /**
+     * Sets the listener notified of every change made to the rows of this table, including rows already in the table.
+     *
+     * @param listener the listener or null to stop notifying.
+     */
+    public void setListener(InMemoryTableListener listener) {
+        rowsLock.writeLock().lock();
+        try {
+            this.listener = listener;
+            for (InMemoryTableElement<TElement> row : rows.values()) {
+                row.setListener(listener);
+            }
+        } finally {
+            rowsLock.writeLock().unlock();
+        }
+    }
+
     public TElement get(InMemoryGraph graph, String id, FetchHints fetchHints, Authorizations authorizations) {
         InMemoryTableElement<TElement> inMemoryTableElement = getTableElement(id);
         if (inMemoryTableElement == null) {
@@ -47,9 +65,11 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
             InMemoryTableElement<TElement> inMemoryTableElement = rows.get(id);
             if (inMemoryTableElement == null) {
                 inMemoryTableElement = createInMemoryTableElement(id);
+                inMemoryTableElement.setListener(listener);
                 rows.put(id, inMemoryTableElement);
             }
             inMemoryTableElement.addAll(newMutations);
+            onAppend(inMemoryTableElement, newMutations);
         } finally {
             rowsLock.writeLock().unlock();
         }
@@ -57,10 +77,32 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
 
     protected abstract InMemoryTableElement<TElement> createInMemoryTableElement(String id);
 
+    /**
+     * Called while holding the rows write lock after mutations have been appended to a row.
+     */
+    protected void onAppend(InMemoryTableElement<TElement> inMemoryTableElement, Mutation[] newMutations) {
+    }
+
+    /**
+     * Called while holding the rows write lock after a row has been removed.
+     */
+    protected void onRemove(String id) {
+    }
+
+    /**
+     * Called while holding the rows write lock after all rows have been removed.
+     */
+    protected void onClear() {
+    }
+
     public void remove(String id) {
         rowsLock.writeLock().lock();
         try {
             rows.remove(id);
+            onRemove(id);
+            if (listener != null) {
+                listener.rowRemoved(id);
+            }
         } finally {
             rowsLock.writeLock().unlock();
         }
@@ -70,6 +112,10 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
         rowsLock.writeLock().lock();
         try {
             rows.clear();
+            onClear();
+            if (listener != null) {
+                listener.cleared();
+            }
         } finally {
             rowsLock.writeLock().unlock();
         }
@@ -14,6 +14,7 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -21,6 +22,8 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     private final String id;
     private ReadWriteLock mutationLock= new ReentrantReadWriteLock();
     private TreeSet<Mutation> mutations = new TreeSet<>();
+    private transient volatile InMemoryTableElementSnapshot snapshot = new InMemoryTableElementSnapshot();
+    private transient volatile InMemoryTableListener listener;
 
     protected InMemoryTableElement(String id) {
         this.id = id;
@@ -30,10 +33,23 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         return id;
     }
 
+    protected void setListener(InMemoryTableListener listener) {
+        this.listener = listener;
+    }
+
     public void addAll(Mutation... newMutations) {
         mutationLock.writeLock().lock();
         try {
             Collections.addAll(mutations, newMutations);
+            if (snapshot != null) {
+                for (Mutation m : newMutations) {
+                    snapshot.apply(m);
+                }
+            }
+            InMemoryTableListener listener = this.listener;
+            if (listener != null) {
+                listener.mutationsAdded(id, newMutations);
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -44,12 +60,18 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     protected <T extends Mutation> T findLastMutation(Class<T> clazz) {
+        if (InMemoryTableElementSnapshot.isTrackedByType(clazz)) {
+            return readSnapshot(s -> s.findLastMutation(clazz));
+        }
         List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
         //noinspection unchecked
         return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(filteredMutations.size() - 1);
     }
 
     protected <T extends Mutation> T findFirstMutation(Class<T> clazz) {
+        if (InMemoryTableElementSnapshot.isTrackedByType(clazz)) {
+            return readSnapshot(s -> s.findFirstMutation(clazz));
+        }
         List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
         //noinspection unchecked
         return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(0);
@@ -77,6 +99,14 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Property getProperty(String key, String name, Visibility visibility, FetchHints fetchHints, Authorizations authorizations) {
+        if (key != null && name != null && visibility != null) {
+            InMemoryTableElementSnapshot.PropertySnapshot propertySnapshot = readSnapshot(s -> s.getProperty(key, name, visibility));
+            if (propertySnapshot == null) {
+                return null;
+            }
+            return toProperty(propertySnapshot, fetchHints, authorizations);
+        }
+
         List<PropertyMutation> propertyMutations = findPropertyMutations(key, name, visibility);
         if (propertyMutations == null || propertyMutations.size() == 0) {
             return null;
@@ -97,6 +127,13 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         mutationLock.writeLock().lock();
         try {
             this.mutations.removeAll(propertyMutations);
+            if (snapshot != null) {
+                snapshot.removeProperty(p.getKey(), p.getName(), p.getVisibility());
+            }
+            InMemoryTableListener listener = this.listener;
+            if (listener != null) {
+                listener.propertyDeleted(id, p.getKey(), p.getName(), p.getVisibility());
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -193,6 +230,26 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Iterable<Property> getProperties(final FetchHints fetchHints, Long endTime, final Authorizations authorizations) {
+        if (endTime == null) {
+            final List<InMemoryTableElementSnapshot.PropertySnapshot> propertySnapshots = readSnapshot(InMemoryTableElementSnapshot::getProperties);
+            return new LookAheadIterable<InMemoryTableElementSnapshot.PropertySnapshot, Property>() {
+                @Override
+                protected boolean isIncluded(InMemoryTableElementSnapshot.PropertySnapshot src, Property property) {
+                    return property != null;
+                }
+
+                @Override
+                protected Property convert(InMemoryTableElementSnapshot.PropertySnapshot propertySnapshot) {
+                    return toProperty(propertySnapshot, fetchHints, authorizations);
+                }
+
+                @Override
+                protected Iterator<InMemoryTableElementSnapshot.PropertySnapshot> createIterator() {
+                    return propertySnapshots.iterator();
+                }
+            };
+        }
+
         final TreeMap<String, List<PropertyMutation>> propertiesMutations = new TreeMap<>();
         for (PropertyMutation m : findMutations(PropertyMutation.class)) {
             if (endTime != null && m.getTimestamp() > endTime) {
@@ -275,6 +332,80 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         return new MutablePropertyImpl(propertyKey, propertyName, value, metadata, timestamp, hiddenVisibilities, visibility, fetchHints);
     }
 
+    /**
+     * Same as {@link #toProperty(List, FetchHints, Authorizations)} but computed from the materialized state of the
+     * property instead of replaying each of its mutations.
+     */
+    private Property toProperty(InMemoryTableElementSnapshot.PropertySnapshot propertySnapshot, FetchHints fetchHints, Authorizations authorizations) {
+        boolean canReadProperty = canRead(propertySnapshot.getVisibility(), authorizations);
+        boolean found = false;
+        Object value = null;
+        Metadata metadata = null;
+        long timestamp = 0;
+        boolean softDeleted = false;
+
+        AddPropertyValueMutation lastAddPropertyValueMutation = propertySnapshot.getLastAddPropertyValueMutation();
+        SoftDeletePropertyMutation lastSoftDeletePropertyMutation = propertySnapshot.getLastSoftDeletePropertyMutation();
+        if (canReadProperty) {
+            PropertyMutation lastMetadataMutation = propertySnapshot.getLastMetadataMutation();
+            if (lastAddPropertyValueMutation != null) {
+                found = true;
+                value = lastAddPropertyValueMutation.getValue();
+                timestamp = Math.max(timestamp, lastAddPropertyValueMutation.getTimestamp());
+            }
+            if (lastMetadataMutation != null) {
+                found = true;
+                metadata = propertySnapshot.getMetadata();
+                timestamp = Math.max(timestamp, lastMetadataMutation.getTimestamp());
+            }
+        }
+        if (lastSoftDeletePropertyMutation != null) {
+            found = true;
+            timestamp = Math.max(timestamp, lastSoftDeletePropertyMutation.getTimestamp());
+            softDeleted = !canReadProperty
+                    || lastAddPropertyValueMutation == null
+                    || lastSoftDeletePropertyMutation.compareTo(lastAddPropertyValueMutation) > 0;
+        }
+
+        Set<Visibility> hiddenVisibilities = new HashSet<>();
+        PropertyMutation lastHiddenMutation = null;
+        for (PropertyMutation m : propertySnapshot.getLastHiddenMutations()) {
+            if (!canRead(m.getVisibility(), authorizations)) {
+                continue;
+            }
+            found = true;
+            timestamp = Math.max(timestamp, m.getTimestamp());
+            if (m instanceof MarkPropertyHiddenMutation) {
+                hiddenVisibilities.add(m.getVisibility());
+            }
+            if (lastHiddenMutation == null || m.compareTo(lastHiddenMutation) > 0) {
+                lastHiddenMutation = m;
+            }
+        }
+        boolean hidden = lastHiddenMutation instanceof MarkPropertyHiddenMutation;
+
+        if (softDeleted) {
+            return null;
+        }
+        if (!fetchHints.isIncludeHidden() && hidden) {
+            return null;
+        }
+        if (!found) {
+            return null;
+        }
+        value = loadIfStreamingPropertyValue(value, timestamp);
+        return new MutablePropertyImpl(
+                propertySnapshot.getKey(),
+                propertySnapshot.getName(),
+                value,
+                metadata,
+                timestamp,
+                hiddenVisibilities,
+                propertySnapshot.getVisibility(),
+                fetchHints
+        );
+    }
+
     private Object loadIfStreamingPropertyValue(Object value, long timestamp) {
         if (value instanceof StreamingPropertyValueRef) {
             value = loadStreamingPropertyValue((StreamingPropertyValueRef) value, timestamp);
@@ -398,21 +529,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Set<Visibility> getHiddenVisibilities() {
-        Set<Visibility> results = new HashSet<>();
-
-        mutationLock.readLock().lock();
-        try {
-            for (Mutation m : this.mutations) {
-                if (m instanceof MarkHiddenMutation) {
-                    results.add(m.getVisibility());
-                } else if (m instanceof MarkVisibleMutation) {
-                    results.remove(m.getVisibility());
-                }
-            }
-        } finally {
-            mutationLock.readLock().unlock();
-        }
-        return results;
+        return readSnapshot(InMemoryTableElementSnapshot::getHiddenVisibilities);
     }
 
     public boolean isHidden(Authorizations authorizations) {
@@ -439,6 +556,10 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public boolean isDeleted(Long endTime, Authorizations authorizations) {
+        if (endTime == null) {
+            // soft delete and timestamp mutations are always visible so authorizations do not need to be checked
+            return readSnapshot(InMemoryTableElementSnapshot::isDeleted);
+        }
         List<Mutation> filteredMutations = getFilteredMutations(m ->
                 canRead(m.getVisibility(), authorizations) &&
                         (endTime == null || m.getTimestamp() <= endTime) &&
@@ -464,8 +585,59 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         mutationLock.writeLock().lock();
         try {
             this.mutations.add(mutation);
+            if (snapshot != null) {
+                snapshot.apply(mutation);
+            }
+            InMemoryTableListener listener = this.listener;
+            if (listener != null) {
+                listener.mutationsAdded(id, new Mutation[]{mutation});
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
     }
+
+    /**
+     * Calls the given function with the mutations of this element while they can't be changed, nothing is reported to
+     * the {@link InMemoryTableListener} of the element until the function returns.
+     */
+    public <T> T readMutations(Function<Collection<Mutation>, T> fn) {
+        mutationLock.readLock().lock();
+        try {
+            return fn.apply(Collections.unmodifiableCollection(mutations));
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+    }
+
+    private <T> T readSnapshot(Function<InMemoryTableElementSnapshot, T> fn) {
+        InMemoryTableElementSnapshot s = getSnapshot();
+        mutationLock.readLock().lock();
+        try {
+            return fn.apply(s);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+    }
+
+    private InMemoryTableElementSnapshot getSnapshot() {
+        InMemoryTableElementSnapshot result = snapshot;
+        if (result == null) {
+            // the snapshot is transient so it needs to be rebuilt after the element is deserialized
+            mutationLock.writeLock().lock();
+            try {
+                if (snapshot == null) {
+                    InMemoryTableElementSnapshot newSnapshot = new InMemoryTableElementSnapshot();
+                    for (Mutation m : this.mutations) {
+                        newSnapshot.apply(m);
+                    }
+                    snapshot = newSnapshot;
+                }
+                result = snapshot;
+            } finally {
+                mutationLock.writeLock().unlock();
+            }
+        }
+        return result;
+    }
 }
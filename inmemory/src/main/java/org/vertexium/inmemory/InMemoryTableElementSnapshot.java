@@ -0,0 +1,223 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Metadata;
+import org.vertexium.VertexiumException;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.mutations.*;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+
+/**
+ * The latest state of an {@link InMemoryTableElement} materialized from its mutations. Each new mutation is applied
+ * in place so that reads at the current time do not need to replay the full mutation history of the element.
+ * <p>
+ * Only the mutations which could still affect the outcome of a read are kept (e.g. the last mutation of each type,
+ * the last hidden/visible mutation per visibility). Reads with an end time or of historical values still go through
+ * the full mutation list.
+ * <p>
+ * This class is not thread safe, callers are expected to guard it with the mutation lock of the owning element.
+ */
+class InMemoryTableElementSnapshot {
+    private final Map<Class<? extends Mutation>, Mutation> firstMutationsByType = new HashMap<>();
+    private final Map<Class<? extends Mutation>, Mutation> lastMutationsByType = new HashMap<>();
+    private final Map<Visibility, Mutation> lastHiddenMutations = new HashMap<>();
+    private final TreeMap<String, PropertySnapshot> properties = new TreeMap<>();
+    private Mutation lastExistenceMutation;
+
+    public void apply(Mutation mutation) {
+        if (mutation instanceof PropertyMutation) {
+            PropertyMutation propertyMutation = (PropertyMutation) mutation;
+            properties.compute(
+                    toMapKey(propertyMutation.getPropertyName(), propertyMutation.getPropertyKey(), propertyMutation.getPropertyVisibility()),
+                    (k, existing) -> (existing == null ? new PropertySnapshot(propertyMutation) : existing).withMutation(propertyMutation)
+            );
+            return;
+        }
+
+        firstMutationsByType.merge(mutation.getClass(), mutation, InMemoryTableElementSnapshot::first);
+        lastMutationsByType.merge(mutation.getClass(), mutation, InMemoryTableElementSnapshot::last);
+        if (mutation instanceof MarkHiddenMutation || mutation instanceof MarkVisibleMutation) {
+            lastHiddenMutations.merge(mutation.getVisibility(), mutation, InMemoryTableElementSnapshot::last);
+        }
+        if (mutation instanceof SoftDeleteMutation || mutation instanceof ElementTimestampMutation) {
+            lastExistenceMutation = last(lastExistenceMutation, mutation);
+        }
+    }
+
+    /**
+     * Property mutations are grouped per property and are not tracked by type.
+     */
+    public static boolean isTrackedByType(Class<? extends Mutation> clazz) {
+        return !clazz.isAssignableFrom(PropertyMutation.class) && !PropertyMutation.class.isAssignableFrom(clazz);
+    }
+
+    public <T extends Mutation> T findFirstMutation(Class<T> clazz) {
+        return findMutation(firstMutationsByType, clazz, InMemoryTableElementSnapshot::first);
+    }
+
+    public <T extends Mutation> T findLastMutation(Class<T> clazz) {
+        return findMutation(lastMutationsByType, clazz, InMemoryTableElementSnapshot::last);
+    }
+
+    private static <T extends Mutation> T findMutation(
+            Map<Class<? extends Mutation>, Mutation> mutationsByType,
+            Class<T> clazz,
+            BinaryOperator<Mutation> reducer
+    ) {
+        Mutation result = null;
+        for (Map.Entry<Class<? extends Mutation>, Mutation> entry : mutationsByType.entrySet()) {
+            if (clazz.isAssignableFrom(entry.getKey())) {
+                result = result == null ? entry.getValue() : reducer.apply(result, entry.getValue());
+            }
+        }
+        //noinspection unchecked
+        return (T) result;
+    }
+
+    public boolean isDeleted() {
+        return lastExistenceMutation == null || lastExistenceMutation instanceof SoftDeleteMutation;
+    }
+
+    public Set<Visibility> getHiddenVisibilities() {
+        Set<Visibility> results = new HashSet<>();
+        for (Mutation m : lastHiddenMutations.values()) {
+            if (m instanceof MarkHiddenMutation) {
+                results.add(m.getVisibility());
+            }
+        }
+        return results;
+    }
+
+    public PropertySnapshot getProperty(String key, String name, Visibility visibility) {
+        return properties.get(toMapKey(name, key, visibility));
+    }
+
+    public List<PropertySnapshot> getProperties() {
+        return new ArrayList<>(properties.values());
+    }
+
+    public void removeProperty(String key, String name, Visibility visibility) {
+        properties.remove(toMapKey(name, key, visibility));
+    }
+
+    static String toMapKey(String propertyName, String propertyKey, Visibility propertyVisibility) {
+        return propertyName + propertyKey + propertyVisibility.getVisibilityString();
+    }
+
+    private static Mutation first(Mutation a, Mutation b) {
+        if (a == null) {
+            return b;
+        }
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static <T extends Mutation> T last(T a, T b) {
+        if (a == null) {
+            return b;
+        }
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    /**
+     * Immutable state of a single property (name, key and visibility). A new instance is created for each mutation so
+     * readers can safely use an instance after releasing the element's mutation lock.
+     */
+    static final class PropertySnapshot {
+        private final String key;
+        private final String name;
+        private final Visibility visibility;
+        private final AddPropertyValueMutation lastAddPropertyValueMutation;
+        private final PropertyMutation lastMetadataMutation;
+        private final SoftDeletePropertyMutation lastSoftDeletePropertyMutation;
+        private final Map<Visibility, PropertyMutation> lastHiddenMutations;
+
+        private PropertySnapshot(PropertyMutation m) {
+            this(m.getPropertyKey(), m.getPropertyName(), m.getPropertyVisibility(), null, null, null, Collections.emptyMap());
+        }
+
+        private PropertySnapshot(
+                String key,
+                String name,
+                Visibility visibility,
+                AddPropertyValueMutation lastAddPropertyValueMutation,
+                PropertyMutation lastMetadataMutation,
+                SoftDeletePropertyMutation lastSoftDeletePropertyMutation,
+                Map<Visibility, PropertyMutation> lastHiddenMutations
+        ) {
+            this.key = key;
+            this.name = name;
+            this.visibility = visibility;
+            this.lastAddPropertyValueMutation = lastAddPropertyValueMutation;
+            this.lastMetadataMutation = lastMetadataMutation;
+            this.lastSoftDeletePropertyMutation = lastSoftDeletePropertyMutation;
+            this.lastHiddenMutations = lastHiddenMutations;
+        }
+
+        private PropertySnapshot withMutation(PropertyMutation m) {
+            AddPropertyValueMutation newLastAddPropertyValueMutation = lastAddPropertyValueMutation;
+            PropertyMutation newLastMetadataMutation = lastMetadataMutation;
+            SoftDeletePropertyMutation newLastSoftDeletePropertyMutation = lastSoftDeletePropertyMutation;
+            Map<Visibility, PropertyMutation> newLastHiddenMutations = lastHiddenMutations;
+            if (m instanceof AddPropertyValueMutation) {
+                newLastAddPropertyValueMutation = last(lastAddPropertyValueMutation, (AddPropertyValueMutation) m);
+                newLastMetadataMutation = last(lastMetadataMutation, m);
+            } else if (m instanceof AddPropertyMetadataMutation) {
+                newLastMetadataMutation = last(lastMetadataMutation, m);
+            } else if (m instanceof SoftDeletePropertyMutation) {
+                newLastSoftDeletePropertyMutation = last(lastSoftDeletePropertyMutation, (SoftDeletePropertyMutation) m);
+            } else if (m instanceof MarkPropertyHiddenMutation || m instanceof MarkPropertyVisibleMutation) {
+                newLastHiddenMutations = new HashMap<>(lastHiddenMutations);
+                newLastHiddenMutations.merge(m.getVisibility(), m, InMemoryTableElementSnapshot::last);
+            } else {
+                throw new VertexiumException("Unhandled PropertyMutation: " + m.getClass().getName());
+            }
+            return new PropertySnapshot(
+                    key,
+                    name,
+                    visibility,
+                    newLastAddPropertyValueMutation,
+                    newLastMetadataMutation,
+                    newLastSoftDeletePropertyMutation,
+                    newLastHiddenMutations
+            );
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Visibility getVisibility() {
+            return visibility;
+        }
+
+        public AddPropertyValueMutation getLastAddPropertyValueMutation() {
+            return lastAddPropertyValueMutation;
+        }
+
+        public PropertyMutation getLastMetadataMutation() {
+            return lastMetadataMutation;
+        }
+
+        public Metadata getMetadata() {
+            if (lastMetadataMutation instanceof AddPropertyValueMutation) {
+                return ((AddPropertyValueMutation) lastMetadataMutation).getMetadata();
+            } else if (lastMetadataMutation instanceof AddPropertyMetadataMutation) {
+                return ((AddPropertyMetadataMutation) lastMetadataMutation).getMetadata();
+            }
+            return null;
+        }
+
+        public SoftDeletePropertyMutation getLastSoftDeletePropertyMutation() {
+            return lastSoftDeletePropertyMutation;
+        }
+
+        public Collection<PropertyMutation> getLastHiddenMutations() {
+            return lastHiddenMutations.values();
+        }
+    }
+}
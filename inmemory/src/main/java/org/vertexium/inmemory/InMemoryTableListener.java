@@ -0,0 +1,18 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.mutations.Mutation;
+
+/**
+ * Notified of every change made to the rows of an {@link InMemoryTable}. Changes to a row are reported while holding
+ * the lock of that row so the notifications of a row are in the same order as the changes.
+ */
+public interface InMemoryTableListener {
+    void mutationsAdded(String id, Mutation[] mutations);
+
+    void propertyDeleted(String id, String key, String name, Visibility visibility);
+
+    void rowRemoved(String id);
+
+    void cleared();
+}
@@ -49,7 +49,7 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
 
     @Override
     public Iterable<EdgeInfo> getEdgeInfos(Direction direction, final String[] labels, Authorizations authorizations) {
-        Iterable<EdgeInfo> results = new ConvertingIterable<Edge, EdgeInfo>(getEdges(direction, getFetchHints(), authorizations)) {
+        return new ConvertingIterable<Edge, EdgeInfo>(getEdges(direction, labels, getFetchHints(), authorizations)) {
             @Override
             protected EdgeInfo convert(Edge edge) {
                 return new EdgeInfo() {
@@ -77,20 +77,6 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
                 };
             }
         };
-        if (labels != null) {
-            results = new FilterIterable<EdgeInfo>(results) {
-                @Override
-                protected boolean isIncluded(EdgeInfo o) {
-                    for (String label : labels) {
-                        if (o.getLabel().equals(label)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                }
-            };
-        }
-        return results;
     }
 
     @Override
@@ -100,19 +86,7 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
 
     @Override
     public Iterable<Edge> getEdges(final Direction direction, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getGraph().getEdgesFromVertex(getId(), fetchHints, endTime, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                switch (direction) {
-                    case IN:
-                        return edge.getVertexId(Direction.IN).equals(getId());
-                    case OUT:
-                        return edge.getVertexId(Direction.OUT).equals(getId());
-                    default:
-                        return true;
-                }
-            }
-        };
+        return getGraph().getEdgesFromVertex(getId(), direction, null, fetchHints, endTime, authorizations);
     }
 
     @Override
@@ -142,20 +116,7 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
 
     @Override
     public Iterable<Edge> getEdges(Direction direction, final String[] labels, FetchHints fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                if (labels == null) {
-                    return true;
-                }
-                for (String label : labels) {
-                    if (label.equals(edge.getLabel())) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        };
+        return getGraph().getEdgesFromVertex(getId(), direction, labels, fetchHints, null, authorizations);
     }
 
     @Override
@@ -3,38 +3,63 @@ package org.vertexium.inmemory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.vertexium.*;
-import org.vertexium.security.VisibilityEvaluator;
 import org.vertexium.util.IterableUtils;
 import org.vertexium.util.StreamUtils;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
+/**
+ * Extended data kept in concurrent maps by element type, element, table and row.
+ * <p>
+ * Writes lock one of a fixed number of stripes chosen by the element the row belongs to, so writes to different
+ * elements run in parallel while writes to the same element, including removing a row, are serialized. Reads don't
+ * lock, rows replace their columns as a whole on every change so a read sees each row either before or after a write.
+ */
 public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
-    private Map<ElementType, ElementTypeData> elementTypeData = new HashMap<>();
+    public static final int DEFAULT_STRIPE_COUNT = 256;
+    private final Map<ElementType, ElementTypeData> elementTypeData = new EnumMap<>(ElementType.class);
+    private final Object[] stripes;
+
+    public MapInMemoryExtendedDataTable() {
+        this(DEFAULT_STRIPE_COUNT);
+    }
+
+    public MapInMemoryExtendedDataTable(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new VertexiumException("stripeCount must be greater than 0: " + stripeCount);
+        }
+        for (ElementType elementType : ElementType.values()) {
+            elementTypeData.put(elementType, new ElementTypeData());
+        }
+        stripes = new Object[stripeCount];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    private Object getStripe(ExtendedDataRowId rowId) {
+        int hash = rowId.getElementId().hashCode() * 31 + rowId.getElementType().ordinal();
+        hash ^= (hash >>> 16);
+        return stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+    }
 
     @Override
     public ImmutableSet<String> getTableNames(ElementType elementType, String elementId, Authorizations authorizations) {
-        ElementTypeData data = elementTypeData.get(elementType);
-        if (data == null) {
-            return ImmutableSet.of();
-        }
-        return data.getTableNames(elementId, authorizations);
+        return elementTypeData.get(elementType).getTableNames(elementId, authorizations);
     }
 
     @Override
     public Iterable<ExtendedDataRow> getTable(ElementType elementType, String elementId, String tableName, Authorizations authorizations) {
-        ElementTypeData data = elementTypeData.get(elementType);
-        if (data == null) {
-            return ImmutableList.of();
-        }
-        return data.getTable(elementId, tableName, authorizations);
+        return elementTypeData.get(elementType).getTable(elementId, tableName, authorizations);
     }
 
     @Override
-    public synchronized void addData(
+    public void addData(
             ExtendedDataRowId rowId,
             String column,
             String key,
@@ -42,28 +67,36 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             long timestamp,
             Visibility visibility
     ) {
-        ElementTypeData data = elementTypeData.computeIfAbsent(rowId.getElementType(), k -> new ElementTypeData());
-        data.addData(rowId, column, key, value, timestamp, visibility);
+        synchronized (getStripe(rowId)) {
+            elementTypeData.get(rowId.getElementType()).addData(rowId, column, key, value, timestamp, visibility);
+        }
     }
 
     @Override
     public void remove(ExtendedDataRowId rowId) {
-        ElementTypeData data = elementTypeData.get(rowId.getElementType());
-        if (data != null) {
-            data.removeData(rowId);
+        synchronized (getStripe(rowId)) {
+            elementTypeData.get(rowId.getElementType()).removeData(rowId);
         }
     }
 
     @Override
     public void removeColumn(ExtendedDataRowId rowId, String columnName, String key, Visibility visibility) {
-        ElementTypeData data = elementTypeData.get(rowId.getElementType());
-        if (data != null) {
-            data.removeColumn(rowId, columnName, key, visibility);
+        synchronized (getStripe(rowId)) {
+            elementTypeData.get(rowId.getElementType()).removeColumn(rowId, columnName, key, visibility);
         }
     }
 
+    @Override
+    public Iterable<InMemoryExtendedDataRow> getAllRows() {
+        List<InMemoryExtendedDataRow> results = new ArrayList<>();
+        for (ElementTypeData data : elementTypeData.values()) {
+            data.addAllRows(results);
+        }
+        return results;
+    }
+
     private static class ElementTypeData {
-        Map<String, ElementData> elementData = new HashMap<>();
+        private final ConcurrentMap<String, ElementData> elementData = new ConcurrentHashMap<>();
 
         public ImmutableSet<String> getTableNames(String elementId, Authorizations authorizations) {
             ElementData data = elementData.get(elementId);
@@ -81,7 +114,7 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             return data.getTable(tableName, authorizations);
         }
 
-        public synchronized void addData(
+        public void addData(
                 ExtendedDataRowId rowId,
                 String column,
                 String key,
@@ -93,6 +126,12 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             data.addData(rowId, column, key, value, timestamp, visibility);
         }
 
+        public void addAllRows(List<InMemoryExtendedDataRow> results) {
+            for (ElementData data : elementData.values()) {
+                data.addAllRows(results);
+            }
+        }
+
         public void removeData(ExtendedDataRowId rowId) {
             ElementData data = elementData.get(rowId.getElementId());
             if (data != null) {
@@ -109,10 +148,10 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
     }
 
     private static class ElementData {
-        private final Map<String, Table> tables = new HashMap<>();
+        private final ConcurrentMap<String, Table> tables = new ConcurrentHashMap<>();
 
         public ImmutableSet<String> getTableNames(Authorizations authorizations) {
-            VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new org.vertexium.security.Authorizations(authorizations.getAuthorizations()));
+            CachingVisibilityEvaluator visibilityEvaluator = CachingVisibilityEvaluator.get(authorizations);
             return tables.entrySet().stream()
                     .filter(entry -> entry.getValue().canRead(visibilityEvaluator))
                     .map(Map.Entry::getKey)
@@ -120,7 +159,7 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
         }
 
         public Iterable<ExtendedDataRow> getTable(String tableName, Authorizations authorizations) {
-            VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new org.vertexium.security.Authorizations(authorizations.getAuthorizations()));
+            CachingVisibilityEvaluator visibilityEvaluator = CachingVisibilityEvaluator.get(authorizations);
             Table table = tables.get(tableName);
             if (table == null) {
                 throw new VertexiumException("Invalid table '" + tableName + "'");
@@ -132,7 +171,7 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             return rows;
         }
 
-        public synchronized void addData(
+        public void addData(
                 ExtendedDataRowId rowId,
                 String column,
                 String key,
@@ -144,6 +183,12 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             table.addData(rowId, column, key, value, timestamp, visibility);
         }
 
+        public void addAllRows(List<InMemoryExtendedDataRow> results) {
+            for (Table table : tables.values()) {
+                results.addAll(table.rows.values());
+            }
+        }
+
         public void removeData(ExtendedDataRowId rowId) {
             Table table = tables.get(rowId.getTableName());
             if (table != null) {
@@ -159,17 +204,17 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
         }
 
         private class Table {
-            private final TreeSet<InMemoryExtendedDataRow> rows = new TreeSet<>();
+            private final ConcurrentNavigableMap<ExtendedDataRowId, InMemoryExtendedDataRow> rows = new ConcurrentSkipListMap<>();
 
-            public Iterable<ExtendedDataRow> getRows(VisibilityEvaluator visibilityEvaluator) {
-                return rows.stream()
+            public Iterable<ExtendedDataRow> getRows(CachingVisibilityEvaluator visibilityEvaluator) {
+                return rows.values().stream()
                         .map(row -> row.toReadable(visibilityEvaluator))
                         .filter(row -> IterableUtils.count(row.getProperties()) > 0)
                         .collect(Collectors.toList());
             }
 
-            public boolean canRead(VisibilityEvaluator visibilityEvaluator) {
-                return rows.stream().anyMatch(r -> r.canRead(visibilityEvaluator));
+            public boolean canRead(CachingVisibilityEvaluator visibilityEvaluator) {
+                return rows.values().stream().anyMatch(r -> r.canRead(visibilityEvaluator));
             }
 
             public void addData(
@@ -180,35 +225,16 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
                     long timestamp,
                     Visibility visibility
             ) {
-                InMemoryExtendedDataRow row = findOrAddRow(rowId);
+                InMemoryExtendedDataRow row = rows.computeIfAbsent(rowId, InMemoryExtendedDataRow::new);
                 row.addColumn(column, key, value, timestamp, visibility);
             }
 
-            private InMemoryExtendedDataRow findOrAddRow(ExtendedDataRowId rowId) {
-                InMemoryExtendedDataRow row = findRow(rowId);
-                if (row != null) {
-                    return row;
-                }
-                row = new InMemoryExtendedDataRow(rowId);
-                rows.add(row);
-                return row;
-            }
-
-            private InMemoryExtendedDataRow findRow(ExtendedDataRowId rowId) {
-                for (InMemoryExtendedDataRow row : rows) {
-                    if (row.getId().equals(rowId)) {
-                        return row;
-                    }
-                }
-                return null;
-            }
-
             public void removeData(ExtendedDataRowId rowId) {
-                rows.removeIf(row -> row.getId().equals(rowId));
+                rows.remove(rowId);
             }
 
             public void removeColumn(ExtendedDataRowId rowId, String columnName, String key, Visibility visibility) {
-                InMemoryExtendedDataRow row = findRow(rowId);
+                InMemoryExtendedDataRow row = rows.get(rowId);
                 if (row == null) {
                     return;
                 }
@@ -216,5 +242,4 @@ public class MapInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
             }
         }
     }
-
 }
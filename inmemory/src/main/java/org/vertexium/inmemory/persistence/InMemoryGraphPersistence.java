@@ -0,0 +1,417 @@
+package org.vertexium.inmemory.persistence;
+
+import org.vertexium.*;
+import org.vertexium.inmemory.*;
+import org.vertexium.inmemory.mutations.Mutation;
+import org.vertexium.util.JavaSerializableUtils;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Persists an {@link InMemoryGraph} to a local directory so it can be restarted without rebuilding it.
+ * <p>
+ * Every change to the vertex, edge and extended data tables and to the graph metadata is appended to a segmented,
+ * memory mapped {@link MutationLog}. In the background the compacted state of the graph, the current mutations of each
+ * element, is written to a {@link SnapshotFile} and the log segments it covers are deleted.
+ * <p>
+ * On {@link #open()} the latest snapshot is loaded and the log entries after it are replayed. Snapshot entries and log
+ * segments are deserialized in parallel and applied in order, so startup is bounded by reading the files.
+ * <p>
+ * Snapshots are written while the graph keeps changing. Each element is read together with the log sequence number
+ * at that time, so log entries for the element which are already part of the snapshot are skipped on replay. Removing
+ * rows, extended data and metadata changes overwrite whatever state they touch so they are always replayed.
+ */
+public class InMemoryGraphPersistence implements Closeable {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(InMemoryGraphPersistence.class);
+    private static final int SNAPSHOT_BATCH_SIZE = 10000;
+    private final File directory;
+    private final int logSegmentSize;
+    private final boolean forceWrites;
+    private final int snapshotIntervalSeconds;
+    private final InMemoryVertexTable vertices;
+    private final InMemoryEdgeTable edges;
+    private final LoggedInMemoryExtendedDataTable extendedDataTable;
+    private final LoggedGraphMetadataStore graphMetadataStore;
+    private volatile MutationLog log;
+    private ScheduledExecutorService snapshotExecutor;
+    private long snapshotLsn;
+
+    public InMemoryGraphPersistence(
+            InMemoryGraphConfiguration configuration,
+            InMemoryVertexTable vertices,
+            InMemoryEdgeTable edges,
+            InMemoryExtendedDataTable extendedDataTable,
+            GraphMetadataStore graphMetadataStore
+    ) {
+        this.directory = configuration.getPersistenceDirectory();
+        this.logSegmentSize = configuration.getPersistenceLogSegmentSize();
+        this.forceWrites = configuration.isPersistenceForceWrites();
+        this.snapshotIntervalSeconds = configuration.getPersistenceSnapshotIntervalSeconds();
+        this.vertices = vertices;
+        this.edges = edges;
+        this.extendedDataTable = new LoggedInMemoryExtendedDataTable(extendedDataTable, this);
+        this.graphMetadataStore = new LoggedGraphMetadataStore(graphMetadataStore, this);
+    }
+
+    /**
+     * The extended data table the graph needs to use so changes are logged.
+     */
+    public InMemoryExtendedDataTable getExtendedDataTable() {
+        return extendedDataTable;
+    }
+
+    /**
+     * The metadata store the graph needs to use so changes are logged.
+     */
+    public GraphMetadataStore getGraphMetadataStore() {
+        return graphMetadataStore;
+    }
+
+    /**
+     * Recovers the graph from the persistence directory and starts logging changes.
+     */
+    public synchronized void open() {
+        if (log != null) {
+            throw new VertexiumException("Persistence is already open: " + directory.getAbsolutePath());
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new VertexiumException("Could not create persistence directory: " + directory.getAbsolutePath());
+        }
+
+        long startTime = System.currentTimeMillis();
+        SnapshotFile.deleteTempFiles(directory);
+        Recovery recovery = new Recovery();
+        List<File> snapshots = SnapshotFile.listSnapshots(directory);
+        if (snapshots.size() > 0) {
+            File snapshot = snapshots.get(snapshots.size() - 1);
+            recovery.loadSnapshot(snapshot);
+        }
+        recovery.replayLog();
+        LOGGER.info(
+                "recovered in-memory graph from %s in %dms (snapshot lsn: %d, last lsn: %d)",
+                directory.getAbsolutePath(),
+                System.currentTimeMillis() - startTime,
+                recovery.snapshotLsn,
+                recovery.lastLsn
+        );
+
+        snapshotLsn = recovery.snapshotLsn;
+        log = new MutationLog(directory, logSegmentSize, forceWrites, recovery.lastLsn);
+        vertices.setListener(new TableListener(ElementType.VERTEX));
+        edges.setListener(new TableListener(ElementType.EDGE));
+
+        if (snapshotIntervalSeconds > 0) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "vertexium-inmemory-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotExecutor.scheduleWithFixedDelay(
+                    this::writeSnapshotIfChanged,
+                    snapshotIntervalSeconds,
+                    snapshotIntervalSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    void log(MutationLogEntry entry) {
+        MutationLog log = this.log;
+        if (log == null) {
+            throw new VertexiumException("Persistence is not open: " + directory.getAbsolutePath());
+        }
+        log.append(entry);
+    }
+
+    /**
+     * Forces the logged changes to disk.
+     */
+    public void flush() {
+        MutationLog log = this.log;
+        if (log != null) {
+            log.force();
+        }
+    }
+
+    private void writeSnapshotIfChanged() {
+        try {
+            synchronized (this) {
+                if (log != null && log.getLastLsn() > snapshotLsn) {
+                    writeSnapshot();
+                }
+            }
+        } catch (Throwable ex) {
+            LOGGER.error("Could not write snapshot to " + directory.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the graph and deletes the log segments and older snapshots it replaces.
+     */
+    public synchronized void writeSnapshot() {
+        if (log == null) {
+            throw new VertexiumException("Persistence is not open: " + directory.getAbsolutePath());
+        }
+        long startTime = System.currentTimeMillis();
+        long startLsn = log.roll();
+        File snapshot;
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(directory, startLsn)) {
+            for (GraphMetadataEntry metadataEntry : graphMetadataStore.getMetadata()) {
+                MutationLogEntry entry = new MutationLogEntry.SetMetadata(metadataEntry.getKey(), metadataEntry.getValue());
+                writer.write(startLsn, JavaSerializableUtils.objectToBytes(entry));
+            }
+            for (MutationLogEntry entry : extendedDataTable.getSnapshotEntries()) {
+                writer.write(startLsn, JavaSerializableUtils.objectToBytes(entry));
+            }
+            writeTableSnapshot(writer, ElementType.VERTEX, vertices);
+            writeTableSnapshot(writer, ElementType.EDGE, edges);
+            snapshot = writer.commit();
+        }
+
+        snapshotLsn = startLsn;
+        for (File oldSnapshot : SnapshotFile.listSnapshots(directory)) {
+            if (!oldSnapshot.equals(snapshot) && !oldSnapshot.delete()) {
+                throw new VertexiumException("Could not delete snapshot: " + oldSnapshot.getAbsolutePath());
+            }
+        }
+        log.deleteSegmentsThrough(startLsn);
+        LOGGER.debug("wrote snapshot %s in %dms", snapshot.getAbsolutePath(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Elements are read and serialized in parallel batches, each element is read together with the log sequence
+     * number at that time.
+     */
+    private void writeTableSnapshot(SnapshotFile.Writer writer, ElementType elementType, InMemoryTable<?> table) {
+        List<? extends InMemoryTableElement<?>> rows = toList(table.getRowValues());
+        for (int start = 0; start < rows.size(); start += SNAPSHOT_BATCH_SIZE) {
+            List<SnapshotFrame> frames = rows.subList(start, Math.min(rows.size(), start + SNAPSHOT_BATCH_SIZE))
+                    .parallelStream()
+                    .map(row -> row.readMutations(mutations -> {
+                        if (mutations.isEmpty()) {
+                            return null;
+                        }
+                        Mutation[] mutationsArray = mutations.toArray(new Mutation[mutations.size()]);
+                        return new SnapshotFrame(
+                                log.getLastLsn(),
+                                new MutationLogEntry.AddMutations(elementType, row.getId(), mutationsArray)
+                        );
+                    }))
+                    .filter(Objects::nonNull)
+                    .map(SnapshotFrame::serialize)
+                    .collect(Collectors.toList());
+            for (SnapshotFrame frame : frames) {
+                writer.write(frame.lsn, frame.data);
+            }
+        }
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        if (iterable instanceof List) {
+            return (List<T>) iterable;
+        }
+        List<T> results = new ArrayList<>();
+        iterable.forEach(results::add);
+        return results;
+    }
+
+    /**
+     * Stops logging changes, writing a final snapshot if anything changed since the last one.
+     */
+    @Override
+    public synchronized void close() {
+        if (log == null) {
+            return;
+        }
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+            snapshotExecutor = null;
+        }
+        if (log.getLastLsn() > snapshotLsn) {
+            writeSnapshot();
+        }
+        log.close();
+    }
+
+    /**
+     * The state of recovering a graph, passed to {@link MutationLogEntry#apply(Recovery, long)}.
+     */
+    class Recovery {
+        private final Map<ElementType, Map<String, Long>> snapshotLsnsByElementType = new EnumMap<>(ElementType.class);
+        private boolean loadingSnapshot;
+        private long snapshotLsn;
+        private long lastLsn;
+
+        Recovery() {
+            snapshotLsnsByElementType.put(ElementType.VERTEX, new HashMap<>());
+            snapshotLsnsByElementType.put(ElementType.EDGE, new HashMap<>());
+        }
+
+        InMemoryTable<?> getTable(ElementType elementType) {
+            switch (elementType) {
+                case VERTEX:
+                    return vertices;
+                case EDGE:
+                    return edges;
+                default:
+                    throw new VertexiumException("Unexpected element type: " + elementType);
+            }
+        }
+
+        InMemoryExtendedDataTable getExtendedDataTable() {
+            return extendedDataTable.getTable();
+        }
+
+        GraphMetadataStore getGraphMetadataStore() {
+            return graphMetadataStore.getStore();
+        }
+
+        /**
+         * True if the change with the given log sequence number was already part of the element when it was written
+         * to the snapshot. While loading the snapshot the log sequence number of each element is recorded instead.
+         */
+        boolean isIncludedInSnapshot(ElementType elementType, String id, long lsn) {
+            Map<String, Long> snapshotLsns = snapshotLsnsByElementType.get(elementType);
+            if (loadingSnapshot) {
+                snapshotLsns.put(id, lsn);
+                return false;
+            }
+            Long elementSnapshotLsn = snapshotLsns.get(id);
+            return elementSnapshotLsn != null && lsn <= elementSnapshotLsn;
+        }
+
+        /**
+         * Called when an element is removed, the element is rebuilt from the log if it is added again.
+         *
+         * @param id the id of the removed element or null if every element was removed.
+         */
+        void removedFromSnapshot(ElementType elementType, String id) {
+            Map<String, Long> snapshotLsns = snapshotLsnsByElementType.get(elementType);
+            if (id == null) {
+                snapshotLsns.clear();
+            } else {
+                snapshotLsns.remove(id);
+            }
+        }
+
+        void loadSnapshot(File snapshot) {
+            snapshotLsn = SnapshotFile.getStartLsn(snapshot);
+            lastLsn = snapshotLsn;
+            loadingSnapshot = true;
+            SnapshotFile.read(snapshot, (lsn, entry) -> entry.apply(this, lsn));
+            loadingSnapshot = false;
+        }
+
+        /**
+         * Replays the log segments after the snapshot, deserializing as many segments in parallel as there are
+         * processors. Replay stops at the first incomplete entry, which is dropped along with anything after it.
+         */
+        void replayLog() {
+            List<File> segments = MutationLog.listSegments(directory);
+            List<File> segmentsToReplay = new ArrayList<>();
+            for (int i = 0; i < segments.size(); i++) {
+                if (i + 1 < segments.size() && MutationLog.getFirstLsn(segments.get(i + 1)) <= snapshotLsn + 1) {
+                    continue;
+                }
+                segmentsToReplay.add(segments.get(i));
+            }
+
+            int batchSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+            for (int start = 0; start < segmentsToReplay.size(); start += batchSize) {
+                List<MutationLog.SegmentEntries> batch = segmentsToReplay
+                        .subList(start, Math.min(segmentsToReplay.size(), start + batchSize))
+                        .parallelStream()
+                        .map(MutationLog::read)
+                        .collect(Collectors.toList());
+                for (MutationLog.SegmentEntries segmentEntries : batch) {
+                    replaySegment(segmentEntries);
+                    if (segmentEntries.isIncomplete()) {
+                        LOGGER.warn("dropping incomplete mutation log entry after lsn %d in %s", lastLsn, segmentEntries.getFile().getAbsolutePath());
+                        MutationLog.truncate(segmentEntries.getFile(), segmentEntries.getEndPosition());
+                        deleteSegmentsAfter(segmentsToReplay, segmentEntries.getFile());
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void replaySegment(MutationLog.SegmentEntries segmentEntries) {
+            for (int i = 0; i < segmentEntries.size(); i++) {
+                long lsn = segmentEntries.getLsn(i);
+                if (lsn <= snapshotLsn) {
+                    continue;
+                }
+                if (lsn != lastLsn + 1) {
+                    throw new VertexiumException(String.format(
+                            "Missing mutation log entries, expected lsn %d found %d in %s",
+                            lastLsn + 1,
+                            lsn,
+                            segmentEntries.getFile().getAbsolutePath()
+                    ));
+                }
+                segmentEntries.getEntry(i).apply(this, lsn);
+                lastLsn = lsn;
+            }
+        }
+
+        private void deleteSegmentsAfter(List<File> segments, File segment) {
+            for (File laterSegment : segments.subList(segments.indexOf(segment) + 1, segments.size())) {
+                if (!laterSegment.delete()) {
+                    throw new VertexiumException("Could not delete mutation log segment: " + laterSegment.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    private class TableListener implements InMemoryTableListener {
+        private final ElementType elementType;
+
+        TableListener(ElementType elementType) {
+            this.elementType = elementType;
+        }
+
+        @Override
+        public void mutationsAdded(String id, Mutation[] mutations) {
+            log(new MutationLogEntry.AddMutations(elementType, id, mutations));
+        }
+
+        @Override
+        public void propertyDeleted(String id, String key, String name, Visibility visibility) {
+            log(new MutationLogEntry.DeleteProperty(elementType, id, key, name, visibility));
+        }
+
+        @Override
+        public void rowRemoved(String id) {
+            log(new MutationLogEntry.RemoveRow(elementType, id));
+        }
+
+        @Override
+        public void cleared() {
+            log(new MutationLogEntry.ClearTable(elementType));
+        }
+    }
+
+    private static class SnapshotFrame {
+        private final long lsn;
+        private final MutationLogEntry entry;
+        private byte[] data;
+
+        SnapshotFrame(long lsn, MutationLogEntry entry) {
+            this.lsn = lsn;
+            this.entry = entry;
+        }
+
+        SnapshotFrame serialize() {
+            data = JavaSerializableUtils.objectToBytes(entry);
+            return this;
+        }
+    }
+}
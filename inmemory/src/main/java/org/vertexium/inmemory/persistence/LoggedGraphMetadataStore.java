@@ -0,0 +1,43 @@
+package org.vertexium.inmemory.persistence;
+
+import org.vertexium.GraphMetadataEntry;
+import org.vertexium.GraphMetadataStore;
+
+/**
+ * Writes every change made to the wrapped metadata store to the mutation log.
+ */
+class LoggedGraphMetadataStore extends GraphMetadataStore {
+    private final GraphMetadataStore store;
+    private final InMemoryGraphPersistence persistence;
+
+    LoggedGraphMetadataStore(GraphMetadataStore store, InMemoryGraphPersistence persistence) {
+        this.store = store;
+        this.persistence = persistence;
+    }
+
+    GraphMetadataStore getStore() {
+        return store;
+    }
+
+    @Override
+    public Iterable<GraphMetadataEntry> getMetadata() {
+        return store.getMetadata();
+    }
+
+    @Override
+    public Object getMetadata(String key) {
+        return store.getMetadata(key);
+    }
+
+    @Override
+    public synchronized void setMetadata(String key, Object value) {
+        store.setMetadata(key, value);
+        persistence.log(new MutationLogEntry.SetMetadata(key, value));
+    }
+
+    @Override
+    public synchronized void removeMetadata(String key) {
+        store.removeMetadata(key);
+        persistence.log(new MutationLogEntry.RemoveMetadata(key));
+    }
+}
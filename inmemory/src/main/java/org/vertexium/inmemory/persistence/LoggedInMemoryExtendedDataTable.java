@@ -0,0 +1,102 @@
+package org.vertexium.inmemory.persistence;
+
+import com.google.common.collect.ImmutableSet;
+import org.vertexium.*;
+import org.vertexium.inmemory.InMemoryExtendedDataRow;
+import org.vertexium.inmemory.InMemoryExtendedDataTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes every change made to the wrapped extended data table to the mutation log.
+ */
+class LoggedInMemoryExtendedDataTable extends InMemoryExtendedDataTable {
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final InMemoryExtendedDataTable table;
+    private final InMemoryGraphPersistence persistence;
+
+    LoggedInMemoryExtendedDataTable(InMemoryExtendedDataTable table, InMemoryGraphPersistence persistence) {
+        this.table = table;
+        this.persistence = persistence;
+    }
+
+    InMemoryExtendedDataTable getTable() {
+        return table;
+    }
+
+    @Override
+    public ImmutableSet<String> getTableNames(ElementType elementType, String elementId, Authorizations authorizations) {
+        return table.getTableNames(elementType, elementId, authorizations);
+    }
+
+    @Override
+    public Iterable<? extends ExtendedDataRow> getTable(ElementType elementType, String elementId, String tableName, Authorizations authorizations) {
+        return table.getTable(elementType, elementId, tableName, authorizations);
+    }
+
+    @Override
+    public void addData(ExtendedDataRowId rowId, String column, String key, Object value, long timestamp, Visibility visibility) {
+        snapshotLock.readLock().lock();
+        try {
+            table.addData(rowId, column, key, value, timestamp, visibility);
+            persistence.log(new MutationLogEntry.AddExtendedData(rowId, column, key, value, timestamp, visibility));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(ExtendedDataRowId id) {
+        snapshotLock.readLock().lock();
+        try {
+            table.remove(id);
+            persistence.log(new MutationLogEntry.RemoveExtendedDataRow(id));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeColumn(ExtendedDataRowId extendedDataRowId, String columnName, String key, Visibility visibility) {
+        snapshotLock.readLock().lock();
+        try {
+            table.removeColumn(extendedDataRowId, columnName, key, visibility);
+            persistence.log(new MutationLogEntry.RemoveExtendedDataColumn(extendedDataRowId, columnName, key, visibility));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterable<InMemoryExtendedDataRow> getAllRows() {
+        return table.getAllRows();
+    }
+
+    /**
+     * Gets the entries needed to rebuild every column of the table, no changes are made while the table is read.
+     */
+    List<MutationLogEntry> getSnapshotEntries() {
+        snapshotLock.writeLock().lock();
+        try {
+            List<MutationLogEntry> results = new ArrayList<>();
+            for (InMemoryExtendedDataRow row : table.getAllRows()) {
+                for (Property column : row.getProperties()) {
+                    results.add(new MutationLogEntry.AddExtendedData(
+                            row.getId(),
+                            column.getName(),
+                            column.getKey(),
+                            column.getValue(),
+                            column.getTimestamp(),
+                            column.getVisibility()
+                    ));
+                }
+            }
+            return results;
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.vertexium.inmemory.persistence;
+
+import org.vertexium.VertexiumException;
+import org.vertexium.util.JavaSerializableUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of {@link MutationLogEntry}s split into fixed size, memory mapped segment files. Each segment is
+ * named after the log sequence number of its first entry and holds frames of
+ * {@code [int length][long lsn][int crc][serialized entry]}, a length of zero marks the end of the segment.
+ * <p>
+ * The length of a frame is written last so a frame is only seen once it is complete. Writes to the mapped segment
+ * survive the process exiting, {@link #force()} is needed for them to also survive the machine crashing.
+ */
+class MutationLog implements Closeable {
+    static final int FRAME_HEADER_SIZE = 4 + 8 + 4;
+    private static final String SEGMENT_PREFIX = "mutations-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private final File directory;
+    private final int segmentSize;
+    private final boolean forceWrites;
+    private long lastLsn;
+    private Segment segment;
+
+    /**
+     * Starts a new segment after the given log sequence number.
+     */
+    MutationLog(File directory, int segmentSize, boolean forceWrites, long lastLsn) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceWrites = forceWrites;
+        this.lastLsn = lastLsn;
+        this.segment = new Segment(getSegmentFile(directory, lastLsn + 1), segmentSize);
+    }
+
+    /**
+     * @return the log sequence number of the entry.
+     */
+    long append(MutationLogEntry entry) {
+        byte[] data = JavaSerializableUtils.objectToBytes(entry);
+        synchronized (this) {
+            if (segment == null) {
+                throw new VertexiumException("Mutation log is closed");
+            }
+            int frameSize = FRAME_HEADER_SIZE + data.length;
+            if (segment.buffer.remaining() < frameSize + 4) {
+                segment.close();
+                segment = new Segment(getSegmentFile(directory, lastLsn + 1), Math.max(segmentSize, frameSize + 4));
+            }
+            long lsn = ++lastLsn;
+            MappedByteBuffer buffer = segment.buffer;
+            int position = buffer.position();
+            buffer.position(position + 4);
+            buffer.putLong(lsn);
+            buffer.putInt(crc(data));
+            buffer.put(data);
+            buffer.putInt(position, data.length);
+            if (forceWrites) {
+                buffer.force();
+            }
+            return lsn;
+        }
+    }
+
+    synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Starts a new segment so every entry logged before the call is in an older segment.
+     *
+     * @return the log sequence number of the last entry before the new segment.
+     */
+    synchronized long roll() {
+        if (segment == null) {
+            throw new VertexiumException("Mutation log is closed");
+        }
+        segment.close();
+        segment = new Segment(getSegmentFile(directory, lastLsn + 1), segmentSize);
+        return lastLsn;
+    }
+
+    synchronized void force() {
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Deletes the segments which only contain entries up to and including the given log sequence number.
+     */
+    synchronized void deleteSegmentsThrough(long lsn) {
+        List<File> segmentFiles = listSegments(directory);
+        for (int i = 0; i < segmentFiles.size() - 1; i++) {
+            File segmentFile = segmentFiles.get(i);
+            if (segment != null && segmentFile.equals(segment.file)) {
+                break;
+            }
+            if (getFirstLsn(segmentFiles.get(i + 1)) > lsn + 1) {
+                break;
+            }
+            if (!segmentFile.delete()) {
+                throw new VertexiumException("Could not delete mutation log segment: " + segmentFile.getAbsolutePath());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    static List<File> listSegments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            throw new VertexiumException("Could not list mutation log segments in: " + directory.getAbsolutePath());
+        }
+        List<File> results = new ArrayList<>(Arrays.asList(files));
+        results.sort(Comparator.comparingLong(MutationLog::getFirstLsn));
+        return results;
+    }
+
+    static long getFirstLsn(File segmentFile) {
+        String name = segmentFile.getName();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static File getSegmentFile(File directory, long firstLsn) {
+        return new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Reads and deserializes every complete frame of a segment.
+     */
+    static SegmentEntries read(File segmentFile) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r")) {
+            SegmentEntries results = new SegmentEntries(segmentFile);
+            if (file.length() == 0) {
+                return results;
+            }
+            ByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            while (true) {
+                int position = buffer.position();
+                if (buffer.remaining() < FRAME_HEADER_SIZE) {
+                    results.setEnd(position, buffer.remaining() >= 4 && buffer.getInt(position) != 0);
+                    return results;
+                }
+                int length = buffer.getInt();
+                if (length == 0) {
+                    results.setEnd(position, false);
+                    return results;
+                }
+                long lsn = buffer.getLong();
+                int crc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    results.setEnd(position, true);
+                    return results;
+                }
+                byte[] data = new byte[length];
+                buffer.get(data);
+                if (crc(data) != crc) {
+                    results.setEnd(position, true);
+                    return results;
+                }
+                results.add(lsn, (MutationLogEntry) JavaSerializableUtils.bytesToObject(data));
+            }
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not read mutation log segment: " + segmentFile.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Marks the end of a segment at the given position, dropping an incomplete frame left by a crash.
+     */
+    static void truncate(File segmentFile, int position) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(position);
+            file.writeInt(0);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not truncate mutation log segment: " + segmentFile.getAbsolutePath(), ex);
+        }
+    }
+
+    static int crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    static class SegmentEntries {
+        private final File file;
+        private final List<Long> lsns = new ArrayList<>();
+        private final List<MutationLogEntry> entries = new ArrayList<>();
+        private int endPosition;
+        private boolean incomplete;
+
+        SegmentEntries(File file) {
+            this.file = file;
+        }
+
+        void add(long lsn, MutationLogEntry entry) {
+            lsns.add(lsn);
+            entries.add(entry);
+        }
+
+        void setEnd(int endPosition, boolean incomplete) {
+            this.endPosition = endPosition;
+            this.incomplete = incomplete;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        long getLsn(int i) {
+            return lsns.get(i);
+        }
+
+        MutationLogEntry getEntry(int i) {
+            return entries.get(i);
+        }
+
+        int getEndPosition() {
+            return endPosition;
+        }
+
+        /**
+         * True if the segment ends with a frame which was not completely written.
+         */
+        boolean isIncomplete() {
+            return incomplete;
+        }
+    }
+
+    private static class Segment {
+        private final File file;
+        private final RandomAccessFile randomAccessFile;
+        private final MappedByteBuffer buffer;
+
+        Segment(File file, int size) {
+            this.file = file;
+            try {
+                randomAccessFile = new RandomAccessFile(file, "rw");
+                randomAccessFile.setLength(0);
+                randomAccessFile.setLength(size);
+                buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not create mutation log segment: " + file.getAbsolutePath(), ex);
+            }
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                randomAccessFile.close();
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not close mutation log segment: " + file.getAbsolutePath(), ex);
+            }
+        }
+    }
+}
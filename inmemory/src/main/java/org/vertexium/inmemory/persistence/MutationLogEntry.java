@@ -0,0 +1,195 @@
+package org.vertexium.inmemory.persistence;
+
+import org.vertexium.ElementType;
+import org.vertexium.ExtendedDataRowId;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.AllAuthorizations;
+import org.vertexium.inmemory.InMemoryTable;
+import org.vertexium.inmemory.InMemoryTableElement;
+import org.vertexium.inmemory.mutations.Mutation;
+
+import java.io.Serializable;
+
+/**
+ * A change to an {@link org.vertexium.inmemory.InMemoryGraph}, written to the mutation log and, for the compacted state
+ * of the graph, to snapshots. Applying the entries in order after the snapshot they follow rebuilds the graph.
+ */
+abstract class MutationLogEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param lsn the log sequence number of the entry, for entries read from a snapshot the log sequence number at the
+     *            time the state in the entry was read.
+     */
+    abstract void apply(InMemoryGraphPersistence.Recovery recovery, long lsn);
+
+    static class AddMutations extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ElementType elementType;
+        private final String id;
+        private final Mutation[] mutations;
+
+        AddMutations(ElementType elementType, String id, Mutation[] mutations) {
+            this.elementType = elementType;
+            this.id = id;
+            this.mutations = mutations;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            if (recovery.isIncludedInSnapshot(elementType, id, lsn)) {
+                return;
+            }
+            recovery.getTable(elementType).append(id, mutations);
+        }
+    }
+
+    static class DeleteProperty extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ElementType elementType;
+        private final String id;
+        private final String key;
+        private final String name;
+        private final Visibility visibility;
+
+        DeleteProperty(ElementType elementType, String id, String key, String name, Visibility visibility) {
+            this.elementType = elementType;
+            this.id = id;
+            this.key = key;
+            this.name = name;
+            this.visibility = visibility;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            if (recovery.isIncludedInSnapshot(elementType, id, lsn)) {
+                return;
+            }
+            InMemoryTableElement<?> element = recovery.getTable(elementType).getTableElement(id);
+            if (element != null) {
+                element.deleteProperty(key, name, visibility, AllAuthorizations.INSTANCE);
+            }
+        }
+    }
+
+    static class RemoveRow extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ElementType elementType;
+        private final String id;
+
+        RemoveRow(ElementType elementType, String id) {
+            this.elementType = elementType;
+            this.id = id;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getTable(elementType).remove(id);
+            recovery.removedFromSnapshot(elementType, id);
+        }
+    }
+
+    static class ClearTable extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ElementType elementType;
+
+        ClearTable(ElementType elementType) {
+            this.elementType = elementType;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            InMemoryTable<?> table = recovery.getTable(elementType);
+            table.clear();
+            recovery.removedFromSnapshot(elementType, null);
+        }
+    }
+
+    static class AddExtendedData extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ExtendedDataRowId rowId;
+        private final String column;
+        private final String key;
+        private final Object value;
+        private final long timestamp;
+        private final Visibility visibility;
+
+        AddExtendedData(ExtendedDataRowId rowId, String column, String key, Object value, long timestamp, Visibility visibility) {
+            this.rowId = rowId;
+            this.column = column;
+            this.key = key;
+            this.value = value;
+            this.timestamp = timestamp;
+            this.visibility = visibility;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getExtendedDataTable().addData(rowId, column, key, value, timestamp, visibility);
+        }
+    }
+
+    static class RemoveExtendedDataRow extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ExtendedDataRowId rowId;
+
+        RemoveExtendedDataRow(ExtendedDataRowId rowId) {
+            this.rowId = rowId;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getExtendedDataTable().remove(rowId);
+        }
+    }
+
+    static class RemoveExtendedDataColumn extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final ExtendedDataRowId rowId;
+        private final String columnName;
+        private final String key;
+        private final Visibility visibility;
+
+        RemoveExtendedDataColumn(ExtendedDataRowId rowId, String columnName, String key, Visibility visibility) {
+            this.rowId = rowId;
+            this.columnName = columnName;
+            this.key = key;
+            this.visibility = visibility;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getExtendedDataTable().removeColumn(rowId, columnName, key, visibility);
+        }
+    }
+
+    static class SetMetadata extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+        private final Object value;
+
+        SetMetadata(String key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getGraphMetadataStore().setMetadata(key, value);
+        }
+    }
+
+    static class RemoveMetadata extends MutationLogEntry {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+
+        RemoveMetadata(String key) {
+            this.key = key;
+        }
+
+        @Override
+        void apply(InMemoryGraphPersistence.Recovery recovery, long lsn) {
+            recovery.getGraphMetadataStore().removeMetadata(key);
+        }
+    }
+}
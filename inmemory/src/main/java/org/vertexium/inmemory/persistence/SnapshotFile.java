@@ -0,0 +1,171 @@
+package org.vertexium.inmemory.persistence;
+
+import org.vertexium.VertexiumException;
+import org.vertexium.util.JavaSerializableUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * The compacted state of a graph as a sequence of {@link MutationLogEntry}s, framed the same way as the entries of the
+ * {@link MutationLog}. A snapshot is named after the log sequence number it was started at, only the entries logged
+ * after that number need to be replayed on top of it.
+ * <p>
+ * Snapshots are written to a temporary file which is renamed once complete, so a snapshot with the final name is
+ * always complete.
+ */
+class SnapshotFile {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int READ_BATCH_SIZE = 10000;
+
+    static List<File> listSnapshots(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        if (files == null) {
+            throw new VertexiumException("Could not list snapshots in: " + directory.getAbsolutePath());
+        }
+        List<File> results = new ArrayList<>(Arrays.asList(files));
+        results.sort(Comparator.comparingLong(SnapshotFile::getStartLsn));
+        return results;
+    }
+
+    static void deleteTempFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(TEMP_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    throw new VertexiumException("Could not delete incomplete snapshot: " + file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    static long getStartLsn(File snapshotFile) {
+        String name = snapshotFile.getName();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * Reads the entries of a snapshot in batches, each batch is deserialized in parallel and then handed to the
+     * consumer in the order it was written.
+     */
+    static void read(File snapshotFile, BiConsumer<Long, MutationLogEntry> consumer) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile), BUFFER_SIZE))) {
+            List<Frame> batch = new ArrayList<>(READ_BATCH_SIZE);
+            while (true) {
+                int length = in.readInt();
+                if (length == 0) {
+                    break;
+                }
+                long lsn = in.readLong();
+                int crc = in.readInt();
+                byte[] data = new byte[length];
+                in.readFully(data);
+                if (MutationLog.crc(data) != crc) {
+                    throw new VertexiumException("Corrupt snapshot frame at lsn " + lsn + ": " + snapshotFile.getAbsolutePath());
+                }
+                batch.add(new Frame(lsn, data));
+                if (batch.size() == READ_BATCH_SIZE) {
+                    applyBatch(batch, consumer);
+                    batch.clear();
+                }
+            }
+            applyBatch(batch, consumer);
+        } catch (EOFException ex) {
+            throw new VertexiumException("Incomplete snapshot: " + snapshotFile.getAbsolutePath(), ex);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not read snapshot: " + snapshotFile.getAbsolutePath(), ex);
+        }
+    }
+
+    private static void applyBatch(List<Frame> batch, BiConsumer<Long, MutationLogEntry> consumer) {
+        List<MutationLogEntry> entries = batch.parallelStream()
+                .map(frame -> (MutationLogEntry) JavaSerializableUtils.bytesToObject(frame.data))
+                .collect(Collectors.toList());
+        for (int i = 0; i < entries.size(); i++) {
+            consumer.accept(batch.get(i).lsn, entries.get(i));
+        }
+    }
+
+    static class Writer implements Closeable {
+        private final File tempFile;
+        private final File file;
+        private final FileOutputStream fileOut;
+        private final DataOutputStream out;
+        private boolean committed;
+
+        Writer(File directory, long startLsn) {
+            String name = String.format("%s%020d%s", SNAPSHOT_PREFIX, startLsn, SNAPSHOT_SUFFIX);
+            this.file = new File(directory, name);
+            this.tempFile = new File(directory, name + TEMP_SUFFIX);
+            try {
+                this.fileOut = new FileOutputStream(tempFile);
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not create snapshot: " + tempFile.getAbsolutePath(), ex);
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+        }
+
+        void write(long lsn, byte[] data) {
+            try {
+                out.writeInt(data.length);
+                out.writeLong(lsn);
+                out.writeInt(MutationLog.crc(data));
+                out.write(data);
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not write snapshot: " + tempFile.getAbsolutePath(), ex);
+            }
+        }
+
+        /**
+         * Ends the snapshot, syncs it to disk and gives it its final name.
+         */
+        File commit() {
+            try {
+                out.writeInt(0);
+                out.flush();
+                fileOut.getFD().sync();
+                out.close();
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+                return file;
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not write snapshot: " + tempFile.getAbsolutePath(), ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException ex) {
+                // the snapshot already failed, only the temporary file needs to be cleaned up
+            }
+            if (!tempFile.delete()) {
+                throw new VertexiumException("Could not delete incomplete snapshot: " + tempFile.getAbsolutePath());
+            }
+        }
+    }
+
+    private static class Frame {
+        private final long lsn;
+        private final byte[] data;
+
+        Frame(long lsn, byte[] data) {
+            this.lsn = lsn;
+            this.data = data;
+        }
+    }
+}
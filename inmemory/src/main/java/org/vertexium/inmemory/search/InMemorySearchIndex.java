@@ -0,0 +1,257 @@
+package org.vertexium.inmemory.search;
+
+import org.vertexium.*;
+import org.vertexium.mutation.ExistingElementMutation;
+import org.vertexium.query.GraphQuery;
+import org.vertexium.search.DefaultSearchIndex;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.vertexium.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link DefaultSearchIndex} which keeps secondary indexes of property values and edge labels so that
+ * {@link org.vertexium.query.Compare}, {@link org.vertexium.query.Contains#IN} and edge label queries don't need to
+ * scan every element in the graph. Queries the indexes can't answer fall back to the full scan done by
+ * {@link org.vertexium.query.DefaultGraphQuery}.
+ * <p>
+ * When {@link #CONFIG_TEXT_INDEX} is enabled an inverted index of the full text property values also answers query
+ * strings made of terms, phrases and prefixes and narrows {@link org.vertexium.query.TextPredicate#CONTAINS} queries.
+ * Query strings are then matched on tokens, like Elasticsearch, instead of the substring matching of the full scan.
+ * CONTAINS queries keep matching substrings.
+ * <p>
+ * To use, set the search index of the graph configuration to this class, e.g.
+ * <pre>search=org.vertexium.inmemory.search.InMemorySearchIndex
+ * search.textIndex=true</pre>
+ */
+public class InMemorySearchIndex extends DefaultSearchIndex {
+    public static final String CONFIG_TEXT_INDEX = "textIndex";
+    public static final boolean DEFAULT_TEXT_INDEX = false;
+    private final PropertyValueIndex vertexPropertyValueIndex = new PropertyValueIndex();
+    private final PropertyValueIndex edgePropertyValueIndex = new PropertyValueIndex();
+    private final TextIndex vertexTextIndex;
+    private final TextIndex edgeTextIndex;
+    private final ReadWriteLock edgeLabelsLock = new ReentrantReadWriteLock();
+    private final Map<String, String> edgeLabelsById = new HashMap<>();
+    private final Map<String, Set<String>> edgeIdsByLabel = new HashMap<>();
+
+    public InMemorySearchIndex(GraphConfiguration configuration) {
+        super(configuration);
+        if (configuration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + CONFIG_TEXT_INDEX, DEFAULT_TEXT_INDEX)) {
+            vertexTextIndex = new TextIndex();
+            edgeTextIndex = new TextIndex();
+        } else {
+            vertexTextIndex = null;
+            edgeTextIndex = null;
+        }
+    }
+
+    @Override
+    public void addElement(Graph graph, Element element, Authorizations authorizations) {
+        super.addElement(graph, element, authorizations);
+        reindexElement(graph, ElementType.getTypeFromElement(element), element.getId());
+    }
+
+    @Override
+    public <TElement extends Element> void updateElement(Graph graph, ExistingElementMutation<TElement> mutation, Authorizations authorizations) {
+        super.updateElement(graph, mutation, authorizations);
+        reindexElement(graph, ElementType.getTypeFromElement(mutation.getElement()), mutation.getElement().getId());
+    }
+
+    @Override
+    public void alterElementVisibility(Graph graph, Element element, Visibility oldVisibility, Visibility newVisibility, Authorizations authorizations) {
+        super.alterElementVisibility(graph, element, oldVisibility, newVisibility, authorizations);
+        reindexElement(graph, ElementType.getTypeFromElement(element), element.getId());
+    }
+
+    @Override
+    public void deleteElement(Graph graph, Element element, Authorizations authorizations) {
+        super.deleteElement(graph, element, authorizations);
+        removeElement(ElementType.getTypeFromElement(element), element.getId());
+    }
+
+    @Override
+    public void deleteProperty(Graph graph, Element element, PropertyDescriptor property, Authorizations authorizations) {
+        super.deleteProperty(graph, element, property, authorizations);
+        reindexElement(graph, ElementType.getTypeFromElement(element), element.getId());
+    }
+
+    @Override
+    public void deleteProperties(Graph graph, Element element, Collection<PropertyDescriptor> propertyList, Authorizations authorizations) {
+        checkNotNull(element, "element cannot be null");
+        reindexElement(graph, ElementType.getTypeFromElement(element), element.getId());
+    }
+
+    @Override
+    public GraphQuery queryGraph(Graph graph, String queryString, Authorizations authorizations) {
+        return new InMemorySearchIndexGraphQuery(this, graph, queryString, authorizations);
+    }
+
+    @Override
+    public void truncate(Graph graph) {
+        super.truncate(graph);
+        clear();
+    }
+
+    @Override
+    public void drop(Graph graph) {
+        super.drop(graph);
+        clear();
+    }
+
+    /**
+     * Rebuilds the secondary indexes of the given elements, e.g. after the graph was recovered from disk.
+     */
+    public void reindexElements(Graph graph, ElementType elementType, Iterable<String> elementIds) {
+        for (String elementId : elementIds) {
+            reindexElement(graph, elementType, elementId);
+        }
+    }
+
+    /**
+     * The element passed to the search index only contains the properties visible to the caller's authorizations so
+     * the element is re-read with {@link IndexAuthorizations} to index every property.
+     */
+    private void reindexElement(Graph graph, ElementType elementType, String elementId) {
+        checkNotNull(elementId, "elementId cannot be null");
+        Element element;
+        switch (elementType) {
+            case VERTEX:
+                element = graph.getVertex(elementId, FetchHints.ALL_INCLUDING_HIDDEN, IndexAuthorizations.INSTANCE);
+                break;
+            case EDGE:
+                element = graph.getEdge(elementId, FetchHints.ALL_INCLUDING_HIDDEN, IndexAuthorizations.INSTANCE);
+                break;
+            default:
+                throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+        if (element == null) {
+            removeElement(elementType, elementId);
+            return;
+        }
+        getPropertyValueIndex(elementType).addElement(element);
+        TextIndex textIndex = getTextIndex(elementType);
+        if (textIndex != null) {
+            textIndex.addElement(element, graph::getPropertyDefinition);
+        }
+        if (element instanceof Edge) {
+            setEdgeLabel(elementId, ((Edge) element).getLabel());
+        }
+    }
+
+    private void removeElement(ElementType elementType, String elementId) {
+        getPropertyValueIndex(elementType).deleteElement(elementId);
+        TextIndex textIndex = getTextIndex(elementType);
+        if (textIndex != null) {
+            textIndex.deleteElement(elementId);
+        }
+        if (elementType == ElementType.EDGE) {
+            setEdgeLabel(elementId, null);
+        }
+    }
+
+    private void setEdgeLabel(String edgeId, String label) {
+        edgeLabelsLock.writeLock().lock();
+        try {
+            String oldLabel = label == null ? edgeLabelsById.remove(edgeId) : edgeLabelsById.put(edgeId, label);
+            if (oldLabel != null) {
+                Set<String> edgeIds = edgeIdsByLabel.get(oldLabel);
+                edgeIds.remove(edgeId);
+                if (edgeIds.isEmpty()) {
+                    edgeIdsByLabel.remove(oldLabel);
+                }
+            }
+            if (label != null) {
+                edgeIdsByLabel.computeIfAbsent(label, k -> new HashSet<>()).add(edgeId);
+            }
+        } finally {
+            edgeLabelsLock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        vertexPropertyValueIndex.clear();
+        edgePropertyValueIndex.clear();
+        if (vertexTextIndex != null) {
+            vertexTextIndex.clear();
+            edgeTextIndex.clear();
+        }
+        edgeLabelsLock.writeLock().lock();
+        try {
+            edgeLabelsById.clear();
+            edgeIdsByLabel.clear();
+        } finally {
+            edgeLabelsLock.writeLock().unlock();
+        }
+    }
+
+    PropertyValueIndex getPropertyValueIndex(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vertexPropertyValueIndex;
+            case EDGE:
+                return edgePropertyValueIndex;
+            default:
+                throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+    }
+
+    /**
+     * @return the text index of the element type or null if text indexing is disabled.
+     */
+    TextIndex getTextIndex(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vertexTextIndex;
+            case EDGE:
+                return edgeTextIndex;
+            default:
+                throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+    }
+
+    Set<String> getEdgeIdsWithLabels(Iterable<String> labels) {
+        edgeLabelsLock.readLock().lock();
+        try {
+            Set<String> results = new HashSet<>();
+            for (String label : labels) {
+                Set<String> edgeIds = edgeIdsByLabel.get(label);
+                if (edgeIds != null) {
+                    results.addAll(edgeIds);
+                }
+            }
+            return results;
+        } finally {
+            edgeLabelsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Authorizations able to read every visibility, only used to read elements while indexing them.
+     */
+    private static class IndexAuthorizations implements Authorizations {
+        private static final long serialVersionUID = 1L;
+        static final IndexAuthorizations INSTANCE = new IndexAuthorizations();
+
+        @Override
+        public boolean canRead(Visibility visibility) {
+            return true;
+        }
+
+        @Override
+        public String[] getAuthorizations() {
+            return new String[0];
+        }
+
+        @Override
+        public boolean equals(Authorizations authorizations) {
+            return authorizations == this;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.vertexium.inmemory.search;
+
+import org.vertexium.*;
+import org.vertexium.query.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Narrows the elements scanned by {@link DefaultGraphQuery} to the candidates found in the
+ * {@link InMemorySearchIndex}. Every candidate is still evaluated against the full query, except for query strings
+ * answered by the text index, which are matched on tokens rather than substrings.
+ */
+public class InMemorySearchIndexGraphQuery extends DefaultGraphQuery {
+    private final InMemorySearchIndex searchIndex;
+
+    public InMemorySearchIndexGraphQuery(InMemorySearchIndex searchIndex, Graph graph, String queryString, Authorizations authorizations) {
+        super(graph, queryString, authorizations);
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public QueryResultsIterable<Vertex> vertices(FetchHints fetchHints) {
+        Set<String> queryStringIds = findQueryStringIds(ElementType.VERTEX);
+        Set<String> candidateIds = findCandidateIds(ElementType.VERTEX, queryStringIds);
+        if (candidateIds == null) {
+            return super.vertices(fetchHints);
+        }
+        return new DefaultGraphQueryIterableWithAggregations<>(
+                getParameters(),
+                getGraph().getVertices(candidateIds, fetchHints, getParameters().getAuthorizations()),
+                queryStringIds == null,
+                true,
+                true,
+                getAggregations()
+        );
+    }
+
+    @Override
+    public QueryResultsIterable<Edge> edges(FetchHints fetchHints) {
+        Set<String> queryStringIds = findQueryStringIds(ElementType.EDGE);
+        Set<String> candidateIds = findCandidateIds(ElementType.EDGE, queryStringIds);
+        if (candidateIds == null) {
+            return super.edges(fetchHints);
+        }
+        return new DefaultGraphQueryIterableWithAggregations<>(
+                getParameters(),
+                getGraph().getEdges(candidateIds, fetchHints, getParameters().getAuthorizations()),
+                queryStringIds == null,
+                true,
+                true,
+                getAggregations()
+        );
+    }
+
+    /**
+     * @return the ids of the elements which may match the query or null if the query can't be narrowed by the
+     * indexes and all elements need to be scanned.
+     */
+    private Set<String> findCandidateIds(ElementType elementType, Set<String> queryStringIds) {
+        Set<String> candidateIds = null;
+        if (getParameters().getIds().size() > 0) {
+            candidateIds = new HashSet<>(getParameters().getIds());
+        }
+        if (queryStringIds != null) {
+            candidateIds = intersect(candidateIds, queryStringIds);
+        }
+        if (elementType == ElementType.EDGE && getParameters().getEdgeLabels().size() > 0) {
+            candidateIds = intersect(candidateIds, searchIndex.getEdgeIdsWithLabels(getParameters().getEdgeLabels()));
+        }
+        PropertyValueIndex propertyValueIndex = searchIndex.getPropertyValueIndex(elementType);
+        TextIndex textIndex = searchIndex.getTextIndex(elementType);
+        for (QueryBase.HasContainer hasContainer : getParameters().getHasContainers()) {
+            if (!(hasContainer instanceof QueryBase.HasValueContainer)) {
+                continue;
+            }
+            QueryBase.HasValueContainer hasValueContainer = (QueryBase.HasValueContainer) hasContainer;
+            Set<String> ids;
+            if (hasValueContainer.predicate == TextPredicate.CONTAINS) {
+                ids = textIndex == null || !(hasValueContainer.value instanceof String)
+                        ? null
+                        : textIndex.findContains(hasValueContainer.keys, (String) hasValueContainer.value, getParameters().getAuthorizations());
+            } else {
+                ids = propertyValueIndex.find(hasValueContainer.keys, hasValueContainer.predicate, hasValueContainer.value);
+            }
+            if (ids != null) {
+                candidateIds = intersect(candidateIds, ids);
+            }
+        }
+        return candidateIds;
+    }
+
+    /**
+     * @return the ids of the elements matching the query string or null if there is no query string or it can't be
+     * answered by the text index.
+     */
+    private Set<String> findQueryStringIds(ElementType elementType) {
+        TextIndex textIndex = searchIndex.getTextIndex(elementType);
+        if (textIndex == null || !(getParameters() instanceof QueryStringQueryParameters)) {
+            return null;
+        }
+        String queryString = ((QueryStringQueryParameters) getParameters()).getQueryString();
+        if (queryString == null) {
+            return null;
+        }
+        return textIndex.findQueryString(queryString, getParameters().getAuthorizations());
+    }
+
+    private static Set<String> intersect(Set<String> candidateIds, Set<String> ids) {
+        if (candidateIds == null) {
+            return ids;
+        }
+        candidateIds.retainAll(ids);
+        return candidateIds;
+    }
+}
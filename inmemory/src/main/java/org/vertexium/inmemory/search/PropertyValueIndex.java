@@ -0,0 +1,255 @@
+package org.vertexium.inmemory.search;
+
+import org.vertexium.DateOnly;
+import org.vertexium.Edge;
+import org.vertexium.Element;
+import org.vertexium.Property;
+import org.vertexium.query.Compare;
+import org.vertexium.query.Contains;
+import org.vertexium.query.Predicate;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Property value indexes for a single element type. For each property name a hash index answers equality lookups and
+ * a sorted (skip-list) index answers range lookups.
+ * <p>
+ * Lookups return candidate element ids. The candidates are a superset of the matching elements, callers must still
+ * evaluate the query against each element to apply authorizations, hidden properties and the exact predicate
+ * semantics.
+ */
+class PropertyValueIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, Set<Object>>> elementValues = new HashMap<>();
+    private final Map<String, PropertyNameIndex> propertyNameIndexes = new HashMap<>();
+
+    /**
+     * Replaces all indexed values of the element with the values of the given element's properties.
+     */
+    public void addElement(Element element) {
+        lock.writeLock().lock();
+        try {
+            removeElement(element.getId());
+            Map<String, Set<Object>> values = new HashMap<>();
+            for (Property property : element.getProperties()) {
+                PropertyNameIndex propertyNameIndex = propertyNameIndexes.computeIfAbsent(property.getName(), k -> new PropertyNameIndex());
+                ValueKind kind = ValueKind.fromValue(property.getValue());
+                propertyNameIndex.kinds.add(kind);
+                if (kind == ValueKind.OTHER) {
+                    continue;
+                }
+                Object value = kind.normalize(property.getValue());
+                values.computeIfAbsent(property.getName(), k -> new HashSet<>()).add(value);
+                propertyNameIndex.add(value, element.getId());
+            }
+            if (values.size() > 0) {
+                elementValues.put(element.getId(), values);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void deleteElement(String elementId) {
+        lock.writeLock().lock();
+        try {
+            removeElement(elementId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            elementValues.clear();
+            propertyNameIndexes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ids of elements which may have a property with one of the given names matching the predicate.
+     *
+     * @return the candidate element ids or null if the predicate, value or property types can't be answered from the
+     * index or a property name is the id or edge label, which elements expose as properties but aren't indexed.
+     */
+    public Set<String> find(Iterable<String> propertyNames, Predicate predicate, Object value) {
+        lock.readLock().lock();
+        try {
+            Set<String> results = new HashSet<>();
+            for (String propertyName : propertyNames) {
+                if (Element.ID_PROPERTY_NAME.equals(propertyName) || Edge.LABEL_PROPERTY_NAME.equals(propertyName)) {
+                    return null;
+                }
+                PropertyNameIndex propertyNameIndex = propertyNameIndexes.get(propertyName);
+                if (propertyNameIndex == null) {
+                    continue;
+                }
+                Set<String> ids = propertyNameIndex.find(predicate, value);
+                if (ids == null) {
+                    return null;
+                }
+                results.addAll(ids);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeElement(String elementId) {
+        Map<String, Set<Object>> values = elementValues.remove(elementId);
+        if (values == null) {
+            return;
+        }
+        for (Map.Entry<String, Set<Object>> entry : values.entrySet()) {
+            PropertyNameIndex propertyNameIndex = propertyNameIndexes.get(entry.getKey());
+            if (propertyNameIndex != null) {
+                for (Object value : entry.getValue()) {
+                    propertyNameIndex.remove(value, elementId);
+                }
+            }
+        }
+    }
+
+    private static class PropertyNameIndex {
+        private final EnumSet<ValueKind> kinds = EnumSet.noneOf(ValueKind.class);
+        private final Map<Object, Set<String>> hashIndex = new HashMap<>();
+        private final ConcurrentSkipListMap<Comparable, Set<String>> sortedIndex = new ConcurrentSkipListMap<>();
+
+        public void add(Object value, String elementId) {
+            Set<String> ids = hashIndex.computeIfAbsent(value, k -> new HashSet<>());
+            ids.add(elementId);
+            sortedIndex.put((Comparable) value, ids);
+        }
+
+        public void remove(Object value, String elementId) {
+            Set<String> ids = hashIndex.get(value);
+            if (ids == null) {
+                return;
+            }
+            ids.remove(elementId);
+            if (ids.isEmpty()) {
+                hashIndex.remove(value);
+                sortedIndex.remove(value);
+            }
+        }
+
+        public Set<String> find(Predicate predicate, Object value) {
+            if (predicate instanceof Compare) {
+                return find((Compare) predicate, value);
+            }
+            if (predicate == Contains.IN) {
+                return findIn(value);
+            }
+            return null;
+        }
+
+        private Set<String> find(Compare compare, Object value) {
+            ValueKind kind = ValueKind.fromValue(value);
+            if (!isSearchable(kind)) {
+                return null;
+            }
+            Comparable normalizedValue = (Comparable) kind.normalize(value);
+            switch (compare) {
+                case EQUAL:
+                    Set<String> ids = hashIndex.get(normalizedValue);
+                    return ids == null ? Collections.emptySet() : ids;
+                // range bounds are always inclusive since the normalized values may be less precise than the
+                // original values (e.g. longs converted to doubles)
+                case GREATER_THAN:
+                case GREATER_THAN_EQUAL:
+                    return union(sortedIndex.tailMap(normalizedValue, true).values());
+                case LESS_THAN:
+                case LESS_THAN_EQUAL:
+                    return union(sortedIndex.headMap(normalizedValue, true).values());
+                default:
+                    return null;
+            }
+        }
+
+        private Set<String> findIn(Object values) {
+            Iterable<?> it;
+            if (values instanceof Iterable) {
+                it = (Iterable<?>) values;
+            } else if (values != null && values.getClass().isArray()) {
+                List<Object> list = new ArrayList<>();
+                for (int i = 0; i < Array.getLength(values); i++) {
+                    list.add(Array.get(values, i));
+                }
+                it = list;
+            } else {
+                return null;
+            }
+            Set<String> results = new HashSet<>();
+            for (Object value : it) {
+                Set<String> ids = find(Compare.EQUAL, value);
+                if (ids == null) {
+                    return null;
+                }
+                results.addAll(ids);
+            }
+            return results;
+        }
+
+        /**
+         * The index can only answer a lookup if every value stored for this property name is of the same kind as
+         * the value being searched for, otherwise the type coercion done by {@link Compare} could match values the
+         * index would not find.
+         */
+        private boolean isSearchable(ValueKind kind) {
+            if (kind == ValueKind.OTHER) {
+                return false;
+            }
+            return kinds.isEmpty() || (kinds.size() == 1 && kinds.contains(kind));
+        }
+
+        private static Set<String> union(Collection<Set<String>> sets) {
+            Set<String> results = new HashSet<>();
+            for (Set<String> set : sets) {
+                results.addAll(set);
+            }
+            return results;
+        }
+    }
+
+    private enum ValueKind {
+        STRING, NUMBER, BOOLEAN, DATE, DATE_ONLY, OTHER;
+
+        public static ValueKind fromValue(Object value) {
+            if (value instanceof String) {
+                return STRING;
+            } else if (value instanceof Number) {
+                return NUMBER;
+            } else if (value instanceof Boolean) {
+                return BOOLEAN;
+            } else if (value instanceof Date) {
+                return DATE;
+            } else if (value instanceof DateOnly) {
+                return DATE_ONLY;
+            }
+            return OTHER;
+        }
+
+        public Object normalize(Object value) {
+            switch (this) {
+                case STRING:
+                    return ((String) value).toLowerCase();
+                case NUMBER:
+                    return ((Number) value).doubleValue();
+                case DATE:
+                    return ((Date) value).getTime();
+                case DATE_ONLY:
+                    return ((DateOnly) value).getDate().getTime();
+                default:
+                    return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package org.vertexium.inmemory.search;
+
+import org.vertexium.*;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.type.GeoPoint;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index of the full text property values of a single element type. For each property name the index maps
+ * a token to the elements containing it and the positions of the token in each value. Postings are grouped by the
+ * visibility of the property so lookups only return elements whose matching property the caller can read.
+ * <p>
+ * Values are lowercased and split on anything other than letters and digits. Properties whose definition doesn't
+ * include {@link TextIndexHint#FULL_TEXT}, hidden properties and streaming values which aren't
+ * {@link StreamingPropertyValue#isSearchIndex() search indexed} are not indexed. The names of properties which had
+ * such hidden or streaming values are remembered so CONTAINS lookups on them fall back to the scan.
+ */
+class TextIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern TOKEN_CHARACTER = Pattern.compile("[\\p{L}\\p{N}]");
+    private static final Pattern QUERY_STRING_CLAUSE = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    private static final Pattern UNSUPPORTED_QUERY_STRING_CHARACTERS = Pattern.compile("[:+\\-!(){}\\[\\]^~?\\\\/\"]");
+    private static final Set<String> QUERY_STRING_OPERATORS = new HashSet<>(Arrays.asList("AND", "OR", "NOT", "&&", "||"));
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, TreeMap<String, Map<Visibility, Map<String, long[]>>>> tokensByPropertyName = new HashMap<>();
+    private final Map<String, List<IndexedToken>> tokensByElementId = new HashMap<>();
+    private final Set<String> propertyNamesWithUnindexedValues = new HashSet<>();
+
+    /**
+     * Replaces all indexed tokens of the element with the tokens of the given element's properties.
+     */
+    public void addElement(Element element, Function<String, PropertyDefinition> propertyDefinitions) {
+        Map<IndexedToken, List<Long>> positions = new LinkedHashMap<>();
+        Set<String> unindexedPropertyNames = new HashSet<>();
+        long valueIndex = 0;
+        for (Property property : element.getProperties()) {
+            if (!isFullTextProperty(property, propertyDefinitions)) {
+                continue;
+            }
+            String text = property.getHiddenVisibilities().iterator().hasNext() ? null : getText(property.getValue());
+            if (text == null) {
+                if (isContainsSearchable(property.getValue())) {
+                    unindexedPropertyNames.add(property.getName());
+                }
+                continue;
+            }
+            List<String> tokens = tokenize(text);
+            for (int i = 0; i < tokens.size(); i++) {
+                IndexedToken indexedToken = new IndexedToken(property.getName(), tokens.get(i), property.getVisibility());
+                // the value index is kept in the high bits so a phrase can't match across two values
+                positions.computeIfAbsent(indexedToken, k -> new ArrayList<>()).add((valueIndex << 32) | i);
+            }
+            valueIndex++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            propertyNamesWithUnindexedValues.addAll(unindexedPropertyNames);
+            removeElement(element.getId());
+            if (positions.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<IndexedToken, List<Long>> entry : positions.entrySet()) {
+                IndexedToken indexedToken = entry.getKey();
+                long[] tokenPositions = new long[entry.getValue().size()];
+                for (int i = 0; i < tokenPositions.length; i++) {
+                    tokenPositions[i] = entry.getValue().get(i);
+                }
+                tokensByPropertyName.computeIfAbsent(indexedToken.propertyName, k -> new TreeMap<>())
+                        .computeIfAbsent(indexedToken.token, k -> new HashMap<>())
+                        .computeIfAbsent(indexedToken.visibility, k -> new HashMap<>())
+                        .put(element.getId(), tokenPositions);
+            }
+            tokensByElementId.put(element.getId(), new ArrayList<>(positions.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void deleteElement(String elementId) {
+        lock.writeLock().lock();
+        try {
+            removeElement(elementId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tokensByPropertyName.clear();
+            tokensByElementId.clear();
+            propertyNamesWithUnindexedValues.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ids of elements matching a query string made of terms, quoted phrases and trailing wildcard
+     * prefixes, any of which may match (like the default OR operator of Elasticsearch query strings).
+     *
+     * @return the matching element ids or null if the query string uses syntax the index can't answer.
+     */
+    public Set<String> findQueryString(String queryString, Authorizations authorizations) {
+        queryString = queryString.trim();
+        if (queryString.isEmpty() || queryString.equals("*")) {
+            return null;
+        }
+        List<List<String>> phrases = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        Matcher m = QUERY_STRING_CLAUSE.matcher(queryString);
+        while (m.find()) {
+            if (m.group(1) != null) {
+                phrases.add(tokenize(m.group(1)));
+                prefixes.add(false);
+                continue;
+            }
+            String clause = m.group(2);
+            if (QUERY_STRING_OPERATORS.contains(clause) || UNSUPPORTED_QUERY_STRING_CHARACTERS.matcher(clause).find()) {
+                return null;
+            }
+            boolean prefix = clause.endsWith("*");
+            if (prefix) {
+                clause = clause.substring(0, clause.length() - 1);
+            }
+            if (clause.contains("*")) {
+                return null;
+            }
+            List<String> tokens = tokenize(clause);
+            if (prefix && tokens.size() != 1) {
+                return null;
+            }
+            phrases.add(tokens);
+            prefixes.add(prefix);
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<String> results = new HashSet<>();
+            for (int i = 0; i < phrases.size(); i++) {
+                for (TreeMap<String, Map<Visibility, Map<String, long[]>>> tokens : tokensByPropertyName.values()) {
+                    findPhrase(tokens, phrases.get(i), false, prefixes.get(i), authorizations, results);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ids of elements which may have a property with one of the given names containing the text as a
+     * substring, like {@link org.vertexium.query.TextPredicate#CONTAINS}. The text's tokens must follow each other
+     * in the value, but unless the text starts or ends with a separator its first token only needs to be the end of
+     * a value token and its last token the start of one, so "ick" finds "quick" and "quick bro" finds "quick brown".
+     * Such partial tokens are found by scanning the tokens of the property rather than its elements. The results are
+     * candidates only, since the separators between the tokens aren't indexed.
+     *
+     * @return the candidate element ids or null if the text has no tokens and every element may contain it, or one
+     * of the properties had values which weren't indexed.
+     */
+    public Set<String> findContains(Iterable<String> propertyNames, String text, Authorizations authorizations) {
+        List<String> phrase = tokenize(text);
+        if (phrase.isEmpty()) {
+            return null;
+        }
+        boolean firstTokenIsSuffix = isTokenCharacter(text.codePointAt(0));
+        boolean lastTokenIsPrefix = isTokenCharacter(text.codePointBefore(text.length()));
+        lock.readLock().lock();
+        try {
+            for (String propertyName : propertyNames) {
+                if (propertyNamesWithUnindexedValues.contains(propertyName)) {
+                    return null;
+                }
+            }
+            Set<String> results = new HashSet<>();
+            for (String propertyName : propertyNames) {
+                TreeMap<String, Map<Visibility, Map<String, long[]>>> tokens = tokensByPropertyName.get(propertyName);
+                if (tokens != null) {
+                    findPhrase(tokens, phrase, firstTokenIsSuffix, lastTokenIsPrefix, authorizations, results);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void findPhrase(
+            TreeMap<String, Map<Visibility, Map<String, long[]>>> tokens,
+            List<String> phrase,
+            boolean firstTokenIsSuffix,
+            boolean lastTokenIsPrefix,
+            Authorizations authorizations,
+            Set<String> results
+    ) {
+        if (phrase.isEmpty()) {
+            return;
+        }
+        List<Collection<Map<Visibility, Map<String, long[]>>>> postingsByPosition = new ArrayList<>();
+        for (int i = 0; i < phrase.size(); i++) {
+            Collection<Map<Visibility, Map<String, long[]>>> postings = findPostings(
+                    tokens,
+                    phrase.get(i),
+                    firstTokenIsSuffix && i == 0,
+                    lastTokenIsPrefix && i == phrase.size() - 1
+            );
+            if (postings.isEmpty()) {
+                return;
+            }
+            postingsByPosition.add(postings);
+        }
+
+        for (Map<Visibility, Map<String, long[]>> firstPostings : postingsByPosition.get(0)) {
+            for (Map.Entry<Visibility, Map<String, long[]>> visibilityEntry : firstPostings.entrySet()) {
+                if (!authorizations.canRead(visibilityEntry.getKey())) {
+                    continue;
+                }
+                for (Map.Entry<String, long[]> elementEntry : visibilityEntry.getValue().entrySet()) {
+                    String elementId = elementEntry.getKey();
+                    if (!results.contains(elementId)
+                            && isPhraseAt(postingsByPosition, visibilityEntry.getKey(), elementId, elementEntry.getValue())) {
+                        results.add(elementId);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Collection<Map<Visibility, Map<String, long[]>>> findPostings(
+            TreeMap<String, Map<Visibility, Map<String, long[]>>> tokens,
+            String token,
+            boolean suffix,
+            boolean prefix
+    ) {
+        if (!suffix) {
+            if (prefix) {
+                return tokens.subMap(token, true, token + Character.MAX_VALUE, false).values();
+            }
+            Map<Visibility, Map<String, long[]>> tokenPostings = tokens.get(token);
+            return tokenPostings == null ? Collections.emptyList() : Collections.singletonList(tokenPostings);
+        }
+        List<Map<Visibility, Map<String, long[]>>> postings = new ArrayList<>();
+        for (Map.Entry<String, Map<Visibility, Map<String, long[]>>> entry : tokens.entrySet()) {
+            if (prefix ? entry.getKey().contains(token) : entry.getKey().endsWith(token)) {
+                postings.add(entry.getValue());
+            }
+        }
+        return postings;
+    }
+
+    private static boolean isPhraseAt(
+            List<Collection<Map<Visibility, Map<String, long[]>>>> postingsByPosition,
+            Visibility visibility,
+            String elementId,
+            long[] firstPositions
+    ) {
+        for (long firstPosition : firstPositions) {
+            boolean matches = true;
+            for (int i = 1; i < postingsByPosition.size() && matches; i++) {
+                matches = hasPosition(postingsByPosition.get(i), visibility, elementId, firstPosition + i);
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPosition(Collection<Map<Visibility, Map<String, long[]>>> postings, Visibility visibility, String elementId, long position) {
+        for (Map<Visibility, Map<String, long[]>> tokenPostings : postings) {
+            Map<String, long[]> elementPostings = tokenPostings.get(visibility);
+            if (elementPostings == null) {
+                continue;
+            }
+            long[] positions = elementPostings.get(elementId);
+            if (positions != null && Arrays.binarySearch(positions, position) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeElement(String elementId) {
+        List<IndexedToken> indexedTokens = tokensByElementId.remove(elementId);
+        if (indexedTokens == null) {
+            return;
+        }
+        for (IndexedToken indexedToken : indexedTokens) {
+            TreeMap<String, Map<Visibility, Map<String, long[]>>> tokens = tokensByPropertyName.get(indexedToken.propertyName);
+            if (tokens == null) {
+                continue;
+            }
+            Map<Visibility, Map<String, long[]>> tokenPostings = tokens.get(indexedToken.token);
+            if (tokenPostings == null) {
+                continue;
+            }
+            Map<String, long[]> elementPostings = tokenPostings.get(indexedToken.visibility);
+            if (elementPostings == null) {
+                continue;
+            }
+            elementPostings.remove(elementId);
+            if (elementPostings.isEmpty()) {
+                tokenPostings.remove(indexedToken.visibility);
+                if (tokenPostings.isEmpty()) {
+                    tokens.remove(indexedToken.token);
+                    if (tokens.isEmpty()) {
+                        tokensByPropertyName.remove(indexedToken.propertyName);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isFullTextProperty(Property property, Function<String, PropertyDefinition> propertyDefinitions) {
+        PropertyDefinition propertyDefinition = propertyDefinitions.apply(property.getName());
+        return propertyDefinition == null || propertyDefinition.getTextIndexHints().contains(TextIndexHint.FULL_TEXT);
+    }
+
+    /**
+     * Whether {@link org.vertexium.query.TextPredicate#CONTAINS} can match the value.
+     */
+    private static boolean isContainsSearchable(Object value) {
+        return value instanceof String
+                || value instanceof GeoPoint
+                || (value instanceof StreamingPropertyValue && ((StreamingPropertyValue) value).getValueType() == String.class);
+    }
+
+    private static String getText(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof GeoPoint) {
+            return ((GeoPoint) value).getDescription();
+        }
+        if (value instanceof StreamingPropertyValue) {
+            StreamingPropertyValue streamingPropertyValue = (StreamingPropertyValue) value;
+            if (streamingPropertyValue.getValueType() == String.class && streamingPropertyValue.isSearchIndex()) {
+                return streamingPropertyValue.readToString();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTokenCharacter(int codePoint) {
+        return TOKEN_CHARACTER.matcher(new String(Character.toChars(codePoint))).matches();
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class IndexedToken {
+        private final String propertyName;
+        private final String token;
+        private final Visibility visibility;
+
+        IndexedToken(String propertyName, String token, Visibility visibility) {
+            this.propertyName = propertyName;
+            this.token = token;
+            this.visibility = visibility;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IndexedToken that = (IndexedToken) o;
+            return propertyName.equals(that.propertyName) && token.equals(that.token) && visibility.equals(that.visibility);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(propertyName, token, visibility);
+        }
+    }
+}
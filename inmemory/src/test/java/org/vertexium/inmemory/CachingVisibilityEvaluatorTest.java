@@ -0,0 +1,59 @@
+package org.vertexium.inmemory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Visibility;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CachingVisibilityEvaluatorTest {
+    @Test
+    public void testCanRead() {
+        CachingVisibilityEvaluator evaluator = new CachingVisibilityEvaluator(new String[]{"a", "b"});
+        assertTrue(evaluator.canRead(new Visibility("")));
+        assertTrue(evaluator.canRead(new Visibility("a")));
+        assertTrue(evaluator.canRead(new Visibility("a&b")));
+        assertTrue(evaluator.canRead(new Visibility("a|c")));
+        assertTrue(evaluator.canRead(new Visibility("(a&b)|c")));
+        assertFalse(evaluator.canRead(new Visibility("c")));
+        assertFalse(evaluator.canRead(new Visibility("a&c")));
+        assertFalse(evaluator.canRead(new Visibility("(a|b)&c")));
+    }
+
+    @Test
+    public void testCachesResults() {
+        CachingVisibilityEvaluator evaluator = new CachingVisibilityEvaluator(new String[]{"a"});
+        assertTrue(evaluator.canRead(new Visibility("a")));
+        assertFalse(evaluator.canRead(new Visibility("b")));
+        assertEquals(2, evaluator.getCachedResultCount());
+
+        assertTrue(evaluator.canRead(new Visibility("a")));
+        assertFalse(evaluator.canRead(new Visibility("b")));
+        assertEquals(2, evaluator.getCachedResultCount());
+
+        // the empty visibility is never cached
+        assertTrue(evaluator.canRead(new Visibility("")));
+        assertEquals(2, evaluator.getCachedResultCount());
+    }
+
+    @Test
+    public void testBoundedResults() {
+        CachingVisibilityEvaluator evaluator = new CachingVisibilityEvaluator(new String[]{"a0", "a2", "a4"}, 2);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i == 0 || i == 2 || i == 4, evaluator.canRead(new Visibility("a" + i)));
+            assertTrue(evaluator.getCachedResultCount() <= 2);
+        }
+
+        // evicted results are evaluated again
+        assertTrue(evaluator.canRead(new Visibility("a0")));
+        assertFalse(evaluator.canRead(new Visibility("a1")));
+        assertTrue(evaluator.getCachedResultCount() <= 2);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidVisibility() {
+        new CachingVisibilityEvaluator(new String[]{"a"}).canRead(new Visibility("a&"));
+    }
+}
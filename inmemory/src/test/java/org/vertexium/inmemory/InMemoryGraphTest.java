@@ -6,14 +6,17 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.vertexium.*;
+import org.vertexium.event.AddVertexEvent;
+import org.vertexium.event.GraphEvent;
+import org.vertexium.event.GraphEventListener;
 import org.vertexium.id.UUIDIdGenerator;
 import org.vertexium.search.DefaultSearchIndex;
 import org.vertexium.test.GraphTestBase;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 @RunWith(JUnit4.class)
 public class InMemoryGraphTest extends GraphTestBase {
@@ -23,7 +26,7 @@ public class InMemoryGraphTest extends GraphTestBase {
         return new GraphFactory().createGraph(config);
     }
 
-    private Map<String, String> createConfig() {
+    protected Map<String, String> createConfig() {
         Map<String, String> config = new HashMap<>();
         config.put("", InMemoryGraph.class.getName());
         config.put(GraphConfiguration.IDGENERATOR_PROP_PREFIX, UUIDIdGenerator.class.getName());
@@ -80,4 +83,33 @@ public class InMemoryGraphTest extends GraphTestBase {
             assertEquals(String.class, ex.getValueClass());
         }
     }
+
+    @Test
+    public void testAsyncGraphEventDispatch() {
+        Thread testThread = Thread.currentThread();
+        Map<String, String> config = createConfig();
+        config.put(GraphConfiguration.GRAPH_EVENT_DISPATCH_ASYNC, "true");
+        InMemoryGraph g = InMemoryGraph.create((Map) config);
+        List<GraphEvent> events = Collections.synchronizedList(new ArrayList<>());
+        GraphEventListener listener = new GraphEventListener() {
+            @Override
+            public void onGraphEvent(GraphEvent graphEvent) {
+                assertNotEquals(testThread, Thread.currentThread());
+                events.add(graphEvent);
+            }
+        };
+        g.addGraphEventListener(listener);
+
+        Vertex v1 = g.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = g.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        assertTrue(g.getGraphEventDispatcher().awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(2, events.size());
+        assertEquals(new AddVertexEvent(g, v1), events.get(0));
+        assertEquals(new AddVertexEvent(g, v2), events.get(1));
+        assertEquals(2, g.getGraphEventDispatcher().getListenerStatistics(listener).getDeliveredCount());
+
+        g.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        g.shutdown();
+        assertEquals(3, events.size());
+    }
 }
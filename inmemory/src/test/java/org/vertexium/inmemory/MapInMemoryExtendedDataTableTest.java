@@ -0,0 +1,61 @@
+package org.vertexium.inmemory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.vertexium.util.IterableUtils.count;
+
+@RunWith(JUnit4.class)
+public class MapInMemoryExtendedDataTableTest {
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final Authorizations AUTHORIZATIONS_A = new InMemoryAuthorizations("a");
+    private static final int THREAD_COUNT = 8;
+    private static final int ELEMENT_COUNT = 20;
+    private static final int ROW_COUNT = 200;
+
+    @Test
+    public void testConcurrentWritesAndReads() throws Exception {
+        MapInMemoryExtendedDataTable table = new MapInMemoryExtendedDataTable(4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    for (int row = 0; row < ROW_COUNT; row++) {
+                        for (int element = 0; element < ELEMENT_COUNT; element++) {
+                            String elementId = "v" + element;
+                            ExtendedDataRowId rowId = new ExtendedDataRowId(ElementType.VERTEX, elementId, "table1", threadIndex + "-" + row);
+                            table.addData(rowId, "column1", null, row, row, VISIBILITY_A);
+                            table.addData(rowId, "column2", null, row, row, VISIBILITY_A);
+                            table.getTable(ElementType.VERTEX, elementId, "table1", AUTHORIZATIONS_A).forEach(ExtendedDataRow::getProperties);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int element = 0; element < ELEMENT_COUNT; element++) {
+            Iterable<ExtendedDataRow> rows = table.getTable(ElementType.VERTEX, "v" + element, "table1", AUTHORIZATIONS_A);
+            assertEquals(THREAD_COUNT * ROW_COUNT, count(rows));
+            for (ExtendedDataRow row : rows) {
+                assertEquals(2, count(row.getProperties()));
+            }
+        }
+        assertEquals(ELEMENT_COUNT * THREAD_COUNT * ROW_COUNT, count(table.getAllRows()));
+    }
+}
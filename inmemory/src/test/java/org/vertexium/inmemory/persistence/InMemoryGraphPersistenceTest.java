@@ -0,0 +1,150 @@
+package org.vertexium.inmemory.persistence;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.*;
+import org.vertexium.inmemory.InMemoryAuthorizations;
+import org.vertexium.inmemory.InMemoryGraph;
+import org.vertexium.inmemory.InMemoryGraphConfiguration;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.vertexium.util.IterableUtils.count;
+import static org.vertexium.util.IterableUtils.toList;
+
+@RunWith(JUnit4.class)
+public class InMemoryGraphPersistenceTest {
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final Authorizations AUTHORIZATIONS_A = new InMemoryAuthorizations("a");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void before() throws Exception {
+        directory = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void testRecoverFromSnapshot() {
+        InMemoryGraph graph = createGraph();
+        addElements(graph);
+        graph.shutdown();
+        assertEquals(1, SnapshotFile.listSnapshots(directory).size());
+
+        graph = createGraph();
+        assertElements(graph);
+        graph.shutdown();
+    }
+
+    @Test
+    public void testRecoverFromMutationLog() {
+        InMemoryGraph graph = createGraph();
+        addElements(graph);
+        graph.flush();
+        assertEquals(0, SnapshotFile.listSnapshots(directory).size());
+
+        // the first graph is never shutdown, as if the process was killed
+        graph = createGraph();
+        assertElements(graph);
+        graph.shutdown();
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndMutationLog() {
+        InMemoryGraph graph = createGraph();
+        graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.shutdown();
+
+        graph = createGraph();
+        addElements(graph);
+        graph.deleteVertex("v3", AUTHORIZATIONS_A);
+        graph.flush();
+
+        graph = createGraph();
+        assertElements(graph);
+        assertNull(graph.getVertex("v3", AUTHORIZATIONS_A));
+        graph.shutdown();
+    }
+
+    @Test
+    public void testRecoverAfterIncompleteMutationLogEntry() throws Exception {
+        InMemoryGraph graph = createGraph();
+        graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        File segment = MutationLog.listSegments(directory).get(0);
+        MutationLog.SegmentEntries segmentEntries = MutationLog.read(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(segmentEntries.getEndPosition());
+            file.writeInt(1000);
+        }
+
+        graph = createGraph();
+        assertNotNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+        graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.shutdown();
+
+        graph = createGraph();
+        assertNotNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+        assertNotNull(graph.getVertex("v2", AUTHORIZATIONS_A));
+        graph.shutdown();
+    }
+
+    private void addElements(InMemoryGraph graph) {
+        graph.setMetadata("key1", "value1");
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", "value1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop2", "value2", VISIBILITY_A)
+                .addExtendedData("table1", "row1", "column1", "value1", VISIBILITY_A)
+                .addExtendedData("table1", "row2", "column1", "value2", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Edge edge = graph.addEdge("e1", "v1", "v2", "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        edge.prepareMutation()
+                .alterEdgeLabel("label2")
+                .save(AUTHORIZATIONS_A);
+        graph.getVertex("v1", AUTHORIZATIONS_A).deleteProperty("k1", "prop2", AUTHORIZATIONS_A);
+        graph.deleteExtendedDataRow(new ExtendedDataRowId(ElementType.VERTEX, "v1", "table1", "row2"), AUTHORIZATIONS_A);
+    }
+
+    private void assertElements(InMemoryGraph graph) {
+        assertEquals("value1", graph.getMetadata("key1"));
+
+        Vertex v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        assertNotNull(v1);
+        assertEquals("value1", v1.getPropertyValue("k1", "prop1"));
+        assertNull(v1.getProperty("k1", "prop2"));
+        assertEquals(0, count(v1.getEdges(Direction.OUT, "label1", AUTHORIZATIONS_A)));
+        assertEquals(1, count(v1.getEdges(Direction.OUT, "label2", AUTHORIZATIONS_A)));
+
+        Edge e1 = graph.getEdge("e1", AUTHORIZATIONS_A);
+        assertEquals("label2", e1.getLabel());
+        assertEquals("v2", e1.getVertexId(Direction.IN));
+
+        ExtendedDataRow row = toList(v1.getExtendedData("table1")).get(0);
+        assertEquals(1, count(v1.getExtendedData("table1")));
+        assertEquals("value1", row.getPropertyValue("column1"));
+    }
+
+    private InMemoryGraph createGraph() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(InMemoryGraphConfiguration.PERSISTENCE_DIRECTORY, directory.getAbsolutePath());
+        config.put(InMemoryGraphConfiguration.PERSISTENCE_SNAPSHOT_INTERVAL_SECONDS, 0);
+        config.put(InMemoryGraphConfiguration.PERSISTENCE_LOG_SEGMENT_SIZE, 64 * 1024);
+        InMemoryGraph graph = InMemoryGraph.create(config);
+        graph.createAuthorizations(AUTHORIZATIONS_A.getAuthorizations());
+        return graph;
+    }
+}
@@ -0,0 +1,44 @@
+package org.vertexium.inmemory.search;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Edge;
+import org.vertexium.Element;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.inmemory.InMemoryGraphTest;
+import org.vertexium.query.Compare;
+import org.vertexium.query.Contains;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.vertexium.test.util.VertexiumAssert.assertEdgeIdsAnyOrder;
+import static org.vertexium.test.util.VertexiumAssert.assertVertexIdsAnyOrder;
+
+@RunWith(JUnit4.class)
+public class InMemorySearchIndexTest extends InMemoryGraphTest {
+    @Override
+    protected Map<String, String> createConfig() {
+        Map<String, String> config = super.createConfig();
+        config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, InMemorySearchIndex.class.getName());
+        return config;
+    }
+
+    @Test
+    public void testHasIdAndEdgeLabel() {
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "name", "joe", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e1", "v1", "v2", "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e2", "v2", "v1", "label2", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        assertVertexIdsAnyOrder(graph.query(AUTHORIZATIONS_A).has(Element.ID_PROPERTY_NAME, Compare.EQUAL, "v1").vertices(), "v1");
+        assertVertexIdsAnyOrder(graph.query(AUTHORIZATIONS_A).has(Element.ID_PROPERTY_NAME, Contains.IN, Arrays.asList("v1", "v2")).vertices(), "v1", "v2");
+        assertVertexIdsAnyOrder(graph.query(AUTHORIZATIONS_A).has(Arrays.asList("name", Element.ID_PROPERTY_NAME), Compare.EQUAL, "v2").vertices(), "v2");
+        assertEdgeIdsAnyOrder(graph.query(AUTHORIZATIONS_A).has(Edge.LABEL_PROPERTY_NAME, Compare.EQUAL, "label1").edges(), "e1");
+        assertEdgeIdsAnyOrder(graph.query(AUTHORIZATIONS_A).has(Edge.LABEL_PROPERTY_NAME, Contains.IN, Arrays.asList("label1", "label2")).edges(), "e1", "e2");
+    }
+}
@@ -0,0 +1,111 @@
+package org.vertexium.inmemory.search;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.TextIndexHint;
+import org.vertexium.Vertex;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.query.TextPredicate;
+
+import java.util.Map;
+
+import static org.vertexium.test.util.VertexiumAssert.assertVertexIdsAnyOrder;
+
+@RunWith(JUnit4.class)
+public class InMemoryTextIndexSearchIndexTest extends InMemorySearchIndexTest {
+    @Override
+    protected Map<String, String> createConfig() {
+        Map<String, String> config = super.createConfig();
+        config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + InMemorySearchIndex.CONFIG_TEXT_INDEX, "true");
+        return config;
+    }
+
+    @Test
+    public void testTextIndexQueryString() {
+        graph.defineProperty("notIndexed").dataType(String.class).textIndexHint(TextIndexHint.NONE).define();
+        graph.prepareVertex("v1", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "name", "Joe Ferner", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "notIndexed", "hidden word", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.prepareVertex("v2", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "name", "Ferner, Joe", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "secret", "classified", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        assertVertexIdsAnyOrder(graph.query("joe", AUTHORIZATIONS_B).vertices(), "v1", "v2");
+        assertVertexIdsAnyOrder(graph.query("\"joe ferner\"", AUTHORIZATIONS_B).vertices(), "v1");
+        assertVertexIdsAnyOrder(graph.query("fern*", AUTHORIZATIONS_B).vertices(), "v1", "v2");
+        assertVertexIdsAnyOrder(graph.query("oe", AUTHORIZATIONS_B).vertices());
+        assertVertexIdsAnyOrder(graph.query("word", AUTHORIZATIONS_B).vertices());
+        assertVertexIdsAnyOrder(graph.query("classified", AUTHORIZATIONS_B).vertices());
+        assertVertexIdsAnyOrder(graph.query("classified", AUTHORIZATIONS_A).vertices(), "v2");
+
+        graph.getVertex("v1", AUTHORIZATIONS_A_AND_B).prepareMutation()
+                .addPropertyValue("k1", "name", "Sam", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.deleteVertex("v2", AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+        assertVertexIdsAnyOrder(graph.query("joe", AUTHORIZATIONS_B).vertices());
+        assertVertexIdsAnyOrder(graph.query("sam", AUTHORIZATIONS_B).vertices(), "v1");
+    }
+
+    @Test
+    public void testTextIndexContains() {
+        graph.prepareVertex("v1", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", "The quick brown fox", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.prepareVertex("v2", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", "A brown quick dog", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        Iterable<Vertex> vertices = graph.query(AUTHORIZATIONS_A_AND_B).has("description", TextPredicate.CONTAINS, "quick").vertices();
+        assertVertexIdsAnyOrder(vertices, "v1", "v2");
+        vertices = graph.query(AUTHORIZATIONS_B).has("description", TextPredicate.CONTAINS, "quick").vertices();
+        assertVertexIdsAnyOrder(vertices, "v1");
+        vertices = graph.query(AUTHORIZATIONS_A_AND_B).has("description", TextPredicate.CONTAINS, "quick brown").vertices();
+        assertVertexIdsAnyOrder(vertices, "v1");
+    }
+
+    @Test
+    public void testTextIndexContainsSubstrings() {
+        graph.prepareVertex("v1", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", "The quick brown fox", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.prepareVertex("v2", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", "Quickly, brownies!", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        assertVertexIdsAnyOrder(containsQuery("ick"), "v1", "v2");
+        assertVertexIdsAnyOrder(containsQuery("quick bro"), "v1");
+        assertVertexIdsAnyOrder(containsQuery("ly, brown"), "v2");
+        assertVertexIdsAnyOrder(containsQuery("e quick"), "v1");
+        assertVertexIdsAnyOrder(containsQuery("ick "), "v1");
+        assertVertexIdsAnyOrder(containsQuery(" brown"), "v1", "v2");
+        assertVertexIdsAnyOrder(containsQuery("!"), "v2");
+        assertVertexIdsAnyOrder(containsQuery("quick fox"));
+    }
+
+    @Test
+    public void testTextIndexContainsUnindexedStreamingValues() {
+        graph.prepareVertex("v1", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", "The quick brown fox", VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.prepareVertex("v2", VISIBILITY_EMPTY)
+                .addPropertyValue("k1", "description", StreamingPropertyValue.create("A quick dog").searchIndex(false), VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        // the streaming value isn't in the text index, so CONTAINS scans like it does without the index
+        assertVertexIdsAnyOrder(containsQuery("quick"), "v1", "v2");
+        assertVertexIdsAnyOrder(graph.query("quick", AUTHORIZATIONS_A_AND_B).vertices(), "v1");
+    }
+
+    private Iterable<Vertex> containsQuery(String text) {
+        return graph.query(AUTHORIZATIONS_A_AND_B).has("description", TextPredicate.CONTAINS, text).vertices();
+    }
+}
@@ -0,0 +1,114 @@
+package org.vertexium.inmemory.search;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.*;
+import org.vertexium.inmemory.InMemoryAuthorizations;
+import org.vertexium.inmemory.InMemoryGraph;
+import org.vertexium.search.DefaultSearchIndex;
+import org.vertexium.search.Reindexer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.vertexium.util.IterableUtils.count;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class ReindexerTest {
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final Authorizations AUTHORIZATIONS_A = new InMemoryAuthorizations("a");
+    private InMemoryGraph graph;
+    private RecordingSearchIndex searchIndex;
+    private Map<ElementType, List<Range>> partitions;
+
+    @Before
+    public void before() {
+        graph = InMemoryGraph.create();
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex("v" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+        }
+        graph.addEdge("e1", "v1", "v2", "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e2", "v2", "v3", "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+        searchIndex = new RecordingSearchIndex(graph.getConfiguration());
+        partitions = new LinkedHashMap<>();
+        partitions.put(ElementType.VERTEX, Reindexer.splitsToRanges(Arrays.asList("v3", "v6")));
+        partitions.put(ElementType.EDGE, Reindexer.splitsToRanges(Collections.emptyList()));
+    }
+
+    @Test
+    public void testReindexIndexesEveryElementOnce() {
+        assertEquals(12, new Reindexer(graph, searchIndex, 3).reindex(partitions, AUTHORIZATIONS_A));
+        assertEquals(12, searchIndex.indexedIds.size());
+        for (Integer count : searchIndex.indexedIds.values()) {
+            assertEquals(1, (int) count);
+        }
+        assertEquals(0, count(graph.getMetadataWithPrefix(Reindexer.METADATA_PARTITION_PREFIX)));
+
+        // a finished reindex starts over
+        assertEquals(12, new Reindexer(graph, searchIndex, 3).reindex(partitions, AUTHORIZATIONS_A));
+        assertEquals(2, (int) searchIndex.indexedIds.get("v1"));
+    }
+
+    @Test
+    public void testReindexResumesAfterFailure() {
+        searchIndex.failOnId = "v4";
+        try {
+            new Reindexer(graph, searchIndex, 1).reindex(partitions, AUTHORIZATIONS_A);
+            fail("expected failure");
+        } catch (VertexiumException ex) {
+            // expected
+        }
+        assertEquals(1, (int) searchIndex.indexedIds.get("v0"));
+
+        searchIndex.failOnId = null;
+        new Reindexer(graph, searchIndex, 1).reindex(partitions, AUTHORIZATIONS_A);
+        // partitions queued behind the failed one may or may not have been indexed before the failure was seen
+        assertEquals("the first partition was indexed before the failure", 1, (int) searchIndex.indexedIds.get("v0"));
+        assertEquals(12, searchIndex.indexedIds.size());
+    }
+
+    @Test
+    public void testReindexResumedWithDifferentSplitsIndexesChangedRanges() {
+        searchIndex.failOnId = "v4";
+        try {
+            new Reindexer(graph, searchIndex, 1).reindex(partitions, AUTHORIZATIONS_A);
+            fail("expected failure");
+        } catch (VertexiumException ex) {
+            // expected
+        }
+        assertEquals(1, (int) searchIndex.indexedIds.get("v0"));
+
+        // the first range now starts at the same id but ends later so it is indexed again
+        searchIndex.failOnId = null;
+        partitions.put(ElementType.VERTEX, Reindexer.splitsToRanges(Collections.singletonList("v6")));
+        new Reindexer(graph, searchIndex, 1).reindex(partitions, AUTHORIZATIONS_A);
+        assertEquals(2, (int) searchIndex.indexedIds.get("v0"));
+        assertEquals(1, (int) searchIndex.indexedIds.get("v4"));
+        assertEquals(12, searchIndex.indexedIds.size());
+        assertEquals(0, count(graph.getMetadataWithPrefix(Reindexer.METADATA_PARTITION_PREFIX)));
+    }
+
+    private static class RecordingSearchIndex extends DefaultSearchIndex {
+        private final Map<String, Integer> indexedIds = new ConcurrentHashMap<>();
+        private volatile String failOnId;
+
+        RecordingSearchIndex(GraphConfiguration configuration) {
+            super(configuration);
+        }
+
+        @Override
+        public void addElements(Graph graph, Iterable<? extends Element> elements, Authorizations authorizations) {
+            for (Element element : elements) {
+                if (element.getId().equals(failOnId)) {
+                    throw new VertexiumException("failed indexing " + failOnId);
+                }
+                indexedIds.merge(element.getId(), 1, Integer::sum);
+            }
+        }
+    }
+}
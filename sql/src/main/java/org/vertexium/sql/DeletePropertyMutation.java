@@ -0,0 +1,28 @@
+package org.vertexium.sql;
+
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.mutations.Mutation;
+
+/**
+ * Stored in the mutation table of an element when a property is deleted, the mutations of the property which were
+ * stored before it are removed when the element is loaded. Never added to an element.
+ */
+class DeletePropertyMutation extends Mutation {
+    private static final long serialVersionUID = 1L;
+    private final String key;
+    private final String name;
+
+    DeletePropertyMutation(long timestamp, String key, String name, Visibility visibility) {
+        super(timestamp, visibility);
+        this.key = key;
+        this.name = name;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getName() {
+        return name;
+    }
+}
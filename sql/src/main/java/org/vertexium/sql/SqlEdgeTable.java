@@ -15,6 +15,11 @@ public class SqlEdgeTable extends InMemoryEdgeTable {
         return new SqlTableEdge(id);
     }
 
+    @Override
+    protected boolean isVertexEdgeIndexEnabled() {
+        return false;
+    }
+
     @Override
     public Iterable<InMemoryTableEdge> getAllTableElements() {
         return new ConvertingIterable<InMemoryTableElement<InMemoryEdge>, InMemoryTableEdge>(super.getRowValues()) {
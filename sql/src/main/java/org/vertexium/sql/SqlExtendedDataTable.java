@@ -8,11 +8,9 @@ import org.skife.jdbi.v2.Query;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.tweak.ResultSetMapper;
 import org.vertexium.*;
+import org.vertexium.inmemory.CachingVisibilityEvaluator;
 import org.vertexium.inmemory.InMemoryExtendedDataRow;
 import org.vertexium.inmemory.InMemoryExtendedDataTable;
-import org.vertexium.security.ColumnVisibility;
-import org.vertexium.security.VisibilityEvaluator;
-import org.vertexium.security.VisibilityParseException;
 import org.vertexium.util.GroupingIterable;
 
 import javax.sql.DataSource;
@@ -66,7 +64,7 @@ public class SqlExtendedDataTable extends InMemoryExtendedDataTable {
 
     @Override
     public Iterable<? extends ExtendedDataRow> getTable(ElementType elementType, String elementId, String tableName, Authorizations authorizations) {
-        VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new org.vertexium.security.Authorizations(authorizations.getAuthorizations()));
+        CachingVisibilityEvaluator visibilityEvaluator = CachingVisibilityEvaluator.get(authorizations);
 
         Handle handle = dbi.open();
         Query<Row> rows = handle
@@ -85,11 +83,7 @@ public class SqlExtendedDataTable extends InMemoryExtendedDataTable {
         return new GroupingIterable<Row, InMemoryExtendedDataRow>(rows) {
             @Override
             protected boolean isIncluded(Row item) {
-                try {
-                    return visibilityEvaluator.evaluate(new ColumnVisibility(item.visibility.getVisibilityString()));
-                } catch (VisibilityParseException e) {
-                    throw new VertexiumException("Could not parse visibility: " + item.visibility);
-                }
+                return visibilityEvaluator.canRead(item.visibility);
             }
 
             @Override
@@ -1,6 +1,5 @@
 package org.vertexium.sql;
 
-import com.google.common.collect.Iterables;
 import org.vertexium.*;
 import org.vertexium.inmemory.*;
 import org.vertexium.mutation.SetPropertyMetadata;
@@ -8,6 +7,7 @@ import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.property.StreamingPropertyValueRef;
 import org.vertexium.sql.collections.SqlMap;
 import org.vertexium.sql.collections.Storable;
+import org.vertexium.util.ArrayUtils;
 import org.vertexium.util.ConvertingIterable;
 import org.vertexium.util.LookAheadIterable;
 
@@ -170,35 +170,15 @@ public class SqlGraph extends InMemoryGraph {
                 return (T) element.createElement(SqlGraph.this, fetchHints, endTime, authorizations);
             }
 
-            @SuppressWarnings("unused")
             @Override
             protected Iterator<InMemoryTableElement> createIterator() {
-                StringBuilder idWhere = new StringBuilder();
-                boolean first = true;
-                for (String id : ids) {
-                    if (first) {
-                        idWhere.append("id = ?");
-                        first = false;
-                    } else {
-                        idWhere.append(" or id = ?");
+                Collection<InMemoryTableElement<T>> elements = sqlMap.getAll(ids).values();
+                return new ConvertingIterable<InMemoryTableElement, InMemoryTableElement>(elements) {
+                    @Override
+                    protected InMemoryTableElement convert(InMemoryTableElement element) {
+                        return ((SqlTableElement) element).asInMemoryTableElement();
                     }
-                }
-
-                if (first) {
-                    return Collections.emptyIterator();
-                } else {
-                    Iterator<InMemoryTableElement<T>> elements = sqlMap.query(
-                            idWhere.toString(),
-                            Iterables.toArray(ids, Object.class)
-                    );
-
-                    return new ConvertingIterable<InMemoryTableElement, InMemoryTableElement>(elements) {
-                        @Override
-                        protected InMemoryTableElement convert(InMemoryTableElement element) {
-                            return ((SqlTableElement) element).asInMemoryTableElement();
-                        }
-                    }.iterator();
-                }
+                }.iterator();
             }
         };
     }
@@ -206,6 +186,8 @@ public class SqlGraph extends InMemoryGraph {
     @Override
     public Iterable<Edge> getEdgesFromVertex(
             String vertexId,
+            Direction direction,
+            String[] labels,
             FetchHints fetchHints,
             Long endTime,
             Authorizations authorizations
@@ -213,7 +195,13 @@ public class SqlGraph extends InMemoryGraph {
         return new LookAheadIterable<InMemoryTableEdge, Edge>() {
             @Override
             protected boolean isIncluded(InMemoryTableEdge element, Edge edge) {
-                return edge != null && SqlGraph.this.isIncluded(element, fetchHints, authorizations);
+                if (edge == null) {
+                    return false;
+                }
+                if (labels != null && !ArrayUtils.contains(labels, edge.getLabel())) {
+                    return false;
+                }
+                return SqlGraph.this.isIncluded(element, fetchHints, authorizations);
             }
 
             @Override
@@ -223,8 +211,18 @@ public class SqlGraph extends InMemoryGraph {
 
             @Override
             protected Iterator<InMemoryTableEdge> createIterator() {
-                Iterator<InMemoryTableElement<InMemoryEdge>> elements =
-                        edgeMap.query("in_vertex_id = ? or out_vertex_id = ?", vertexId, vertexId);
+                Iterator<InMemoryTableElement<InMemoryEdge>> elements;
+                switch (direction) {
+                    case IN:
+                        elements = edgeMap.query("in_vertex_id = ?", vertexId);
+                        break;
+                    case OUT:
+                        elements = edgeMap.query("out_vertex_id = ?", vertexId);
+                        break;
+                    default:
+                        elements = edgeMap.query("in_vertex_id = ? or out_vertex_id = ?", vertexId, vertexId);
+                        break;
+                }
 
                 return new ConvertingIterable<InMemoryTableElement<InMemoryEdge>, InMemoryTableEdge>(elements) {
                     @Override
@@ -4,7 +4,10 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.vertexium.VertexiumSerializer;
 import org.vertexium.inmemory.*;
+import org.vertexium.inmemory.mutations.EdgeSetupMutation;
+import org.vertexium.inmemory.mutations.Mutation;
 import org.vertexium.sql.collections.SqlMap;
+import org.vertexium.sql.collections.SqlMapCache;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
@@ -16,12 +19,22 @@ public class SqlGraphConfiguration extends InMemoryGraphConfiguration {
     protected static final String VALUE_COLUMN_NAME = "object";
     protected static final String VERTEX_TABLE_NAME = "vertex";
     protected static final String EDGE_TABLE_NAME = "edge";
+    protected static final String VERTEX_MUTATION_TABLE_NAME = "vertex_mutation";
+    protected static final String EDGE_MUTATION_TABLE_NAME = "edge_mutation";
     protected static final String EXTENDED_DATA_TABLE_NAME = "extendeddata";
     protected static final String METADATA_TABLE_NAME = "metadata";
     protected static final String STREAMING_PROPERTIES_TABLE_NAME = "streaming_properties";
     protected static final String IN_VERTEX_ID_COLUMN = "in_vertex_id";
     protected static final String OUT_VERTEX_ID_COLUMN = "out_vertex_id";
     private static final String CONFIG_PREFIX = "sql.";
+    public static final String ELEMENT_CACHE_MAX_BYTES = "elementCacheMaxBytes";
+    public static final long DEFAULT_ELEMENT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    public static final String ELEMENT_CACHE_SEGMENTS = "elementCacheSegments";
+    public static final int DEFAULT_ELEMENT_CACHE_SEGMENTS = 16;
+    public static final String MULTI_GET_BATCH_SIZE = "multiGetBatchSize";
+    public static final int DEFAULT_MULTI_GET_BATCH_SIZE = SqlMap.DEFAULT_MULTI_GET_BATCH_SIZE;
+    public static final String MUTATION_CHECKPOINT_COUNT = "mutationCheckpointCount";
+    public static final int DEFAULT_MUTATION_CHECKPOINT_COUNT = 100;
 
     private final DataSource dataSource;
     private final VertexiumSerializer serializer;
@@ -53,9 +66,45 @@ public class SqlGraphConfiguration extends InMemoryGraphConfiguration {
         return getTableNamePrefix() + "_" + tableName;
     }
 
-    protected SqlMap<InMemoryTableElement<InMemoryEdge>> newEdgeMap() {
-        return new SqlMap<InMemoryTableElement<InMemoryEdge>>(
-                tableNameWithPrefix(EDGE_TABLE_NAME), KEY_COLUMN_NAME, VALUE_COLUMN_NAME, dataSource, serializer) {
+    /**
+     * The total size of the serialized vertices and of the serialized edges which are kept deserialized in memory,
+     * 0 to read every element from the database.
+     */
+    public long getElementCacheMaxBytes() {
+        return getConfigLong(ELEMENT_CACHE_MAX_BYTES, DEFAULT_ELEMENT_CACHE_MAX_BYTES);
+    }
+
+    public int getElementCacheSegments() {
+        return getInt(ELEMENT_CACHE_SEGMENTS, DEFAULT_ELEMENT_CACHE_SEGMENTS);
+    }
+
+    /**
+     * The most element ids looked up by a single query when getting many vertices or edges.
+     */
+    public int getMultiGetBatchSize() {
+        return getInt(MULTI_GET_BATCH_SIZE, DEFAULT_MULTI_GET_BATCH_SIZE);
+    }
+
+    /**
+     * The number of mutations stored one by one for an element before the element is stored as a whole again.
+     */
+    public int getMutationCheckpointCount() {
+        return getInt(MUTATION_CHECKPOINT_COUNT, DEFAULT_MUTATION_CHECKPOINT_COUNT);
+    }
+
+    private <T> SqlMapCache<T> newElementCache() {
+        long maxBytes = getElementCacheMaxBytes();
+        if (maxBytes <= 0) {
+            return null;
+        }
+        return new SqlMapCache<>(maxBytes, getElementCacheSegments());
+    }
+
+    protected SqlTableElementMap<InMemoryEdge> newEdgeMap() {
+        return new SqlTableElementMap<InMemoryEdge>(
+                tableNameWithPrefix(EDGE_TABLE_NAME), tableNameWithPrefix(EDGE_MUTATION_TABLE_NAME),
+                KEY_COLUMN_NAME, VALUE_COLUMN_NAME, dataSource, serializer,
+                newElementCache(), getMultiGetBatchSize(), getMutationCheckpointCount()) {
 
             @Override
             protected Map<String, Object> additionalColumns(String key, InMemoryTableElement<InMemoryEdge> value) {
@@ -65,6 +114,16 @@ public class SqlGraphConfiguration extends InMemoryGraphConfiguration {
                 columns.put(OUT_VERTEX_ID_COLUMN, edge.outVertexId());
                 return columns;
             }
+
+            @Override
+            protected boolean isAdditionalColumnsChanged(Mutation[] mutations) {
+                for (Mutation mutation : mutations) {
+                    if (mutation instanceof EdgeSetupMutation) {
+                        return true;
+                    }
+                }
+                return false;
+            }
         };
     }
 
@@ -72,9 +131,11 @@ public class SqlGraphConfiguration extends InMemoryGraphConfiguration {
         return new SqlExtendedDataTable(tableNameWithPrefix(EXTENDED_DATA_TABLE_NAME), dataSource, serializer);
     }
 
-    protected SqlMap<InMemoryTableElement<InMemoryVertex>> newVertexMap() {
-        return new SqlMap<>(
-                tableNameWithPrefix(VERTEX_TABLE_NAME), KEY_COLUMN_NAME, VALUE_COLUMN_NAME, dataSource, serializer);
+    protected SqlTableElementMap<InMemoryVertex> newVertexMap() {
+        return new SqlTableElementMap<>(
+                tableNameWithPrefix(VERTEX_TABLE_NAME), tableNameWithPrefix(VERTEX_MUTATION_TABLE_NAME),
+                KEY_COLUMN_NAME, VALUE_COLUMN_NAME, dataSource, serializer,
+                newElementCache(), getMultiGetBatchSize(), getMutationCheckpointCount());
     }
 
     protected SqlMap<Object> newMetadataMap() {
@@ -40,6 +40,14 @@ public class SqlGraphDDL {
                 graphConfig.tableNameWithPrefix(SqlGraphConfiguration.EDGE_TABLE_NAME),
                 "in_vertex_id", "out_vertex_id"
         );
+        createMutationTable(
+                dataSource,
+                graphConfig.tableNameWithPrefix(SqlGraphConfiguration.VERTEX_MUTATION_TABLE_NAME)
+        );
+        createMutationTable(
+                dataSource,
+                graphConfig.tableNameWithPrefix(SqlGraphConfiguration.EDGE_MUTATION_TABLE_NAME)
+        );
         createMapTable(
                 dataSource,
                 graphConfig.tableNameWithPrefix(SqlGraphConfiguration.METADATA_TABLE_NAME),
@@ -72,6 +80,25 @@ public class SqlGraphDDL {
         runSql(dataSource, sql, tableName);
     }
 
+    private static void createMutationTable(DataSource dataSource, String tableName) {
+        String sql = String.format(
+                "CREATE TABLE IF NOT EXISTS %s (" +
+                        "%s varchar(" + ID_VARCHAR_SIZE + ") not null," +
+                        "%s bigint not null," +
+                        "%s %s not null," +
+                        "primary key (%s, %s)" +
+                        ")",
+                tableName,
+                SqlGraphConfiguration.KEY_COLUMN_NAME,
+                SqlTableElementMap.SEQUENCE_COLUMN_NAME,
+                SqlGraphConfiguration.VALUE_COLUMN_NAME,
+                BIG_BIN_COLUMN_TYPE,
+                SqlGraphConfiguration.KEY_COLUMN_NAME,
+                SqlTableElementMap.SEQUENCE_COLUMN_NAME
+        );
+        runSql(dataSource, sql, tableName);
+    }
+
     private static void createStreamingPropertiesTable(DataSource dataSource, String tableName) {
         String sql = String.format(
                 "CREATE TABLE IF NOT EXISTS %s (" +
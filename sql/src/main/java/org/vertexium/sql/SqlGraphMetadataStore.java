@@ -33,4 +33,9 @@ public class SqlGraphMetadataStore extends GraphMetadataStore {
     public void setMetadata(String key, Object value) {
         metadata.put(key, value);
     }
+
+    @Override
+    public void removeMetadata(String key) {
+        metadata.remove(key);
+    }
 }
@@ -1,9 +1,11 @@
 package org.vertexium.sql;
 
 import org.vertexium.Authorizations;
+import org.vertexium.FetchHints;
 import org.vertexium.Metadata;
 import org.vertexium.Property;
 import org.vertexium.Visibility;
+import org.vertexium.inmemory.AllAuthorizations;
 import org.vertexium.inmemory.InMemoryElement;
 import org.vertexium.inmemory.InMemoryTableElement;
 import org.vertexium.inmemory.mutations.Mutation;
@@ -17,18 +19,91 @@ public abstract class SqlTableElement<TElement extends InMemoryElement>
         extends InMemoryTableElement<TElement> implements Storable<SqlTableElement<TElement>, SqlGraph> {
     private transient Map<String, SqlTableElement<TElement>> container;
     private transient SqlGraph graph;
+    private transient long lastMutationSequence;
+    private transient int storedMutationCount;
 
+    @SuppressWarnings("unchecked")
     @Override
     public void setContainer(Map<String, SqlTableElement<TElement>> container, SqlGraph graph) {
         this.container = container;
         this.graph = graph;
+        if (container instanceof SqlTableElementMap) {
+            setListener(((SqlTableElementMap<TElement>) (Map) container).createListener(this));
+        } else {
+            setListener(null);
+        }
     }
 
+    /**
+     * Stores the element if it is stored as a whole. If mutations are stored one by one they were already stored as
+     * they were added, the element is only stored if enough mutations were added since it was last stored.
+     */
+    @SuppressWarnings("unchecked")
     @Override
     public void store() {
+        if (container == null) {
+            return;
+        }
+        if (container instanceof SqlTableElementMap) {
+            ((SqlTableElementMap<TElement>) (Map) container).checkpointIfNeeded(this);
+            return;
+        }
         container.put(getId(), this);
     }
 
+    /**
+     * Applies a mutation read from the mutation table while loading the element.
+     */
+    void applyStoredMutation(long sequence, Mutation mutation) {
+        if (mutation instanceof DeletePropertyMutation) {
+            DeletePropertyMutation deletePropertyMutation = (DeletePropertyMutation) mutation;
+            Property property = getProperty(
+                    deletePropertyMutation.getKey(),
+                    deletePropertyMutation.getName(),
+                    deletePropertyMutation.getVisibility(),
+                    FetchHints.ALL_INCLUDING_HIDDEN,
+                    AllAuthorizations.INSTANCE
+            );
+            if (property != null) {
+                super.deleteProperty(property);
+            }
+        } else {
+            super.addAll(mutation);
+        }
+        mutationStored(sequence);
+    }
+
+    /**
+     * @return the sequence number of the next mutation stored for this element.
+     */
+    long nextMutationSequence() {
+        return lastMutationSequence + 1;
+    }
+
+    void mutationStored(long sequence) {
+        lastMutationSequence = Math.max(lastMutationSequence, sequence);
+        storedMutationCount++;
+    }
+
+    long getLastMutationSequence() {
+        return lastMutationSequence;
+    }
+
+    void setLastMutationSequence(long lastMutationSequence) {
+        this.lastMutationSequence = lastMutationSequence;
+    }
+
+    /**
+     * The number of mutations stored one by one since the element was last stored as a whole.
+     */
+    int getStoredMutationCount() {
+        return storedMutationCount;
+    }
+
+    void checkpointed() {
+        storedMutationCount = 0;
+    }
+
     protected SqlTableElement(String id) {
         super(id);
     }
@@ -0,0 +1,249 @@
+package org.vertexium.sql;
+
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.PreparedBatch;
+import org.skife.jdbi.v2.Query;
+import org.skife.jdbi.v2.exceptions.DBIException;
+import org.skife.jdbi.v2.util.LongMapper;
+import org.vertexium.VertexiumException;
+import org.vertexium.VertexiumSerializer;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.InMemoryElement;
+import org.vertexium.inmemory.InMemoryTableElement;
+import org.vertexium.inmemory.InMemoryTableListener;
+import org.vertexium.inmemory.mutations.Mutation;
+import org.vertexium.sql.collections.SqlMap;
+import org.vertexium.sql.collections.SqlMapCache;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Stores each element as a checkpoint, the element as a whole, in the element table and every mutation added after
+ * the checkpoint as its own row of the mutation table keyed by element id and sequence number. Adding a mutation only
+ * inserts its row, once {@code checkpointMutationCount} mutations were added the element is stored as a whole again
+ * and its mutation rows are deleted. Loading an element reads the checkpoint and applies the mutation rows in order.
+ * <p>
+ * Elements stored as a whole by earlier versions are checkpoints without mutation rows.
+ */
+public class SqlTableElementMap<TElement extends InMemoryElement> extends SqlMap<InMemoryTableElement<TElement>> {
+    public static final String SEQUENCE_COLUMN_NAME = "seq";
+    private static final int MAX_APPEND_ATTEMPTS = 3;
+    private final String mutationTableName;
+    private final int checkpointMutationCount;
+
+    public SqlTableElementMap(
+            String tableName,
+            String mutationTableName,
+            String keyColumnName,
+            String valueColumnName,
+            DataSource dataSource,
+            VertexiumSerializer serializer,
+            SqlMapCache<InMemoryTableElement<TElement>> cache,
+            int multiGetBatchSize,
+            int checkpointMutationCount
+    ) {
+        super(tableName, keyColumnName, valueColumnName, dataSource, serializer, cache, multiGetBatchSize);
+        this.mutationTableName = mutationTableName;
+        this.checkpointMutationCount = checkpointMutationCount;
+    }
+
+    /**
+     * Subclasses which store additional columns override this to update them when mutations are added.
+     */
+    @SuppressWarnings("unused")
+    protected boolean isAdditionalColumnsChanged(Mutation[] mutations) {
+        return false;
+    }
+
+    InMemoryTableListener createListener(SqlTableElement<TElement> element) {
+        return new ElementListener(element);
+    }
+
+    @Override
+    protected void afterLoad(List<InMemoryTableElement<TElement>> values) {
+        Map<String, SqlTableElement<TElement>> elementsById = new HashMap<>();
+        for (InMemoryTableElement<TElement> value : values) {
+            elementsById.put(value.getId(), (SqlTableElement<TElement>) value);
+        }
+        List<String> ids = new ArrayList<>(elementsById.keySet());
+        int multiGetBatchSize = getMultiGetBatchSize();
+        try (Handle handle = getDbi().open()) {
+            for (int start = 0; start < ids.size(); start += multiGetBatchSize) {
+                List<String> batch = ids.subList(start, Math.min(ids.size(), start + multiGetBatchSize));
+                StringBuilder sql = new StringBuilder(String.format(
+                        "select %s, %s, %s from %s where %s in (",
+                        keyColumnName, SEQUENCE_COLUMN_NAME, valueColumnName, mutationTableName, keyColumnName
+                ));
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(String.format(") order by %s, %s", keyColumnName, SEQUENCE_COLUMN_NAME));
+                Query<Map<String, Object>> query = handle.createQuery(sql.toString());
+                for (int i = 0; i < batch.size(); i++) {
+                    query = query.bind(i, batch.get(i));
+                }
+                query.map((index, rs, ctx) -> {
+                    SqlTableElement<TElement> element = elementsById.get(rs.getString(keyColumnName));
+                    Mutation mutation = getSerializer().bytesToObject(rs.getBytes(valueColumnName));
+                    element.applyStoredMutation(rs.getLong(SEQUENCE_COLUMN_NAME), mutation);
+                    return null;
+                }).list();
+            }
+        }
+    }
+
+    private void appendMutations(SqlTableElement<TElement> element, Mutation[] mutations) {
+        byte[][] values = new byte[mutations.length][];
+        for (int i = 0; i < mutations.length; i++) {
+            values[i] = getSerializer().objectToBytes(mutations[i]);
+        }
+        try (Handle handle = getDbi().open()) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    insertMutations(handle, element, values);
+                    break;
+                } catch (DBIException ex) {
+                    // another instance of the element stored mutations with the same sequence numbers
+                    if (attempt == MAX_APPEND_ATTEMPTS || !isConstraintViolation(ex)) {
+                        throw new VertexiumException("Could not store mutations of element: " + element.getId(), ex);
+                    }
+                    element.setLastMutationSequence(getLastMutationSequence(handle, element.getId()));
+                }
+            }
+            if (isAdditionalColumnsChanged(mutations)) {
+                updateAdditionalColumns(handle, element.getId(), element);
+            }
+        } finally {
+            // the cached element already has the mutations applied even if storing them failed
+            invalidate(element.getId());
+        }
+    }
+
+    private void insertMutations(Handle handle, SqlTableElement<TElement> element, byte[][] values) {
+        PreparedBatch batch = handle.prepareBatch(String.format(
+                "insert into %s (%s, %s, %s) values (?, ?, ?)",
+                mutationTableName, keyColumnName, SEQUENCE_COLUMN_NAME, valueColumnName
+        ));
+        long sequence = element.nextMutationSequence();
+        for (byte[] value : values) {
+            batch.add(element.getId(), sequence++, value);
+        }
+        batch.execute();
+        for (long stored = element.nextMutationSequence(); stored < sequence; stored++) {
+            element.mutationStored(stored);
+        }
+    }
+
+    private static boolean isConstraintViolation(DBIException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                return sqlState != null && sqlState.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    private long getLastMutationSequence(Handle handle, String id) {
+        Long lastSequence = handle
+                .createQuery(String.format(
+                        "select max(%s) from %s where %s = ?", SEQUENCE_COLUMN_NAME, mutationTableName, keyColumnName))
+                .bind(0, id)
+                .map(LongMapper.FIRST)
+                .first();
+        return lastSequence == null ? 0 : lastSequence;
+    }
+
+    /**
+     * Stores the element as a whole and deletes its mutation rows once enough mutations were added.
+     */
+    void checkpointIfNeeded(SqlTableElement<TElement> element) {
+        if (element.getStoredMutationCount() < checkpointMutationCount) {
+            return;
+        }
+        byte[] value = getSerializer().objectToBytes(element);
+        long lastSequence = element.getLastMutationSequence();
+        try (Handle handle = getDbi().open()) {
+            handle.inTransaction((h, status) -> {
+                h.execute(
+                        String.format("update %s set %s = ? where %s = ?", tableName, valueColumnName, keyColumnName),
+                        value, element.getId()
+                );
+                h.execute(
+                        String.format("delete from %s where %s = ? and %s <= ?",
+                                mutationTableName, keyColumnName, SEQUENCE_COLUMN_NAME),
+                        element.getId(), lastSequence
+                );
+                return null;
+            });
+        }
+        element.checkpointed();
+        invalidate(element.getId());
+    }
+
+    @Override
+    public InMemoryTableElement<TElement> put(String key, InMemoryTableElement<TElement> value) {
+        InMemoryTableElement<TElement> previous = super.put(key, value);
+        ((SqlTableElement<TElement>) value).checkpointed();
+        return previous;
+    }
+
+    @Override
+    protected void afterPut(Handle handle, String key, InMemoryTableElement<TElement> value) {
+        // the element is stored as a whole so its mutation rows are deleted in the same transaction
+        handle.execute(String.format("delete from %s where %s = ?", mutationTableName, keyColumnName), key);
+    }
+
+    @Override
+    public InMemoryTableElement<TElement> remove(Object key) {
+        InMemoryTableElement<TElement> previous = super.remove(key);
+        deleteMutations(key);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        try (Handle handle = getDbi().open()) {
+            handle.execute(String.format("delete from %s", mutationTableName));
+        }
+    }
+
+    private void deleteMutations(Object key) {
+        try (Handle handle = getDbi().open()) {
+            handle.execute(String.format("delete from %s where %s = ?", mutationTableName, keyColumnName), key);
+        }
+    }
+
+    private class ElementListener implements InMemoryTableListener {
+        private final SqlTableElement<TElement> element;
+
+        ElementListener(SqlTableElement<TElement> element) {
+            this.element = element;
+        }
+
+        @Override
+        public void mutationsAdded(String id, Mutation[] mutations) {
+            appendMutations(element, mutations);
+        }
+
+        @Override
+        public void propertyDeleted(String id, String key, String name, Visibility visibility) {
+            appendMutations(element, new Mutation[]{
+                    new DeletePropertyMutation(System.currentTimeMillis(), key, name, visibility)
+            });
+        }
+
+        @Override
+        public void rowRemoved(String id) {
+            // rows are removed by the table
+        }
+
+        @Override
+        public void cleared() {
+            // rows are removed by the table
+        }
+    }
+}
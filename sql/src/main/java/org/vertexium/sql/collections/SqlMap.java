@@ -19,6 +19,7 @@ import java.util.*;
 @SuppressWarnings("NullableProblems")
 public class SqlMap<T> extends AbstractMap<String, T> {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(SqlMap.class);
+    public static final int DEFAULT_MULTI_GET_BATCH_SIZE = 500;
 
     protected final String tableName;
     protected final String keyColumnName;
@@ -26,15 +27,28 @@ public class SqlMap<T> extends AbstractMap<String, T> {
     private final DBI dbi;
     private final VertexiumSerializer serializer;
     private final ResultSetMapper<MapEntry<byte[]>> entrySetMapper;
+    private final SqlMapCache<T> cache;
+    private final int multiGetBatchSize;
     private Object storableContext;
 
     public SqlMap(String tableName, String keyColumnName, String valueColumnName, DataSource dataSource,
                   VertexiumSerializer serializer) {
+        this(tableName, keyColumnName, valueColumnName, dataSource, serializer, null, DEFAULT_MULTI_GET_BATCH_SIZE);
+    }
+
+    /**
+     * @param cache             the cache of deserialized values or null to read every value from the database.
+     * @param multiGetBatchSize the most keys read by one query of {@link #getAll(Iterable)}.
+     */
+    public SqlMap(String tableName, String keyColumnName, String valueColumnName, DataSource dataSource,
+                  VertexiumSerializer serializer, SqlMapCache<T> cache, int multiGetBatchSize) {
         this.tableName = tableName;
         this.keyColumnName = keyColumnName;
         this.valueColumnName = valueColumnName;
         this.dbi = new DBI(dataSource);
         this.serializer = serializer;
+        this.cache = cache;
+        this.multiGetBatchSize = multiGetBatchSize;
         this.entrySetMapper = new ResultSetMapper<MapEntry<byte[]>>() {
             public MapEntry<byte[]> map(int index, ResultSet rs, StatementContext ctx) throws SQLException {
                 String key = rs.getString(SqlMap.this.keyColumnName);
@@ -64,7 +78,7 @@ public class SqlMap<T> extends AbstractMap<String, T> {
                     public Entry<String, T> next() {
                         MapEntry<byte[]> stringifiedEntry = resultIterator.next();
                         String key = stringifiedEntry.getKey();
-                        T value = withContainer(serializer.<T>bytesToObject(stringifiedEntry.getValue()));
+                        T value = deserialize(stringifiedEntry.getValue());
                         return new MapEntry<>(key, value);
                     }
                 };
@@ -100,7 +114,7 @@ public class SqlMap<T> extends AbstractMap<String, T> {
                 return new QueryResultIterator<T, byte[]>(query, handle) {
                     @Override
                     public T next() {
-                        return withContainer(serializer.<T>bytesToObject(resultIterator.next()));
+                        return deserialize(resultIterator.next());
                     }
                 };
             }
@@ -145,51 +159,163 @@ public class SqlMap<T> extends AbstractMap<String, T> {
     public void clear() {
         try (Handle handle = dbi.open()) {
             handle.execute(String.format("delete from %s", tableName));
+        } finally {
+            if (cache != null) {
+                cache.invalidateAll();
+            }
         }
     }
 
     @Override
     public T remove(Object key) {
-        T value = get(key);
+        T value = load(key);
         try (Handle handle = dbi.open()) {
             handle.execute(String.format("delete from %s where %s = ?", tableName, keyColumnName), key);
-            return withoutContainer(value);
+        } finally {
+            if (key instanceof String) {
+                invalidate((String) key);
+            }
         }
+        return withoutContainer(value);
     }
 
     @Override
     public T get(Object key) {
+        if (cache == null || !(key instanceof String)) {
+            return load(key);
+        }
+        String stringKey = (String) key;
+        T value = cache.get(stringKey);
+        if (value != null) {
+            return value;
+        }
+        long generation = cache.getGeneration(stringKey);
+        byte[] bytes = loadBytes(stringKey);
+        if (bytes == null) {
+            return null;
+        }
+        value = deserialize(bytes);
+        cache.put(stringKey, value, bytes.length, generation);
+        return value;
+    }
+
+    /**
+     * Gets the values of many keys, reading the keys which aren't cached with as few queries as possible.
+     *
+     * @return the values found in the order of the keys.
+     */
+    public Map<String, T> getAll(Iterable<String> keys) {
+        Map<String, T> results = new LinkedHashMap<>();
+        Map<String, Long> generations = new HashMap<>();
+        List<String> keysToLoad = new ArrayList<>();
+        for (String key : keys) {
+            if (results.containsKey(key)) {
+                continue;
+            }
+            T value = cache == null ? null : cache.get(key);
+            if (value == null) {
+                generations.put(key, cache == null ? 0L : cache.getGeneration(key));
+                keysToLoad.add(key);
+            }
+            results.put(key, value);
+        }
+        if (keysToLoad.isEmpty()) {
+            return results;
+        }
+
+        try (Handle handle = dbi.open()) {
+            for (int start = 0; start < keysToLoad.size(); start += multiGetBatchSize) {
+                List<String> batch = keysToLoad.subList(start, Math.min(keysToLoad.size(), start + multiGetBatchSize));
+                StringBuilder sql = new StringBuilder(String.format(
+                        "select %s, %s from %s where %s in (", keyColumnName, valueColumnName, tableName, keyColumnName));
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
+                Query<Map<String, Object>> query = handle.createQuery(sql.toString());
+                for (int i = 0; i < batch.size(); i++) {
+                    query = query.bind(i, batch.get(i));
+                }
+                List<MapEntry<byte[]>> entries = query.map(entrySetMapper).list();
+                List<T> values = new ArrayList<>(entries.size());
+                for (MapEntry<byte[]> entry : entries) {
+                    values.add(serializer.<T>bytesToObject(entry.getValue()));
+                }
+                afterLoad(values);
+                for (int i = 0; i < entries.size(); i++) {
+                    MapEntry<byte[]> entry = entries.get(i);
+                    T value = withContainer(values.get(i));
+                    Long generation = generations.get(entry.getKey());
+                    if (cache != null && generation != null) {
+                        cache.put(entry.getKey(), value, entry.getValue().length, generation);
+                    }
+                    results.put(entry.getKey(), value);
+                }
+            }
+        }
+
+        results.values().removeIf(Objects::isNull);
+        return results;
+    }
+
+    private T deserialize(byte[] bytes) {
+        T value = serializer.bytesToObject(bytes);
+        if (value != null) {
+            afterLoad(Collections.singletonList(value));
+        }
+        return withContainer(value);
+    }
+
+    private T load(Object key) {
+        return deserialize(loadBytes(key));
+    }
+
+    private byte[] loadBytes(Object key) {
         try (Handle handle = dbi.open()) {
-            return withContainer(serializer.<T>bytesToObject(handle
+            return handle
                     .createQuery(String.format(
                             "select %s from %s where %s = ?", valueColumnName, tableName, keyColumnName))
                     .bind(0, key)
                     .map(ByteArrayMapper.FIRST)
-                    .first()));
+                    .first();
         }
     }
 
     @Override
     public T put(String key, T value) {
         byte[] byteArrayValue = serializer.objectToBytes(withContainer(value));
-        T previous = get(key);
+        T previous = load(key);
         try (Handle handle = dbi.open()) {
-            if (previous == null) {
-                handle.execute(String.format(
-                        "insert into %s (%s, %s) values (?, ?)", tableName, keyColumnName, valueColumnName),
-                        key, byteArrayValue);
-            } else {
-                handle.execute(String.format(
-                        "update %s set %s = ? where %s = ?", tableName, valueColumnName, keyColumnName),
-                        byteArrayValue, key);
-            }
-            updateAdditionalColumns(handle, key, value);
+            handle.inTransaction((h, status) -> {
+                if (previous == null) {
+                    h.execute(String.format(
+                            "insert into %s (%s, %s) values (?, ?)", tableName, keyColumnName, valueColumnName),
+                            key, byteArrayValue);
+                } else {
+                    h.execute(String.format(
+                            "update %s set %s = ? where %s = ?", tableName, valueColumnName, keyColumnName),
+                            byteArrayValue, key);
+                }
+                updateAdditionalColumns(h, key, value);
+                afterPut(h, key, value);
+                return null;
+            });
+        } finally {
+            // cached values are shared with callers which may have changed them before a failed write
+            invalidate(key);
         }
 
         return withoutContainer(previous);
     }
 
-    private void updateAdditionalColumns(Handle handle, String key, T value) {
+    /**
+     * Called in the transaction which stores a value, subclasses can override to change other tables with it.
+     */
+    @SuppressWarnings("unused")
+    protected void afterPut(Handle handle, String key, T value) {
+    }
+
+    protected void updateAdditionalColumns(Handle handle, String key, T value) {
         Map<String, Object> additional = additionalColumns(key, value);
         if (!additional.isEmpty()) {
             StringBuilder updateSql = new StringBuilder(String.format("update %s set ", tableName));
@@ -223,7 +349,7 @@ public class SqlMap<T> extends AbstractMap<String, T> {
         return new QueryResultIterator<T, byte[]>(query2, handle) {
             @Override
             public T next() {
-                return withContainer(serializer.<T>bytesToObject(resultIterator.next()));
+                return deserialize(resultIterator.next());
             }
         };
     }
@@ -240,11 +366,40 @@ public class SqlMap<T> extends AbstractMap<String, T> {
         return new QueryResultIterator<T, byte[]>(query2, handle) {
             @Override
             public T next() {
-                return withContainer(serializer.<T>bytesToObject(resultIterator.next()));
+                return deserialize(resultIterator.next());
             }
         };
     }
 
+    /**
+     * Called with values read from the database before they are returned or cached, subclasses can override to
+     * complete values which are not stored as a whole.
+     */
+    @SuppressWarnings("unused")
+    protected void afterLoad(List<T> values) {
+    }
+
+    /**
+     * Removes a value from the cache, for subclasses which change the stored value without {@link #put(String, Object)}.
+     */
+    protected void invalidate(String key) {
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    protected DBI getDbi() {
+        return dbi;
+    }
+
+    protected VertexiumSerializer getSerializer() {
+        return serializer;
+    }
+
+    protected int getMultiGetBatchSize() {
+        return multiGetBatchSize;
+    }
+
     @SuppressWarnings("unused")
     protected Map<String, Object> additionalColumns(String key, T value) {
         // subclasses can override to supply additional column data to be stored, for supporting custom queries.
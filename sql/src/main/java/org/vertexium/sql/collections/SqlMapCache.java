@@ -0,0 +1,117 @@
+package org.vertexium.sql.collections;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A least recently used cache of deserialized {@link SqlMap} values, bounded by the total size of the serialized
+ * values. The cache is split into segments by key so lookups of different keys rarely wait on each other.
+ * <p>
+ * A value read from the database must only be added if the key wasn't invalidated while it was being read, so callers
+ * get the {@link #getGeneration(String) generation} of the key before reading and pass it to
+ * {@link #put(String, Object, int, long)}.
+ */
+public class SqlMapCache<T> {
+    private final Segment<T>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public SqlMapCache(long maxBytes, int segmentCount) {
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>(Math.max(1, maxBytes / segmentCount));
+        }
+    }
+
+    private Segment<T> getSegment(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    public T get(String key) {
+        return getSegment(key).get(key);
+    }
+
+    public long getGeneration(String key) {
+        return getSegment(key).getGeneration();
+    }
+
+    /**
+     * Adds a value unless the key was invalidated since the generation was read.
+     *
+     * @param weight the size of the serialized value in bytes.
+     */
+    public void put(String key, T value, int weight, long generation) {
+        getSegment(key).put(key, value, weight, generation);
+    }
+
+    public void invalidate(String key) {
+        getSegment(key).invalidate(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment<T> segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    private static class Segment<T> {
+        private final long maxBytes;
+        private final LinkedHashMap<String, CacheEntry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private long generation;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized T get(String key) {
+            CacheEntry<T> entry = entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized void put(String key, T value, int weight, long generation) {
+            if (generation != this.generation || weight > maxBytes) {
+                return;
+            }
+            CacheEntry<T> previous = entries.put(key, new CacheEntry<>(value, weight));
+            if (previous != null) {
+                bytes -= previous.weight;
+            }
+            bytes += weight;
+            Iterator<CacheEntry<T>> it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().weight;
+                it.remove();
+            }
+        }
+
+        synchronized void invalidate(String key) {
+            generation++;
+            CacheEntry<T> entry = entries.remove(key);
+            if (entry != null) {
+                bytes -= entry.weight;
+            }
+        }
+
+        synchronized void invalidateAll() {
+            generation++;
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private static class CacheEntry<T> {
+        private final T value;
+        private final int weight;
+
+        CacheEntry(T value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
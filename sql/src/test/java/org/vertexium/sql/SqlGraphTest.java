@@ -3,12 +3,17 @@ package org.vertexium.sql;
 import org.h2.store.fs.FileUtils;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.util.IntegerMapper;
 import org.vertexium.Authorizations;
 import org.vertexium.Graph;
 import org.vertexium.GraphConfiguration;
 import org.vertexium.GraphFactory;
+import org.vertexium.Vertex;
 import org.vertexium.id.UUIDIdGenerator;
 import org.vertexium.inmemory.InMemoryAuthorizations;
 import org.vertexium.search.DefaultSearchIndex;
@@ -21,8 +26,12 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 @RunWith(JUnit4.class)
 public class SqlGraphTest extends GraphTestBase {
+    private static final int MUTATION_CHECKPOINT_COUNT = 3;
     private Path dbTempDir;
     private Map<String, String> config;
 
@@ -39,6 +48,7 @@ public class SqlGraphTest extends GraphTestBase {
         config.put(GraphConfiguration.IDGENERATOR_PROP_PREFIX, UUIDIdGenerator.class.getName());
         config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, DefaultSearchIndex.class.getName());
         config.put(GraphConfiguration.SERIALIZER, QuickKryoVertexiumSerializer.class.getName());
+        config.put(SqlGraphConfiguration.MUTATION_CHECKPOINT_COUNT, Integer.toString(MUTATION_CHECKPOINT_COUNT));
 
         super.before();
     }
@@ -78,4 +88,54 @@ public class SqlGraphTest extends GraphTestBase {
     protected boolean isInputStreamMarkResetSupported() {
         return false;
     }
+
+    @Test
+    public void testMutationsAreStoredAsRowsUntilCheckpoint() {
+        addAuthorizations("a");
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "prop1", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(0, getVertexMutationCount("v1"));
+
+        Vertex v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        v1.setProperty("prop2", "value2", VISIBILITY_A, AUTHORIZATIONS_A);
+        v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        v1.deleteProperty("k1", "prop1", AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(2, getVertexMutationCount("v1"));
+
+        v1 = reopenGraph().getVertex("v1", AUTHORIZATIONS_A);
+        assertNull(v1.getPropertyValue("k1", "prop1"));
+        assertEquals("value2", v1.getPropertyValue("prop2"));
+
+        v1.setProperty("prop3", "value3", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(0, getVertexMutationCount("v1"));
+
+        v1 = reopenGraph().getVertex("v1", AUTHORIZATIONS_A);
+        assertNull(v1.getPropertyValue("k1", "prop1"));
+        assertEquals("value2", v1.getPropertyValue("prop2"));
+        assertEquals("value3", v1.getPropertyValue("prop3"));
+    }
+
+    private SqlGraph reopenGraph() {
+        SqlGraph reopenedGraph = (SqlGraph) createGraph();
+        reopenedGraph.createAuthorizations("a");
+        return reopenedGraph;
+    }
+
+    private int getVertexMutationCount(String vertexId) {
+        SqlGraphConfiguration configuration = (SqlGraphConfiguration) getGraph().getConfiguration();
+        try (Handle handle = new DBI(configuration.getDataSource()).open()) {
+            return handle
+                    .createQuery(String.format(
+                            "select count(*) from %s where %s = ?",
+                            configuration.tableNameWithPrefix(SqlGraphConfiguration.VERTEX_MUTATION_TABLE_NAME),
+                            SqlGraphConfiguration.KEY_COLUMN_NAME))
+                    .bind(0, vertexId)
+                    .map(IntegerMapper.FIRST)
+                    .first();
+        }
+    }
 }
@@ -9,6 +9,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.exceptions.DBIException;
 import org.skife.jdbi.v2.util.IntegerMapper;
 import org.skife.jdbi.v2.util.StringMapper;
 import org.vertexium.VertexiumSerializer;
@@ -196,6 +197,55 @@ public class SqlMapTest {
         assertThat(things[1], equalTo(thing3));
     }
 
+    @Test
+    public void getAllReturnsStoredValuesInKeyOrder() {
+        SqlMap<SerializableThing> batchedMap = new SqlMap<>("map", "key", "value", dataSource, serializer, null, 1);
+        batchedMap.put("key3", THING_3);
+        Map<String, SerializableThing> values = batchedMap.getAll(Arrays.asList("key3", "nope", "key1", "key3"));
+        assertThat(new ArrayList<>(values.keySet()), equalTo(Arrays.asList("key3", "key1")));
+        assertThat(values.get("key3"), equalTo(THING_3));
+        assertThat(values.get("key1"), equalTo(THING_1));
+    }
+
+    @Test
+    public void cachedGetIsInvalidatedByWrites() {
+        SqlMap<SerializableThing> cachedMap = new SqlMap<>(
+                "map", "key", "value", dataSource, serializer, new SqlMapCache<>(1024 * 1024, 4), 100);
+        SerializableThing cached = cachedMap.get("key1");
+        assertThat(cachedMap.get("key1") == cached, equalTo(true));
+        assertThat(cachedMap.getAll(Collections.singletonList("key1")).get("key1") == cached, equalTo(true));
+
+        cachedMap.put("key1", THING_3);
+        assertThat(cachedMap.get("key1"), equalTo(THING_3));
+
+        cachedMap.remove("key1");
+        assertThat(cachedMap.get("key1"), nullValue());
+
+        cachedMap.get("key2");
+        cachedMap.clear();
+        assertThat(cachedMap.get("key2"), nullValue());
+    }
+
+    @Test
+    public void cachedGetIsInvalidatedByFailedWrites() {
+        SqlMap<SerializableThing> cachedMap = new SqlMap<SerializableThing>(
+                "map", "key", "value", dataSource, serializer, new SqlMapCache<>(1024 * 1024, 4), 100) {
+            @Override
+            protected Map<String, Object> additionalColumns(String key, SerializableThing value) {
+                return ImmutableMap.<String, Object>of("missing", value.i);
+            }
+        };
+        SerializableThing cached = cachedMap.get("key1");
+        try {
+            cachedMap.put("key1", THING_3);
+            Assert.fail("put should fail");
+        } catch (DBIException ex) {
+            // expected
+        }
+        SerializableThing reloaded = cachedMap.get("key1");
+        assertThat(reloaded == cached, equalTo(false));
+    }
+
     private static class ExtraColumnsJdbcMap extends SqlMap<SerializableThing> {
         public ExtraColumnsJdbcMap(String tableName, String keyColumnName, String valueColumnName, VertexiumSerializer serializer) {
             super(tableName, keyColumnName, valueColumnName, dataSource, serializer);
@@ -2070,6 +2070,11 @@ public abstract class GraphTestBase {
         v2 = graph.getVertex("v2", AUTHORIZATIONS_A);
         Assert.assertEquals(1, count(v2.getEdges(Direction.IN, AUTHORIZATIONS_A)));
         Assert.assertEquals(LABEL_LABEL2, IterableUtils.single(v2.getEdgeLabels(Direction.IN, AUTHORIZATIONS_A)));
+        Assert.assertEquals(0, count(v1.getEdges(Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A)));
+        Assert.assertEquals(1, count(v1.getEdges(Direction.OUT, LABEL_LABEL2, AUTHORIZATIONS_A)));
+        Assert.assertEquals(0, count(v2.getEdges(Direction.IN, LABEL_LABEL1, AUTHORIZATIONS_A)));
+        Assert.assertEquals(1, count(v2.getEdges(Direction.IN, LABEL_LABEL2, AUTHORIZATIONS_A)));
+        Assert.assertEquals(0, count(v2.getEdges(Direction.OUT, LABEL_LABEL2, AUTHORIZATIONS_A)));
 
         graph.prepareEdge(e.getId(), e.getVertexId(Direction.OUT), e.getVertexId(Direction.IN), e.getLabel(), e.getVisibility())
                 .alterEdgeLabel("label3")
@@ -4337,6 +4342,53 @@ public abstract class GraphTestBase {
         );
     }
 
+    @Test
+    public void testFindPathsLongPaths() {
+        for (int i = 1; i <= 6; i++) {
+            graph.addVertex("v" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+        }
+        for (int i = 1; i < 6; i++) {
+            graph.addEdge("v" + i, "v" + (i + 1), LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A); // vi -> vi+1
+        }
+        graph.addEdge("v2", "v5", LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v5
+        graph.addVertex("hub", VISIBILITY_A, AUTHORIZATIONS_A);
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex("leaf" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+            graph.addEdge("hub", "leaf" + i, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A); // hub -> leafi
+        }
+        graph.addEdge("v1", "hub", LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> hub
+        graph.flush();
+
+        List<Path> paths = toList(graph.findPaths(new FindPathOptions("v1", "v6", 5), AUTHORIZATIONS_A));
+        assertPaths(
+                paths,
+                new Path("v1", "v2", "v3", "v4", "v5", "v6"),
+                new Path("v1", "v2", "v5", "v6")
+        );
+
+        paths = toList(graph.findPaths(new FindPathOptions("v6", "v1", 4), AUTHORIZATIONS_A));
+        assertPaths(
+                paths,
+                new Path("v6", "v5", "v2", "v1")
+        );
+
+        paths = toList(graph.findPaths(new FindPathOptions("v1", "v6", 5).setExcludedLabels(LABEL_LABEL2), AUTHORIZATIONS_A));
+        assertPaths(
+                paths,
+                new Path("v1", "v2", "v3", "v4", "v5", "v6")
+        );
+
+        paths = toList(graph.findPaths(new FindPathOptions("v1", "v6", 4).setExcludedLabels(LABEL_LABEL2), AUTHORIZATIONS_A));
+        assertPaths(paths);
+
+        try {
+            toList(graph.findPaths(new FindPathOptions("leaf0", "leaf1", 6).setMaxFrontierSize(5), AUTHORIZATIONS_A));
+            fail("Expected the frontier limit to be exceeded");
+        } catch (VertexiumException ex) {
+            // expected
+        }
+    }
+
     @Test
     public void testFindPathsWithDifferentVisibilityData() {
         Vertex v1 = graph.addVertex("v1", VISIBILITY_EMPTY, AUTHORIZATIONS_A);
@@ -5712,6 +5764,36 @@ public abstract class GraphTestBase {
         assertEquals("11", v.getId());
     }
 
+    @Test
+    public void testIteratorWithSortSkipAndLimit() {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            vertices.add(graph.prepareVertex(Integer.toString(i), VISIBILITY_EMPTY)
+                    .setProperty("age", (i * 5) % 12, VISIBILITY_EMPTY)
+                    .save(AUTHORIZATIONS_EMPTY));
+        }
+        vertices.add(0, graph.addVertex("noAge", VISIBILITY_EMPTY, AUTHORIZATIONS_EMPTY));
+
+        QueryParameters parameters = new QueryStringQueryParameters("*", AUTHORIZATIONS_EMPTY);
+        parameters.addSortContainer(new QueryBase.SortContainer("age", SortDirection.ASCENDING));
+        parameters.setSkip(2);
+        parameters.setLimit(4);
+        DefaultGraphQueryIterable<Vertex> iterable = new DefaultGraphQueryIterable<>(parameters, vertices, false, false, true);
+        assertVertexIds(iterable, "10", "3", "8", "1");
+        assertEquals(13, iterable.getTotalHits());
+
+        parameters.setSkip(10);
+        parameters.setLimit(10);
+        iterable = new DefaultGraphQueryIterable<>(parameters, vertices, false, false, true);
+        assertVertexIds(iterable, "2", "7", "noAge");
+
+        parameters = new QueryStringQueryParameters("*", AUTHORIZATIONS_EMPTY);
+        parameters.addSortContainer(new QueryBase.SortContainer("age", SortDirection.DESCENDING));
+        parameters.setLimit(3);
+        iterable = new DefaultGraphQueryIterable<>(parameters, vertices, false, false, true);
+        assertVertexIds(iterable, "7", "2", "9");
+    }
+
     @Test
     public void testGraphMetadata() {
         List<GraphMetadataEntry> existingMetadata = toList(graph.getMetadata());
@@ -6744,6 +6826,31 @@ public abstract class GraphTestBase {
         assertEquals(3L, (long) histogram.get("dq"));
     }
 
+    @Test
+    public void testGraphQueryWithCardinalityAggregation() {
+        graph.defineProperty("name").dataType(String.class).textIndexHint(TextIndexHint.EXACT_MATCH).define();
+
+        for (int i = 0; i < 100; i++) {
+            graph.prepareVertex("v" + i, VISIBILITY_EMPTY)
+                    .addPropertyValue("k1", "name", "name" + (i % 40), VISIBILITY_EMPTY)
+                    .save(AUTHORIZATIONS_A_AND_B);
+        }
+        graph.flush();
+
+        Query q = graph.query(AUTHORIZATIONS_A_AND_B).limit(0);
+        CardinalityAggregation agg = new CardinalityAggregation("name-cardinality", "name");
+        assumeTrue("cardinality aggregation not supported", q.isAggregationSupported(agg));
+        q.addAggregation(agg);
+        CardinalityResult result = q.vertices().getAggregationResult("name-cardinality", CardinalityResult.class);
+        assertEquals(40, result.getValue());
+
+        q = graph.query(AUTHORIZATIONS_A_AND_B).limit(0);
+        agg = new CardinalityAggregation("empty-cardinality", "emptyField");
+        q.addAggregation(agg);
+        result = q.vertices().getAggregationResult("empty-cardinality", CardinalityResult.class);
+        assertEquals(0, result.getValue());
+    }
+
     @Test
     public void testGraphQueryWithCalendarFieldAggregation() {
         String dateFieldName = "agg_date_field";
@@ -6,17 +6,33 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.vertexium.*;
 import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.tools.backup.BinaryGraphBackup;
 import org.vertexium.util.JavaSerializableUtils;
 
 import java.io.*;
-import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GraphBackup extends GraphToolBase {
     public static final String BASE64_PREFIX = "base64/java:";
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
 
-    @Parameter(names = {"--out", "-o"}, description = "Output filename")
+    @Parameter(names = {"--out", "-o"}, description = "Output filename, the output directory for the binary format")
     private String outputFileName = null;
 
+    @Parameter(names = {"--format"}, description = "Backup format, json or binary")
+    private String format = FORMAT_JSON;
+
+    @Parameter(names = {"--threads"}, description = "Number of partitions written in parallel by the binary format")
+    private int threadCount = 4;
+
+    @Parameter(names = {"--since"}, description = "Only backup elements changed at or after this timestamp (binary format only)")
+    private Long since = null;
+
+    @Parameter(names = {"--idSplits"}, description = "Comma separated ids to partition the binary backup at, defaults to the table splits of an Accumulo graph")
+    private List<String> idSplits = new ArrayList<>();
+
     public static void main(String[] args) throws Exception {
         GraphBackup graphBackup = new GraphBackup();
         graphBackup.run(args);
@@ -25,6 +41,21 @@ public class GraphBackup extends GraphToolBase {
     protected void run(String[] args) throws Exception {
         super.run(args);
 
+        if (FORMAT_BINARY.equals(format)) {
+            if (outputFileName == null) {
+                throw new RuntimeException("out is required for the binary format");
+            }
+            Graph graph = getGraph();
+            new BinaryGraphBackup(getSerializer(), threadCount)
+                    .backup(graph, BinaryGraphBackup.getPartitions(graph, idSplits), since, new File(outputFileName), getAuthorizations());
+            return;
+        } else if (!FORMAT_JSON.equals(format)) {
+            throw new RuntimeException("Unknown format: " + format);
+        }
+        if (since != null) {
+            throw new RuntimeException("since is only supported by the binary format");
+        }
+
         OutputStream out = createOutputStream();
         try {
             save(getGraph(), out, getAuthorizations());
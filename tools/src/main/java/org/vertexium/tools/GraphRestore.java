@@ -6,14 +6,24 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.vertexium.*;
 import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.tools.backup.BinaryGraphRestore;
 import org.vertexium.util.JavaSerializableUtils;
 
 import java.io.*;
 
 public class GraphRestore extends GraphToolBase {
-    @Parameter(names = {"--in", "-i"}, description = "Input filename")
+    @Parameter(names = {"--in", "-i"}, description = "Input filename, the backup directory for the binary format")
     private String inputFileName = null;
 
+    @Parameter(names = {"--format"}, description = "Backup format, json or binary")
+    private String format = GraphBackup.FORMAT_JSON;
+
+    @Parameter(names = {"--threads"}, description = "Number of partitions restored in parallel by the binary format")
+    private int threadCount = 4;
+
+    @Parameter(names = {"--batchSize"}, description = "Number of elements saved together by the binary format")
+    private int batchSize = BinaryGraphRestore.DEFAULT_BATCH_SIZE;
+
     public static void main(String[] args) throws Exception {
         GraphRestore graphRestore = new GraphRestore();
         graphRestore.run(args);
@@ -22,6 +32,17 @@ public class GraphRestore extends GraphToolBase {
     protected void run(String[] args) throws Exception {
         super.run(args);
 
+        if (GraphBackup.FORMAT_BINARY.equals(format)) {
+            if (inputFileName == null) {
+                throw new RuntimeException("in is required for the binary format");
+            }
+            new BinaryGraphRestore(getSerializer(), threadCount, batchSize, BinaryGraphRestore.DEFAULT_MAX_IN_MEMORY_STREAMING_PROPERTY_VALUE_SIZE)
+                    .restore(getGraph(), new File(inputFileName), getAuthorizations());
+            return;
+        } else if (!GraphBackup.FORMAT_JSON.equals(format)) {
+            throw new RuntimeException("Unknown format: " + format);
+        }
+
         InputStream in = createInputStream();
         try {
             restore(getGraph(), in, getAuthorizations());
@@ -3,9 +3,7 @@ package org.vertexium.tools;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
-import org.vertexium.Authorizations;
-import org.vertexium.Graph;
-import org.vertexium.GraphFactory;
+import org.vertexium.*;
 import org.vertexium.accumulo.AccumuloAuthorizations;
 import org.vertexium.util.MapUtils;
 
@@ -59,4 +57,11 @@ public abstract class GraphToolBase {
     protected Graph getGraph() {
         return graph;
     }
+
+    protected VertexiumSerializer getSerializer() {
+        if (graph instanceof GraphBaseWithSearchIndex) {
+            return ((GraphBaseWithSearchIndex) graph).getConfiguration().createSerializer(graph);
+        }
+        return new JavaVertexiumSerializer();
+    }
 }
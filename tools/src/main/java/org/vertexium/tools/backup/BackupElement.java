@@ -0,0 +1,88 @@
+package org.vertexium.tools.backup;
+
+import org.vertexium.*;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An element as it is stored in a binary backup. The values of streaming properties are not part of the record, they
+ * follow it in the partition file.
+ */
+public class BackupElement implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final ElementType elementType;
+    private final String id;
+    private final String visibility;
+    private final List<BackupProperty> properties;
+    private final List<BackupProperty> streamingProperties;
+    private final String outVertexId;
+    private final String inVertexId;
+    private final String label;
+
+    private BackupElement(ElementType elementType, String id, String visibility, List<BackupProperty> properties, List<BackupProperty> streamingProperties, String outVertexId, String inVertexId, String label) {
+        this.elementType = elementType;
+        this.id = id;
+        this.visibility = visibility;
+        this.properties = properties;
+        this.streamingProperties = streamingProperties;
+        this.outVertexId = outVertexId;
+        this.inVertexId = inVertexId;
+        this.label = label;
+    }
+
+    public static BackupElement create(Element element) {
+        List<BackupProperty> properties = new ArrayList<>();
+        List<BackupProperty> streamingProperties = new ArrayList<>();
+        for (Property property : element.getProperties()) {
+            if (property.getValue() instanceof StreamingPropertyValue) {
+                streamingProperties.add(BackupProperty.create(property));
+            } else {
+                properties.add(BackupProperty.create(property));
+            }
+        }
+        String visibility = element.getVisibility().getVisibilityString();
+        if (element instanceof Edge) {
+            Edge edge = (Edge) element;
+            return new BackupElement(ElementType.EDGE, edge.getId(), visibility, properties, streamingProperties, edge.getVertexId(Direction.OUT), edge.getVertexId(Direction.IN), edge.getLabel());
+        }
+        return new BackupElement(ElementType.VERTEX, element.getId(), visibility, properties, streamingProperties, null, null, null);
+    }
+
+    public ElementType getElementType() {
+        return elementType;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Visibility getVisibility() {
+        return new Visibility(visibility);
+    }
+
+    public List<BackupProperty> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return the streaming properties in the order their values follow the element in the partition file.
+     */
+    public List<BackupProperty> getStreamingProperties() {
+        return streamingProperties;
+    }
+
+    public String getOutVertexId() {
+        return outVertexId;
+    }
+
+    public String getInVertexId() {
+        return inVertexId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,97 @@
+package org.vertexium.tools.backup;
+
+import org.vertexium.VertexiumException;
+import org.vertexium.VertexiumSerializer;
+import org.vertexium.util.AutoDeleteFileInputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a partition file written by {@link BackupPartitionWriter}.
+ */
+public class BackupPartitionReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final DataInputStream in;
+    private final VertexiumSerializer serializer;
+    private final int maxInMemoryStreamingPropertyValueSize;
+    private final String fileName;
+
+    /**
+     * @param maxInMemoryStreamingPropertyValueSize streaming property values larger than this are copied to a
+     *                                              temporary file instead of being held in memory.
+     */
+    public BackupPartitionReader(File file, VertexiumSerializer serializer, int maxInMemoryStreamingPropertyValueSize) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+        this.serializer = serializer;
+        this.maxInMemoryStreamingPropertyValueSize = maxInMemoryStreamingPropertyValueSize;
+        this.fileName = file.getName();
+        if (in.readInt() != BackupPartitionWriter.MAGIC) {
+            throw new VertexiumException("Not a backup partition file: " + fileName);
+        }
+        int version = in.readInt();
+        if (version != BackupPartitionWriter.FORMAT_VERSION) {
+            throw new VertexiumException("Unsupported backup format version " + version + " in " + fileName);
+        }
+    }
+
+    /**
+     * Reads the next element. The values of its streaming properties must be read, in order, with
+     * {@link #readStreamingPropertyValue()} before reading the next element.
+     *
+     * @return the element or null at the end of the file.
+     */
+    public BackupElement readElement() throws IOException {
+        byte recordType = in.readByte();
+        if (recordType == BackupPartitionWriter.RECORD_END) {
+            return null;
+        }
+        if (recordType != BackupPartitionWriter.RECORD_ELEMENT) {
+            throw new VertexiumException("Unexpected record type " + recordType + " in " + fileName);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return serializer.bytesToObject(bytes);
+    }
+
+    public InputStream readStreamingPropertyValue() throws IOException {
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        File tempFile = null;
+        OutputStream out = memory;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int chunkLength;
+            while ((chunkLength = in.readInt()) > 0) {
+                while (chunkLength > 0) {
+                    int read = in.read(buffer, 0, Math.min(buffer.length, chunkLength));
+                    if (read < 0) {
+                        throw new EOFException("Unexpected end of streaming property value in " + fileName);
+                    }
+                    out.write(buffer, 0, read);
+                    chunkLength -= read;
+                }
+                if (tempFile == null && memory.size() > maxInMemoryStreamingPropertyValueSize) {
+                    tempFile = Files.createTempFile(BackupPartitionReader.class.getSimpleName(), null).toFile();
+                    tempFile.deleteOnExit();
+                    out = new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE);
+                    memory.writeTo(out);
+                    memory = null;
+                }
+            }
+        } finally {
+            if (tempFile != null) {
+                out.close();
+            }
+        }
+        if (tempFile != null) {
+            return new AutoDeleteFileInputStream(tempFile);
+        }
+        return new ByteArrayInputStream(memory.toByteArray());
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,70 @@
+package org.vertexium.tools.backup;
+
+import org.vertexium.Element;
+import org.vertexium.Property;
+import org.vertexium.VertexiumSerializer;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one partition file of a binary backup.
+ * <p>
+ * The file is gzip compressed and starts with {@link #MAGIC} and {@link #FORMAT_VERSION}. Each element is written as
+ * a record type byte, the length of the serialized {@link BackupElement} and its bytes. The values of the streaming
+ * properties follow the element as length prefixed chunks ending with a zero length. The file ends with
+ * {@link #RECORD_END}.
+ */
+public class BackupPartitionWriter implements Closeable {
+    public static final int MAGIC = 0x56424B50; // VBKP
+    public static final int FORMAT_VERSION = 1;
+    public static final byte RECORD_ELEMENT = 'R';
+    public static final byte RECORD_END = 'X';
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private final DataOutputStream out;
+    private final VertexiumSerializer serializer;
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private long recordCount;
+
+    public BackupPartitionWriter(File file, VertexiumSerializer serializer) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file), CHUNK_SIZE), CHUNK_SIZE));
+        this.serializer = serializer;
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+    }
+
+    public void writeElement(Element element) throws IOException {
+        BackupElement backupElement = BackupElement.create(element);
+        byte[] bytes = serializer.objectToBytes(backupElement);
+        out.writeByte(RECORD_ELEMENT);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        for (BackupProperty backupProperty : backupElement.getStreamingProperties()) {
+            Property property = element.getProperty(backupProperty.getKey(), backupProperty.getName(), backupProperty.getVisibility());
+            writeStreamingPropertyValue((StreamingPropertyValue) property.getValue());
+        }
+        recordCount++;
+    }
+
+    private void writeStreamingPropertyValue(StreamingPropertyValue spv) throws IOException {
+        try (InputStream in = spv.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.writeInt(read);
+                out.write(buffer, 0, read);
+            }
+        }
+        out.writeInt(0);
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeByte(RECORD_END);
+        out.close();
+    }
+}
@@ -0,0 +1,97 @@
+package org.vertexium.tools.backup;
+
+import org.vertexium.Metadata;
+import org.vertexium.Property;
+import org.vertexium.Visibility;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BackupProperty implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String key;
+    private final String name;
+    private final String visibility;
+    private final Object value;
+    private final List<MetadataEntry> metadata;
+    private final String streamingValueType;
+    private final boolean streamingSearchIndex;
+    private final boolean streamingStore;
+
+    private BackupProperty(String key, String name, String visibility, Object value, List<MetadataEntry> metadata, String streamingValueType, boolean streamingSearchIndex, boolean streamingStore) {
+        this.key = key;
+        this.name = name;
+        this.visibility = visibility;
+        this.value = value;
+        this.metadata = metadata;
+        this.streamingValueType = streamingValueType;
+        this.streamingSearchIndex = streamingSearchIndex;
+        this.streamingStore = streamingStore;
+    }
+
+    public static BackupProperty create(Property property) {
+        List<MetadataEntry> metadata = new ArrayList<>();
+        if (property.getMetadata() != null) {
+            for (Metadata.Entry entry : property.getMetadata().entrySet()) {
+                metadata.add(new MetadataEntry(entry.getKey(), entry.getValue(), entry.getVisibility().getVisibilityString()));
+            }
+        }
+        String visibility = property.getVisibility().getVisibilityString();
+        if (property.getValue() instanceof StreamingPropertyValue) {
+            StreamingPropertyValue spv = (StreamingPropertyValue) property.getValue();
+            return new BackupProperty(property.getKey(), property.getName(), visibility, null, metadata, spv.getValueType().getName(), spv.isSearchIndex(), spv.isStore());
+        }
+        return new BackupProperty(property.getKey(), property.getName(), visibility, property.getValue(), metadata, null, false, false);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Visibility getVisibility() {
+        return new Visibility(visibility);
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Metadata getMetadata() {
+        Metadata results = new Metadata();
+        for (MetadataEntry entry : metadata) {
+            results.add(entry.key, entry.value, new Visibility(entry.visibility));
+        }
+        return results;
+    }
+
+    public String getStreamingValueType() {
+        return streamingValueType;
+    }
+
+    public boolean isStreamingSearchIndex() {
+        return streamingSearchIndex;
+    }
+
+    public boolean isStreamingStore() {
+        return streamingStore;
+    }
+
+    private static class MetadataEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+        private final Object value;
+        private final String visibility;
+
+        MetadataEntry(String key, Object value, String visibility) {
+            this.key = key;
+            this.value = value;
+            this.visibility = visibility;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.vertexium.tools.backup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.vertexium.*;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.search.Reindexer;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.vertexium.util.IterableUtils.toList;
+
+/**
+ * Writes a binary backup of a graph to a directory. The elements are read in partitions by id range and each
+ * partition is written to its own file by a pool of worker threads, see {@link BackupPartitionWriter} for the file
+ * format. The manifest describing the partitions is written last so a backup without a manifest is incomplete.
+ * <p>
+ * An incremental backup only contains the elements with the element or one of its properties changed at or after a
+ * timestamp. Deleted elements and properties are not part of an incremental backup.
+ */
+public class BinaryGraphBackup {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(BinaryGraphBackup.class);
+    public static final String MANIFEST_FILE_NAME = "manifest.json";
+    private final VertexiumSerializer serializer;
+    private final int threadCount;
+
+    public BinaryGraphBackup(VertexiumSerializer serializer, int threadCount) {
+        if (threadCount < 1) {
+            throw new VertexiumException("threadCount must be greater than zero");
+        }
+        this.serializer = serializer;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @return the id ranges of the tables of an Accumulo graph, otherwise the ranges between the given splits.
+     */
+    public static Map<ElementType, List<Range>> getPartitions(Graph graph, List<String> idSplits) {
+        Map<ElementType, List<Range>> partitions = new LinkedHashMap<>();
+        if (graph instanceof AccumuloGraph && idSplits.isEmpty()) {
+            partitions.put(ElementType.VERTEX, toList(((AccumuloGraph) graph).listVerticesTableSplits()));
+            partitions.put(ElementType.EDGE, toList(((AccumuloGraph) graph).listEdgesTableSplits()));
+        } else {
+            partitions.put(ElementType.VERTEX, Reindexer.splitsToRanges(idSplits));
+            partitions.put(ElementType.EDGE, Reindexer.splitsToRanges(idSplits));
+        }
+        return partitions;
+    }
+
+    /**
+     * @param since if not null only elements changed at or after this timestamp are written.
+     * @return the number of elements written.
+     */
+    public long backup(Graph graph, Map<ElementType, List<Range>> partitions, Long since, File directory, Authorizations authorizations) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create backup directory: " + directory);
+        }
+        if (new File(directory, MANIFEST_FILE_NAME).exists()) {
+            throw new IOException("Backup directory already contains a backup: " + directory);
+        }
+
+        List<Partition> partitionList = new ArrayList<>();
+        for (Map.Entry<ElementType, List<Range>> entry : partitions.entrySet()) {
+            int i = 0;
+            for (Range range : entry.getValue()) {
+                String fileName = String.format("%s-%05d.vbk", entry.getKey().name().toLowerCase(), i++);
+                partitionList.add(new Partition(entry.getKey(), range, fileName));
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "vertexium-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Partition partition : partitionList) {
+                futures.add(executor.submit(() -> {
+                    backupPartition(graph, partition, since, directory, authorizations);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IOException("Could not write backup partition", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted writing backup", ex);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+
+        long elementCount = 0;
+        for (Partition partition : partitionList) {
+            elementCount += partition.recordCount;
+        }
+        writeManifest(directory, partitionList, since, startTime);
+        LOGGER.info("wrote %d elements in %d partitions to %s", elementCount, partitionList.size(), directory);
+        return elementCount;
+    }
+
+    private void backupPartition(Graph graph, Partition partition, Long since, File directory, Authorizations authorizations) throws IOException {
+        Iterable<? extends Element> elements;
+        switch (partition.elementType) {
+            case VERTEX:
+                elements = graph.getVerticesInRange(partition.range, FetchHints.ALL, authorizations);
+                break;
+            case EDGE:
+                elements = graph.getEdgesInRange(partition.range, FetchHints.ALL, authorizations);
+                break;
+            default:
+                throw new VertexiumException("Unexpected element type: " + partition.elementType);
+        }
+        try (BackupPartitionWriter writer = new BackupPartitionWriter(new File(directory, partition.fileName), serializer)) {
+            for (Element element : elements) {
+                if (since == null || isChangedSince(element, since)) {
+                    writer.writeElement(element);
+                }
+            }
+            partition.recordCount = writer.getRecordCount();
+        }
+        LOGGER.debug("wrote %d elements to %s", partition.recordCount, partition.fileName);
+    }
+
+    private static boolean isChangedSince(Element element, long since) {
+        if (element.getTimestamp() >= since) {
+            return true;
+        }
+        for (Property property : element.getProperties()) {
+            if (property.getTimestamp() >= since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeManifest(File directory, List<Partition> partitions, Long since, long startTime) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("version", BackupPartitionWriter.FORMAT_VERSION);
+        json.put("serializer", serializer.getClass().getName());
+        json.put("created", startTime);
+        if (since != null) {
+            json.put("since", since);
+        }
+        JSONArray partitionsJson = new JSONArray();
+        for (Partition partition : partitions) {
+            JSONObject partitionJson = new JSONObject();
+            partitionJson.put("file", partition.fileName);
+            partitionJson.put("elementType", partition.elementType.name());
+            partitionJson.putOpt("inclusiveStart", partition.range.getInclusiveStart());
+            partitionJson.putOpt("exclusiveEnd", partition.range.getExclusiveEnd());
+            partitionJson.put("count", partition.recordCount);
+            partitionsJson.put(partitionJson);
+        }
+        json.put("partitions", partitionsJson);
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(new File(directory, MANIFEST_FILE_NAME)), StandardCharsets.UTF_8)) {
+            out.write(json.toString(2));
+        }
+    }
+
+    private static class Partition {
+        private final ElementType elementType;
+        private final Range range;
+        private final String fileName;
+        private volatile long recordCount;
+
+        Partition(ElementType elementType, Range range, String fileName) {
+            this.elementType = elementType;
+            this.range = range;
+            this.fileName = fileName;
+        }
+    }
+}
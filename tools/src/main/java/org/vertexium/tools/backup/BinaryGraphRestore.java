@@ -0,0 +1,185 @@
+package org.vertexium.tools.backup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.vertexium.*;
+import org.vertexium.mutation.ElementMutation;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Restores a backup written by {@link BinaryGraphBackup}. The partition files are restored by a pool of worker
+ * threads and the elements are saved in batches, all vertices are restored and flushed before the edges.
+ */
+public class BinaryGraphRestore {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(BinaryGraphRestore.class);
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_MAX_IN_MEMORY_STREAMING_PROPERTY_VALUE_SIZE = 1024 * 1024;
+    private final VertexiumSerializer serializer;
+    private final int threadCount;
+    private final int batchSize;
+    private final int maxInMemoryStreamingPropertyValueSize;
+
+    public BinaryGraphRestore(VertexiumSerializer serializer, int threadCount) {
+        this(serializer, threadCount, DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_MEMORY_STREAMING_PROPERTY_VALUE_SIZE);
+    }
+
+    public BinaryGraphRestore(VertexiumSerializer serializer, int threadCount, int batchSize, int maxInMemoryStreamingPropertyValueSize) {
+        if (threadCount < 1) {
+            throw new VertexiumException("threadCount must be greater than zero");
+        }
+        if (batchSize < 1) {
+            throw new VertexiumException("batchSize must be greater than zero");
+        }
+        this.serializer = serializer;
+        this.threadCount = threadCount;
+        this.batchSize = batchSize;
+        this.maxInMemoryStreamingPropertyValueSize = maxInMemoryStreamingPropertyValueSize;
+    }
+
+    /**
+     * @return the number of elements restored.
+     */
+    public long restore(Graph graph, File directory, Authorizations authorizations) throws IOException {
+        JSONObject manifest = readManifest(directory);
+        List<File> vertexFiles = new ArrayList<>();
+        List<File> edgeFiles = new ArrayList<>();
+        JSONArray partitions = manifest.getJSONArray("partitions");
+        for (int i = 0; i < partitions.length(); i++) {
+            JSONObject partition = partitions.getJSONObject(i);
+            File file = new File(directory, partition.getString("file"));
+            ElementType elementType = ElementType.valueOf(partition.getString("elementType"));
+            if (elementType == ElementType.VERTEX) {
+                vertexFiles.add(file);
+            } else {
+                edgeFiles.add(file);
+            }
+        }
+
+        AtomicLong elementCount = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "vertexium-restore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            restoreFiles(executor, graph, vertexFiles, elementCount, authorizations);
+            // edges are restored once all vertices can be found
+            graph.flush();
+            restoreFiles(executor, graph, edgeFiles, elementCount, authorizations);
+            graph.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("restored %d elements from %s", elementCount.get(), directory);
+        return elementCount.get();
+    }
+
+    private JSONObject readManifest(File directory) throws IOException {
+        File manifestFile = new File(directory, BinaryGraphBackup.MANIFEST_FILE_NAME);
+        if (!manifestFile.exists()) {
+            throw new IOException("Backup is incomplete, " + manifestFile + " not found");
+        }
+        JSONObject manifest = new JSONObject(new String(Files.readAllBytes(manifestFile.toPath()), StandardCharsets.UTF_8));
+        if (manifest.getInt("version") != BackupPartitionWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported backup format version: " + manifest.getInt("version"));
+        }
+        String serializerClassName = manifest.getString("serializer");
+        if (!serializerClassName.equals(serializer.getClass().getName())) {
+            throw new IOException("Backup was written with serializer " + serializerClassName + " but restoring with " + serializer.getClass().getName());
+        }
+        return manifest;
+    }
+
+    private void restoreFiles(ExecutorService executor, Graph graph, List<File> files, AtomicLong elementCount, Authorizations authorizations) throws IOException {
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (File file : files) {
+                futures.add(executor.submit(() -> {
+                    elementCount.addAndGet(restoreFile(graph, file, authorizations));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            throw new IOException("Could not restore backup partition", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted restoring backup", ex);
+        }
+    }
+
+    private long restoreFile(Graph graph, File file, Authorizations authorizations) throws IOException {
+        long count = 0;
+        List<ElementMutation> batch = new ArrayList<>();
+        try (BackupPartitionReader reader = new BackupPartitionReader(file, serializer, maxInMemoryStreamingPropertyValueSize)) {
+            BackupElement backupElement;
+            while ((backupElement = reader.readElement()) != null) {
+                batch.add(toMutation(graph, backupElement, reader));
+                if (batch.size() >= batchSize) {
+                    graph.saveElementMutations(batch, authorizations);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (batch.size() > 0) {
+            graph.saveElementMutations(batch, authorizations);
+            count += batch.size();
+        }
+        LOGGER.debug("restored %d elements from %s", count, file.getName());
+        return count;
+    }
+
+    private ElementMutation toMutation(Graph graph, BackupElement backupElement, BackupPartitionReader reader) throws IOException {
+        ElementBuilder<? extends Element> builder;
+        switch (backupElement.getElementType()) {
+            case VERTEX:
+                builder = graph.prepareVertex(backupElement.getId(), backupElement.getVisibility());
+                break;
+            case EDGE:
+                builder = graph.prepareEdge(
+                        backupElement.getId(),
+                        backupElement.getOutVertexId(),
+                        backupElement.getInVertexId(),
+                        backupElement.getLabel(),
+                        backupElement.getVisibility()
+                );
+                break;
+            default:
+                throw new VertexiumException("Unexpected element type: " + backupElement.getElementType());
+        }
+        for (BackupProperty property : backupElement.getProperties()) {
+            builder.addPropertyValue(property.getKey(), property.getName(), property.getValue(), property.getMetadata(), property.getVisibility());
+        }
+        for (BackupProperty property : backupElement.getStreamingProperties()) {
+            StreamingPropertyValue value = StreamingPropertyValue.create(reader.readStreamingPropertyValue(), getValueType(property));
+            value.searchIndex(property.isStreamingSearchIndex());
+            value.store(property.isStreamingStore());
+            builder.addPropertyValue(property.getKey(), property.getName(), value, property.getMetadata(), property.getVisibility());
+        }
+        return builder;
+    }
+
+    private static Class getValueType(BackupProperty property) {
+        try {
+            return Class.forName(property.getStreamingValueType());
+        } catch (ClassNotFoundException ex) {
+            throw new VertexiumException("Could not find streaming property value type: " + property.getStreamingValueType(), ex);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.vertexium.tools;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.*;
+import org.vertexium.id.UUIDIdGenerator;
+import org.vertexium.inmemory.InMemoryAuthorizations;
+import org.vertexium.inmemory.InMemoryGraph;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.search.DefaultSearchIndex;
+import org.vertexium.test.GraphTestBase;
+import org.vertexium.test.util.LargeStringInputStream;
+import org.vertexium.tools.backup.BinaryGraphBackup;
+import org.vertexium.tools.backup.BinaryGraphRestore;
+import org.vertexium.util.IterableUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BinaryBackupRestoreTest {
+    private static final Authorizations AUTHORIZATIONS_A_AND_B = new InMemoryAuthorizations("a", "b");
+    private final JavaVertexiumSerializer serializer = new JavaVertexiumSerializer();
+    private File backupDirectory;
+
+    @Before
+    public void before() throws IOException {
+        backupDirectory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(backupDirectory);
+    }
+
+    protected Graph createGraph() {
+        Map config = new HashMap();
+        config.put("", InMemoryGraph.class.getName());
+        config.put(GraphConfiguration.IDGENERATOR_PROP_PREFIX, UUIDIdGenerator.class.getName());
+        config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, DefaultSearchIndex.class.getName());
+        return new GraphFactory().createGraph(config);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Graph graph = createGraph();
+        Metadata prop1Metadata = new Metadata();
+        prop1Metadata.add("metadata1", "metadata1Value", GraphTestBase.VISIBILITY_A);
+        String expectedLargeValue = IOUtils.toString(new LargeStringInputStream(10000));
+        StreamingPropertyValue largeDataValue = StreamingPropertyValue.create(new ByteArrayInputStream(expectedLargeValue.getBytes()), String.class);
+
+        graph.prepareVertex("v1", GraphTestBase.VISIBILITY_A)
+                .addPropertyValue("id1a", "prop1", "value1a", prop1Metadata, GraphTestBase.VISIBILITY_A)
+                .addPropertyValue("id2", "prop2", 42, GraphTestBase.VISIBILITY_B)
+                .setProperty("largeData", largeDataValue, GraphTestBase.VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.addVertex("v2", GraphTestBase.VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        graph.addVertex("v3", GraphTestBase.VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+        graph.prepareEdge("e1to2", "v1", "v2", "label1", GraphTestBase.VISIBILITY_A)
+                .addPropertyValue("k1", "edgeProp", "edgeValue", GraphTestBase.VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.addEdge("e1to3", "v1", "v3", "label1", GraphTestBase.VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        long written = new BinaryGraphBackup(serializer, 2)
+                .backup(graph, BinaryGraphBackup.getPartitions(graph, Arrays.asList("e1to3", "v2")), null, backupDirectory, AUTHORIZATIONS_A_AND_B);
+        assertEquals(5, written);
+        assertTrue(new File(backupDirectory, BinaryGraphBackup.MANIFEST_FILE_NAME).exists());
+        assertTrue(new File(backupDirectory, "vertex-00002.vbk").exists());
+
+        Graph loadedGraph = createGraph();
+        // a small in memory limit so the large value is restored from a temporary file
+        long restored = new BinaryGraphRestore(serializer, 2, 2, 1000).restore(loadedGraph, backupDirectory, AUTHORIZATIONS_A_AND_B);
+        assertEquals(5, restored);
+
+        assertEquals(3, IterableUtils.count(loadedGraph.getVertices(AUTHORIZATIONS_A_AND_B)));
+        assertEquals(2, IterableUtils.count(loadedGraph.getEdges(AUTHORIZATIONS_A_AND_B)));
+        Vertex v1 = loadedGraph.getVertex("v1", AUTHORIZATIONS_A_AND_B);
+        assertEquals(2, IterableUtils.count(v1.getEdges(Direction.OUT, AUTHORIZATIONS_A_AND_B)));
+        Property prop1 = v1.getProperty("id1a", "prop1");
+        assertEquals("value1a", prop1.getValue());
+        assertEquals("metadata1Value", prop1.getMetadata().getValue("metadata1"));
+        assertEquals(42, v1.getPropertyValue("prop2"));
+        assertEquals(GraphTestBase.VISIBILITY_B, v1.getProperty("prop2").getVisibility());
+        StreamingPropertyValue spv = (StreamingPropertyValue) v1.getPropertyValue("largeData");
+        assertEquals(String.class, spv.getValueType());
+        assertEquals(expectedLargeValue, IOUtils.toString(spv.getInputStream()));
+        Edge e1to2 = loadedGraph.getEdge("e1to2", AUTHORIZATIONS_A_AND_B);
+        assertEquals("label1", e1to2.getLabel());
+        assertEquals("v2", e1to2.getVertexId(Direction.IN));
+        assertEquals("edgeValue", e1to2.getPropertyValue("edgeProp"));
+    }
+
+    @Test
+    public void testIncrementalBackup() throws IOException {
+        Graph graph = createGraph();
+        graph.addVertex("v1", GraphTestBase.VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        graph.addVertex("v2", GraphTestBase.VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+        long since = Math.max(
+                graph.getVertex("v1", AUTHORIZATIONS_A_AND_B).getTimestamp(),
+                graph.getVertex("v2", AUTHORIZATIONS_A_AND_B).getTimestamp()
+        ) + 1;
+        graph.getVertex("v1", AUTHORIZATIONS_A_AND_B)
+                .prepareMutation()
+                .addPropertyValue("k1", "prop1", "changed", new Metadata(), since, GraphTestBase.VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+        graph.prepareVertex("v3", since, GraphTestBase.VISIBILITY_A).save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        long written = new BinaryGraphBackup(serializer, 1)
+                .backup(graph, BinaryGraphBackup.getPartitions(graph, Arrays.asList()), since, backupDirectory, AUTHORIZATIONS_A_AND_B);
+        assertEquals(2, written);
+
+        Graph loadedGraph = createGraph();
+        new BinaryGraphRestore(serializer, 1).restore(loadedGraph, backupDirectory, AUTHORIZATIONS_A_AND_B);
+        assertNull(loadedGraph.getVertex("v2", AUTHORIZATIONS_A_AND_B));
+        assertEquals("changed", loadedGraph.getVertex("v1", AUTHORIZATIONS_A_AND_B).getPropertyValue("prop1"));
+        assertNotNull(loadedGraph.getVertex("v3", AUTHORIZATIONS_A_AND_B));
+    }
+}